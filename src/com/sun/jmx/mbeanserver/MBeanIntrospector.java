@@ -36,7 +36,8 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.Arrays;
 import java.util.List;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.management.Descriptor;
 import javax.management.ImmutableDescriptor;
@@ -73,8 +74,23 @@ import sun.reflect.misc.ReflectUtil;
  * for every Method in every Standard MBean interface.
  */
 abstract class MBeanIntrospector<M> {
+    /*
+     * The PerInterface for an MBean interface is weakly referenced from a
+     * slot attached to the interface itself, so that it can be found
+     * without locking.  Only a thread that finds the slot empty locks it
+     * to build the PerInterface.
+     */
     static final class PerInterfaceMap<M>
-            extends WeakHashMap<Class<?>, WeakReference<PerInterface<M>>> {}
+            extends ClassValue<PerInterfaceMap.Slot<M>> {
+        static final class Slot<M> {
+            volatile WeakReference<PerInterface<M>> ref;
+        }
+
+        @Override
+        protected Slot<M> computeValue(Class<?> mbeanInterface) {
+            return new Slot<M>();
+        }
+    }
 
     /** The map from interface to PerInterface for this type of MBean. */
     abstract PerInterfaceMap<M> getPerInterfaceMap();
@@ -183,10 +199,14 @@ abstract class MBeanIntrospector<M> {
 
     final PerInterface<M> getPerInterface(Class<?> mbeanInterface)
     throws NotCompliantMBeanException {
-        PerInterfaceMap<M> map = getPerInterfaceMap();
-        synchronized (map) {
-            WeakReference<PerInterface<M>> wr = map.get(mbeanInterface);
-            PerInterface<M> pi = (wr == null) ? null : wr.get();
+        PerInterfaceMap.Slot<M> slot = getPerInterfaceMap().get(mbeanInterface);
+        WeakReference<PerInterface<M>> wr = slot.ref;
+        PerInterface<M> pi = (wr == null) ? null : wr.get();
+        if (pi != null)
+            return pi;
+        synchronized (slot) {
+            wr = slot.ref;
+            pi = (wr == null) ? null : wr.get();
             if (pi == null) {
                 try {
                     MBeanAnalyzer<M> analyzer = getAnalyzer(mbeanInterface);
@@ -194,8 +214,7 @@ abstract class MBeanIntrospector<M> {
                             makeInterfaceMBeanInfo(mbeanInterface, analyzer);
                     pi = new PerInterface<M>(mbeanInterface, this, analyzer,
                             mbeanInfo);
-                    wr = new WeakReference<PerInterface<M>>(pi);
-                    map.put(mbeanInterface, wr);
+                    slot.ref = new WeakReference<PerInterface<M>>(pi);
                 } catch (Exception x) {
                     throw Introspector.throwException(mbeanInterface,x);
                 }
@@ -375,12 +394,19 @@ abstract class MBeanIntrospector<M> {
      * javax.management.StandardMBean class.  It is further complicated
      * by the fact that we have to be careful not to retain a strong reference
      * to any Class object for fear we would prevent a ClassLoader from being
-     * garbage-collected.  So we have a first lookup from the base class
-     * to a map for each interface that base class might specify giving
-     * the MBeanInfo constructed for that base class and interface.
+     * garbage-collected.  So we attach to the base class a map for each
+     * interface that base class might specify giving the MBeanInfo
+     * constructed for that base class and interface.  The base class
+     * implements each of those interfaces, so the map does not keep any
+     * Class reachable that the base class does not already keep reachable.
      */
     static class MBeanInfoMap
-            extends WeakHashMap<Class<?>, WeakHashMap<Class<?>, MBeanInfo>> {
+            extends ClassValue<ConcurrentMap<Class<?>, MBeanInfo>> {
+        @Override
+        protected ConcurrentMap<Class<?>, MBeanInfo> computeValue(
+                Class<?> resourceClass) {
+            return new ConcurrentHashMap<Class<?>, MBeanInfo>();
+        }
     }
 
     /**
@@ -413,31 +439,27 @@ abstract class MBeanIntrospector<M> {
      */
     final MBeanInfo getClassMBeanInfo(Class<?> resourceClass,
             PerInterface<M> perInterface) {
-        MBeanInfoMap map = getMBeanInfoMap();
-        synchronized (map) {
-            WeakHashMap<Class<?>, MBeanInfo> intfMap = map.get(resourceClass);
-            if (intfMap == null) {
-                intfMap = new WeakHashMap<Class<?>, MBeanInfo>();
-                map.put(resourceClass, intfMap);
-            }
-            Class<?> intfClass = perInterface.getMBeanInterface();
-            MBeanInfo mbi = intfMap.get(intfClass);
-            if (mbi == null) {
-                MBeanInfo imbi = perInterface.getMBeanInfo();
-                Descriptor descriptor =
-                        ImmutableDescriptor.union(imbi.getDescriptor(),
-                        getMBeanDescriptor(resourceClass));
-                mbi = new MBeanInfo(resourceClass.getName(),
-                        imbi.getDescription(),
-                        imbi.getAttributes(),
-                        findConstructors(resourceClass),
-                        imbi.getOperations(),
-                        (MBeanNotificationInfo[]) null,
-                        descriptor);
-                intfMap.put(intfClass, mbi);
-            }
-            return mbi;
+        ConcurrentMap<Class<?>, MBeanInfo> intfMap =
+                getMBeanInfoMap().get(resourceClass);
+        Class<?> intfClass = perInterface.getMBeanInterface();
+        MBeanInfo mbi = intfMap.get(intfClass);
+        if (mbi == null) {
+            MBeanInfo imbi = perInterface.getMBeanInfo();
+            Descriptor descriptor =
+                    ImmutableDescriptor.union(imbi.getDescriptor(),
+                    getMBeanDescriptor(resourceClass));
+            mbi = new MBeanInfo(resourceClass.getName(),
+                    imbi.getDescription(),
+                    imbi.getAttributes(),
+                    findConstructors(resourceClass),
+                    imbi.getOperations(),
+                    (MBeanNotificationInfo[]) null,
+                    descriptor);
+            MBeanInfo racer = intfMap.putIfAbsent(intfClass, mbi);
+            if (racer != null)
+                mbi = racer;
         }
+        return mbi;
     }
 
     static MBeanNotificationInfo[] findNotifications(Object moi) {
@@ -26,7 +26,6 @@
 package java.beans;
 
 import com.sun.beans.TypeResolver;
-import com.sun.beans.WeakCache;
 import com.sun.beans.finder.ClassFinder;
 
 import java.awt.Component;
@@ -97,7 +96,8 @@ public class Introspector {
     public final static int IGNORE_ALL_BEANINFO        = 3;
 
     // Static Caches to speed up introspection.
-    private static final WeakCache<Class<?>, Method[]> declaredMethodCache = new WeakCache<>();
+    // The cache is replaced as a whole when all caches are flushed.
+    private static volatile ClassValue<Method[]> declaredMethodCache = newDeclaredMethodCache();
 
     private Class beanClass;
     private BeanInfo explicitBeanInfo;
@@ -155,15 +155,10 @@ public class Introspector {
             return (new Introspector(beanClass, null, USE_ALL_BEANINFO)).getBeanInfo();
         }
         ThreadGroupContext context = ThreadGroupContext.getContext();
-        BeanInfo beanInfo;
-        synchronized (declaredMethodCache) {
-            beanInfo = context.getBeanInfo(beanClass);
-        }
+        BeanInfo beanInfo = context.getBeanInfo(beanClass);
         if (beanInfo == null) {
             beanInfo = new Introspector(beanClass, null, USE_ALL_BEANINFO).getBeanInfo();
-            synchronized (declaredMethodCache) {
-                context.putBeanInfo(beanClass, beanInfo);
-            }
+            context.putBeanInfo(beanClass, beanInfo);
         }
         return beanInfo;
     }
@@ -331,10 +326,8 @@ public class Introspector {
      */
 
     public static void flushCaches() {
-        synchronized (declaredMethodCache) {
-            ThreadGroupContext.getContext().clearBeanInfoCache();
-            declaredMethodCache.clear();
-        }
+        ThreadGroupContext.getContext().clearBeanInfoCache();
+        declaredMethodCache = newDeclaredMethodCache();
     }
 
     /**
@@ -356,10 +349,8 @@ public class Introspector {
         if (clz == null) {
             throw new NullPointerException();
         }
-        synchronized (declaredMethodCache) {
-            ThreadGroupContext.getContext().removeBeanInfo(clz);
-            declaredMethodCache.put(clz, null);
-        }
+        ThreadGroupContext.getContext().removeBeanInfo(clz);
+        declaredMethodCache.remove(clz);
     }
 
     //======================================================================
@@ -1274,20 +1265,22 @@ public class Introspector {
         if (!ReflectUtil.isPackageAccessible(clz)) {
             return new Method[0];
         }
-        synchronized (declaredMethodCache) {
-            Method[] result = declaredMethodCache.get(clz);
-            if (result == null) {
-                result = clz.getMethods();
+        return declaredMethodCache.get(clz);
+    }
+
+    private static ClassValue<Method[]> newDeclaredMethodCache() {
+        return new ClassValue<Method[]>() {
+            protected Method[] computeValue(Class<?> clz) {
+                Method[] result = clz.getMethods();
                 for (int i = 0; i < result.length; i++) {
                     Method method = result[i];
                     if (!method.getDeclaringClass().equals(clz)) {
                         result[i] = null;
                     }
                 }
-                declaredMethodCache.put(clz, result);
+                return result;
             }
-            return result;
-        }
+        };
     }
 
     //======================================================================
@@ -29,8 +29,7 @@ import com.sun.beans.finder.BeanInfoFinder;
 import com.sun.beans.finder.PropertyEditorFinder;
 
 import java.awt.GraphicsEnvironment;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * The {@code ThreadGroupContext} is an application-dependent
@@ -64,7 +63,7 @@ final class ThreadGroupContext {
     private volatile boolean isDesignTime;
     private volatile Boolean isGuiAvailable;
 
-    private Map<Class<?>, BeanInfo> beanInfoCache;
+    private volatile ClassValue<AtomicReference<BeanInfo>> beanInfoCache;
     private BeanInfoFinder beanInfoFinder;
     private PropertyEditorFinder propertyEditorFinder;
 
@@ -93,28 +92,36 @@ final class ThreadGroupContext {
 
 
     BeanInfo getBeanInfo(Class<?> type) {
-        return (this.beanInfoCache != null)
-                ? this.beanInfoCache.get(type)
+        ClassValue<AtomicReference<BeanInfo>> cache = this.beanInfoCache;
+        return (cache != null)
+                ? cache.get(type).get()
                 : null;
     }
 
     BeanInfo putBeanInfo(Class<?> type, BeanInfo info) {
-        if (this.beanInfoCache == null) {
-            this.beanInfoCache = new WeakHashMap<>();
-        }
-        return this.beanInfoCache.put(type, info);
+        return getBeanInfoCache().get(type).getAndSet(info);
     }
 
     void removeBeanInfo(Class<?> type) {
-        if (this.beanInfoCache != null) {
-            this.beanInfoCache.remove(type);
+        ClassValue<AtomicReference<BeanInfo>> cache = this.beanInfoCache;
+        if (cache != null) {
+            cache.remove(type);
         }
     }
 
     void clearBeanInfoCache() {
-        if (this.beanInfoCache != null) {
-            this.beanInfoCache.clear();
+        this.beanInfoCache = null;
+    }
+
+    private synchronized ClassValue<AtomicReference<BeanInfo>> getBeanInfoCache() {
+        if (this.beanInfoCache == null) {
+            this.beanInfoCache = new ClassValue<AtomicReference<BeanInfo>>() {
+                protected AtomicReference<BeanInfo> computeValue(Class<?> type) {
+                    return new AtomicReference<>();
+                }
+            };
         }
+        return this.beanInfoCache;
     }
 
 
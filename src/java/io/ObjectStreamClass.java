@@ -85,17 +85,27 @@ public class ObjectStreamClass implements Serializable {
             new ReflectionFactory.GetReflectionFactoryAction());
 
     private static class Caches {
-        /** cache mapping local classes -> descriptors */
-        static final ConcurrentMap<WeakClassKey,Reference<?>> localDescs =
-            new ConcurrentHashMap<>();
+        /**
+         * cache mapping local classes -> descriptors (or the exceptions
+         * thrown while creating them), softly held
+         */
+        static final ClassValue<SoftReference<?>> localDescs =
+            new ClassValue<SoftReference<?>>() {
+                protected SoftReference<?> computeValue(Class<?> type) {
+                    Object entry;
+                    try {
+                        entry = new ObjectStreamClass(type);
+                    } catch (Throwable th) {
+                        entry = th;
+                    }
+                    return new SoftReference<>(entry);
+                }
+            };
 
         /** cache mapping field group/local desc pairs -> field reflectors */
         static final ConcurrentMap<FieldReflectorKey,Reference<?>> reflectors =
             new ConcurrentHashMap<>();
 
-        /** queue for WeakReferences to local classes */
-        private static final ReferenceQueue<Class<?>> localDescsQueue =
-            new ReferenceQueue<>();
         /** queue for WeakReferences to field reflectors keys */
         private static final ReferenceQueue<Class<?>> reflectorsQueue =
             new ReferenceQueue<>();
@@ -318,60 +328,21 @@ public class ObjectStreamClass implements Serializable {
         if (!(all || Serializable.class.isAssignableFrom(cl))) {
             return null;
         }
-        processQueue(Caches.localDescsQueue, Caches.localDescs);
-        WeakClassKey key = new WeakClassKey(cl, Caches.localDescsQueue);
-        Reference<?> ref = Caches.localDescs.get(key);
-        Object entry = null;
-        if (ref != null) {
+        /*
+         * Cached descriptors are read without locking.  Racing or nested
+         * (4803747) lookups of an uncached class may each create a
+         * descriptor, but all of them are handed the first one installed.
+         * If the descriptor has been reclaimed under memory pressure, drop
+         * the cleared reference and create it again.
+         */
+        Object entry;
+        for (;;) {
+            SoftReference<?> ref = Caches.localDescs.get(cl);
             entry = ref.get();
-        }
-        EntryFuture future = null;
-        if (entry == null) {
-            EntryFuture newEntry = new EntryFuture();
-            Reference<?> newRef = new SoftReference<>(newEntry);
-            do {
-                if (ref != null) {
-                    Caches.localDescs.remove(key, ref);
-                }
-                ref = Caches.localDescs.putIfAbsent(key, newRef);
-                if (ref != null) {
-                    entry = ref.get();
-                }
-            } while (ref != null && entry == null);
-            if (entry == null) {
-                future = newEntry;
-            }
-        }
-
-        if (entry instanceof ObjectStreamClass) {  // check common case first
-            return (ObjectStreamClass) entry;
-        }
-        if (entry instanceof EntryFuture) {
-            future = (EntryFuture) entry;
-            if (future.getOwner() == Thread.currentThread()) {
-                /*
-                 * Handle nested call situation described by 4803747: waiting
-                 * for future value to be set by a lookup() call further up the
-                 * stack will result in deadlock, so calculate and set the
-                 * future value here instead.
-                 */
-                entry = null;
-            } else {
-                entry = future.get();
-            }
-        }
-        if (entry == null) {
-            try {
-                entry = new ObjectStreamClass(cl);
-            } catch (Throwable th) {
-                entry = th;
-            }
-            if (future.set(entry)) {
-                Caches.localDescs.put(key, new SoftReference<Object>(entry));
-            } else {
-                // nested lookup call already set future
-                entry = future.get();
+            if (entry != null) {
+                break;
             }
+            Caches.localDescs.remove(cl);
         }
 
         if (entry instanceof ObjectStreamClass) {
@@ -386,7 +357,7 @@ public class ObjectStreamClass implements Serializable {
     }
 
     /**
-     * Placeholder used in class descriptor and field reflector lookup tables
+     * Placeholder used in the field reflector lookup table
      * for an entry in the process of being initialized.  (Internal) callers
      * which receive an EntryFuture belonging to another thread as the result
      * of a lookup should call the get() method of the EntryFuture; this will
@@ -671,7 +671,8 @@ abstract class AbstractStringBuilder implements Appendable, CharSequence {
      * @return  a reference to this object.
      */
     public AbstractStringBuilder append(double d) {
-        new FloatingDecimal(d).appendTo(this);
+        ensureCapacityInternal(count + DoubleToDecimal.MAX_CHARS);
+        count += DoubleToDecimal.toChars(d, value, count);
         return this;
     }
 
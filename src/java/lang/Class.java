@@ -1933,7 +1933,8 @@ public final
         // checkMemberAccess call for security reasons
         // see java.lang.SecurityManager.checkMemberAccess
         checkMemberAccess(Member.DECLARED, Reflection.getCallerClass(), true);
-        Field field = searchFields(privateGetDeclaredFields(false), name);
+        Field field = searchFields(privateGetDeclaredFields(false),
+                                   DECLARED_FIELDS, name);
         if (field == null) {
             throw new NoSuchFieldException(name);
         }
@@ -1989,7 +1990,8 @@ public final
         // checkMemberAccess call for security reasons
         // see java.lang.SecurityManager.checkMemberAccess
         checkMemberAccess(Member.DECLARED, Reflection.getCallerClass(), true);
-        Method method = searchMethods(privateGetDeclaredMethods(false), name, parameterTypes);
+        Method method = searchMethods(privateGetDeclaredMethods(false),
+                                      DECLARED_METHODS, name, parameterTypes);
         if (method == null) {
             throw new NoSuchMethodException(getName() + "." + name + argumentTypesToString(parameterTypes));
         }
@@ -2303,6 +2305,8 @@ public final
     // Intermediate results for getFields and getMethods
     private volatile transient SoftReference<Field[]> declaredPublicFields;
     private volatile transient SoftReference<Method[]> declaredPublicMethods;
+    // Indexes of the arrays above for the lookup of single members
+    private volatile transient SoftReference<MemberIndex[]> memberIndexes;
 
     // Incremented by the VM on each call to JVM TI RedefineClasses()
     // that redefines this class or a superclass.
@@ -2319,6 +2323,7 @@ public final
             declaredFields = publicFields = declaredPublicFields = null;
             declaredMethods = publicMethods = declaredPublicMethods = null;
             declaredConstructors = publicConstructors = null;
+            memberIndexes = null;
             annotations = declaredAnnotations = null;
 
             // Use of "volatile" (and synchronization by caller in the case
@@ -2689,14 +2694,20 @@ public final
     // Helpers for fetchers of one field, method, or constructor
     //
 
-    private Field searchFields(Field[] fields, String name) {
-        String internedName = name.intern();
-        for (int i = 0; i < fields.length; i++) {
-            if (fields[i].getName() == internedName) {
-                return getReflectionFactory().copyField(fields[i]);
+    private Field searchFields(Field[] fields, int kind, String name) {
+        MemberIndex index = index(fields, kind);
+        if (index == null) {
+            String internedName = name.intern();
+            for (int i = 0; i < fields.length; i++) {
+                if (fields[i].getName() == internedName) {
+                    return getReflectionFactory().copyField(fields[i]);
+                }
             }
+            return null;
         }
-        return null;
+        MemberIndex.Entry e = index.get(name);
+        return (e == null) ? null
+                           : getReflectionFactory().copyField((Field) e.member);
     }
 
     private Field getField0(String name) throws NoSuchFieldException {
@@ -2709,7 +2720,8 @@ public final
         // class which is being queried.
         Field res = null;
         // Search declared public fields
-        if ((res = searchFields(privateGetDeclaredFields(true), name)) != null) {
+        if ((res = searchFields(privateGetDeclaredFields(true),
+                                DECLARED_PUBLIC_FIELDS, name)) != null) {
             return res;
         }
         // Direct superinterfaces, recursively
@@ -2732,19 +2744,31 @@ public final
         return null;
     }
 
-    private static Method searchMethods(Method[] methods,
-                                        String name,
-                                        Class<?>[] parameterTypes)
+    private Method searchMethods(Method[] methods,
+                                 int kind,
+                                 String name,
+                                 Class<?>[] parameterTypes)
     {
         Method res = null;
-        String internedName = name.intern();
-        for (int i = 0; i < methods.length; i++) {
-            Method m = methods[i];
-            if (m.getName() == internedName
-                && arrayContentsEq(parameterTypes, m.getParameterTypes())
-                && (res == null
-                    || res.getReturnType().isAssignableFrom(m.getReturnType())))
-                res = m;
+        MemberIndex index = index(methods, kind);
+        if (index == null) {
+            String internedName = name.intern();
+            for (int i = 0; i < methods.length; i++) {
+                Method m = methods[i];
+                if (m.getName() == internedName
+                    && arrayContentsEq(parameterTypes, m.getParameterTypes())
+                    && (res == null
+                        || res.getReturnType().isAssignableFrom(m.getReturnType())))
+                    res = m;
+            }
+        } else {
+            for (MemberIndex.Entry e = index.get(name); e != null; e = e.next) {
+                Method m = (Method) e.member;
+                if (arrayContentsEq(parameterTypes, e.parameterTypes)
+                    && (res == null
+                        || res.getReturnType().isAssignableFrom(m.getReturnType())))
+                    res = m;
+            }
         }
 
         return (res == null ? res : getReflectionFactory().copyMethod(res));
@@ -2762,6 +2786,7 @@ public final
         Method res = null;
         // Search declared public methods
         if ((res = searchMethods(privateGetDeclaredMethods(true),
+                                 DECLARED_PUBLIC_METHODS,
                                  name,
                                  parameterTypes)) != null) {
             return res;
@@ -2790,16 +2815,109 @@ public final
     private Constructor<T> getConstructor0(Class<?>[] parameterTypes,
                                         int which) throws NoSuchMethodException
     {
-        Constructor<T>[] constructors = privateGetDeclaredConstructors((which == Member.PUBLIC));
-        for (Constructor<T> constructor : constructors) {
-            if (arrayContentsEq(parameterTypes,
-                                constructor.getParameterTypes())) {
-                return getReflectionFactory().copyConstructor(constructor);
+        boolean publicOnly = (which == Member.PUBLIC);
+        Constructor<T>[] constructors = privateGetDeclaredConstructors(publicOnly);
+        MemberIndex index = index(constructors, publicOnly
+                                  ? PUBLIC_CONSTRUCTORS
+                                  : DECLARED_CONSTRUCTORS);
+        if (index == null) {
+            for (Constructor<T> constructor : constructors) {
+                if (arrayContentsEq(parameterTypes,
+                                    constructor.getParameterTypes())) {
+                    return getReflectionFactory().copyConstructor(constructor);
+                }
+            }
+        } else if (constructors.length > 0) {
+            for (MemberIndex.Entry e = index.get(constructors[0].getName());
+                 e != null; e = e.next) {
+                if (arrayContentsEq(parameterTypes, e.parameterTypes)) {
+                    @SuppressWarnings("unchecked")
+                    Constructor<T> constructor = (Constructor<T>) e.member;
+                    return getReflectionFactory().copyConstructor(constructor);
+                }
             }
         }
         throw new NoSuchMethodException(getName() + ".<init>" + argumentTypesToString(parameterTypes));
     }
 
+    // Kinds of root member arrays, see index()
+    private static final int DECLARED_FIELDS = 0;
+    private static final int DECLARED_PUBLIC_FIELDS = 1;
+    private static final int DECLARED_METHODS = 2;
+    private static final int DECLARED_PUBLIC_METHODS = 3;
+    private static final int DECLARED_CONSTRUCTORS = 4;
+    private static final int PUBLIC_CONSTRUCTORS = 5;
+
+    // Returns the index of an array of root members of the given kind,
+    // as returned by privateGetDeclaredFields, privateGetDeclaredMethods
+    // or privateGetDeclaredConstructors. The index is rebuilt whenever
+    // the array it was built from is no longer the cached one. Returns
+    // null if caches are not used, as the arrays themselves are then
+    // fetched anew on each call and a linear scan is cheaper.
+    private MemberIndex index(Member[] members, int kind) {
+        if (!useCaches) {
+            return null;
+        }
+        MemberIndex[] indexes = null;
+        if (memberIndexes != null) {
+            indexes = memberIndexes.get();
+        }
+        if (indexes == null) {
+            indexes = new MemberIndex[PUBLIC_CONSTRUCTORS + 1];
+            memberIndexes = new SoftReference<>(indexes);
+        }
+        MemberIndex index = indexes[kind];
+        if (index == null || index.members != members) {
+            index = new MemberIndex(members);
+            indexes[kind] = index;
+        }
+        return index;
+    }
+
+    // Root members by name, so that fetching one does neither search
+    // all members nor copy their parameter types. Instances are
+    // immutable and may be published without synchronization.
+    private static final class MemberIndex {
+        static final class Entry {
+            final Member member;
+            // Not copied, must not be propagated to the outside world
+            final Class<?>[] parameterTypes;
+            // The next member of the same name, in declaration order
+            final Entry next;
+
+            Entry(Member member, Class<?>[] parameterTypes, Entry next) {
+                this.member = member;
+                this.parameterTypes = parameterTypes;
+                this.next = next;
+            }
+        }
+
+        final Member[] members;
+        private final HashMap<String, Entry> entries;
+
+        MemberIndex(Member[] members) {
+            this.members = members;
+            entries = new HashMap<>(members.length * 4 / 3 + 1);
+            for (int i = members.length - 1; i >= 0; i--) {
+                Member m = members[i];
+                Class<?>[] parameterTypes = null;
+                if (m instanceof Method) {
+                    parameterTypes = ((Method) m).getParameterTypes();
+                } else if (m instanceof Constructor) {
+                    parameterTypes = ((Constructor<?>) m).getParameterTypes();
+                }
+                String name = m.getName();
+                entries.put(name, new Entry(m, parameterTypes, entries.get(name)));
+            }
+        }
+
+        Entry get(String name) {
+            if (name == null)
+                throw new NullPointerException();
+            return entries.get(name);
+        }
+    }
+
     //
     // Other helpers and base implementation
     //
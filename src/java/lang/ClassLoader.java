@@ -428,6 +428,7 @@ public abstract class ClassLoader {
                     sun.misc.PerfCounter.getFindClassTime().addElapsedTimeFrom(t1);
                     sun.misc.PerfCounter.getFindClasses().increment();
                 }
+                ClassPreloader.loaded(this, name);
             }
             if (resolve) {
                 resolveClass(c);
@@ -468,6 +469,11 @@ public abstract class ClassLoader {
         return lock;
     }
 
+    // Returns true if this class loader is registered as parallel capable.
+    boolean isParallelCapable() {
+        return parallelLockMap != null;
+    }
+
     // This method is invoked by the virtual machine to load a class.
     private Class loadClassInternal(String name)
         throws ClassNotFoundException
@@ -1501,6 +1507,7 @@ public abstract class ClassLoader {
                 }
             }
             sclSet = true;
+            ClassPreloader.start(scl);
         }
     }
 
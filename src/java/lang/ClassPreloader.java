@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+
+package java.lang;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records the classes loaded through the system class loader during a run,
+ * and replays such a list on a later run.
+ * <p>
+ * If the system property {@code sun.lang.ClassLoader.classListDump} names a
+ * file, the binary name of every class that the system class loader is asked
+ * to load, and that it finds, is written to that file when the VM shuts down,
+ * one per line, in the order in which the classes were first loaded. Lines
+ * starting with {@code '#'} at the head of an existing file are kept, so
+ * that the launcher can stamp the list with the class path it applies to.
+ * <p>
+ * If the system property {@code sun.lang.ClassLoader.classList} names such a
+ * file, and the system class loader is parallel capable, the classes it lists
+ * are loaded, without being initialized, by a pool of daemon threads as soon
+ * as the system class loader has been set up. The number of threads is given
+ * by {@code sun.lang.ClassLoader.preloadThreads} and defaults to one less
+ * than the number of processors, and at least one. Each class is loaded by
+ * {@link Class#forName(String, boolean, ClassLoader)}, and so under the lock
+ * returned by {@link ClassLoader#getClassLoadingLock}: when the main thread
+ * asks for a class that is being preloaded it waits for that load to finish
+ * rather than repeat it. Classes that cannot be found or linked are skipped,
+ * as the main thread will report the same error when it needs them.
+ */
+final class ClassPreloader {
+
+    private ClassPreloader() { }
+
+    /* The recorder of the running VM, or null if not recording */
+    private static volatile Recorder recorder;
+
+    /**
+     * Starts recording and replaying as the system properties ask.
+     * Invoked once, when the system class loader has been set.
+     */
+    static void start(final ClassLoader loader) {
+        if (loader == null) {
+            return;
+        }
+        AccessController.doPrivileged(new PrivilegedAction<Void>() {
+            public Void run() {
+                String dump = System.getProperty(
+                    "sun.lang.ClassLoader.classListDump");
+                String list = System.getProperty(
+                    "sun.lang.ClassLoader.classList");
+                if (dump != null && dump.length() > 0) {
+                    Recorder r = new Recorder(loader, dump);
+                    Runtime.getRuntime().addShutdownHook(
+                        new Thread(r, "Class List Recorder"));
+                    recorder = r;
+                }
+                if (list != null && list.length() > 0
+                        && loader.isParallelCapable()) {
+                    replay(loader, list);
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Notes that the specified class loader has loaded the named class.
+     * Invoked by {@link ClassLoader#loadClass(String, boolean)} the first
+     * time a loader finds a class.
+     */
+    static void loaded(ClassLoader loader, String name) {
+        Recorder r = recorder;
+        if (r != null && r.loader == loader) {
+            r.add(name);
+        }
+    }
+
+    private static void replay(final ClassLoader loader, String file) {
+        final String[] names;
+        try {
+            names = read(file);
+        } catch (IOException x) {
+            // No list, nothing to preload
+            return;
+        }
+        if (names.length == 0) {
+            return;
+        }
+        int n = Runtime.getRuntime().availableProcessors() - 1;
+        Integer threads = Integer.getInteger(
+            "sun.lang.ClassLoader.preloadThreads");
+        if (threads != null) {
+            n = threads.intValue();
+        }
+        n = Math.max(1, Math.min(n, names.length));
+        final AtomicInteger next = new AtomicInteger();
+        Runnable task = new Runnable() {
+            public void run() {
+                int i;
+                while ((i = next.getAndIncrement()) < names.length) {
+                    try {
+                        Class.forName(names[i], false, loader);
+                    } catch (ClassNotFoundException | LinkageError e) {
+                        // left for the main thread to report
+                    }
+                }
+            }
+        };
+        for (int i = 0; i < n; i++) {
+            Thread t = new Thread(task, "Class Preloader-" + i);
+            t.setDaemon(true);
+            t.setContextClassLoader(loader);
+            t.start();
+        }
+    }
+
+    private static String[] read(String file) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(
+                 new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                line = line.trim();
+                if (line.length() > 0 && line.charAt(0) != '#') {
+                    names.add(line);
+                }
+            }
+        }
+        return names.toArray(new String[names.size()]);
+    }
+
+    /*
+     * Collects the names of the classes loaded by one class loader and
+     * writes them out when run as a shutdown hook.
+     */
+    private static final class Recorder implements Runnable {
+        final ClassLoader loader;
+        private final String file;
+        private final LinkedHashSet<String> names = new LinkedHashSet<>();
+
+        Recorder(ClassLoader loader, String file) {
+            this.loader = loader;
+            this.file = file;
+        }
+
+        synchronized void add(String name) {
+            names.add(name);
+        }
+
+        public void run() {
+            String[] list;
+            synchronized (this) {
+                list = names.toArray(new String[names.size()]);
+            }
+            List<String> header = new ArrayList<>();
+            try (BufferedReader r = new BufferedReader(new InputStreamReader(
+                     new FileInputStream(file), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = r.readLine()) != null && line.startsWith("#"))
+                    header.add(line);
+            } catch (IOException x) {
+                // No header to keep
+            }
+            try (Writer w = new BufferedWriter(new OutputStreamWriter(
+                     new FileOutputStream(file), StandardCharsets.UTF_8))) {
+                for (String line : header) {
+                    w.write(line);
+                    w.write('\n');
+                }
+                for (String name : list) {
+                    w.write(name);
+                    w.write('\n');
+                }
+            } catch (IOException x) {
+                // Nothing to be done at shutdown
+            }
+        }
+    }
+}
@@ -401,6 +401,9 @@ public abstract class ClassValue<T> {
     /** A backing map for all ClassValues, relative a single given type.
      *  Gives a fully serialized "true state" for each pair (ClassValue cv, Class type).
      *  Also manages an unserialized fast-path cache.
+     *  Every live entry is kept in the cache (which grows as needed),
+     *  so that reads of computed values do not normally take the map lock,
+     *  except for the first read after a {@code remove} or {@code put}.
      */
     static class ClassValueMap extends WeakHashMap<ClassValue.Identity, Entry<?>> {
         private final Class<?> type;
@@ -600,6 +603,14 @@ public abstract class ClassValue<T> {
             removeStaleEntries();
             if (cacheLoad < cacheLoadLimit)
                 return;  // win
+            growCache(null);
+        }
+
+        /** Double the cache and re-enter all of its live entries,
+         *  plus the given extra entry, if it is not null.
+         *  If the cache cannot grow any more, the extra entry is dropped.
+         */
+        private void growCache(Entry<?> extra) {
             Entry<?>[] oldCache = getCache();
             if (oldCache.length > HASH_MASK)
                 return;  // lose
@@ -609,6 +620,8 @@ public abstract class ClassValue<T> {
                     addToCache(e);
                 }
             }
+            if (extra != null && extra.isLive())
+                addToCache(extra);
         }
 
         /** Remove stale entries in the given range.
@@ -713,7 +726,10 @@ public abstract class ClassValue<T> {
                     }
                 }
             }
-            // Note:  At this point, e2 is just dropped from the cache.
+            // Do not drop the live victim e2:  every live entry which can
+            // be found in the cache is read without taking the map lock.
+            // A full probe range is rare, so make room for everybody.
+            growCache(e2);
         }
 
         /** Store the given entry.  Update cacheLoad, and return any live victim.
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.lang;
+
+/**
+ * Parses decimal floating-point literals out of a range of a
+ * {@code CharSequence} or of an array of US-ASCII bytes without first
+ * copying the range into a {@code String}.
+ * <p>
+ * Only the plain form {@code [+-]digits[.digits][(e|E)[+-]digits]} whose
+ * value can be computed exactly is handled here: at most 18 significant
+ * digits that fit the 53-bit significand of a {@code double}, scaled by a
+ * power of ten that is itself exactly representable, so that a single
+ * correctly rounded multiplication or division gives the correctly
+ * rounded result (W. D. Clinger, "How to read floating point numbers
+ * accurately", PLDI 1990).  Everything else, including whitespace,
+ * {@code NaN}, {@code Infinity}, hexadecimal literals, type suffixes and
+ * malformed input, is handed to {@link Double#parseDouble(String)} on a
+ * copy of the range, so the results and exceptions are always those of
+ * {@code parseDouble}.
+ *
+ * @since 1.8
+ */
+final class DecimalToDouble {
+
+    private DecimalToDouble() {
+    }
+
+    /** 2^53, the bound below which longs convert to double exactly. */
+    private static final long MAX_EXACT = 1L << 53;
+
+    /** Largest power of ten that is exactly representable as a double. */
+    private static final int MAX_EXACT_POW10 = 22;
+
+    /** Bound on the exponent field, to avoid int overflow while scanning. */
+    private static final int MAX_EXPONENT = 100_000;
+
+    private static final double[] POW10 = {
+        1e0,  1e1,  1e2,  1e3,  1e4,  1e5,  1e6,  1e7,
+        1e8,  1e9,  1e10, 1e11, 1e12, 1e13, 1e14, 1e15,
+        1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22,
+    };
+
+    static double parse(CharSequence s, int beginIndex, int endIndex) {
+        int i = beginIndex;
+        boolean negative = false;
+        if (i < endIndex) {
+            char c = s.charAt(i);
+            if (c == '-' || c == '+') {
+                negative = c == '-';
+                i++;
+            }
+        }
+        long m = 0;
+        int digits = 0;         // significant digits accumulated in m
+        int scale = 0;          // digits after the point, or dropped zeros
+        boolean any = false;    // at least one mantissa digit seen
+        while (i < endIndex) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9')
+                break;
+            any = true;
+            if (m != 0 || c != '0') {
+                if (++digits > 18)
+                    return slowPath(s, beginIndex, endIndex);
+                m = 10 * m + (c - '0');
+            }
+            i++;
+        }
+        if (i < endIndex && s.charAt(i) == '.') {
+            i++;
+            while (i < endIndex) {
+                char c = s.charAt(i);
+                if (c < '0' || c > '9')
+                    break;
+                any = true;
+                if (m != 0 || c != '0') {
+                    if (++digits > 18)
+                        return slowPath(s, beginIndex, endIndex);
+                    m = 10 * m + (c - '0');
+                }
+                scale++;
+                i++;
+            }
+        }
+        if (!any)
+            return slowPath(s, beginIndex, endIndex);
+        int exp = 0;
+        if (i < endIndex && (s.charAt(i) | 0x20) == 'e') {
+            i++;
+            boolean negExp = false;
+            if (i < endIndex) {
+                char c = s.charAt(i);
+                if (c == '-' || c == '+') {
+                    negExp = c == '-';
+                    i++;
+                }
+            }
+            int start = i;
+            while (i < endIndex) {
+                char c = s.charAt(i);
+                if (c < '0' || c > '9' || exp >= MAX_EXPONENT)
+                    break;
+                exp = 10 * exp + (c - '0');
+                i++;
+            }
+            if (i == start)
+                return slowPath(s, beginIndex, endIndex);
+            if (negExp)
+                exp = -exp;
+        }
+        if (i != endIndex)
+            return slowPath(s, beginIndex, endIndex);
+        double d = exact(m, exp - scale);
+        if (d != d)
+            return slowPath(s, beginIndex, endIndex);
+        return negative ? -d : d;
+    }
+
+    static double parse(byte[] b, int beginIndex, int endIndex) {
+        int i = beginIndex;
+        boolean negative = false;
+        if (i < endIndex) {
+            byte c = b[i];
+            if (c == '-' || c == '+') {
+                negative = c == '-';
+                i++;
+            }
+        }
+        long m = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean any = false;
+        while (i < endIndex) {
+            byte c = b[i];
+            if (c < '0' || c > '9')
+                break;
+            any = true;
+            if (m != 0 || c != '0') {
+                if (++digits > 18)
+                    return slowPath(b, beginIndex, endIndex);
+                m = 10 * m + (c - '0');
+            }
+            i++;
+        }
+        if (i < endIndex && b[i] == '.') {
+            i++;
+            while (i < endIndex) {
+                byte c = b[i];
+                if (c < '0' || c > '9')
+                    break;
+                any = true;
+                if (m != 0 || c != '0') {
+                    if (++digits > 18)
+                        return slowPath(b, beginIndex, endIndex);
+                    m = 10 * m + (c - '0');
+                }
+                scale++;
+                i++;
+            }
+        }
+        if (!any)
+            return slowPath(b, beginIndex, endIndex);
+        int exp = 0;
+        if (i < endIndex && (b[i] | 0x20) == 'e') {
+            i++;
+            boolean negExp = false;
+            if (i < endIndex) {
+                byte c = b[i];
+                if (c == '-' || c == '+') {
+                    negExp = c == '-';
+                    i++;
+                }
+            }
+            int start = i;
+            while (i < endIndex) {
+                byte c = b[i];
+                if (c < '0' || c > '9' || exp >= MAX_EXPONENT)
+                    break;
+                exp = 10 * exp + (c - '0');
+                i++;
+            }
+            if (i == start)
+                return slowPath(b, beginIndex, endIndex);
+            if (negExp)
+                exp = -exp;
+        }
+        if (i != endIndex)
+            return slowPath(b, beginIndex, endIndex);
+        double d = exact(m, exp - scale);
+        if (d != d)
+            return slowPath(b, beginIndex, endIndex);
+        return negative ? -d : d;
+    }
+
+    /**
+     * Returns m 10^e if it can be computed with a single rounding, or NaN
+     * if the slow path must be taken.
+     */
+    private static double exact(long m, int e) {
+        if (m == 0)
+            return 0.0;
+        if (m >= MAX_EXACT)
+            return Double.NaN;
+        if (e < 0) {
+            if (e < -MAX_EXACT_POW10)
+                return Double.NaN;
+            return m / POW10[-e];
+        }
+        if (e > MAX_EXACT_POW10) {
+            // Move the excess into the significand while it stays exact
+            while (e > MAX_EXACT_POW10) {
+                if (m >= MAX_EXACT / 10)
+                    return Double.NaN;
+                m *= 10;
+                e--;
+            }
+        }
+        return m * POW10[e];
+    }
+
+    private static double slowPath(CharSequence s, int beginIndex, int endIndex) {
+        return Double.parseDouble(s.subSequence(beginIndex, endIndex).toString());
+    }
+
+    @SuppressWarnings("deprecation")
+    private static double slowPath(byte[] b, int beginIndex, int endIndex) {
+        return Double.parseDouble(new String(b, 0, beginIndex, endIndex - beginIndex));
+    }
+}
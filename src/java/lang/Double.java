@@ -193,7 +193,62 @@ public final class Double extends Number implements Comparable<Double> {
      * @return a string representation of the argument.
      */
     public static String toString(double d) {
-        return new FloatingDecimal(d).toJavaFormatString();
+        return DoubleToDecimal.toString(d);
+    }
+
+    /**
+     * Writes the characters of the string representation of the
+     * {@code double} argument, exactly as produced by
+     * {@link #toString(double)}, into {@code dst} beginning at index
+     * {@code dstBegin}, and returns the number of characters written.
+     * No intermediate {@code String} or other object is created as long
+     * as at least 24 characters, the length of the longest representation,
+     * are available in {@code dst}.
+     *
+     * @param   d          the {@code double} to be converted.
+     * @param   dst        the destination array.
+     * @param   dstBegin   the start offset in the destination array.
+     * @return  the number of characters written.
+     * @throws  NullPointerException  if {@code dst} is null.
+     * @throws  IndexOutOfBoundsException  if {@code dstBegin} is negative
+     *          or the representation does not fit in {@code dst} from
+     *          {@code dstBegin} on.
+     * @since   1.8
+     */
+    public static int toChars(double d, char[] dst, int dstBegin) {
+        if (dstBegin < 0 || dstBegin > dst.length)
+            throw new IndexOutOfBoundsException();
+        if (dst.length - dstBegin >= DoubleToDecimal.MAX_CHARS)
+            return DoubleToDecimal.toChars(d, dst, dstBegin);
+        // Not enough room for the longest representation, check this one
+        char[] buf = new char[DoubleToDecimal.MAX_CHARS];
+        int len = DoubleToDecimal.toChars(d, buf, 0);
+        if (dst.length - dstBegin < len)
+            throw new IndexOutOfBoundsException();
+        System.arraycopy(buf, 0, dst, dstBegin, len);
+        return len;
+    }
+
+    /**
+     * Writes the string representation of the {@code double} argument,
+     * exactly as produced by {@link #toString(double)}, into the given
+     * buffer as US-ASCII bytes, starting at its current position.  The
+     * position is then incremented by the number of bytes written.  Direct
+     * buffers are written in place, and no intermediate {@code String} or
+     * other object is created as long as at least 24 bytes remain in
+     * {@code dst}.
+     *
+     * @param   d     the {@code double} to be converted.
+     * @param   dst   the destination buffer.
+     * @throws  java.nio.BufferOverflowException  if there is insufficient
+     *          space remaining in {@code dst}; in that case nothing is
+     *          written.
+     * @throws  java.nio.ReadOnlyBufferException  if {@code dst} is
+     *          read-only.
+     * @since   1.8
+     */
+    public static void toBytes(double d, java.nio.ByteBuffer dst) {
+        DoubleToDecimal.toBytes(d, dst);
     }
 
     /**
@@ -540,6 +595,68 @@ public final class Double extends Number implements Comparable<Double> {
         return FloatingDecimal.readJavaFormatString(s).doubleValue();
     }
 
+    /**
+     * Returns a new {@code double} initialized to the value represented
+     * by the specified range of a {@code CharSequence}, beginning at
+     * {@code beginIndex} and extending to {@code endIndex - 1}.
+     *
+     * <p>The result is the same as that of {@link #parseDouble(String)
+     * parseDouble}{@code (s.subSequence(beginIndex, endIndex).toString())}.
+     * Plain decimal input, such as {@code "-12.5e3"}, whose value can be
+     * computed exactly is converted in place without creating any object;
+     * other input is copied and handed to {@code parseDouble(String)}.
+     *
+     * @param  s            the sequence containing the text to be parsed.
+     * @param  beginIndex   the beginning index, inclusive.
+     * @param  endIndex     the ending index, exclusive.
+     * @return the {@code double} value represented by the range.
+     * @throws NullPointerException  if {@code s} is null.
+     * @throws IndexOutOfBoundsException  if {@code beginIndex} is negative,
+     *         or if {@code beginIndex} is greater than {@code endIndex} or
+     *         if {@code endIndex} is greater than {@code s.length()}.
+     * @throws NumberFormatException if the range does not contain a
+     *         parsable {@code double}.
+     * @since 1.8
+     */
+    public static double parseDouble(CharSequence s, int beginIndex, int endIndex)
+        throws NumberFormatException {
+        if (s == null)
+            throw new NullPointerException();
+        if (beginIndex < 0 || beginIndex > endIndex || endIndex > s.length())
+            throw new IndexOutOfBoundsException();
+        return DecimalToDouble.parse(s, beginIndex, endIndex);
+    }
+
+    /**
+     * Returns a new {@code double} initialized to the value represented
+     * by the specified range of an array of US-ASCII bytes, beginning at
+     * {@code beginIndex} and extending to {@code endIndex - 1}.
+     *
+     * <p>Each byte is interpreted as the character with the same value in
+     * ISO-8859-1, and the result is then the same as that of
+     * {@link #parseDouble(String) parseDouble} applied to the resulting
+     * string.  Plain decimal input whose value can be computed exactly is
+     * converted in place without creating any object.
+     *
+     * @param  bytes        the array containing the text to be parsed.
+     * @param  beginIndex   the beginning index, inclusive.
+     * @param  endIndex     the ending index, exclusive.
+     * @return the {@code double} value represented by the range.
+     * @throws NullPointerException  if {@code bytes} is null.
+     * @throws IndexOutOfBoundsException  if {@code beginIndex} is negative,
+     *         or if {@code beginIndex} is greater than {@code endIndex} or
+     *         if {@code endIndex} is greater than {@code bytes.length}.
+     * @throws NumberFormatException if the range does not contain a
+     *         parsable {@code double}.
+     * @since 1.8
+     */
+    public static double parseDouble(byte[] bytes, int beginIndex, int endIndex)
+        throws NumberFormatException {
+        if (beginIndex < 0 || beginIndex > endIndex || endIndex > bytes.length)
+            throw new IndexOutOfBoundsException();
+        return DecimalToDouble.parse(bytes, beginIndex, endIndex);
+    }
+
     /**
      * Returns {@code true} if the specified number is a
      * Not-a-Number (NaN) value, {@code false} otherwise.
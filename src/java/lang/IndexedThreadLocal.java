@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+
+package java.lang;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A thread-local variable whose per-thread values are held in a dense
+ * array attached to each thread, rather than in the hash map used by
+ * {@link ThreadLocal}. Each <tt>IndexedThreadLocal</tt> is assigned a
+ * fixed index into that array when it is constructed, so that
+ * {@link #get} is a bounds check and an array read.
+ *
+ * <p>The index of an <tt>IndexedThreadLocal</tt> is never reused, and
+ * the array of every thread that sets a value grows to cover it. This
+ * class is therefore meant for thread-locals held in static fields, of
+ * which there is a bounded number; a thread-local created per object
+ * should remain a <tt>ThreadLocal</tt>. Unlike a <tt>ThreadLocal</tt>,
+ * the values of an <tt>IndexedThreadLocal</tt> that is no longer
+ * reachable are not reclaimed until they are {@linkplain #remove
+ * removed}, {@linkplain #removeAll removed in bulk}, or their thread
+ * terminates.
+ *
+ * <p>Threads that are returned to a pool can drop every value they hold
+ * with {@link #removeAll}, and {@link #slotCount} and {@link #valueCount}
+ * report the size of a thread's array and the number of values it
+ * retains.
+ *
+ * @param <T> the type of the thread-local's values
+ * @since 1.8
+ */
+public class IndexedThreadLocal<T> extends ThreadLocal<T> {
+
+    /* Marks a slot that holds no value; values may be null */
+    private static final Object UNSET = new Object();
+
+    /* The next index to be assigned */
+    private static final AtomicInteger nextIndex = new AtomicInteger();
+
+    /* The index of this thread-local in Thread.indexedThreadLocals */
+    private final int index;
+
+    /**
+     * Creates an indexed thread local variable.
+     *
+     * @throws IllegalStateException if all indexes have been assigned
+     */
+    public IndexedThreadLocal() {
+        int i = nextIndex.getAndIncrement();
+        if (i < 0) {
+            nextIndex.set(Integer.MIN_VALUE);
+            throw new IllegalStateException("too many indexed thread locals");
+        }
+        index = i;
+    }
+
+    /**
+     * Returns the value in the current thread's copy of this
+     * thread-local variable.  If the variable has no value for the
+     * current thread, it is first initialized to the value returned
+     * by an invocation of the {@link #initialValue} method.
+     *
+     * @return the current thread's value of this thread-local
+     */
+    @SuppressWarnings("unchecked")
+    public T get() {
+        Object[] slots = Thread.currentThread().indexedThreadLocals;
+        if (slots != null && index < slots.length) {
+            Object v = slots[index];
+            if (v != UNSET)
+                return (T) v;
+        }
+        return setInitialValue();
+    }
+
+    /**
+     * Variant of set() to establish initialValue. Used instead
+     * of set() in case user has overridden the set() method.
+     */
+    private T setInitialValue() {
+        T value = initialValue();
+        slots(Thread.currentThread())[index] = value;
+        return value;
+    }
+
+    /**
+     * Sets the current thread's copy of this thread-local variable
+     * to the specified value.
+     *
+     * @param value the value to be stored in the current thread's copy of
+     *        this thread-local.
+     */
+    public void set(T value) {
+        slots(Thread.currentThread())[index] = value;
+    }
+
+    /**
+     * Removes the current thread's value for this thread-local
+     * variable.  If this thread-local variable is subsequently
+     * {@linkplain #get read} by the current thread, its value will be
+     * reinitialized by invoking its {@link #initialValue} method,
+     * unless its value is {@linkplain #set set} by the current thread
+     * in the interim.
+     */
+    public void remove() {
+        Object[] slots = Thread.currentThread().indexedThreadLocals;
+        if (slots != null && index < slots.length)
+            slots[index] = UNSET;
+    }
+
+    /*
+     * Returns the array of the given thread, grown to hold this
+     * thread-local's index.
+     */
+    private Object[] slots(Thread t) {
+        Object[] slots = t.indexedThreadLocals;
+        if (slots == null || index >= slots.length) {
+            int n = Math.max(8, Integer.highestOneBit(index) << 1);
+            if (n <= index)
+                n = Integer.MAX_VALUE;
+            int old = (slots == null) ? 0 : slots.length;
+            slots = (slots == null) ? new Object[n] : Arrays.copyOf(slots, n);
+            Arrays.fill(slots, old, n, UNSET);
+            t.indexedThreadLocals = slots;
+        }
+        return slots;
+    }
+
+    /**
+     * Removes every value that the current thread holds for indexed
+     * thread-locals, as if by invoking {@link #remove} on each of them.
+     * This is intended for threads that are returned to a pool, so that
+     * the values set by one task neither leak nor are seen by the next.
+     * Values of ordinary <tt>ThreadLocal</tt>s are not affected.
+     */
+    public static void removeAll() {
+        Thread.currentThread().indexedThreadLocals = null;
+    }
+
+    /**
+     * Returns the number of slots in the given thread's array of
+     * indexed thread-local values: one more than the highest index
+     * that the thread has set, rounded up. This is a diagnostic, and
+     * the result may be stale if the thread is not the current thread.
+     *
+     * @param t the thread
+     * @return the number of slots allocated for the thread
+     */
+    public static int slotCount(Thread t) {
+        Object[] slots = t.indexedThreadLocals;
+        return (slots == null) ? 0 : slots.length;
+    }
+
+    /**
+     * Returns the number of indexed thread-local values that the given
+     * thread retains, that is, the number of slots in its array that
+     * hold a value. This is a diagnostic, and the result may be stale
+     * if the thread is not the current thread.
+     *
+     * @param t the thread
+     * @return the number of values retained by the thread
+     */
+    public static int valueCount(Thread t) {
+        Object[] slots = t.indexedThreadLocals;
+        int n = 0;
+        if (slots != null) {
+            for (Object v : slots) {
+                if (v != UNSET)
+                    n++;
+            }
+        }
+        return n;
+    }
+}
@@ -376,6 +376,71 @@ public final class Integer extends Number implements Comparable<Integer> {
         }
     }
 
+    /**
+     * Writes the characters of the decimal representation of the
+     * specified integer, exactly as produced by {@link #toString(int)},
+     * into {@code dst} beginning at index {@code dstBegin}, and returns
+     * the number of characters written.  No intermediate {@code String}
+     * is created.
+     *
+     * @param   i          an integer to be converted.
+     * @param   dst        the destination array.
+     * @param   dstBegin   the start offset in the destination array.
+     * @return  the number of characters written.
+     * @throws  NullPointerException  if {@code dst} is null.
+     * @throws  IndexOutOfBoundsException  if {@code dstBegin} is negative
+     *          or the representation does not fit in {@code dst} from
+     *          {@code dstBegin} on; in that case nothing is written.
+     * @since   1.8
+     */
+    public static int toChars(int i, char[] dst, int dstBegin) {
+        int size = (i < 0) ? ((i == Integer.MIN_VALUE) ? 11 : stringSize(-i) + 1)
+                           : stringSize(i);
+        if (dstBegin < 0 || dstBegin > dst.length - size)
+            throw new IndexOutOfBoundsException();
+        if (i == Integer.MIN_VALUE) {
+            "-2147483648".getChars(0, size, dst, dstBegin);
+        } else {
+            getChars(i, dstBegin + size, dst);
+        }
+        return size;
+    }
+
+    /**
+     * Writes the decimal representation of the specified integer, exactly
+     * as produced by {@link #toString(int)}, into the given buffer as
+     * US-ASCII bytes, starting at its current position.  The position is
+     * then incremented by the number of bytes written.  No intermediate
+     * {@code String} is created, and direct buffers are written in place.
+     *
+     * @param   i     an integer to be converted.
+     * @param   dst   the destination buffer.
+     * @throws  java.nio.BufferOverflowException  if there is insufficient
+     *          space remaining in {@code dst}; in that case nothing is
+     *          written.
+     * @throws  java.nio.ReadOnlyBufferException  if {@code dst} is
+     *          read-only.
+     * @since   1.8
+     */
+    public static void toBytes(int i, java.nio.ByteBuffer dst) {
+        int size = (i < 0) ? ((i == Integer.MIN_VALUE) ? 11 : stringSize(-i) + 1)
+                           : stringSize(i);
+        int pos = dst.position();
+        if (dst.limit() - pos < size)
+            throw new java.nio.BufferOverflowException();
+        // Work on the negative value, which covers MIN_VALUE as well
+        int charPos = pos + size;
+        int v = (i < 0) ? i : -i;
+        do {
+            int q = v / 10;
+            dst.put(--charPos, (byte) ('0' + (q * 10 - v)));
+            v = q;
+        } while (v != 0);
+        if (i < 0)
+            dst.put(--charPos, (byte) '-');
+        dst.position(pos + size);
+    }
+
     final static int [] sizeTable = { 9, 99, 999, 9999, 99999, 999999, 9999999,
                                       99999999, 999999999, Integer.MAX_VALUE };
 
@@ -527,6 +592,182 @@ public final class Integer extends Number implements Comparable<Integer> {
         return parseInt(s,10);
     }
 
+    /**
+     * Parses the {@link CharSequence} argument as a signed {@code int} in
+     * the specified {@code radix}, beginning at the specified
+     * {@code beginIndex} and extending to {@code endIndex - 1}.
+     *
+     * <p>The result is the same as that of
+     * {@link #parseInt(java.lang.String, int) parseInt}{@code
+     * (s.subSequence(beginIndex, endIndex).toString(), radix)}, but the
+     * characters are read in place and no intermediate {@code String} is
+     * created unless the input is invalid.
+     *
+     * @param      s   the {@code CharSequence} containing the {@code int}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing {@code s}.
+     * @return     the signed {@code int} represented by the subsequence in
+     *             the specified radix.
+     * @throws     NullPointerException  if {@code s} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or if {@code beginIndex} is greater than
+     *             {@code endIndex} or if {@code endIndex} is greater than
+     *             {@code s.length()}.
+     * @throws     NumberFormatException  if the {@code CharSequence} does not
+     *             contain a parsable {@code int} in the specified
+     *             {@code radix}, or if {@code radix} is either smaller than
+     *             {@link java.lang.Character#MIN_RADIX} or larger than
+     *             {@link java.lang.Character#MAX_RADIX}.
+     * @since  1.8
+     */
+    public static int parseInt(CharSequence s, int beginIndex, int endIndex,
+                               int radix)
+                throws NumberFormatException
+    {
+        if (s == null) {
+            throw new NullPointerException();
+        }
+        if (beginIndex < 0 || beginIndex > endIndex || endIndex > s.length()) {
+            throw new IndexOutOfBoundsException();
+        }
+        checkRadix(radix);
+
+        int result = 0;
+        boolean negative = false;
+        int i = beginIndex;
+        int limit = -Integer.MAX_VALUE;
+        int multmin;
+        int digit;
+
+        if (i < endIndex) {
+            char firstChar = s.charAt(i);
+            if (firstChar < '0') { // Possible leading "+" or "-"
+                if (firstChar == '-') {
+                    negative = true;
+                    limit = Integer.MIN_VALUE;
+                } else if (firstChar != '+')
+                    throw NumberFormatException.forCharSequence(s, beginIndex, endIndex);
+
+                if (endIndex - i == 1) // Cannot have lone "+" or "-"
+                    throw NumberFormatException.forCharSequence(s, beginIndex, endIndex);
+                i++;
+            }
+            multmin = limit / radix;
+            while (i < endIndex) {
+                // Accumulating negatively avoids surprises near MAX_VALUE
+                digit = Character.digit(s.charAt(i++), radix);
+                if (digit < 0 || result < multmin) {
+                    throw NumberFormatException.forCharSequence(s, beginIndex, endIndex);
+                }
+                result *= radix;
+                if (result < limit + digit) {
+                    throw NumberFormatException.forCharSequence(s, beginIndex, endIndex);
+                }
+                result -= digit;
+            }
+        } else {
+            throw NumberFormatException.forInputString("");
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Parses a range of an array of US-ASCII bytes as a signed {@code int}
+     * in the specified {@code radix}, beginning at the specified
+     * {@code beginIndex} and extending to {@code endIndex - 1}.
+     *
+     * <p>Each byte is interpreted as the character with the same value in
+     * ISO-8859-1, and the result is then the same as that of
+     * {@link #parseInt(java.lang.String, int) parseInt} applied to the
+     * resulting string, but no intermediate {@code String} is created
+     * unless the input is invalid.  This is intended for decoders of
+     * textual protocols that work directly on received bytes.
+     *
+     * @param      bytes   the array containing the {@code int}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing.
+     * @return     the signed {@code int} represented by the bytes in the
+     *             specified radix.
+     * @throws     NullPointerException  if {@code bytes} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or if {@code beginIndex} is greater than
+     *             {@code endIndex} or if {@code endIndex} is greater than
+     *             {@code bytes.length}.
+     * @throws     NumberFormatException  if the range does not contain a
+     *             parsable {@code int} in the specified {@code radix}, or
+     *             if {@code radix} is either smaller than
+     *             {@link java.lang.Character#MIN_RADIX} or larger than
+     *             {@link java.lang.Character#MAX_RADIX}.
+     * @since  1.8
+     */
+    public static int parseInt(byte[] bytes, int beginIndex, int endIndex,
+                               int radix)
+                throws NumberFormatException
+    {
+        if (beginIndex < 0 || beginIndex > endIndex || endIndex > bytes.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        checkRadix(radix);
+
+        int result = 0;
+        boolean negative = false;
+        int i = beginIndex;
+        int limit = -Integer.MAX_VALUE;
+        int multmin;
+        int digit;
+
+        if (i < endIndex) {
+            int firstChar = bytes[i] & 0xff;
+            if (firstChar < '0') { // Possible leading "+" or "-"
+                if (firstChar == '-') {
+                    negative = true;
+                    limit = Integer.MIN_VALUE;
+                } else if (firstChar != '+')
+                    throw NumberFormatException.forAsciiBytes(bytes, beginIndex, endIndex);
+
+                if (endIndex - i == 1) // Cannot have lone "+" or "-"
+                    throw NumberFormatException.forAsciiBytes(bytes, beginIndex, endIndex);
+                i++;
+            }
+            multmin = limit / radix;
+            while (i < endIndex) {
+                // Accumulating negatively avoids surprises near MAX_VALUE
+                digit = Character.digit(bytes[i++] & 0xff, radix);
+                if (digit < 0 || result < multmin) {
+                    throw NumberFormatException.forAsciiBytes(bytes, beginIndex, endIndex);
+                }
+                result *= radix;
+                if (result < limit + digit) {
+                    throw NumberFormatException.forAsciiBytes(bytes, beginIndex, endIndex);
+                }
+                result -= digit;
+            }
+        } else {
+            throw NumberFormatException.forInputString("");
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Throws a {@code NumberFormatException} if {@code radix} is outside
+     * the range accepted by the parse methods.
+     */
+    static void checkRadix(int radix) {
+        if (radix < Character.MIN_RADIX) {
+            throw new NumberFormatException("radix " + radix +
+                                            " less than Character.MIN_RADIX");
+        }
+
+        if (radix > Character.MAX_RADIX) {
+            throw new NumberFormatException("radix " + radix +
+                                            " greater than Character.MAX_RADIX");
+        }
+    }
+
     /**
      * Returns an {@code Integer} object holding the value
      * extracted from the specified {@code String} when parsed
@@ -325,6 +325,71 @@ public final class Long extends Number implements Comparable<Long> {
         }
     }
 
+    /**
+     * Writes the characters of the decimal representation of the
+     * specified {@code long}, exactly as produced by {@link #toString(long)},
+     * into {@code dst} beginning at index {@code dstBegin}, and returns
+     * the number of characters written.  No intermediate {@code String}
+     * is created.
+     *
+     * @param   i          a {@code long} to be converted.
+     * @param   dst        the destination array.
+     * @param   dstBegin   the start offset in the destination array.
+     * @return  the number of characters written.
+     * @throws  NullPointerException  if {@code dst} is null.
+     * @throws  IndexOutOfBoundsException  if {@code dstBegin} is negative
+     *          or the representation does not fit in {@code dst} from
+     *          {@code dstBegin} on; in that case nothing is written.
+     * @since   1.8
+     */
+    public static int toChars(long i, char[] dst, int dstBegin) {
+        int size = (i < 0) ? ((i == Long.MIN_VALUE) ? 20 : stringSize(-i) + 1)
+                           : stringSize(i);
+        if (dstBegin < 0 || dstBegin > dst.length - size)
+            throw new IndexOutOfBoundsException();
+        if (i == Long.MIN_VALUE) {
+            "-9223372036854775808".getChars(0, size, dst, dstBegin);
+        } else {
+            getChars(i, dstBegin + size, dst);
+        }
+        return size;
+    }
+
+    /**
+     * Writes the decimal representation of the specified {@code long}, exactly
+     * as produced by {@link #toString(long)}, into the given buffer as
+     * US-ASCII bytes, starting at its current position.  The position is
+     * then incremented by the number of bytes written.  No intermediate
+     * {@code String} is created, and direct buffers are written in place.
+     *
+     * @param   i     a {@code long} to be converted.
+     * @param   dst   the destination buffer.
+     * @throws  java.nio.BufferOverflowException  if there is insufficient
+     *          space remaining in {@code dst}; in that case nothing is
+     *          written.
+     * @throws  java.nio.ReadOnlyBufferException  if {@code dst} is
+     *          read-only.
+     * @since   1.8
+     */
+    public static void toBytes(long i, java.nio.ByteBuffer dst) {
+        int size = (i < 0) ? ((i == Long.MIN_VALUE) ? 20 : stringSize(-i) + 1)
+                           : stringSize(i);
+        int pos = dst.position();
+        if (dst.limit() - pos < size)
+            throw new java.nio.BufferOverflowException();
+        // Work on the negative value, which covers MIN_VALUE as well
+        int charPos = pos + size;
+        long v = (i < 0) ? i : -i;
+        do {
+            long q = v / 10;
+            dst.put(--charPos, (byte) ('0' + (int) (q * 10 - v)));
+            v = q;
+        } while (v != 0);
+        if (i < 0)
+            dst.put(--charPos, (byte) '-');
+        dst.position(pos + size);
+    }
+
     // Requires positive x
     static int stringSize(long x) {
         long p = 10;
@@ -483,6 +548,167 @@ public final class Long extends Number implements Comparable<Long> {
         return parseLong(s, 10);
     }
 
+    /**
+     * Parses the {@link CharSequence} argument as a signed {@code long} in
+     * the specified {@code radix}, beginning at the specified
+     * {@code beginIndex} and extending to {@code endIndex - 1}.
+     *
+     * <p>The result is the same as that of
+     * {@link #parseLong(java.lang.String, int) parseLong}{@code
+     * (s.subSequence(beginIndex, endIndex).toString(), radix)}, but the
+     * characters are read in place and no intermediate {@code String} is
+     * created unless the input is invalid.
+     *
+     * @param      s   the {@code CharSequence} containing the {@code long}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing {@code s}.
+     * @return     the signed {@code long} represented by the subsequence in
+     *             the specified radix.
+     * @throws     NullPointerException  if {@code s} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or if {@code beginIndex} is greater than
+     *             {@code endIndex} or if {@code endIndex} is greater than
+     *             {@code s.length()}.
+     * @throws     NumberFormatException  if the {@code CharSequence} does not
+     *             contain a parsable {@code long} in the specified
+     *             {@code radix}, or if {@code radix} is either smaller than
+     *             {@link java.lang.Character#MIN_RADIX} or larger than
+     *             {@link java.lang.Character#MAX_RADIX}.
+     * @since  1.8
+     */
+    public static long parseLong(CharSequence s, int beginIndex, int endIndex,
+                                 int radix)
+                throws NumberFormatException
+    {
+        if (s == null) {
+            throw new NullPointerException();
+        }
+        if (beginIndex < 0 || beginIndex > endIndex || endIndex > s.length()) {
+            throw new IndexOutOfBoundsException();
+        }
+        Integer.checkRadix(radix);
+
+        long result = 0;
+        boolean negative = false;
+        int i = beginIndex;
+        long limit = -Long.MAX_VALUE;
+        long multmin;
+        int digit;
+
+        if (i < endIndex) {
+            char firstChar = s.charAt(i);
+            if (firstChar < '0') { // Possible leading "+" or "-"
+                if (firstChar == '-') {
+                    negative = true;
+                    limit = Long.MIN_VALUE;
+                } else if (firstChar != '+')
+                    throw NumberFormatException.forCharSequence(s, beginIndex, endIndex);
+
+                if (endIndex - i == 1) // Cannot have lone "+" or "-"
+                    throw NumberFormatException.forCharSequence(s, beginIndex, endIndex);
+                i++;
+            }
+            multmin = limit / radix;
+            while (i < endIndex) {
+                // Accumulating negatively avoids surprises near MAX_VALUE
+                digit = Character.digit(s.charAt(i++), radix);
+                if (digit < 0 || result < multmin) {
+                    throw NumberFormatException.forCharSequence(s, beginIndex, endIndex);
+                }
+                result *= radix;
+                if (result < limit + digit) {
+                    throw NumberFormatException.forCharSequence(s, beginIndex, endIndex);
+                }
+                result -= digit;
+            }
+        } else {
+            throw NumberFormatException.forInputString("");
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Parses a range of an array of US-ASCII bytes as a signed {@code long}
+     * in the specified {@code radix}, beginning at the specified
+     * {@code beginIndex} and extending to {@code endIndex - 1}.
+     *
+     * <p>Each byte is interpreted as the character with the same value in
+     * ISO-8859-1, and the result is then the same as that of
+     * {@link #parseLong(java.lang.String, int) parseLong} applied to the
+     * resulting string, but no intermediate {@code String} is created
+     * unless the input is invalid.  This is intended for decoders of
+     * textual protocols that work directly on received bytes.
+     *
+     * @param      bytes   the array containing the {@code long}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing.
+     * @return     the signed {@code long} represented by the bytes in the
+     *             specified radix.
+     * @throws     NullPointerException  if {@code bytes} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or if {@code beginIndex} is greater than
+     *             {@code endIndex} or if {@code endIndex} is greater than
+     *             {@code bytes.length}.
+     * @throws     NumberFormatException  if the range does not contain a
+     *             parsable {@code long} in the specified {@code radix}, or
+     *             if {@code radix} is either smaller than
+     *             {@link java.lang.Character#MIN_RADIX} or larger than
+     *             {@link java.lang.Character#MAX_RADIX}.
+     * @since  1.8
+     */
+    public static long parseLong(byte[] bytes, int beginIndex, int endIndex,
+                                 int radix)
+                throws NumberFormatException
+    {
+        if (beginIndex < 0 || beginIndex > endIndex || endIndex > bytes.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        Integer.checkRadix(radix);
+
+        long result = 0;
+        boolean negative = false;
+        int i = beginIndex;
+        long limit = -Long.MAX_VALUE;
+        long multmin;
+        int digit;
+
+        if (i < endIndex) {
+            int firstChar = bytes[i] & 0xff;
+            if (firstChar < '0') { // Possible leading "+" or "-"
+                if (firstChar == '-') {
+                    negative = true;
+                    limit = Long.MIN_VALUE;
+                } else if (firstChar != '+')
+                    throw NumberFormatException.forAsciiBytes(bytes, beginIndex, endIndex);
+
+                if (endIndex - i == 1) // Cannot have lone "+" or "-"
+                    throw NumberFormatException.forAsciiBytes(bytes, beginIndex, endIndex);
+                i++;
+            }
+            multmin = limit / radix;
+            while (i < endIndex) {
+                // Accumulating negatively avoids surprises near MAX_VALUE
+                digit = Character.digit(bytes[i++] & 0xff, radix);
+                if (digit < 0 || result < multmin) {
+                    throw NumberFormatException.forAsciiBytes(bytes, beginIndex, endIndex);
+                }
+                result *= radix;
+                if (result < limit + digit) {
+                    throw NumberFormatException.forAsciiBytes(bytes, beginIndex, endIndex);
+                }
+                result -= digit;
+            }
+        } else {
+            throw NumberFormatException.forInputString("");
+        }
+        return negative ? result : -result;
+    }
+
+
     /**
      * Returns a {@code Long} object holding the value
      * extracted from the specified {@code String} when parsed
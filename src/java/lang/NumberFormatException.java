@@ -64,4 +64,35 @@ class NumberFormatException extends IllegalArgumentException {
     static NumberFormatException forInputString(String s) {
         return new NumberFormatException("For input string: \"" + s + "\"");
     }
+
+    /**
+     * Factory method for making a <code>NumberFormatException</code>
+     * given the range of a character sequence which caused the error.
+     *
+     * @param   s            the sequence containing the input
+     * @param   beginIndex   the beginning index of the input, inclusive
+     * @param   endIndex     the ending index of the input, exclusive
+     */
+    static NumberFormatException forCharSequence(CharSequence s,
+                                                 int beginIndex,
+                                                 int endIndex) {
+        return forInputString(s.subSequence(beginIndex, endIndex).toString());
+    }
+
+    /**
+     * Factory method for making a <code>NumberFormatException</code>
+     * given the range of an array of US-ASCII bytes which caused the
+     * error.  Bytes are mapped to characters as in ISO-8859-1.
+     *
+     * @param   b            the array containing the input
+     * @param   beginIndex   the beginning index of the input, inclusive
+     * @param   endIndex     the ending index of the input, exclusive
+     */
+    @SuppressWarnings("deprecation")
+    static NumberFormatException forAsciiBytes(byte[] b,
+                                               int beginIndex,
+                                               int endIndex) {
+        return forInputString(new String(b, 0, beginIndex,
+                                         endIndex - beginIndex));
+    }
 }
@@ -26,6 +26,13 @@
 package java.lang;
 
 import java.io.*;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.Pipe;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  * The {@link ProcessBuilder#start()} and
@@ -174,4 +181,205 @@ public abstract class Process {
      * {@code Process} object is forcibly terminated.
      */
     abstract public void destroy();
+
+    /**
+     * Returns the channel connected to the normal input of the
+     * subprocess, if the standard input of the subprocess was
+     * redirected to {@link ProcessBuilder.Redirect#CHANNEL
+     * Redirect.CHANNEL}. The channel may be configured non-blocking
+     * and registered with a {@link java.nio.channels.Selector}.
+     *
+     * <p>The default implementation returns {@code null}.
+     *
+     * @return the channel connected to the normal input of the
+     *         subprocess, or {@code null} if its standard input
+     *         was not redirected to {@code Redirect.CHANNEL}
+     * @since 1.8
+     */
+    public Pipe.SinkChannel getOutputChannel() {
+        return null;
+    }
+
+    /**
+     * Returns the channel connected to the normal output of the
+     * subprocess, if the standard output of the subprocess was
+     * redirected to {@link ProcessBuilder.Redirect#CHANNEL
+     * Redirect.CHANNEL}. If the standard error of the subprocess
+     * is redirected to its standard output, both are read from
+     * this channel.
+     *
+     * <p>The default implementation returns {@code null}.
+     *
+     * @return the channel connected to the normal output of the
+     *         subprocess, or {@code null} if its standard output
+     *         was not redirected to {@code Redirect.CHANNEL}
+     * @since 1.8
+     */
+    public Pipe.SourceChannel getInputChannel() {
+        return null;
+    }
+
+    /**
+     * Returns the channel connected to the error output of the
+     * subprocess, if the standard error of the subprocess was
+     * redirected to {@link ProcessBuilder.Redirect#CHANNEL
+     * Redirect.CHANNEL}.
+     *
+     * <p>The default implementation returns {@code null}.
+     *
+     * @return the channel connected to the error output of the
+     *         subprocess, or {@code null} if its standard error
+     *         was not redirected to {@code Redirect.CHANNEL}
+     * @since 1.8
+     */
+    public Pipe.SourceChannel getErrorChannel() {
+        return null;
+    }
+
+    /**
+     * Returns a {@code Future} that completes with the exit value of
+     * the subprocess when it terminates. Cancelling the future does
+     * not affect the subprocess.
+     *
+     * <p>The default implementation waits for the subprocess with
+     * {@link #waitFor()} in a thread started on the first call of
+     * either {@code onExit} method, and shared by all later calls.
+     *
+     * @return a {@code Future} for the exit value of the subprocess
+     * @since 1.8
+     */
+    public Future<Integer> onExit() {
+        final ExitWaiter waiter = exitWaiter();
+        FutureTask<Integer> task = new FutureTask<>(new Callable<Integer>() {
+            public Integer call() throws InterruptedException {
+                return waiter.exitValue();
+            }});
+        if (!waiter.whenDone(task))
+            task.run();
+        return task;
+    }
+
+    /**
+     * Invokes the given handler with the exit value of the subprocess
+     * when it terminates. The handler is invoked by a thread other
+     * than the caller, and is invoked immediately if the subprocess
+     * has already terminated.
+     *
+     * <p>The default implementation waits for the subprocess with
+     * {@link #waitFor()} in a thread started on the first call of
+     * either {@code onExit} method, and shared by all later calls. The
+     * handlers registered before the subprocess terminates are invoked
+     * by that thread, in turn; the handler's {@code failed} method is
+     * invoked if the thread is interrupted.
+     *
+     * @param  <A>
+     *         The type of the attachment
+     * @param  attachment
+     *         The object to attach to the notification; can be {@code null}
+     * @param  handler
+     *         The handler to be invoked with the exit value
+     * @throws NullPointerException if the handler is null
+     * @since 1.8
+     */
+    public <A> void onExit(final A attachment,
+                           final CompletionHandler<Integer,? super A> handler) {
+        if (handler == null)
+            throw new NullPointerException();
+        final ExitWaiter waiter = exitWaiter();
+        Runnable notifier = new Runnable() {
+            public void run() {
+                int exitValue;
+                try {
+                    exitValue = waiter.exitValue();
+                } catch (InterruptedException e) {
+                    handler.failed(e, attachment);
+                    return;
+                }
+                handler.completed(exitValue, attachment);
+            }};
+        if (!waiter.whenDone(notifier))
+            newWaiterThread(notifier).start();
+    }
+
+    // The waiter of the default onExit methods, started on first use
+    private ExitWaiter exitWaiter;
+    private final Object exitWaiterLock = new Object();
+
+    private ExitWaiter exitWaiter() {
+        synchronized (exitWaiterLock) {
+            if (exitWaiter == null) {
+                exitWaiter = new ExitWaiter(this);
+                newWaiterThread(exitWaiter).start();
+            }
+            return exitWaiter;
+        }
+    }
+
+    private static Thread newWaiterThread(Runnable task) {
+        Thread t = new Thread(task, "process exit waiter");
+        t.setDaemon(true);
+        return t;
+    }
+
+    /**
+     * Waits for a subprocess, then runs the actions registered in the
+     * meantime.
+     */
+    private static final class ExitWaiter implements Runnable {
+        private final Process process;
+        private List<Runnable> actions = new ArrayList<>();  // null when done
+        private int exitValue;
+        private InterruptedException failure;
+
+        ExitWaiter(Process process) {
+            this.process = process;
+        }
+
+        /**
+         * Registers an action to run when the subprocess has terminated,
+         * and returns true, or returns false if it has already terminated.
+         */
+        synchronized boolean whenDone(Runnable action) {
+            if (actions == null)
+                return false;
+            actions.add(action);
+            return true;
+        }
+
+        /**
+         * Returns the exit value, once the subprocess has terminated.
+         */
+        synchronized int exitValue() throws InterruptedException {
+            if (failure != null)
+                throw failure;
+            return exitValue;
+        }
+
+        public void run() {
+            int value = 0;
+            InterruptedException x = null;
+            try {
+                value = process.waitFor();
+            } catch (InterruptedException e) {
+                x = e;
+            }
+            List<Runnable> list;
+            synchronized (this) {
+                exitValue = value;
+                failure = x;
+                list = actions;
+                actions = null;
+            }
+            for (Runnable action : list) {
+                try {
+                    action.run();
+                } catch (RuntimeException | Error e) {
+                    // A failing handler must not keep the others from
+                    // being notified
+                    Thread t = Thread.currentThread();
+                    t.getUncaughtExceptionHandler().uncaughtException(t, e);
+                }
+            }
+        }
+    }
 }
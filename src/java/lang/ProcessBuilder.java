@@ -26,10 +26,14 @@
 package java.lang;
 
 import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.security.AccessControlException;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
 import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.List;
@@ -444,6 +448,7 @@ public final class ProcessBuilder
      * <ul>
      * <li>the special value {@link #PIPE Redirect.PIPE}
      * <li>the special value {@link #INHERIT Redirect.INHERIT}
+     * <li>the special value {@link #CHANNEL Redirect.CHANNEL}
      * <li>a redirection to read from a file, created by an invocation of
      *     {@link Redirect#from Redirect.from(File)}
      * <li>a redirection to write to a file,  created by an invocation of
@@ -488,7 +493,12 @@ public final class ProcessBuilder
              * The type of redirects returned from
              * {@link Redirect#appendTo Redirect.appendTo(File)}.
              */
-            APPEND
+            APPEND,
+
+            /**
+             * The type of {@link Redirect#CHANNEL Redirect.CHANNEL}.
+             */
+            CHANNEL
         };
 
         /**
@@ -528,6 +538,26 @@ public final class ProcessBuilder
                 public Type type() { return Type.INHERIT; }
                 public String toString() { return type().toString(); }};
 
+        /**
+         * Indicates that subprocess I/O will be connected to the
+         * current Java process over a pipe that is accessed as a
+         * {@link java.nio.channels.SelectableChannel}, obtained from
+         * {@link Process#getOutputChannel()},
+         * {@link Process#getInputChannel()} or
+         * {@link Process#getErrorChannel()}.
+         * The corresponding stream of the {@link Process} is a
+         * <a href="#redirect-input">null stream</a>.
+         *
+         * <p>It will always be true that
+         *  <pre> {@code
+         * Redirect.CHANNEL.file() == null &&
+         * Redirect.CHANNEL.type() == Redirect.Type.CHANNEL
+         * }</pre>
+         */
+        public static final Redirect CHANNEL = new Redirect() {
+                public Type type() { return Type.CHANNEL; }
+                public String toString() { return type().toString(); }};
+
         /**
          * Returns the {@link File} source or destination associated
          * with this redirect, or {@code null} if there is no such file.
@@ -664,6 +694,35 @@ public final class ProcessBuilder
         private Redirect() {}
     }
 
+    /**
+     * The redirect of one end of a pipe between two processes of a
+     * pipeline. Its file descriptor is the parent's end of the pipe
+     * once the writing process has been started.
+     */
+    static final class RedirectPipeImpl extends Redirect {
+        final FileDescriptor fd = new FileDescriptor();
+
+        public Type type() { return Type.PIPE; }
+        public String toString() { return type().toString(); }
+        public boolean equals(Object obj) { return obj == this; }
+        public int hashCode() { return System.identityHashCode(this); }
+
+        /** Closes the parent's end of the pipe, if it has one. */
+        void close() {
+            if (!fd.valid())
+                return;
+            AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                public Void run() {
+                    try {
+                        new FileInputStream(fd).close();
+                    } catch (IOException ignored) {
+                        // nothing more can be done with it
+                    }
+                    return null;
+                }});
+        }
+    }
+
     private Redirect[] redirects() {
         if (redirects == null)
             redirects = new Redirect[] {
@@ -1000,6 +1059,10 @@ public final class ProcessBuilder
      * @see Runtime#exec(String[], String[], java.io.File)
      */
     public Process start() throws IOException {
+        return start(redirects);
+    }
+
+    private Process start(Redirect[] redirects) throws IOException {
         // Must convert to array first -- a malicious user-supplied
         // list might try to circumvent the security check.
         String[] cmdarray = command.toArray(new String[command.size()]);
@@ -1045,4 +1108,79 @@ public final class ProcessBuilder
                 cause);
         }
     }
+
+    /**
+     * Starts a process for each process builder, creating a pipeline
+     * in which the standard output of each process is connected to the
+     * standard input of the next one. The pipes between the processes
+     * are connected directly: no thread of the current Java process
+     * copies data between them.
+     *
+     * <p>Each process builder is started as by {@link #start()}, except
+     * that the standard input of every process but the first, and the
+     * standard output of every process but the last, are the pipes of
+     * the pipeline. The {@link Process#getOutputStream() output stream}
+     * of every process but the first, and the
+     * {@link Process#getInputStream() input stream} of every process but
+     * the last, are null streams. The standard error of each process is
+     * handled as its process builder specifies. The process builders
+     * are not modified.
+     *
+     * <p>If starting any process fails, the processes already started
+     * are {@linkplain Process#destroy() destroyed}.
+     *
+     * @param  builders the process builders of the pipeline, in order
+     * @return the processes started, in the order of the builders
+     *
+     * @throws IllegalArgumentException
+     *         if a process builder other than the first does not have
+     *         {@link Redirect#PIPE Redirect.PIPE} as its standard input,
+     *         or a process builder other than the last does not have
+     *         {@code Redirect.PIPE} as its standard output
+     * @throws NullPointerException
+     *         if the list, or an element of it, is null
+     * @throws IOException if an I/O error occurs
+     * @throws SecurityException
+     *         as for {@link #start()}
+     * @since 1.8
+     */
+    public static List<Process> startPipeline(List<ProcessBuilder> builders)
+        throws IOException
+    {
+        final int n = builders.size();
+        for (int i = 0; i < n; i++) {
+            ProcessBuilder builder = builders.get(i);
+            if (i > 0 && builder.redirectInput() != Redirect.PIPE)
+                throw new IllegalArgumentException(
+                    "redirectInput() must be PIPE except for the first " +
+                    "process builder: " + builder.redirectInput());
+            if (i < n - 1 && builder.redirectOutput() != Redirect.PIPE)
+                throw new IllegalArgumentException(
+                    "redirectOutput() must be PIPE except for the last " +
+                    "process builder: " + builder.redirectOutput());
+        }
+
+        List<Process> processes = new ArrayList<>(n);
+        RedirectPipeImpl prev = null;
+        try {
+            for (int i = 0; i < n; i++) {
+                Redirect[] redirects = builders.get(i).redirects().clone();
+                if (prev != null)
+                    redirects[0] = prev;
+                RedirectPipeImpl next = (i < n - 1) ? new RedirectPipeImpl()
+                                                    : null;
+                if (next != null)
+                    redirects[1] = next;
+                processes.add(builders.get(i).start(redirects));
+                prev = next;
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            if (prev != null)
+                prev.close();
+            for (Process p : processes)
+                p.destroy();
+            throw e;
+        }
+        return processes;
+    }
 }
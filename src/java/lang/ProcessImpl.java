@@ -29,7 +29,9 @@ import java.io.IOException;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.lang.ProcessBuilder.Redirect;
-import java.lang.ProcessBuilder.Redirect;
+import java.lang.ProcessBuilder.RedirectPipeImpl;
+import java.nio.channels.Channel;
+import java.nio.channels.Pipe;
 
 /**
  * This class is for the exclusive use of ProcessBuilder.start() to
@@ -56,6 +58,19 @@ final class ProcessImpl {
         return result;
     }
 
+    private static int fdVal(Channel ch) {
+        return ((sun.nio.ch.SelChImpl) ch).getFDVal();
+    }
+
+    private static void close(Channel ch) {
+        if (ch != null) {
+            try {
+                ch.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
     // Only for use by ProcessBuilder.start()
     static Process start(String[] cmdarray,
                          java.util.Map<String,String> environment,
@@ -91,7 +106,16 @@ final class ProcessImpl {
         FileOutputStream f1 = null;
         FileOutputStream f2 = null;
 
+        // The pipes of redirects to Redirect.CHANNEL: the parent's
+        // ends, and the ends passed to the child
+        Pipe.SinkChannel   stdinChannel  = null;
+        Pipe.SourceChannel stdoutChannel = null;
+        Pipe.SourceChannel stderrChannel = null;
+        Channel[] childEnds = new Channel[3];
+
+        boolean started = false;
         try {
+            boolean forceNullOutputStream = false;
             if (redirects == null) {
                 std_fds = new int[] { -1, -1, -1 };
             } else {
@@ -101,7 +125,15 @@ final class ProcessImpl {
                     std_fds[0] = -1;
                 else if (redirects[0] == Redirect.INHERIT)
                     std_fds[0] = 0;
-                else {
+                else if (redirects[0] == Redirect.CHANNEL) {
+                    Pipe pipe = Pipe.open();
+                    stdinChannel = pipe.sink();
+                    childEnds[0] = pipe.source();
+                    std_fds[0] = fdVal(pipe.source());
+                } else if (redirects[0] instanceof RedirectPipeImpl) {
+                    // The read end of the previous process's output
+                    std_fds[0] = fdAccess.get(((RedirectPipeImpl) redirects[0]).fd);
+                } else {
                     f0 = new FileInputStream(redirects[0].file());
                     std_fds[0] = fdAccess.get(f0.getFD());
                 }
@@ -110,7 +142,16 @@ final class ProcessImpl {
                     std_fds[1] = -1;
                 else if (redirects[1] == Redirect.INHERIT)
                     std_fds[1] = 1;
-                else {
+                else if (redirects[1] == Redirect.CHANNEL) {
+                    Pipe pipe = Pipe.open();
+                    stdoutChannel = pipe.source();
+                    childEnds[1] = pipe.sink();
+                    std_fds[1] = fdVal(pipe.sink());
+                } else if (redirects[1] instanceof RedirectPipeImpl) {
+                    // A new pipe whose read end goes to the next process
+                    std_fds[1] = -1;
+                    forceNullOutputStream = true;
+                } else {
                     f1 = new FileOutputStream(redirects[1].file(),
                                               redirects[1].append());
                     std_fds[1] = fdAccess.get(f1.getFD());
@@ -120,21 +161,42 @@ final class ProcessImpl {
                     std_fds[2] = -1;
                 else if (redirects[2] == Redirect.INHERIT)
                     std_fds[2] = 2;
-                else {
+                else if (redirects[2] == Redirect.CHANNEL) {
+                    Pipe pipe = Pipe.open();
+                    stderrChannel = pipe.source();
+                    childEnds[2] = pipe.sink();
+                    std_fds[2] = fdVal(pipe.sink());
+                } else {
                     f2 = new FileOutputStream(redirects[2].file(),
                                               redirects[2].append());
                     std_fds[2] = fdAccess.get(f2.getFD());
                 }
             }
 
-        return new UNIXProcess
+        UNIXProcess p = new UNIXProcess
             (toCString(cmdarray[0]),
              argBlock, args.length,
              envBlock, envc[0],
              toCString(dir),
                  std_fds,
-             redirectErrorStream);
+             redirectErrorStream,
+             forceNullOutputStream);
+        if (forceNullOutputStream)
+            fdAccess.set(((RedirectPipeImpl) redirects[1]).fd, std_fds[1]);
+        p.setChannels(stdinChannel, stdoutChannel, stderrChannel);
+        started = true;
+        return p;
         } finally {
+            // The child has its own copies of these
+            if (redirects != null && redirects[0] instanceof RedirectPipeImpl)
+                ((RedirectPipeImpl) redirects[0]).close();
+            for (Channel ch : childEnds)
+                close(ch);
+            if (!started) {
+                close(stdinChannel);
+                close(stdoutChannel);
+                close(stderrChannel);
+            }
             // In theory, close() can throw IOException
             // (although it is rather unlikely to happen here)
             try { if (f0 != null) f0.close(); }
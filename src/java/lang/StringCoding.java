@@ -36,6 +36,7 @@ import java.nio.charset.CharacterCodingException;
 import java.nio.charset.CoderResult;
 import java.nio.charset.CodingErrorAction;
 import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
 import java.nio.charset.UnsupportedCharsetException;
 import java.util.Arrays;
 import sun.misc.MessageUtils;
@@ -95,6 +96,14 @@ class StringCoding {
         return (int)(len * (double)expansionFactor);
     }
 
+    // Tells whether the given charset is one whose platform coders code
+    // straight between arrays; see CharsetDecoder.decode(byte[],...)
+    private static boolean hasArrayLoops(Charset cs) {
+        return cs == StandardCharsets.UTF_8
+            || cs == StandardCharsets.ISO_8859_1
+            || cs == StandardCharsets.US_ASCII;
+    }
+
     private static Charset lookupCharset(String csn) {
         if (Charset.isSupported(csn)) {
             try {
@@ -124,6 +133,7 @@ class StringCoding {
         private final Charset cs;
         private final CharsetDecoder cd;
         private final boolean isTrusted;
+        private final boolean hasArrayLoops;
 
         private StringDecoder(Charset cs, String rcn) {
             this.requestedCharsetName = rcn;
@@ -132,6 +142,11 @@ class StringCoding {
                 .onMalformedInput(CodingErrorAction.REPLACE)
                 .onUnmappableCharacter(CodingErrorAction.REPLACE);
             this.isTrusted = (cs.getClass().getClassLoader0() == null);
+            this.hasArrayLoops = hasArrayLoops(cs);
+        }
+
+        final Charset charset() {
+            return cs;
         }
 
         String charsetName() {
@@ -149,7 +164,16 @@ class StringCoding {
             char[] ca = new char[en];
             if (len == 0)
                 return ca;
-            if (cd instanceof ArrayDecoder) {
+            if (hasArrayLoops) {
+                try {
+                    int clen = cd.decode(ba, off, len, ca, 0);
+                    return safeTrim(ca, clen, cs, isTrusted);
+                } catch (CharacterCodingException x) {
+                    // Substitution is always enabled,
+                    // so this shouldn't happen
+                    throw new Error(x);
+                }
+            } else if (cd instanceof ArrayDecoder) {
                 int clen = ((ArrayDecoder)cd).decode(ba, off, len, ca);
                 return safeTrim(ca, clen, cs, isTrusted);
             } else {
@@ -210,6 +234,16 @@ class StringCoding {
         // check (... && (isTrusted || SM == null || getClassLoader0())) in trim
         // but it then can be argued that the SM is null when the opertaion
         // is started...
+        // (5)The standard charsets with array coding loops are trusted, so
+        // for these the thread's cached StringDecoder is used (or replaced).
+        if (hasArrayLoops(cs)) {
+            StringDecoder sd = deref(decoder);
+            if (sd == null || sd.charset() != cs) {
+                sd = new StringDecoder(cs, cs.name());
+                set(decoder, sd);
+            }
+            return sd.decode(ba, off, len);
+        }
         CharsetDecoder cd = cs.newDecoder();
         int en = scale(len, cd.maxCharsPerByte());
         char[] ca = new char[en];
@@ -275,6 +309,7 @@ class StringCoding {
         private CharsetEncoder ce;
         private final String requestedCharsetName;
         private final boolean isTrusted;
+        private final boolean hasArrayLoops;
 
         private StringEncoder(Charset cs, String rcn) {
             this.requestedCharsetName = rcn;
@@ -283,6 +318,11 @@ class StringCoding {
                 .onMalformedInput(CodingErrorAction.REPLACE)
                 .onUnmappableCharacter(CodingErrorAction.REPLACE);
             this.isTrusted = (cs.getClass().getClassLoader0() == null);
+            this.hasArrayLoops = hasArrayLoops(cs);
+        }
+
+        final Charset charset() {
+            return cs;
         }
 
         String charsetName() {
@@ -300,7 +340,16 @@ class StringCoding {
             byte[] ba = new byte[en];
             if (len == 0)
                 return ba;
-            if (ce instanceof ArrayEncoder) {
+            if (hasArrayLoops) {
+                try {
+                    int blen = ce.encode(ca, off, len, ba, 0);
+                    return safeTrim(ba, blen, cs, isTrusted);
+                } catch (CharacterCodingException x) {
+                    // Substitution is always enabled,
+                    // so this shouldn't happen
+                    throw new Error(x);
+                }
+            } else if (ce instanceof ArrayEncoder) {
                 int blen = ((ArrayEncoder)ce).encode(ca, off, len, ba);
                 return safeTrim(ba, blen, cs, isTrusted);
             } else {
@@ -345,6 +394,15 @@ class StringCoding {
     }
 
     static byte[] encode(Charset cs, char[] ca, int off, int len) {
+        // See the comments in decode(Charset, byte[], int, int)
+        if (hasArrayLoops(cs)) {
+            StringEncoder se = deref(encoder);
+            if (se == null || se.charset() != cs) {
+                se = new StringEncoder(cs, cs.name());
+                set(encoder, se);
+            }
+            return se.encode(ca, off, len);
+        }
         CharsetEncoder ce = cs.newEncoder();
         int en = scale(len, ce.maxBytesPerChar());
         byte[] ba = new byte[en];
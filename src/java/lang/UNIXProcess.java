@@ -34,9 +34,17 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.Pipe;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.ThreadFactory;
 import java.security.AccessController;
 import static java.security.AccessController.doPrivileged;
@@ -63,6 +71,14 @@ final class UNIXProcess extends Process {
     private /* final */ InputStream  stdout;
     private /* final */ InputStream  stderr;
 
+    private Pipe.SinkChannel   stdinChannel;
+    private Pipe.SourceChannel stdoutChannel;
+    private Pipe.SourceChannel stderrChannel;
+
+    /* Exit notifications to run once the process has exited */
+    // @GuardedBy("this")
+    private List<Runnable> exitActions;
+
     /* this is for the reaping thread */
     private native int waitForProcessExit(int pid);
 
@@ -124,12 +140,31 @@ final class UNIXProcess extends Process {
                     (new ProcessReaperThreadFactory());
             }});
 
+    /**
+     * The threads that run exit notifications, which run user code and
+     * so must neither hold up the reaper nor share its small stacks.
+     */
+    private static class ExitNotifier {
+        static final Executor executor =
+            doPrivileged(new PrivilegedAction<Executor>() {
+                public Executor run() {
+                    return Executors.newCachedThreadPool(new ThreadFactory() {
+                        public Thread newThread(Runnable r) {
+                            Thread t = new Thread(ProcessReaperThreadFactory.group,
+                                                  r, "process exit notifier");
+                            t.setDaemon(true);
+                            return t;
+                        }});
+                }});
+    }
+
     UNIXProcess(final byte[] prog,
                 final byte[] argBlock, final int argc,
                 final byte[] envBlock, final int envc,
                 final byte[] dir,
                 final int[] fds,
-                final boolean redirectErrorStream)
+                final boolean redirectErrorStream,
+                final boolean forceNullOutputStream)
             throws IOException {
 
         pid = forkAndExec(prog,
@@ -142,7 +177,7 @@ final class UNIXProcess extends Process {
         try {
             doPrivileged(new PrivilegedExceptionAction<Void>() {
                 public Void run() throws IOException {
-                    initStreams(fds);
+                    initStreams(fds, forceNullOutputStream);
                     return null;
                 }});
         } catch (PrivilegedActionException ex) {
@@ -156,12 +191,13 @@ final class UNIXProcess extends Process {
         return fileDescriptor;
     }
 
-    void initStreams(int[] fds) throws IOException {
+    void initStreams(int[] fds, boolean forceNullOutputStream)
+            throws IOException {
         stdin = (fds[0] == -1) ?
             ProcessBuilder.NullOutputStream.INSTANCE :
             new ProcessPipeOutputStream(fds[0]);
 
-        stdout = (fds[1] == -1) ?
+        stdout = (fds[1] == -1 || forceNullOutputStream) ?
             ProcessBuilder.NullInputStream.INSTANCE :
             new ProcessPipeInputStream(fds[1]);
 
@@ -176,11 +212,23 @@ final class UNIXProcess extends Process {
             }});
     }
 
+    /* Sets the parent's ends of the pipes redirected to Redirect.CHANNEL */
+    void setChannels(Pipe.SinkChannel stdinChannel,
+                     Pipe.SourceChannel stdoutChannel,
+                     Pipe.SourceChannel stderrChannel) {
+        this.stdinChannel  = stdinChannel;
+        this.stdoutChannel = stdoutChannel;
+        this.stderrChannel = stderrChannel;
+    }
+
     void processExited(int exitcode) {
+        List<Runnable> actions;
         synchronized (this) {
             this.exitcode = exitcode;
             hasExited = true;
             notifyAll();
+            actions = exitActions;
+            exitActions = null;
         }
 
         if (stdout instanceof ProcessPipeInputStream)
@@ -191,6 +239,54 @@ final class UNIXProcess extends Process {
 
         if (stdin instanceof ProcessPipeOutputStream)
             ((ProcessPipeOutputStream) stdin).processExited();
+
+        if (actions != null)
+            for (Runnable action : actions)
+                ExitNotifier.executor.execute(action);
+    }
+
+    /* Runs the action once the process has exited, by another thread */
+    private void whenExited(Runnable action) {
+        synchronized (this) {
+            if (!hasExited) {
+                if (exitActions == null)
+                    exitActions = new ArrayList<>();
+                exitActions.add(action);
+                return;
+            }
+        }
+        ExitNotifier.executor.execute(action);
+    }
+
+    public Future<Integer> onExit() {
+        FutureTask<Integer> task = new FutureTask<>(new Callable<Integer>() {
+            public Integer call() {
+                return exitValue();
+            }});
+        whenExited(task);
+        return task;
+    }
+
+    public <A> void onExit(final A attachment,
+                           final CompletionHandler<Integer,? super A> handler) {
+        if (handler == null)
+            throw new NullPointerException();
+        whenExited(new Runnable() {
+            public void run() {
+                handler.completed(exitValue(), attachment);
+            }});
+    }
+
+    public Pipe.SinkChannel getOutputChannel() {
+        return stdinChannel;
+    }
+
+    public Pipe.SourceChannel getInputChannel() {
+        return stdoutChannel;
+    }
+
+    public Pipe.SourceChannel getErrorChannel() {
+        return stderrChannel;
     }
 
     public OutputStream getOutputStream() {
@@ -234,6 +330,15 @@ final class UNIXProcess extends Process {
         try { stdin.close();  } catch (IOException ignored) {}
         try { stdout.close(); } catch (IOException ignored) {}
         try { stderr.close(); } catch (IOException ignored) {}
+        closeChannel(stdinChannel);
+        closeChannel(stdoutChannel);
+        closeChannel(stderrChannel);
+    }
+
+    private static void closeChannel(Channel ch) {
+        if (ch != null) {
+            try { ch.close(); } catch (IOException ignored) {}
+        }
     }
 
     /* This routine initializes JNI field offsets for the class */
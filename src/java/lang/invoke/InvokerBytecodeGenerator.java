@@ -240,6 +240,20 @@ class InvokerBytecodeGenerator {
         return ((classFile[8] & 0xFF) << 8) | (classFile[9] & 0xFF);
     }
 
+    /**
+     * Record a newly generated class file in the lambda form archive
+     * being dumped, unless it needs constant pool patches.
+     *
+     * @param key the archive key of the class file, or null
+     * @param classFile the bytes of the class file
+     * @return the class file
+     */
+    private byte[] archive(String key, byte[] classFile) {
+        if (key != null && cpPatches.isEmpty())
+            LambdaFormArchive.record(key, classFile);
+        return classFile;
+    }
+
     /**
      * Extract the MemberName of a newly-defined method.
      *
@@ -506,7 +520,11 @@ class InvokerBytecodeGenerator {
      */
     static MemberName generateCustomizedCode(LambdaForm form, MethodType invokerType) {
         InvokerBytecodeGenerator g = new InvokerBytecodeGenerator("MH", form, invokerType);
-        return g.loadMethod(g.generateCustomizedCodeBytes());
+        String key = LambdaFormArchive.key(form, invokerType);
+        byte[] classFile = LambdaFormArchive.lookup(key);
+        if (classFile == null)
+            classFile = g.archive(key, g.generateCustomizedCodeBytes());
+        return g.loadMethod(classFile);
     }
 
     /**
@@ -934,7 +952,11 @@ class InvokerBytecodeGenerator {
             type = type.appendParameterTypes(LambdaForm.typeClass(sig.charAt(i)));
         }
         InvokerBytecodeGenerator g = new InvokerBytecodeGenerator("LFI", "interpret_"+tret, type);
-        return g.loadMethod(g.generateLambdaFormInterpreterEntryPointBytes());
+        String key = LambdaFormArchive.interpreterKey(sig);
+        byte[] classFile = LambdaFormArchive.lookup(key);
+        if (classFile == null)
+            classFile = g.archive(key, g.generateLambdaFormInterpreterEntryPointBytes());
+        return g.loadMethod(classFile);
     }
 
     private byte[] generateLambdaFormInterpreterEntryPointBytes() {
@@ -996,7 +1018,11 @@ class InvokerBytecodeGenerator {
         MethodType invokerType = LambdaForm.NamedFunction.INVOKER_METHOD_TYPE;
         String invokerName = basicTypeCharSignature("invoke_", typeForm.erasedType());
         InvokerBytecodeGenerator g = new InvokerBytecodeGenerator("NFI", invokerName, invokerType);
-        return g.loadMethod(g.generateNamedFunctionInvokerImpl(typeForm));
+        String key = LambdaFormArchive.namedFunctionInvokerKey(typeForm);
+        byte[] classFile = LambdaFormArchive.lookup(key);
+        if (classFile == null)
+            classFile = g.archive(key, g.generateNamedFunctionInvokerImpl(typeForm));
+        return g.loadMethod(classFile);
     }
 
     static int nfi = 0;
@@ -431,7 +431,9 @@ class LambdaForm {
      * as a sort of pre-invocation linkage step.)
      */
     public void prepare() {
-        if (COMPILE_THRESHOLD == 0) {
+        // Archived forms are cheap to compile, so skip interpreting them
+        if (COMPILE_THRESHOLD == 0 ||
+            (LAMBDA_FORM_ARCHIVE != null && LambdaFormArchive.contains(this))) {
             compileToBytecode();
         }
         if (this.vmentry != null) {
@@ -0,0 +1,409 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+
+package java.lang.invoke;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.AccessController;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivilegedAction;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.lang.invoke.LambdaForm.Name;
+import static java.lang.invoke.MethodHandleStatics.*;
+
+/**
+ * A persistent cache of the class files generated for lambda forms and
+ * for their interpreter and named function invokers.
+ * <p>
+ * Spinning a class file with ASM is the bulk of the cost of compiling a
+ * lambda form. A training run started with
+ * {@code -Djava.lang.invoke.MethodHandle.ARCHIVE_DUMP=file} records every
+ * class file generated, keyed by a description of the form that fully
+ * determines its bytecode, and writes them to the file when the VM exits.
+ * A later run started with {@code -Djava.lang.invoke.MethodHandle.ARCHIVE=file}
+ * defines the archived class files instead of generating them again, and
+ * compiles archived forms when they are first prepared rather than after
+ * {@code COMPILE_THRESHOLD} interpreted invocations. Both properties may
+ * be given to extend an archive.
+ * <p>
+ * Only class files without constant pool patches are archived, since the
+ * patched constants are live objects of the run that generated them; for
+ * the same reason forms that refer to members of classes not loaded by
+ * the boot loader are not archived.
+ * <p>
+ * Archived class files are defined with the privileges of the boot
+ * loader, so an archive is used only if it is a regular file owned by
+ * the user running the VM and, where the file system has POSIX
+ * permissions, not writable by anyone else. The archive starts with a
+ * digest of the build that wrote it and ends with a digest of its
+ * contents. It is ignored unless both match, because its class files
+ * may refer to members that differ in another build, and no class file
+ * is used before the whole archive has been read and checked.
+ * <p>
+ * Problems with an archive are not reported unless
+ * {@code -Djava.lang.invoke.MethodHandle.TRACE_ARCHIVE=true} is given.
+ */
+/*non-public*/ final class LambdaFormArchive {
+
+    private LambdaFormArchive() { }  // do not instantiate
+
+    private static final int MAGIC = 0x4c464172;  // "LFAr"
+    private static final int VERSION = 3;
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    // Keys are written in modified UTF-8, which takes up to three bytes
+    // per char and is limited to 65535 bytes
+    private static final int MAX_KEY_LENGTH = 65535 / 3;
+
+    private static final boolean ENABLED =
+        LAMBDA_FORM_ARCHIVE != null || LAMBDA_FORM_ARCHIVE_DUMP != null;
+
+    private static final Map<String, byte[]> CLASS_FILES =
+        new ConcurrentHashMap<>();
+
+    // Identifies the build that writes or may read the archive
+    private static final byte[] BUILD_DIGEST = ENABLED ? buildDigest() : null;
+
+    private static final AtomicBoolean DUMP_HOOK_ADDED = new AtomicBoolean();
+
+    static {
+        if (LAMBDA_FORM_ARCHIVE != null && BUILD_DIGEST != null)
+            load(LAMBDA_FORM_ARCHIVE);
+    }
+
+    /**
+     * Returns the archived class file for the given key, or null.
+     */
+    static byte[] lookup(String key) {
+        return (key == null) ? null : CLASS_FILES.get(key);
+    }
+
+    /**
+     * Records a class file generated for the given key, if an archive
+     * is being dumped.
+     */
+    static void record(String key, byte[] classFile) {
+        if (key != null && LAMBDA_FORM_ARCHIVE_DUMP != null
+            && key.length() <= MAX_KEY_LENGTH && BUILD_DIGEST != null) {
+            CLASS_FILES.put(key, classFile);
+            addDumpHook();
+        }
+    }
+
+    /**
+     * Arranges for the archive to be written at exit, the first time a
+     * class file is recorded. Nothing can be written once the VM has
+     * begun to shut down.
+     */
+    private static void addDumpHook() {
+        if (DUMP_HOOK_ADDED.get() || !DUMP_HOOK_ADDED.compareAndSet(false, true))
+            return;
+        AccessController.doPrivileged(new PrivilegedAction<Void>() {
+            public Void run() {
+                try {
+                    Runtime.getRuntime().addShutdownHook(new Thread() {
+                        public void run() {
+                            dump(LAMBDA_FORM_ARCHIVE_DUMP);
+                        }
+                    });
+                } catch (IllegalStateException ex) {
+                    trace("Cannot write lambda form archive "
+                          + LAMBDA_FORM_ARCHIVE_DUMP + ": VM is shutting down");
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Tells whether a class file for the given form is archived.
+     */
+    static boolean contains(LambdaForm form) {
+        return lookup(key(form, form.methodType())) != null;
+    }
+
+    /**
+     * Returns the key of the invoker of the given form, or null if the
+     * form cannot be archived. The key names every member the form
+     * calls by its class, name, descriptor and reference kind, and every
+     * constant argument by its type and value.
+     */
+    static String key(LambdaForm form, MethodType invokerType) {
+        if (!ENABLED)
+            return null;
+        StringBuilder buf = new StringBuilder("MH ");
+        buf.append(form.debugName).append(' ');
+        buf.append(invokerType.toMethodDescriptorString()).append(' ');
+        buf.append(form.arity).append(' ').append(form.result);
+        for (int i = form.arity; i < form.names.length; i++) {
+            Name name = form.names[i];
+            MemberName member = name.function.member();
+            if (member == null)
+                return null;  // invoked through a constant handle
+            Class<?> defc = member.getDeclaringClass();
+            if (defc.getClassLoader() != null)
+                return null;
+            buf.append(';').append(name.type).append('=');
+            buf.append(defc.getName()).append('.').append(member.getName());
+            if (member.isField())
+                buf.append(':').append(member.getFieldType().getName());
+            else
+                buf.append(member.getMethodType().toMethodDescriptorString());
+            buf.append('/').append(member.getReferenceKind()).append('(');
+            for (Object arg : name.arguments) {
+                if (arg instanceof Name) {
+                    Name n = (Name) arg;
+                    buf.append(n.type).append(n.index());
+                } else if (arg == null) {
+                    buf.append("null");
+                } else if (arg instanceof String) {
+                    String s = (String) arg;
+                    buf.append('"').append(s.length()).append(':').append(s);
+                } else if (arg.getClass().getClassLoader() == null
+                           && (arg instanceof Number
+                               || arg instanceof Character
+                               || arg instanceof Boolean)) {
+                    buf.append(arg.getClass().getName()).append(':').append(arg);
+                } else {
+                    return null;  // patched into the constant pool
+                }
+                buf.append(',');
+            }
+            buf.append(')');
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Returns the key of the interpreter entry point for the given basic
+     * type signature, or null if no archive is in use.
+     */
+    static String interpreterKey(String sig) {
+        return ENABLED ? "LFI " + sig : null;
+    }
+
+    /**
+     * Returns the key of the named function invoker for the given type
+     * form, or null if no archive is in use.
+     */
+    static String namedFunctionInvokerKey(MethodTypeForm typeForm) {
+        return ENABLED
+            ? "NFI " + typeForm.erasedType().toMethodDescriptorString()
+            : null;
+    }
+
+    /**
+     * Returns a digest of the versions and location of the running build
+     * and of the size and modification time of its class library, or
+     * null if no digest algorithm is available.
+     */
+    private static byte[] buildDigest() {
+        return AccessController.doPrivileged(new PrivilegedAction<byte[]>() {
+            public byte[] run() {
+                String javaHome = System.getProperty("java.home");
+                File rt = new File(javaHome, "lib" + File.separator + "rt.jar");
+                String build = System.getProperty("java.runtime.version")
+                    + " " + System.getProperty("java.vm.version")
+                    + " " + javaHome
+                    + " " + rt.length() + " " + rt.lastModified();
+                try {
+                    MessageDigest md = MessageDigest.getInstance(DIGEST_ALGORITHM);
+                    return md.digest(build.getBytes("UTF-8"));
+                } catch (NoSuchAlgorithmException | IOException ex) {
+                    trace("Cannot use lambda form archives: " + ex);
+                    return null;
+                }
+            }
+        });
+    }
+
+    private static void load(final String fileName) {
+        AccessController.doPrivileged(new PrivilegedAction<Void>() {
+            public Void run() {
+                try {
+                    Map<String, byte[]> entries = read(Paths.get(fileName));
+                    if (entries != null)
+                        CLASS_FILES.putAll(entries);
+                } catch (NoSuchFileException ex) {
+                    // Nothing archived yet
+                } catch (IOException | NoSuchAlgorithmException | RuntimeException ex) {
+                    trace("Ignoring lambda form archive " + fileName + ": " + ex);
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Reads and checks the archive, and returns its entries, or null if
+     * it is not to be used.
+     */
+    private static Map<String, byte[]> read(Path file)
+        throws IOException, NoSuchAlgorithmException
+    {
+        BasicFileAttributes attrs = readAttributes(file);
+        if (!isTrusted(file, attrs)) {
+            trace("Ignoring lambda form archive " + file
+                  + ": not a regular file owned by the user and writable only by them");
+            return null;
+        }
+        MessageDigest md = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        Map<String, byte[]> entries = new TreeMap<>();
+        try (DigestInputStream din = new DigestInputStream(
+                 new BufferedInputStream(Files.newInputStream(file, LinkOption.NOFOLLOW_LINKS)),
+                 md);
+             DataInputStream in = new DataInputStream(din)) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                trace("Ignoring lambda form archive " + file + ": bad header");
+                return null;
+            }
+            if (!Arrays.equals(readBytes(in), BUILD_DIGEST)) {
+                trace("Ignoring lambda form archive " + file
+                      + ": written by another build");
+                return null;
+            }
+            for (int n = in.readInt(); n > 0; n--) {
+                String key = in.readUTF();
+                entries.put(key, readBytes(in));
+            }
+            din.on(false);
+            if (!Arrays.equals(readBytes(in), md.digest()) || in.read() != -1) {
+                trace("Ignoring lambda form archive " + file + ": bad digest");
+                return null;
+            }
+        }
+        // The checks apply to the file that was read
+        BasicFileAttributes after = readAttributes(file);
+        Object key = attrs.fileKey();
+        if ((key != null && !key.equals(after.fileKey()))
+            || !attrs.lastModifiedTime().equals(after.lastModifiedTime())) {
+            trace("Ignoring lambda form archive " + file + ": changed while read");
+            return null;
+        }
+        return entries;
+    }
+
+    private static BasicFileAttributes readAttributes(Path file) throws IOException {
+        try {
+            return Files.readAttributes(file, PosixFileAttributes.class,
+                                        LinkOption.NOFOLLOW_LINKS);
+        } catch (UnsupportedOperationException ex) {
+            return Files.readAttributes(file, BasicFileAttributes.class,
+                                        LinkOption.NOFOLLOW_LINKS);
+        }
+    }
+
+    /**
+     * Tells whether the archive is a regular file owned by the user
+     * running the VM that, if the file system supports POSIX permissions,
+     * no one else may write.
+     */
+    private static boolean isTrusted(Path file, BasicFileAttributes attrs)
+        throws IOException
+    {
+        if (!attrs.isRegularFile())
+            return false;
+        UserPrincipal owner = Files.getOwner(file, LinkOption.NOFOLLOW_LINKS);
+        UserPrincipal user = file.getFileSystem().getUserPrincipalLookupService()
+            .lookupPrincipalByName(System.getProperty("user.name"));
+        if (!owner.equals(user))
+            return false;
+        if (attrs instanceof PosixFileAttributes) {
+            Set<PosixFilePermission> perms = ((PosixFileAttributes) attrs).permissions();
+            if (perms.contains(PosixFilePermission.GROUP_WRITE)
+                || perms.contains(PosixFilePermission.OTHERS_WRITE))
+                return false;
+        }
+        return true;
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes)
+        throws IOException
+    {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void dump(String fileName) {
+        // Sorted so that the same forms give the same file
+        Map<String, byte[]> entries = new TreeMap<>(CLASS_FILES);
+        try {
+            MessageDigest md = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            try (DigestOutputStream dout = new DigestOutputStream(
+                     new BufferedOutputStream(new FileOutputStream(fileName)), md);
+                 DataOutputStream out = new DataOutputStream(dout)) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeBytes(out, BUILD_DIGEST);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, byte[]> e : entries.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    writeBytes(out, e.getValue());
+                }
+                out.flush();
+                dout.on(false);
+                writeBytes(out, md.digest());
+            }
+        } catch (IOException | NoSuchAlgorithmException ex) {
+            trace("Cannot write lambda form archive " + fileName + ": " + ex);
+        }
+    }
+
+    private static void trace(String message) {
+        if (TRACE_LAMBDA_FORM_ARCHIVE)
+            System.out.println(message);
+    }
+}
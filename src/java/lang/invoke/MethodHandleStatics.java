@@ -46,8 +46,11 @@ import sun.misc.Unsafe;
     static final boolean TRACE_INTERPRETER;
     static final boolean TRACE_METHOD_LINKAGE;
     static final Integer COMPILE_THRESHOLD;
+    static final String LAMBDA_FORM_ARCHIVE;
+    static final String LAMBDA_FORM_ARCHIVE_DUMP;
+    static final boolean TRACE_LAMBDA_FORM_ARCHIVE;
     static {
-        final Object[] values = { false, false, false, false, null };
+        final Object[] values = { false, false, false, false, null, null, null, false };
         AccessController.doPrivileged(new PrivilegedAction<Void>() {
                 public Void run() {
                     values[0] = Boolean.getBoolean("java.lang.invoke.MethodHandle.DEBUG_NAMES");
@@ -55,6 +58,9 @@ import sun.misc.Unsafe;
                     values[2] = Boolean.getBoolean("java.lang.invoke.MethodHandle.TRACE_INTERPRETER");
                     values[3] = Boolean.getBoolean("java.lang.invoke.MethodHandle.TRACE_METHOD_LINKAGE");
                     values[4] = Integer.getInteger("java.lang.invoke.MethodHandle.COMPILE_THRESHOLD");
+                    values[5] = System.getProperty("java.lang.invoke.MethodHandle.ARCHIVE");
+                    values[6] = System.getProperty("java.lang.invoke.MethodHandle.ARCHIVE_DUMP");
+                    values[7] = Boolean.getBoolean("java.lang.invoke.MethodHandle.TRACE_ARCHIVE");
                     return null;
                 }
             });
@@ -63,6 +69,9 @@ import sun.misc.Unsafe;
         TRACE_INTERPRETER         = (Boolean) values[2];
         TRACE_METHOD_LINKAGE      = (Boolean) values[3];
         COMPILE_THRESHOLD         = (Integer) values[4];
+        LAMBDA_FORM_ARCHIVE       = (String)  values[5];
+        LAMBDA_FORM_ARCHIVE_DUMP  = (String)  values[6];
+        TRACE_LAMBDA_FORM_ARCHIVE = (Boolean) values[7];
     }
 
     /*non-public*/ static String getNameString(MethodHandle target, MethodType type) {
@@ -88,8 +88,13 @@ final class MethodTypeForm {
     }
 
     public LambdaForm setCachedLambdaForm(int which, LambdaForm form) {
-        // Should we perform some sort of CAS, to avoid racy duplication?
-        return lambdaForms[which] = form;
+        // Keep the first form cached, so that threads racing to create
+        // it share one form, which is compiled or archived only once.
+        synchronized (lambdaForms) {
+            LambdaForm prev = lambdaForms[which];
+            if (prev != null)  return prev;
+            return lambdaForms[which] = form;
+        }
     }
 
     public MethodHandle basicInvoker() {
@@ -168,6 +168,10 @@ import sun.management.ManagementFactoryHelper;
  * <td> {@link java.util.logging.LogManager#LOGGING_MXBEAN_NAME
  *             java.util.logging:type=Logging}</td>
  * </tr>
+ * <tr>
+ * <td> {@link java.net.HttpConnectionPoolMXBean} </td>
+ * <td> {@code java.net:type=HttpConnectionPool}</td>
+ * </tr>
  * </table>
  * </blockquote>
  *
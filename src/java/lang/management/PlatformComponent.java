@@ -25,6 +25,8 @@
 
 package java.lang.management;
 
+import java.security.AccessController;
+import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -212,7 +214,21 @@ enum PlatformComponent {
         false, // zero or more instances
         new MXBeanFetcher<BufferPoolMXBean>() {
             public List<BufferPoolMXBean> getMXBeans() {
-                return ManagementFactoryHelper.getBufferPoolMXBeans();
+                return getBufferPoolMXBeanList();
+            }
+        }),
+
+    /**
+     * The system-wide HTTP connection pool.
+     */
+    HTTP_CONNECTION_POOL(
+        "java.net.HttpConnectionPoolMXBean",
+        "java.net", "HttpConnectionPool", defaultKeyProperties(),
+        true, // singleton
+        new MXBeanFetcher<java.net.HttpConnectionPoolMXBean>() {
+            public List<java.net.HttpConnectionPoolMXBean> getMXBeans() {
+                return Collections.<java.net.HttpConnectionPoolMXBean>
+                    singletonList(DefaultHttpConnectionPool.INSTANCE);
             }
         }),
 
@@ -310,6 +326,117 @@ enum PlatformComponent {
         }
     }
 
+    /*
+     * Returns the buffer pool mxbeans, and the one for the buffers held
+     * by java.nio.DirectBufferPools.
+     */
+    private static List<BufferPoolMXBean> getBufferPoolMXBeanList() {
+        List<BufferPoolMXBean> list =
+            ManagementFactoryHelper.getBufferPoolMXBeans();
+        List<BufferPoolMXBean> result = new ArrayList<>(list.size() + 1);
+        result.addAll(list);
+        result.add(PooledBufferPool.INSTANCE);
+        return result;
+    }
+
+    /*
+     * The buffers held by java.nio.DirectBufferPools, whether in use or
+     * not.  Their memory is also part of the "direct" buffer pool.
+     */
+    private static final class PooledBufferPool implements BufferPoolMXBean {
+        static final PooledBufferPool INSTANCE = new PooledBufferPool();
+
+        public String getName() {
+            return "direct-pooled";
+        }
+        public long getCount() {
+            return java.nio.DirectBufferPool.getTotalBufferCount();
+        }
+        public long getTotalCapacity() {
+            return java.nio.DirectBufferPool.getTotalReservedMemory();
+        }
+        public long getMemoryUsed() {
+            return java.nio.DirectBufferPool.getTotalReservedMemory();
+        }
+        public ObjectName getObjectName() {
+            return Util.newObjectName("java.nio:type=BufferPool,name=" + getName());
+        }
+    }
+
+    /*
+     * The statistics of the default java.net.HttpConnectionPool.  The
+     * default pool is looked up on each call, so that neither starting the
+     * platform MBeanServer nor obtaining this mxbean creates the pool, and
+     * a pool installed by HttpConnectionPool.setDefault is reported.
+     */
+    private static final class DefaultHttpConnectionPool
+        implements java.net.HttpConnectionPoolMXBean
+    {
+        static final DefaultHttpConnectionPool INSTANCE =
+            new DefaultHttpConnectionPool();
+
+        private static java.net.HttpConnectionPool pool() {
+            return AccessController.doPrivileged(
+                new PrivilegedAction<java.net.HttpConnectionPool>() {
+                    public java.net.HttpConnectionPool run() {
+                        return java.net.HttpConnectionPool.getDefault();
+                    }
+                });
+        }
+
+        public String getName() {
+            java.net.HttpConnectionPool p = pool();
+            return (p == null) ? null : p.getName();
+        }
+        public int getMaxConnectionsPerRoute() {
+            java.net.HttpConnectionPool p = pool();
+            return (p == null) ? 0 : p.getMaxConnectionsPerRoute();
+        }
+        public long getKeepAliveTime() {
+            java.net.HttpConnectionPool p = pool();
+            return (p == null) ? 0L : p.getKeepAliveTime();
+        }
+        public int getPipelineDepth() {
+            java.net.HttpConnectionPool p = pool();
+            return (p == null) ? 0 : p.getPipelineDepth();
+        }
+        public int getRouteCount() {
+            java.net.HttpConnectionPool p = pool();
+            return (p == null) ? 0 : p.getRouteCount();
+        }
+        public int getConnectionCount() {
+            java.net.HttpConnectionPool p = pool();
+            return (p == null) ? 0 : p.getConnectionCount();
+        }
+        public int getIdleConnectionCount() {
+            java.net.HttpConnectionPool p = pool();
+            return (p == null) ? 0 : p.getIdleConnectionCount();
+        }
+        public long getHitCount() {
+            java.net.HttpConnectionPool p = pool();
+            return (p == null) ? 0L : p.getHitCount();
+        }
+        public long getMissCount() {
+            java.net.HttpConnectionPool p = pool();
+            return (p == null) ? 0L : p.getMissCount();
+        }
+        public long getPipelinedCount() {
+            java.net.HttpConnectionPool p = pool();
+            return (p == null) ? 0L : p.getPipelinedCount();
+        }
+        public long getWaitCount() {
+            java.net.HttpConnectionPool p = pool();
+            return (p == null) ? 0L : p.getWaitCount();
+        }
+        public long getIdleEvictionCount() {
+            java.net.HttpConnectionPool p = pool();
+            return (p == null) ? 0L : p.getIdleEvictionCount();
+        }
+        public ObjectName getObjectName() {
+            return Util.newObjectName("java.net:type=HttpConnectionPool");
+        }
+    }
+
     private final String mxbeanInterfaceName;
     private final String domain;
     private final String type;
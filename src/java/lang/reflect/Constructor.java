@@ -566,7 +566,9 @@ public final
             constructorAccessor = tmp;
         } else {
             // Otherwise fabricate one and propagate it up to the root
-            tmp = reflectionFactory.newConstructorAccessor(this);
+            tmp = MethodHandleAccessor.newConstructorAccessor(this);
+            if (tmp == null)
+                tmp = reflectionFactory.newConstructorAccessor(this);
             setConstructorAccessor(tmp);
         }
 
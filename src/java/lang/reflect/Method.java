@@ -666,7 +666,9 @@ public final
             methodAccessor = tmp;
         } else {
             // Otherwise fabricate one and propagate it up to the root
-            tmp = reflectionFactory.newMethodAccessor(this);
+            tmp = MethodHandleAccessor.newMethodAccessor(this);
+            if (tmp == null)
+                tmp = reflectionFactory.newMethodAccessor(this);
             setMethodAccessor(tmp);
         }
 
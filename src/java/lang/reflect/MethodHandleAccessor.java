@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+
+package java.lang.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.security.AccessController;
+import sun.misc.Unsafe;
+import sun.reflect.ConstructorAccessor;
+import sun.reflect.MethodAccessor;
+import sun.security.action.GetPropertyAction;
+
+/**
+ * Accessor for a method or constructor that invokes it through a direct
+ * method handle instead of through JNI or a generated accessor class.
+ *
+ * <p> The handle is adapted to the single type <tt>(Object,
+ * Object[])Object</tt>, so the lambda forms that spread, unbox and box
+ * the arguments depend only on the erased signature of the member and
+ * are shared by all members with that signature. The accessor is shared
+ * by all copies of a method or constructor through their root.
+ *
+ * <p> Arguments are checked and widened here as the core reflection API
+ * requires before the handle is invoked. Only the exceptions thrown by
+ * the member itself are wrapped in an {@link InvocationTargetException},
+ * which is done by an exception handler around the direct handle, before
+ * it is adapted. An argument the adaptations fail to convert is reported
+ * as an {@link IllegalArgumentException}, other failures of the method
+ * handle machinery are thrown as they are.
+ *
+ * <p> Method handles are not used for caller sensitive methods, which
+ * need their real caller, for members of the classes implementing
+ * method handles, which could recurse, or before the VM is booted; the
+ * ordinary accessors are used instead. Setting the system property
+ * <tt>sun.reflect.useMethodHandles</tt> to <tt>false</tt> turns this
+ * accessor off.
+ */
+final class MethodHandleAccessor implements MethodAccessor,
+                                             ConstructorAccessor {
+
+    private static final Unsafe UNSAFE = Unsafe.getUnsafe();
+    private static final Object[] NO_ARGS = new Object[0];
+
+    // Lazily read once the VM is booted
+    private static volatile int enabled;  // 0 unknown, 1 on, -1 off
+
+    private final MethodHandle target;    // (Object, Object[])Object
+    private final Class<?>[] parameterTypes;
+    private final Class<?> receiverType;  // null if there is no receiver
+
+    // The class to initialize before the first invocation, so that an
+    // ExceptionInInitializerError is not taken for one of the member
+    private Class<?> initClass;
+
+    private MethodHandleAccessor(MethodHandle target,
+                                 Class<?>[] parameterTypes,
+                                 Class<?> receiverType,
+                                 Class<?> initClass) {
+        this.target = target;
+        this.parameterTypes = parameterTypes;
+        this.receiverType = receiverType;
+        this.initClass = initClass;
+    }
+
+    /**
+     * Returns an accessor for the given method, or null if the method
+     * cannot or should not be invoked through a method handle.
+     */
+    static MethodAccessor newMethodAccessor(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (!isEnabled() || isExcluded(declaringClass))
+            return null;
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        // An accessible copy is resolved without access checks, which
+        // Method.invoke has already made. Caller sensitive methods are
+        // refused by the public lookup.
+        Method m = method.copy();
+        m.override = true;
+        MethodHandle mh;
+        try {
+            mh = MethodHandles.publicLookup().unreflect(m);
+        } catch (IllegalAccessException e) {
+            return null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+        mh = spread(wrapExceptions(mh), parameterTypes.length, isStatic);
+        return new MethodHandleAccessor(mh, parameterTypes,
+                                        isStatic ? null : declaringClass,
+                                        isStatic ? declaringClass : null);
+    }
+
+    /**
+     * Returns an accessor for the given constructor, or null if the
+     * constructor cannot or should not be invoked through a method
+     * handle.
+     */
+    static ConstructorAccessor newConstructorAccessor(Constructor<?> ctor) {
+        Class<?> declaringClass = ctor.getDeclaringClass();
+        // Abstract classes are left to the ordinary accessor, which
+        // throws InstantiationException
+        if (!isEnabled() || isExcluded(declaringClass)
+            || Modifier.isAbstract(declaringClass.getModifiers()))
+            return null;
+        Class<?>[] parameterTypes = ctor.getParameterTypes();
+        Constructor<?> c = ctor.copy();
+        c.override = true;
+        MethodHandle mh;
+        try {
+            mh = MethodHandles.publicLookup().unreflectConstructor(c);
+        } catch (IllegalAccessException e) {
+            return null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+        mh = spread(wrapExceptions(mh), parameterTypes.length, true);
+        return new MethodHandleAccessor(mh, parameterTypes, null,
+                                        declaringClass);
+    }
+
+    /**
+     * Returns a handle that invokes the given direct handle and throws
+     * whatever it throws wrapped in an InvocationTargetException.
+     */
+    private static MethodHandle wrapExceptions(MethodHandle mh) {
+        MethodHandle handler = Wrapper.WRAP.asType(
+            MethodType.methodType(mh.type().returnType(), Throwable.class));
+        return MethodHandles.catchException(mh.asFixedArity(),
+                                            Throwable.class, handler);
+    }
+
+    // Holds the handler of wrapExceptions, which is looked up only once
+    // method handles are used
+    private static class Wrapper {
+        static final MethodHandle WRAP;
+        static {
+            try {
+                WRAP = MethodHandles.lookup().findStatic(
+                    MethodHandleAccessor.class, "wrap",
+                    MethodType.methodType(Object.class, Throwable.class));
+            } catch (ReflectiveOperationException e) {
+                throw new InternalError(e.toString());
+            }
+        }
+    }
+
+    private static Object wrap(Throwable t) throws InvocationTargetException {
+        throw new InvocationTargetException(t);
+    }
+
+    /**
+     * Adapts a handle taking n arguments, plus a receiver unless
+     * noReceiver is set, to the type (Object, Object[])Object.
+     */
+    private static MethodHandle spread(MethodHandle mh, int n,
+                                       boolean noReceiver) {
+        int arity = noReceiver ? n : n + 1;
+        mh = mh.asFixedArity()
+               .asType(MethodType.genericMethodType(arity))
+               .asSpreader(Object[].class, n);
+        if (noReceiver)
+            mh = MethodHandles.dropArguments(mh, 0, Object.class);
+        return mh;
+    }
+
+    private static boolean isEnabled() {
+        int e = enabled;
+        if (e == 0) {
+            // System properties are not ready before the VM is booted
+            if (!sun.misc.VM.isBooted())
+                return false;
+            String value = AccessController.doPrivileged(
+                new GetPropertyAction("sun.reflect.useMethodHandles"));
+            e = "false".equals(value) ? -1 : 1;
+            enabled = e;
+        }
+        return e > 0;
+    }
+
+    private static boolean isExcluded(Class<?> c) {
+        String name = c.getName();
+        return name.startsWith("java.lang.invoke.")
+            || name.startsWith("sun.invoke.");
+    }
+
+    public Object invoke(Object obj, Object[] args)
+        throws IllegalArgumentException, InvocationTargetException
+    {
+        if (receiverType != null) {
+            if (obj == null)
+                throw new NullPointerException();
+            if (!receiverType.isInstance(obj))
+                throw new IllegalArgumentException(
+                    "object is not an instance of declaring class");
+        }
+        args = checkArguments(args);
+        initialize();
+        try {
+            return (Object) target.invokeExact(obj, args);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public Object newInstance(Object[] args)
+        throws InstantiationException, IllegalArgumentException,
+               InvocationTargetException
+    {
+        args = checkArguments(args);
+        initialize();
+        try {
+            return (Object) target.invokeExact((Object) null, args);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Rethrows an exception thrown by the target handle. Exceptions of
+     * the member arrive wrapped already, see wrapExceptions.
+     */
+    private static InvocationTargetException rethrow(Throwable t) {
+        if (t instanceof InvocationTargetException)
+            return (InvocationTargetException) t;
+        if (t instanceof ClassCastException
+            || t instanceof NullPointerException)
+            throw new IllegalArgumentException("argument type mismatch", t);
+        if (t instanceof RuntimeException)
+            throw (RuntimeException) t;
+        if (t instanceof Error)
+            throw (Error) t;
+        throw new InternalError(t.toString());
+    }
+
+    private void initialize() {
+        Class<?> c = initClass;
+        if (c != null) {
+            UNSAFE.ensureClassInitialized(c);
+            initClass = null;
+        }
+    }
+
+    /**
+     * Checks the number and types of the arguments, returning them
+     * with every boxed primitive converted to the wrapper type of its
+     * parameter. The array passed in is copied if it has to be changed.
+     */
+    private Object[] checkArguments(Object[] args) {
+        int n = parameterTypes.length;
+        if ((args == null ? 0 : args.length) != n)
+            throw new IllegalArgumentException("wrong number of arguments");
+        if (n == 0)
+            return NO_ARGS;
+        Object[] res = args;
+        for (int i = 0; i < n; i++) {
+            Class<?> type = parameterTypes[i];
+            Object arg = args[i];
+            if (type.isPrimitive()) {
+                Object value = widen(arg, type);
+                if (value == null)
+                    throw new IllegalArgumentException("argument type mismatch");
+                if (value != arg) {
+                    if (res == args)
+                        res = args.clone();
+                    res[i] = value;
+                }
+            } else if (arg != null && !type.isInstance(arg)) {
+                throw new IllegalArgumentException("argument type mismatch");
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Returns the value of a boxed primitive as the wrapper of the given
+     * primitive type, applying an unboxing and a widening primitive
+     * conversion, or null if there is no such conversion.
+     */
+    private static Object widen(Object arg, Class<?> type) {
+        if (arg == null)
+            return null;
+        Class<?> c = arg.getClass();
+        if (type == boolean.class)
+            return (c == Boolean.class) ? arg : null;
+        if (type == char.class)
+            return (c == Character.class) ? arg : null;
+        if (c == Character.class)
+            arg = Integer.valueOf((Character) arg);
+        int from = rank(arg.getClass());
+        int to = rank(type);
+        if (from == 0 || from > to)
+            return null;
+        if (from == to)
+            return arg;
+        Number n = (Number) arg;
+        switch (to) {
+        case 2:  return Short.valueOf(n.shortValue());
+        case 3:  return Integer.valueOf(n.intValue());
+        case 4:  return Long.valueOf(n.longValue());
+        case 5:  return Float.valueOf(n.floatValue());
+        default: return Double.valueOf(n.doubleValue());
+        }
+    }
+
+    // Position in the order of widening primitive conversions, or 0
+    private static int rank(Class<?> c) {
+        if (c == Byte.class    || c == byte.class)   return 1;
+        if (c == Short.class   || c == short.class)  return 2;
+        if (c == Integer.class || c == int.class)    return 3;
+        if (c == Long.class    || c == long.class)   return 4;
+        if (c == Float.class   || c == float.class)  return 5;
+        if (c == Double.class  || c == double.class) return 6;
+        return 0;
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.net;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import sun.misc.Resource;
+import sun.misc.URLClassPath;
+import sun.net.www.ParseUtil;
+
+/**
+ * A package to class path element index used by {@link URLClassLoader}
+ * to go straight to the elements of its search path that may hold a
+ * resource, instead of probing every element in turn.
+ * <p>
+ * Each element of the search path is searched through its own single
+ * element {@code URLClassPath}, created on first probe and closed by
+ * {@link #close}. Local JAR files are indexed, on first lookup, by
+ * reading their central directory: the set of directories holding
+ * entries is recorded and the file is closed again. A lookup probes, in
+ * search path order, the JAR files whose directory set holds the
+ * directory of the resource name, and falls back to probing only the
+ * elements that cannot be indexed: directories, remote URLs, missing
+ * files, and JAR files that carry a {@code Class-Path} manifest attribute
+ * or a {@code META-INF/INDEX.LIST} (the search path of those depends on
+ * more than their own entries). The candidate elements of each directory
+ * are cached, so that a lookup for a package held by no JAR file touches
+ * only the elements that cannot be indexed.
+ * <p>
+ * Lookups take no lock held across the index: the elements and the
+ * cached candidates form an immutable snapshot, and each element is
+ * indexed, and has its {@code URLClassPath} created, under its own lock.
+ * Appending a URL extends the search path at its end and publishes a new
+ * snapshot; the order in which elements are searched is never changed.
+ */
+final class ClassPathIndex {
+
+    /* A directory that no element may hold */
+    private static final Element[] NONE = new Element[0];
+
+    /* The factory used to create the URLClassPath of each element */
+    private final URLStreamHandlerFactory factory;
+
+    /* The elements of the search path, in search order. Guarded by this */
+    private final ArrayList<Element> elements = new ArrayList<>();
+
+    /* The URLs of the elements, to ignore duplicates as URLClassPath does */
+    private final HashSet<URL> urls = new HashSet<>();
+
+    /* The current elements and their candidates. Written under this */
+    private volatile Snapshot snapshot = new Snapshot(NONE);
+
+    /* Whether the index has been closed */
+    private volatile boolean closed;
+
+    ClassPathIndex(URL[] urls, URLStreamHandlerFactory factory) {
+        this.factory = factory;
+        for (URL url : urls) {
+            addURL(url);
+        }
+    }
+
+    /**
+     * Appends the specified URL to the end of the search path. Null
+     * and duplicate URLs are ignored, as are URLs added after close.
+     */
+    synchronized void addURL(URL url) {
+        if (url == null || closed || !urls.add(url)) {
+            return;
+        }
+        elements.add(new Element(url));
+        snapshot = new Snapshot(elements.toArray(new Element[elements.size()]));
+    }
+
+    /**
+     * Finds the first resource with the specified name on the search path.
+     */
+    Resource getResource(String name, boolean check) {
+        for (Element e : candidates(name)) {
+            URLClassPath path = e.path();
+            Resource res = (path == null) ? null : path.getResource(name, check);
+            if (res != null) {
+                return res;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the URL of the first resource with the specified name on
+     * the search path.
+     */
+    URL findResource(String name, boolean check) {
+        for (Element e : candidates(name)) {
+            URLClassPath path = e.path();
+            URL url = (path == null) ? null : path.findResource(name, check);
+            if (url != null) {
+                return url;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns an Enumeration of the URLs of all the resources with the
+     * specified name on the search path. The candidate elements are only
+     * determined, and their JAR files only opened, when the Enumeration
+     * is first consulted.
+     */
+    Enumeration<URL> findResources(final String name, final boolean check) {
+        return new Enumeration<URL>() {
+            private Element[] elems;
+            private int index;
+            private Enumeration<URL> e;
+            private URL url;
+            private final Set<String> seen = new HashSet<>();
+
+            private boolean next() {
+                if (url != null) {
+                    return true;
+                }
+                if (elems == null) {
+                    elems = candidates(name);
+                }
+                while (true) {
+                    while (e == null || !e.hasMoreElements()) {
+                        if (index >= elems.length) {
+                            return false;
+                        }
+                        URLClassPath path = elems[index++].path();
+                        if (path != null) {
+                            e = path.findResources(name, check);
+                        }
+                    }
+                    URL u = e.nextElement();
+                    // JAR files named by a Class-Path attribute may be
+                    // reached from more than one element
+                    if (seen.add(u.toExternalForm())) {
+                        url = u;
+                        return true;
+                    }
+                }
+            }
+
+            public boolean hasMoreElements() {
+                return next();
+            }
+
+            public URL nextElement() {
+                if (!next()) {
+                    throw new NoSuchElementException();
+                }
+                URL u = url;
+                url = null;
+                return u;
+            }
+        };
+    }
+
+    /**
+     * Closes the URLClassPath of every element, returning the exceptions
+     * thrown in doing so. Lookups after close find nothing.
+     */
+    synchronized List<IOException> close() {
+        List<IOException> errors = new ArrayList<>();
+        if (closed) {
+            return errors;
+        }
+        closed = true;
+        snapshot = new Snapshot(NONE);
+        for (Element e : elements) {
+            errors.addAll(e.close());
+        }
+        return errors;
+    }
+
+    /*
+     * Returns the elements, in search order, that may hold the resource
+     * with the specified name. Elements not indexed yet are indexed
+     * first.
+     */
+    private Element[] candidates(String name) {
+        Snapshot s = snapshot;
+        int i = name.lastIndexOf('/');
+        String dir = (i == -1) ? "" : name.substring(0, i);
+        Element[] elems = s.candidates.get(dir);
+        if (elems == null) {
+            List<Element> list = new ArrayList<>();
+            for (Element e : s.elements) {
+                Set<String> dirs = e.dirs();
+                if (dirs == null || dirs.contains(dir)) {
+                    list.add(e);
+                }
+            }
+            elems = list.isEmpty() ? NONE : list.toArray(new Element[list.size()]);
+            s.candidates.put(dir, elems);
+        }
+        return elems;
+    }
+
+    /*
+     * The elements of the search path, and the candidates of the
+     * directories looked up so far.
+     */
+    private static final class Snapshot {
+        final Element[] elements;
+        final ConcurrentHashMap<String, Element[]> candidates =
+            new ConcurrentHashMap<>();
+
+        Snapshot(Element[] elements) {
+            this.elements = elements;
+        }
+    }
+
+    /*
+     * An element of the search path.
+     */
+    private final class Element {
+        final URL url;
+
+        /* The directories holding entries, or null if always probed */
+        private Set<String> dirs;
+
+        /* Whether the element has been indexed */
+        private boolean indexed;
+
+        /* The search path of this element alone, created on first probe */
+        private URLClassPath path;
+
+        Element(URL url) {
+            this.url = url;
+        }
+
+        /*
+         * Returns the search path of this element, or null once the
+         * index has been closed.
+         */
+        synchronized URLClassPath path() {
+            if (closed) {
+                return null;
+            }
+            if (path == null) {
+                path = new URLClassPath(new URL[] { url }, factory);
+            }
+            return path;
+        }
+
+        synchronized List<IOException> close() {
+            List<IOException> errors = (path == null)
+                ? new ArrayList<IOException>() : path.closeLoaders();
+            path = null;
+            return errors;
+        }
+
+        /*
+         * Returns the directories holding entries, indexing the element
+         * on first call, or null if the element cannot be indexed.
+         */
+        synchronized Set<String> dirs() {
+            if (!indexed) {
+                dirs = index();
+                indexed = true;
+            }
+            return dirs;
+        }
+
+        private Set<String> index() {
+            String file = url.getFile();
+            if (!"file".equals(url.getProtocol()) || file.endsWith("/")) {
+                return null;
+            }
+            File f = new File(ParseUtil.decode(file.replace('/', File.separatorChar)));
+            if (!f.isFile()) {
+                // Nothing to find, unless it is created later
+                return null;
+            }
+            try (JarFile jar = new JarFile(f, false)) {
+                if (jar.getEntry("META-INF/INDEX.LIST") != null) {
+                    return null;
+                }
+                Manifest man = jar.getManifest();
+                if (man != null && man.getMainAttributes()
+                        .getValue(Attributes.Name.CLASS_PATH) != null) {
+                    return null;
+                }
+                Set<String> set = new HashSet<>();
+                set.add("");
+                Enumeration<JarEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    String name = entries.nextElement().getName();
+                    int i = name.lastIndexOf('/');
+                    // Record the enclosing directories too, as a lookup
+                    // of "a/b" may find the directory entry "a/b/"
+                    while (i > 0 && set.add(name.substring(0, i))) {
+                        i = name.lastIndexOf('/', i - 1);
+                    }
+                }
+                return set;
+            } catch (IOException | SecurityException x) {
+                // Leave it to URLClassPath to report or ignore
+                return null;
+            }
+        }
+    }
+}
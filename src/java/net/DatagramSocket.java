@@ -787,6 +787,150 @@ class DatagramSocket implements java.io.Closeable {
         }
     }
 
+    /**
+     * Sends a batch of datagram packets from this socket, in order.
+     *
+     * <p>This method behaves as if by invoking {@link #send(DatagramPacket)}
+     * for each packet in turn, and makes the same checks on each packet,
+     * but the socket's implementation may hand the whole batch to the
+     * operating system in a single call. Every packet is checked before
+     * any packet is sent or has its address filled in, so that if a check
+     * fails for any packet then no packets are sent and none is modified.
+     *
+     * @param      packets   the packets to be sent.
+     * @return     the number of packets sent.
+     *
+     * @exception  IOException  if an I/O error occurs; packets before the
+     *             one that failed may have been sent.
+     * @exception  SecurityException  if a security manager exists and its
+     *             <code>checkMulticast</code> or <code>checkConnect</code>
+     *             method doesn't allow the send of one of the packets.
+     * @exception  PortUnreachableException may be thrown if the socket is connected
+     *             to a currently unreachable destination. Note, there is no
+     *             guarantee that the exception will be thrown.
+     * @exception  java.nio.channels.IllegalBlockingModeException
+     *             if this socket has an associated channel,
+     *             and the channel is in non-blocking mode.
+     * @exception  IllegalArgumentException if the socket is connected,
+     *             and connected address and the address of a packet differ.
+     *
+     * @see        #send(DatagramPacket)
+     * @since 1.8
+     */
+    public int send(DatagramPacket[] packets) throws IOException {
+        if (isClosed())
+            throw new SocketException("Socket is closed");
+        // Check every packet first, through the accessors which subclasses
+        // such as the adaptors of datagram channels override
+        boolean connected = isConnected();
+        InetAddress remoteAddress = getInetAddress();
+        int remotePort = getPort();
+        SecurityManager security = System.getSecurityManager();
+        for (DatagramPacket p : packets) {
+            synchronized (p) {
+                InetAddress packetAddress = p.getAddress();
+                checkAddress(packetAddress, "send");
+                if (!connected) {
+                    // As thrown by the implementation's send
+                    if (packetAddress == null)
+                        throw new NullPointerException("null address");
+                    if (security != null) {
+                        if (packetAddress.isMulticastAddress()) {
+                            security.checkMulticast(packetAddress);
+                        } else {
+                            security.checkConnect(packetAddress.getHostAddress(),
+                                                  p.getPort());
+                        }
+                    }
+                } else if (packetAddress != null &&
+                           ((!packetAddress.equals(remoteAddress)) ||
+                            p.getPort() != remotePort)) {
+                    throw new IllegalArgumentException("connected address " +
+                                                       "and packet address" +
+                                                       " differ");
+                }
+            }
+        }
+        // All packets are acceptable. Without a connection, the security
+        // checks have to be repeated under each packet's lock as it is sent.
+        if (!batchable() || (!connected && security != null)) {
+            for (DatagramPacket p : packets)
+                send(p);
+            return packets.length;
+        }
+        if (connectState != ST_NOT_CONNECTED) {
+            for (DatagramPacket p : packets) {
+                synchronized (p) {
+                    if (p.getAddress() == null) {
+                        p.setAddress(connectedAddress);
+                        p.setPort(connectedPort);
+                    }
+                }
+            }
+        }
+        if (!isBound())
+            bind(new InetSocketAddress(0));
+        return getImpl().send(packets);
+    }
+
+    /**
+     * Receives a batch of datagram packets from this socket.
+     *
+     * <p>This method blocks until at least one datagram is received, or
+     * the timeout set by {@link #setSoTimeout setSoTimeout} expires. The
+     * socket's implementation may then receive further datagrams already
+     * queued on the socket, up to the number of packets, without blocking
+     * again; the default socket implementation receives a single datagram.
+     * Each packet is filled in as by {@link #receive(DatagramPacket)}.
+     *
+     * <p>If there is a security manager and the socket is not connected,
+     * or if the socket's implementation cannot filter datagrams by their
+     * source itself, then each datagram must be vetted before it is
+     * received and this method receives a single datagram into the first
+     * packet, exactly as by {@link #receive(DatagramPacket)}.
+     *
+     * @param      packets   the packets into which to place the incoming
+     *                       data; must not be empty.
+     * @return     the number of packets, starting with the first, that
+     *             were filled.
+     *
+     * @exception  IOException  if an I/O error occurs.
+     * @exception  SocketTimeoutException  if setSoTimeout was previously called
+     *                 and the timeout has expired.
+     * @exception  PortUnreachableException may be thrown if the socket is connected
+     *             to a currently unreachable destination. Note, there is no guarantee that the
+     *             exception will be thrown.
+     * @exception  java.nio.channels.IllegalBlockingModeException
+     *             if this socket has an associated channel,
+     *             and the channel is in non-blocking mode.
+     * @exception  IllegalArgumentException if <code>packets</code> is empty.
+     *
+     * @see        #receive(DatagramPacket)
+     * @since 1.8
+     */
+    public synchronized int receive(DatagramPacket[] packets)
+        throws IOException
+    {
+        if (packets.length == 0)
+            throw new IllegalArgumentException("no packets");
+        if (!batchable() || connectState == ST_CONNECTED_NO_IMPL ||
+            (connectState == ST_NOT_CONNECTED &&
+             System.getSecurityManager() != null)) {
+            receive(packets[0]);
+            return 1;
+        }
+        if (!isBound())
+            bind(new InetSocketAddress(0));
+        return getImpl().receive(packets);
+    }
+
+    // Tells whether the batch operations may go straight to the socket's
+    // implementation, which is not so for subclasses that override the
+    // single-packet operations, such as the adaptors of datagram channels
+    private boolean batchable() throws SocketException {
+        return !oldImpl && getImpl() instanceof AbstractPlainDatagramSocketImpl;
+    }
+
     /**
      * Gets the local address to which the socket is bound.
      *
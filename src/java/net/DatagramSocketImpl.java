@@ -75,6 +75,26 @@ public abstract class DatagramSocketImpl implements SocketOptions {
      */
     protected abstract void send(DatagramPacket p) throws IOException;
 
+    /**
+     * Sends a batch of datagram packets, in order. An implementation may
+     * hand the whole batch to the operating system at once.
+     * The default implementation sends each packet with {@link
+     * #send(DatagramPacket)}.
+     * @param packets the packets to be sent.
+     * @return the number of packets sent.
+     * @exception IOException if an I/O exception occurs while sending the
+     * datagram packets; packets before the one that failed may have been sent.
+     * @exception  PortUnreachableException may be thrown if the socket is connected
+     * to a currently unreachable destination. Note, there is no guarantee that
+     * the exception will be thrown.
+     * @since 1.8
+     */
+    protected int send(DatagramPacket[] packets) throws IOException {
+        for (DatagramPacket p : packets)
+            send(p);
+        return packets.length;
+    }
+
     /**
      * Connects a datagram socket to a remote destination. This associates the remote
      * address with the local socket so that datagrams may only be sent to this destination
@@ -137,6 +157,29 @@ public abstract class DatagramSocketImpl implements SocketOptions {
      */
     protected abstract void receive(DatagramPacket p) throws IOException;
 
+    /**
+     * Receives a batch of datagram packets. Blocks, subject to the
+     * socket's timeout, until at least one datagram is available, and then
+     * may receive further datagrams already queued, up to the number of
+     * packets. An implementation may receive the whole batch from the
+     * operating system at once.
+     * The default implementation receives a single datagram into the
+     * first packet with {@link #receive(DatagramPacket)}.
+     * @param packets the packets into which to place the incoming data;
+     * must not be empty.
+     * @return the number of packets, starting with the first, that were filled.
+     * @exception IOException if an I/O exception occurs
+     * while receiving the datagram packets.
+     * @exception  PortUnreachableException may be thrown if the socket is connected
+     *       to a currently unreachable destination. Note, there is no guarantee that the
+     *       exception will be thrown.
+     * @since 1.8
+     */
+    protected int receive(DatagramPacket[] packets) throws IOException {
+        receive(packets[0]);
+        return 1;
+    }
+
     /**
      * Set the TTL (time-to-live) option.
      * @param ttl a byte specifying the TTL value
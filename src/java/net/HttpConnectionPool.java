@@ -0,0 +1,1109 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.net;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import sun.security.action.GetIntegerAction;
+import sun.security.action.GetPropertyAction;
+
+/**
+ * A pool of persistent HTTP/1.1 connections, keyed by route.
+ *
+ * <p> A <em>route</em> is the combination of the scheme, host and port of a
+ * {@link URL} and the {@link Proxy} through which it is reached. The pool
+ * keeps at most {@link #getMaxConnectionsPerRoute maxConnectionsPerRoute}
+ * connections open to each route. A request for which no connection is
+ * available waits until another request releases its connection, or until
+ * its timeout elapses.
+ *
+ * <p> A protocol handler obtains a connection for one request/response
+ * exchange by invoking {@link #acquire acquire}. It writes the request to the
+ * connection's {@link Connection#getOutputStream output stream}, invokes
+ * {@link Connection#requestSent requestSent}, then {@link
+ * Connection#awaitResponse awaitResponse}, and reads the response from the
+ * connection's {@link Connection#getInputStream input stream}. Once the
+ * response has been read completely the connection is given back with {@link
+ * Connection#release release}. If the exchange fails, or the server asks for
+ * the connection to be closed, the connection is closed with {@link
+ * Connection#discard discard}. A connection that has been {@link
+ * Connection#isReused reused} may have been closed by the server while it was
+ * idle; a handler may retry an idempotent request that fails on such a
+ * connection.
+ *
+ * <p> Connections that stay idle for longer than the {@link #getKeepAliveTime
+ * keep-alive time} are closed by a background thread. The most recently
+ * released connection of a route is handed out first, so that surplus
+ * connections age and are evicted.
+ *
+ * <a name="pipelining"><h4>Pipelining</h4></a>
+ *
+ * <p> When the {@link #setPipelineDepth pipeline depth} is greater than
+ * {@code 1} and all connections to a route are in use, a request with an
+ * idempotent method ({@code GET}, {@code HEAD}, {@code OPTIONS}, {@code
+ * TRACE}, {@code PUT} or {@code DELETE}) may be given a connection on which
+ * other requests are still outstanding, rather than wait. Requests are only
+ * pipelined on connections that the server has already kept alive, and
+ * never behind a request with a non-idempotent method. The requests on a
+ * connection are written in the order in which the connection was acquired
+ * for them, and {@link Connection#awaitResponse awaitResponse} blocks until
+ * the responses to all earlier requests have been read. If a connection is
+ * discarded then the requests pipelined behind the discarding one fail and
+ * may be retried. Pipelining is disabled by default.
+ *
+ * <a name="default"><h4>The default pool</h4></a>
+ *
+ * <p> The {@link #getDefault default} pool is a system-wide pool that protocol
+ * handlers and applications may share. It is created on first use and
+ * configured by the following system properties:
+ *
+ * <table border>
+ *   <tr>
+ *     <th>System property</th>
+ *     <th>Description</th>
+ *   </tr>
+ *   <tr>
+ *     <td> {@code http.keepAlive} </td>
+ *     <td> If {@code false} there is no default pool and every request is
+ *     sent on a new connection. The default value is {@code true}. </td>
+ *   </tr>
+ *   <tr>
+ *     <td> {@code http.maxConnections} </td>
+ *     <td> The maximum number of connections per route. The default value
+ *     is {@code 5}. </td>
+ *   </tr>
+ *   <tr>
+ *     <td> {@code http.keepAlive.idleTimeout} </td>
+ *     <td> The keep-alive time of idle connections, in seconds. The default
+ *     value is {@code 5}. </td>
+ *   </tr>
+ *   <tr>
+ *     <td> {@code http.pipelining.maxDepth} </td>
+ *     <td> The maximum number of outstanding requests per connection. The
+ *     default value is {@code 1}, which disables pipelining. </td>
+ *   </tr>
+ * </table>
+ *
+ * <p> The statistics of a pool are available through its {@link
+ * HttpConnectionPoolMXBean} management interface. The statistics of the
+ * default pool are available through the platform MXBean of that interface,
+ * see {@link java.lang.management.ManagementFactory#getPlatformMXBean(Class)
+ * ManagementFactory.getPlatformMXBean}.
+ *
+ * <p> This class is safe for use by multiple concurrent threads. The {@link
+ * Connection} objects handed out by a pool are not.
+ *
+ * @since 1.8
+ */
+public class HttpConnectionPool implements HttpConnectionPoolMXBean {
+
+    private static final int DEFAULT_MAX_CONNECTIONS = 5;
+    private static final int DEFAULT_KEEP_ALIVE_SECONDS = 5;
+
+    /**
+     * The system-wide connection pool, created on first use.
+     *
+     * @see #setDefault(HttpConnectionPool)
+     * @see #getDefault()
+     */
+    private static HttpConnectionPool theConnectionPool;
+    private static boolean defaultInitialized;
+
+    /**
+     * Gets the system-wide connection pool.
+     *
+     * @throws  SecurityException
+     *          If a security manager has been installed and it denies
+     * {@link NetPermission}<tt>("getHttpConnectionPool")</tt>
+     *
+     * @see #setDefault(HttpConnectionPool)
+     * @return  the system-wide <code>HttpConnectionPool</code>, or
+     *          <code>null</code> if connections are not pooled
+     */
+    public static HttpConnectionPool getDefault() {
+        SecurityManager sm = System.getSecurityManager();
+        if (sm != null) {
+            sm.checkPermission(new NetPermission("getHttpConnectionPool"));
+        }
+        synchronized (HttpConnectionPool.class) {
+            if (!defaultInitialized) {
+                theConnectionPool = createDefault();
+                defaultInitialized = true;
+            }
+            return theConnectionPool;
+        }
+    }
+
+    /**
+     * Sets (or unsets) the system-wide connection pool. The pool that it
+     * replaces is not closed.
+     *
+     * Note: non-standard protocol handlers may ignore this setting.
+     *
+     * @param pool The connection pool, or
+     *          <code>null</code> to send every request on a new connection.
+     *
+     * @throws  SecurityException
+     *          If a security manager has been installed and it denies
+     * {@link NetPermission}<tt>("setHttpConnectionPool")</tt>
+     *
+     * @see #getDefault()
+     */
+    public synchronized static void setDefault(HttpConnectionPool pool) {
+        SecurityManager sm = System.getSecurityManager();
+        if (sm != null) {
+            sm.checkPermission(new NetPermission("setHttpConnectionPool"));
+        }
+        theConnectionPool = pool;
+        defaultInitialized = true;
+    }
+
+    private static HttpConnectionPool createDefault() {
+        String keepAlive = AccessController.doPrivileged(
+            new GetPropertyAction("http.keepAlive", "true"));
+        if (!Boolean.parseBoolean(keepAlive))
+            return null;
+        int max = AccessController.doPrivileged(
+            new GetIntegerAction("http.maxConnections",
+                                 DEFAULT_MAX_CONNECTIONS)).intValue();
+        if (max <= 0)
+            max = DEFAULT_MAX_CONNECTIONS;
+        int timeout = AccessController.doPrivileged(
+            new GetIntegerAction("http.keepAlive.idleTimeout",
+                                 DEFAULT_KEEP_ALIVE_SECONDS)).intValue();
+        if (timeout < 0)
+            timeout = DEFAULT_KEEP_ALIVE_SECONDS;
+        int depth = AccessController.doPrivileged(
+            new GetIntegerAction("http.pipelining.maxDepth", 1)).intValue();
+        HttpConnectionPool pool =
+            new HttpConnectionPool("default", max, timeout, TimeUnit.SECONDS);
+        if (depth > 1)
+            pool.setPipelineDepth(depth);
+        return pool;
+    }
+
+    private final String name;
+    private final int maxPerRoute;
+    private final long keepAliveTime;       // in nanoseconds
+    private volatile int pipelineDepth = 1;
+    private volatile boolean closed;
+
+    private final ConcurrentMap<Route,RouteState> routes =
+        new ConcurrentHashMap<>();
+
+    // statistics
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong pipelined = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+    private final AtomicLong idleEvictions = new AtomicLong();
+
+    // thread that evicts idle connections, null if there are none
+    private Thread evictor;
+
+    /**
+     * Creates a new connection pool.
+     *
+     * @param   name
+     *          The name of the pool, used to identify its management interface
+     * @param   maxConnectionsPerRoute
+     *          The maximum number of connections to keep open to a route
+     * @param   keepAliveTime
+     *          The time that an idle connection is kept open
+     * @param   unit
+     *          The time unit of the {@code keepAliveTime} argument
+     *
+     * @throws  IllegalArgumentException
+     *          If {@code maxConnectionsPerRoute <= 0} or {@code keepAliveTime
+     *          < 0}
+     * @throws  NullPointerException
+     *          If {@code name} or {@code unit} is {@code null}
+     */
+    public HttpConnectionPool(String name, int maxConnectionsPerRoute,
+                              long keepAliveTime, TimeUnit unit)
+    {
+        if (name == null || unit == null)
+            throw new NullPointerException();
+        if (maxConnectionsPerRoute <= 0)
+            throw new IllegalArgumentException("maxConnectionsPerRoute <= 0");
+        if (keepAliveTime < 0)
+            throw new IllegalArgumentException("keepAliveTime < 0");
+        this.name = name;
+        this.maxPerRoute = maxConnectionsPerRoute;
+        this.keepAliveTime = unit.toNanos(keepAliveTime);
+    }
+
+    /**
+     * Returns the name of this connection pool.
+     *
+     * @return  The name of this connection pool
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the maximum number of connections that this pool keeps open to
+     * a single route.
+     *
+     * @return  The maximum number of connections per route
+     */
+    public int getMaxConnectionsPerRoute() {
+        return maxPerRoute;
+    }
+
+    /**
+     * Returns the time, in milliseconds, that an idle connection is kept
+     * open before it is evicted from this pool.
+     *
+     * @return  The keep-alive time in milliseconds
+     */
+    public long getKeepAliveTime() {
+        return TimeUnit.NANOSECONDS.toMillis(keepAliveTime);
+    }
+
+    /**
+     * Sets the maximum number of requests that may be outstanding on a single
+     * connection (see <a href="#pipelining">Pipelining</a>).
+     *
+     * @param   depth
+     *          The maximum pipeline depth, {@code 1} to disable pipelining
+     *
+     * @throws  IllegalArgumentException
+     *          If {@code depth < 1}
+     */
+    public void setPipelineDepth(int depth) {
+        if (depth < 1)
+            throw new IllegalArgumentException("depth < 1");
+        pipelineDepth = depth;
+    }
+
+    /**
+     * Returns the maximum number of requests that may be outstanding on a
+     * single connection.
+     *
+     * @return  The maximum pipeline depth
+     */
+    public int getPipelineDepth() {
+        return pipelineDepth;
+    }
+
+    /**
+     * Acquires a connection for one request/response exchange.
+     *
+     * <p> An idle connection to the route of the given URL and proxy is
+     * returned if there is one. Otherwise a new connection is opened by
+     * invoking {@link #newSocket newSocket}, provided that fewer than {@link
+     * #getMaxConnectionsPerRoute maxConnectionsPerRoute} connections to the
+     * route are open. Otherwise the request is <a
+     * href="#pipelining">pipelined</a> if possible, or waits for a
+     * connection to be released.
+     *
+     * @param   url
+     *          The URL of the request
+     * @param   proxy
+     *          The proxy through which the request is sent, or {@code null}
+     *          for a direct connection
+     * @param   method
+     *          The request method
+     * @param   timeout
+     *          The time in milliseconds to wait for a connection, which is
+     *          also the timeout for opening a new connection; {@code 0} for
+     *          an infinite timeout
+     *
+     * @return  The connection
+     *
+     * @throws  SocketTimeoutException
+     *          If the timeout elapses before a connection is available
+     * @throws  InterruptedIOException
+     *          If the thread is interrupted while waiting for a connection
+     * @throws  IOException
+     *          If this pool is closed or if an I/O error occurs while
+     *          opening a connection
+     * @throws  IllegalArgumentException
+     *          If {@code timeout} is negative
+     */
+    public Connection acquire(URL url, Proxy proxy, String method, int timeout)
+        throws IOException
+    {
+        if (timeout < 0)
+            throw new IllegalArgumentException("timeout < 0");
+        if (proxy == null)
+            proxy = Proxy.NO_PROXY;
+        Route route = new Route(url, proxy);
+        boolean idempotent = isIdempotent(method);
+        long deadline = (timeout > 0) ?
+            System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout) : 0L;
+        boolean waited = false;
+
+        for (;;) {
+            ensureOpen();
+            RouteState rs = routeState(route);
+            synchronized (rs) {
+                if (rs.removed)
+                    continue;
+                PooledSocket ps = rs.pollIdle();
+                if (rs.removed)
+                    continue;
+                if (ps != null) {
+                    hits.incrementAndGet();
+                    return rs.lease(ps, idempotent);
+                }
+                if (rs.connections.size() + rs.pending < maxPerRoute) {
+                    rs.pending++;
+                } else {
+                    if (idempotent && pipelineDepth > 1) {
+                        ps = rs.pipelineCandidate(pipelineDepth);
+                        if (ps != null) {
+                            pipelined.incrementAndGet();
+                            return rs.lease(ps, idempotent);
+                        }
+                    }
+                    if (!waited) {
+                        waits.incrementAndGet();
+                        waited = true;
+                    }
+                    long wait = 0L;
+                    if (timeout > 0) {
+                        wait = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                        if (wait <= 0)
+                            throw new SocketTimeoutException(
+                                "Timed out waiting for a pooled connection");
+                    }
+                    rs.waiters++;
+                    try {
+                        rs.wait(wait);
+                    } catch (InterruptedException x) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException(
+                            "Interrupted while waiting for a pooled connection");
+                    } finally {
+                        rs.waiters--;
+                    }
+                    continue;
+                }
+            }
+
+            // open a new connection outside of the lock
+            misses.incrementAndGet();
+            int connectTimeout = 0;
+            if (timeout > 0) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                connectTimeout = (int)Math.max(1L, remaining);
+            }
+            Socket s = null;
+            try {
+                s = newSocket(url, proxy, connectTimeout);
+            } finally {
+                if (s == null) {
+                    synchronized (rs) {
+                        rs.pending--;
+                        rs.notifyAll();
+                        rs.removeIfUnused();
+                    }
+                }
+            }
+            synchronized (rs) {
+                rs.pending--;
+                if (closed) {
+                    rs.notifyAll();
+                    rs.removeIfUnused();
+                    try {
+                        s.close();
+                    } catch (IOException ignore) { }
+                    throw new IOException("Connection pool closed");
+                }
+                PooledSocket ps = new PooledSocket(rs, s);
+                rs.connections.add(ps);
+                return rs.lease(ps, idempotent);
+            }
+        }
+    }
+
+    /**
+     * Opens a new connection to the route of the given URL and proxy.
+     *
+     * <p> The default implementation connects a plain {@link Socket} to the
+     * host and port of the URL, or to the address of an HTTP proxy, or
+     * through a SOCKS proxy. A protocol handler that tunnels through an HTTP
+     * proxy or layers TLS over the connection does so after {@link #acquire
+     * acquire} returns, and installs the layered socket with {@link
+     * Connection#setSocket setSocket}.
+     *
+     * @param   url
+     *          The URL of the request
+     * @param   proxy
+     *          The proxy through which the request is sent
+     * @param   connectTimeout
+     *          The connect timeout in milliseconds, {@code 0} for an infinite
+     *          timeout
+     *
+     * @return  A connected socket
+     *
+     * @throws  IOException
+     *          If an I/O error occurs
+     */
+    protected Socket newSocket(URL url, Proxy proxy, int connectTimeout)
+        throws IOException
+    {
+        String host = url.getHost();
+        int port = url.getPort();
+        if (port == -1)
+            port = url.getDefaultPort();
+        Socket s;
+        SocketAddress addr;
+        switch (proxy.type()) {
+            case HTTP:
+                InetSocketAddress pa = (InetSocketAddress)proxy.address();
+                if (pa.isUnresolved())
+                    pa = new InetSocketAddress(pa.getHostName(), pa.getPort());
+                s = new Socket();
+                addr = pa;
+                break;
+            case SOCKS:
+                s = new Socket(proxy);
+                addr = InetSocketAddress.createUnresolved(host, port);
+                break;
+            default:
+                s = new Socket();
+                addr = new InetSocketAddress(host, port);
+        }
+        try {
+            s.connect(addr, connectTimeout);
+        } catch (IOException x) {
+            try {
+                s.close();
+            } catch (IOException ignore) { }
+            throw x;
+        }
+        return s;
+    }
+
+    /**
+     * Closes the idle connections whose keep-alive time has elapsed, and
+     * drops idle connections whose socket has been closed.
+     *
+     * <p> This method is invoked periodically by a background thread while
+     * the pool holds idle connections.
+     *
+     * @return  The number of connections closed
+     */
+    public int evictIdleConnections() {
+        int count = 0;
+        for (RouteState rs : routes.values()) {
+            synchronized (rs) {
+                count += rs.evictIdle(System.nanoTime(), false);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Closes this connection pool.
+     *
+     * <p> Idle connections are closed immediately. Connections in use are
+     * closed when they are released. Threads waiting for a connection, and
+     * subsequent invocations of {@link #acquire acquire}, fail with an
+     * {@code IOException}. Invoking this method on a pool that is already
+     * closed has no effect.
+     */
+    public void close() {
+        closed = true;
+        for (RouteState rs : routes.values()) {
+            synchronized (rs) {
+                rs.evictIdle(System.nanoTime(), true);
+                rs.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Tells whether or not this connection pool is closed.
+     *
+     * @return  {@code true} if this pool is closed
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    // -- HttpConnectionPoolMXBean --
+
+    /**
+     * Returns the {@code ObjectName} of the management interface of this
+     * pool.
+     *
+     * @return  {@code java.net:type=HttpConnectionPool,name=}<i>pool name</i>
+     */
+    public ObjectName getObjectName() {
+        String prefix = "java.net:type=HttpConnectionPool,name=";
+        try {
+            return ObjectName.getInstance(prefix + name);
+        } catch (MalformedObjectNameException x) {
+            try {
+                return ObjectName.getInstance(prefix + ObjectName.quote(name));
+            } catch (MalformedObjectNameException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+    }
+
+    public int getRouteCount() {
+        return routes.size();
+    }
+
+    public int getConnectionCount() {
+        int count = 0;
+        for (RouteState rs : routes.values()) {
+            synchronized (rs) {
+                count += rs.connections.size();
+            }
+        }
+        return count;
+    }
+
+    public int getIdleConnectionCount() {
+        int count = 0;
+        for (RouteState rs : routes.values()) {
+            synchronized (rs) {
+                count += rs.idle.size();
+            }
+        }
+        return count;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getPipelinedCount() {
+        return pipelined.get();
+    }
+
+    public long getWaitCount() {
+        return waits.get();
+    }
+
+    public long getIdleEvictionCount() {
+        return idleEvictions.get();
+    }
+
+    // -- implementation --
+
+    private void ensureOpen() throws IOException {
+        if (closed)
+            throw new IOException("Connection pool closed");
+    }
+
+    private RouteState routeState(Route route) {
+        RouteState rs = routes.get(route);
+        if (rs == null) {
+            rs = new RouteState(route);
+            RouteState prev = routes.putIfAbsent(route, rs);
+            if (prev != null)
+                rs = prev;
+        }
+        return rs;
+    }
+
+    /*
+     * RFC 2616, section 9.1.2
+     */
+    private static boolean isIdempotent(String method) {
+        return method.equals("GET") || method.equals("HEAD") ||
+               method.equals("OPTIONS") || method.equals("TRACE") ||
+               method.equals("PUT") || method.equals("DELETE");
+    }
+
+    /**
+     * Starts the eviction thread if it is not running. Must not be invoked
+     * while holding the lock of a route.
+     */
+    private synchronized void startEvictor() {
+        if (evictor != null || closed)
+            return;
+        evictor = AccessController.doPrivileged(new PrivilegedAction<Thread>() {
+            public Thread run() {
+                // the eviction thread is created in the system thread group
+                ThreadGroup grp = Thread.currentThread().getThreadGroup();
+                ThreadGroup parent;
+                while ((parent = grp.getParent()) != null)
+                    grp = parent;
+                Thread t = new Thread(grp, new Evictor(), "Keep-Alive-Timer");
+                t.setDaemon(true);
+                t.setPriority(Thread.MAX_PRIORITY - 2);
+                t.setContextClassLoader(null);
+                t.start();
+                return t;
+            }
+        });
+    }
+
+    /**
+     * Evicts idle connections until there are none left.
+     */
+    private class Evictor implements Runnable {
+        public void run() {
+            long period = Math.max(TimeUnit.MILLISECONDS.toNanos(100L),
+                                   keepAliveTime);
+            for (;;) {
+                synchronized (HttpConnectionPool.this) {
+                    if (closed || getIdleConnectionCount() == 0) {
+                        evictor = null;
+                        return;
+                    }
+                }
+                try {
+                    TimeUnit.NANOSECONDS.sleep(period);
+                } catch (InterruptedException ignore) { }
+                evictIdleConnections();
+            }
+        }
+    }
+
+    /**
+     * The scheme, host, port and proxy of a request.
+     */
+    private static final class Route {
+        private final String scheme;
+        private final String host;
+        private final int port;
+        private final Proxy proxy;
+
+        Route(URL url, Proxy proxy) {
+            this.scheme = url.getProtocol().toLowerCase();
+            this.host = url.getHost().toLowerCase();
+            int p = url.getPort();
+            this.port = (p == -1) ? url.getDefaultPort() : p;
+            this.proxy = proxy;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((scheme.hashCode() * 31 + host.hashCode()) * 31 + port) * 31
+                   + proxy.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object ob) {
+            if (!(ob instanceof Route))
+                return false;
+            Route other = (Route)ob;
+            return port == other.port && scheme.equals(other.scheme) &&
+                   host.equals(other.host) && proxy.equals(other.proxy);
+        }
+    }
+
+    /**
+     * The connections to a route. All fields of a RouteState, and of its
+     * PooledSockets and their Connections, are guarded by the RouteState.
+     */
+    private final class RouteState {
+        final Route route;
+        final List<PooledSocket> connections = new ArrayList<>();
+        // idle connections, most recently released first
+        final ArrayDeque<PooledSocket> idle = new ArrayDeque<>();
+        int pending;                            // connections being opened
+        int waiters;                            // threads waiting in acquire
+        boolean removed;                        // removed from routes
+
+        RouteState(Route route) {
+            this.route = route;
+        }
+
+        HttpConnectionPool pool() {
+            return HttpConnectionPool.this;
+        }
+
+        /**
+         * Removes and returns the most recently released idle connection,
+         * first evicting the connections that can no longer be used.
+         */
+        PooledSocket pollIdle() {
+            evictIdle(System.nanoTime(), false);
+            return idle.pollFirst();
+        }
+
+        /**
+         * Closes idle connections that have expired or that were closed by
+         * the peer, or all idle connections if {@code all} is true.
+         */
+        int evictIdle(long now, boolean all) {
+            int count = 0;
+            Iterator<PooledSocket> i = idle.iterator();
+            while (i.hasNext()) {
+                PooledSocket ps = i.next();
+                if (all || now - ps.idleSince >= keepAliveTime ||
+                    ps.socket.isClosed() || ps.socket.isInputShutdown())
+                {
+                    i.remove();
+                    connections.remove(ps);
+                    ps.close();
+                    count++;
+                }
+            }
+            if (count > 0) {
+                idleEvictions.addAndGet(count);
+                notifyAll();
+                removeIfUnused();
+            }
+            return count;
+        }
+
+        /**
+         * Returns the connection in use with the fewest outstanding
+         * requests on which another request can be pipelined.
+         */
+        PooledSocket pipelineCandidate(int depth) {
+            PooledSocket best = null;
+            for (PooledSocket ps : connections) {
+                int n = ps.inFlight.size();
+                if (n > 0 && n < depth && ps.reused && !ps.writing &&
+                    !ps.unsafe && (best == null || n < best.inFlight.size()))
+                    best = ps;
+            }
+            return best;
+        }
+
+        Connection lease(PooledSocket ps, boolean idempotent) {
+            Connection c = new Connection(ps, idempotent);
+            ps.inFlight.addLast(c);
+            ps.writing = true;
+            if (!idempotent)
+                ps.unsafe = true;
+            return c;
+        }
+
+        void removeIfUnused() {
+            if (connections.isEmpty() && pending == 0 && waiters == 0) {
+                removed = true;
+                routes.remove(route, this);
+            }
+        }
+    }
+
+    /**
+     * An open connection and the exchanges outstanding on it.
+     */
+    private static final class PooledSocket {
+        final RouteState rs;
+        Socket socket;
+        InputStream in;
+        OutputStream out;
+        final ArrayDeque<Connection> inFlight = new ArrayDeque<>();
+        boolean writing;        // an exchange is writing its request
+        boolean unsafe;         // a non-idempotent request is outstanding
+        boolean reused;         // an exchange has completed
+        long idleSince;
+
+        PooledSocket(RouteState rs, Socket socket) {
+            this.rs = rs;
+            this.socket = socket;
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException ignore) { }
+        }
+    }
+
+    /**
+     * A connection acquired from an {@link HttpConnectionPool} for one
+     * request/response exchange.
+     *
+     * @since 1.8
+     */
+    public static final class Connection {
+        private static final int ACTIVE = 0;
+        private static final int RELEASED = 1;
+        private static final int DISCARDED = 2;
+        private static final int FAILED = 3;
+
+        private final PooledSocket ps;
+        private final boolean idempotent;
+        private final boolean reused;
+        private boolean sent;
+        private int state;
+
+        private Connection(PooledSocket ps, boolean idempotent) {
+            this.ps = ps;
+            this.idempotent = idempotent;
+            this.reused = ps.reused;
+        }
+
+        private void ensureActive() throws IOException {
+            if (state == FAILED)
+                throw new IOException("Connection closed by an earlier request");
+            if (state != ACTIVE)
+                throw new IllegalStateException("Connection released");
+        }
+
+        /**
+         * Returns the socket of this connection.
+         *
+         * @return  The socket
+         *
+         * @throws  IllegalStateException
+         *          If this connection has been released or discarded
+         */
+        public Socket getSocket() {
+            synchronized (ps.rs) {
+                if (state != ACTIVE)
+                    throw new IllegalStateException("Connection released");
+                return ps.socket;
+            }
+        }
+
+        /**
+         * Replaces the socket of this connection with a socket layered over
+         * it, for example an {@link javax.net.ssl.SSLSocket SSLSocket}. The
+         * layered socket is pooled in place of the original one.
+         *
+         * @param   socket
+         *          The layered socket
+         *
+         * @throws  IllegalStateException
+         *          If this connection has been released or discarded, or is
+         *          not a new connection
+         */
+        public void setSocket(Socket socket) {
+            if (socket == null)
+                throw new NullPointerException();
+            synchronized (ps.rs) {
+                if (state != ACTIVE || ps.reused || ps.inFlight.size() != 1)
+                    throw new IllegalStateException();
+                ps.socket = socket;
+                ps.in = null;
+                ps.out = null;
+            }
+        }
+
+        /**
+         * Tells whether this connection has been used for an earlier
+         * exchange. A request that fails on a reused connection may have
+         * failed because the server closed the connection while it was idle.
+         *
+         * @return  {@code true} if this connection has been reused
+         */
+        public boolean isReused() {
+            return reused;
+        }
+
+        /**
+         * Returns the buffered output stream to which the request is written.
+         * The stream is flushed by {@link #requestSent requestSent}.
+         *
+         * @return  The output stream
+         *
+         * @throws  IOException
+         *          If an I/O error occurs
+         * @throws  IllegalStateException
+         *          If this connection has been released or discarded, or the
+         *          request has already been sent
+         */
+        public OutputStream getOutputStream() throws IOException {
+            synchronized (ps.rs) {
+                ensureActive();
+                if (sent)
+                    throw new IllegalStateException("Request already sent");
+                if (ps.out == null)
+                    ps.out = new BufferedOutputStream(ps.socket.getOutputStream());
+                return ps.out;
+            }
+        }
+
+        /**
+         * Flushes the request and marks it as sent, which allows the next
+         * request to be pipelined on this connection.
+         *
+         * @throws  IOException
+         *          If an I/O error occurs
+         * @throws  IllegalStateException
+         *          If this connection has been released or discarded
+         */
+        public void requestSent() throws IOException {
+            OutputStream out;
+            synchronized (ps.rs) {
+                ensureActive();
+                if (sent)
+                    return;
+                out = ps.out;
+            }
+            if (out != null)
+                out.flush();
+            synchronized (ps.rs) {
+                sent = true;
+                ps.writing = false;
+                ps.rs.notifyAll();
+            }
+        }
+
+        /**
+         * Waits until the responses to all requests sent earlier on this
+         * connection have been read.
+         *
+         * @throws  InterruptedIOException
+         *          If the thread is interrupted while waiting
+         * @throws  IOException
+         *          If the connection was discarded by an earlier request, in
+         *          which case the request was not answered and may be retried
+         * @throws  IllegalStateException
+         *          If this connection has been released or discarded
+         */
+        public void awaitResponse() throws IOException {
+            synchronized (ps.rs) {
+                for (;;) {
+                    ensureActive();
+                    if (ps.inFlight.peekFirst() == this)
+                        return;
+                    try {
+                        ps.rs.wait();
+                    } catch (InterruptedException x) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException(
+                            "Interrupted while waiting for the response");
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns the buffered input stream from which the response is read.
+         * Bytes read ahead by the stream stay with the connection.
+         *
+         * @return  The input stream
+         *
+         * @throws  IOException
+         *          If an I/O error occurs
+         * @throws  IllegalStateException
+         *          If this connection has been released or discarded, or if
+         *          the responses to earlier requests have not been read
+         */
+        public InputStream getInputStream() throws IOException {
+            synchronized (ps.rs) {
+                ensureActive();
+                if (ps.inFlight.peekFirst() != this)
+                    throw new IllegalStateException("Earlier response not read");
+                if (ps.in == null)
+                    ps.in = new BufferedInputStream(ps.socket.getInputStream());
+                return ps.in;
+            }
+        }
+
+        /**
+         * Gives the connection back to the pool after the response has been
+         * read completely.
+         *
+         * @throws  IllegalStateException
+         *          If this connection has already been released or discarded,
+         *          or if the responses to earlier requests have not been read
+         */
+        public void release() {
+            boolean idle = false;
+            RouteState rs = ps.rs;
+            synchronized (rs) {
+                if (state == FAILED)
+                    return;
+                if (state != ACTIVE)
+                    throw new IllegalStateException("Connection released");
+                if (ps.inFlight.peekFirst() != this)
+                    throw new IllegalStateException("Earlier response not read");
+                state = RELEASED;
+                ps.inFlight.removeFirst();
+                if (!sent)
+                    ps.writing = false;
+                if (!idempotent) {
+                    ps.unsafe = false;
+                    for (Connection c : ps.inFlight) {
+                        if (!c.idempotent)
+                            ps.unsafe = true;
+                    }
+                }
+                ps.reused = true;
+                HttpConnectionPool pool = rs.pool();
+                if (pool.closed || ps.socket.isClosed()) {
+                    closeLocked();
+                } else if (ps.inFlight.isEmpty()) {
+                    ps.idleSince = System.nanoTime();
+                    rs.idle.addFirst(ps);
+                    idle = true;
+                }
+                rs.notifyAll();
+            }
+            if (idle)
+                rs.pool().startEvictor();
+        }
+
+        /**
+         * Closes the connection. Requests pipelined behind this one fail.
+         * Invoking this method on a connection that has been released or
+         * discarded has no effect.
+         */
+        public void discard() {
+            synchronized (ps.rs) {
+                if (state != ACTIVE)
+                    return;
+                state = DISCARDED;
+                closeLocked();
+                ps.rs.notifyAll();
+            }
+        }
+
+        private void closeLocked() {
+            RouteState rs = ps.rs;
+            for (Connection c : ps.inFlight) {
+                if (c != this)
+                    c.state = FAILED;
+            }
+            ps.inFlight.clear();
+            ps.writing = false;
+            rs.idle.remove(ps);
+            if (rs.connections.remove(ps))
+                ps.close();
+            rs.removeIfUnused();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.net;
+
+import java.lang.management.PlatformManagedObject;
+
+/**
+ * The management interface for a pool of HTTP connections.
+ *
+ * <p> A class implementing this interface is an {@link
+ * javax.management.MXBean}. The {@link #getObjectName ObjectName} of the
+ * management interface of a pool takes the form:
+ * <pre>
+ *     java.net:type=HttpConnectionPool,name=<i>pool name</i>
+ * </pre>
+ * where <em>pool name</em> is the {@link #getName name} of the pool.
+ *
+ * <p> The Java virtual machine has a single instance of the platform
+ * implementation of this interface. It reports the statistics of the
+ * {@link HttpConnectionPool#getDefault default} connection pool, whichever
+ * pool that currently is, and is obtained by invoking the {@link
+ * java.lang.management.ManagementFactory#getPlatformMXBean(Class)
+ * ManagementFactory.getPlatformMXBean} method. It is registered in the
+ * platform {@link javax.management.MBeanServer MBeanServer} with the
+ * {@code ObjectName}:
+ * <pre>
+ *     java.net:type=HttpConnectionPool
+ * </pre>
+ * Reading its attributes creates the default pool if it has not been
+ * created yet. If there is no default pool then its name is {@code null}
+ * and all of its values are zero.
+ *
+ * @see HttpConnectionPool
+ * @since 1.8
+ */
+public interface HttpConnectionPoolMXBean extends PlatformManagedObject {
+
+    /**
+     * Returns the name of this connection pool.
+     *
+     * @return  The name of this connection pool
+     */
+    String getName();
+
+    /**
+     * Returns the maximum number of connections that the pool keeps open to
+     * a single route.
+     *
+     * @return  The maximum number of connections per route
+     */
+    int getMaxConnectionsPerRoute();
+
+    /**
+     * Returns the time, in milliseconds, that an idle connection is kept
+     * open before it is evicted from the pool.
+     *
+     * @return  The keep-alive time in milliseconds
+     */
+    long getKeepAliveTime();
+
+    /**
+     * Returns the maximum number of requests that may be outstanding on a
+     * single connection. A value of {@code 1} means that requests are not
+     * pipelined.
+     *
+     * @return  The maximum pipeline depth
+     */
+    int getPipelineDepth();
+
+    /**
+     * Returns the number of routes for which the pool currently holds
+     * connections.
+     *
+     * @return  The number of routes
+     */
+    int getRouteCount();
+
+    /**
+     * Returns the number of open connections in the pool, both idle and in
+     * use.
+     *
+     * @return  The number of open connections
+     */
+    int getConnectionCount();
+
+    /**
+     * Returns the number of idle connections in the pool.
+     *
+     * @return  The number of idle connections
+     */
+    int getIdleConnectionCount();
+
+    /**
+     * Returns the number of requests that were given an idle connection.
+     *
+     * @return  The number of pool hits
+     */
+    long getHitCount();
+
+    /**
+     * Returns the number of requests for which a new connection was opened.
+     *
+     * @return  The number of pool misses
+     */
+    long getMissCount();
+
+    /**
+     * Returns the number of requests that were pipelined on a connection
+     * with outstanding requests.
+     *
+     * @return  The number of pipelined requests
+     */
+    long getPipelinedCount();
+
+    /**
+     * Returns the number of requests that had to wait because the maximum
+     * number of connections to their route was reached.
+     *
+     * @return  The number of requests that waited for a connection
+     */
+    long getWaitCount();
+
+    /**
+     * Returns the number of idle connections that were closed because their
+     * keep-alive time elapsed, or dropped because their socket was closed.
+     *
+     * @return  The number of idle connections evicted
+     */
+    long getIdleEvictionCount();
+}
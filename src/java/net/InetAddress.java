@@ -25,14 +25,24 @@
 
 package java.net;
 
-import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.Random;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.security.AccessController;
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
 import java.io.ObjectStreamException;
 import java.io.ObjectStreamField;
 import java.io.IOException;
@@ -133,6 +143,11 @@ import sun.net.spi.nameservice.*;
  * <p> The InetAddress class provides methods to resolve host names to
  * their IP addresses and vice versa.
  *
+ * <p> If the system property <tt>jdk.net.hosts.file</tt> names a file then
+ * host names are resolved by looking them up in that file alone, which has
+ * the format of a UNIX <tt>/etc/hosts</tt> file, and no naming service is
+ * consulted. This is intended for testing.
+ *
  * <h4> InetAddress Caching </h4>
  *
  * The InetAddress class has a cache to store successful as well as
@@ -152,7 +167,11 @@ import sun.net.spi.nameservice.*;
  * caching. Likewise, a system admin can configure a different
  * negative caching TTL value when needed.
  *
- * <p> Two Java security properties control the TTL values used for
+ * <p> Concurrent requests to resolve the same host name are combined
+ * into a single request to the name service, and requests for other
+ * host names do not wait for it.
+ *
+ * <p> Three Java security properties control the TTL values used for
  *  positive and negative host name resolution caching:
  *
  * <blockquote>
@@ -175,6 +194,15 @@ import sun.net.spi.nameservice.*;
  * A value of 0 indicates "never cache".
  * A value of -1 indicates "cache forever".
  * </dd>
+ * <p>
+ * <dt><b>networkaddress.cache.stale.ttl</b> (default: 0)</dt>
+ * <dd>Indicates for how many seconds after it has expired the result of a
+ * successful name lookup may still be used. Such a stale result is
+ * returned straight away while the name is looked up again in the
+ * background, and it is kept if that lookup fails.
+ * <p>
+ * A value of 0 indicates that expired results are never used.
+ * </dd>
  * </dl>
  * </blockquote>
  *
@@ -694,129 +722,100 @@ class InetAddress implements java.io.Serializable {
 
     /*
      * Cached addresses - our own litle nis, not!
+     *
+     * Entries are keyed by lower-cased host name and read without locking.
+     * A negative entry holds unknown_array.  A positive entry that has
+     * expired may still be returned for up to staleTime milliseconds, while
+     * a background lookup refreshes it; if that lookup fails the stale
+     * addresses are kept until the stale period is over.
      */
-    private static Cache addressCache = new Cache(Cache.Type.Positive);
+    private static final ConcurrentMap<String, CacheEntry> addressCache
+        = new ConcurrentHashMap<>();
+
+    /* Lookups in progress, by lower-cased host name */
+    private static final ConcurrentMap<String, Lookup> lookups
+        = new ConcurrentHashMap<>();
+
+    private static volatile boolean addressCacheInit = false;
 
-    private static Cache negativeCache = new Cache(Cache.Type.Negative);
+    /* Time at or after which the next put purges dead entries */
+    private static volatile long nextPurgeTime;
 
-    private static boolean addressCacheInit = false;
+    /*
+     * How long, in milliseconds, an expired positive entry may be used
+     * while it is being refreshed; from the networkaddress.cache.stale.ttl
+     * security property (or the sun.net.inetaddr.stale.ttl system
+     * property), in seconds, and zero by default.
+     */
+    private static final long staleTime;
 
     static InetAddress[]    unknown_array; // put THIS in cache
 
     static InetAddressImpl  impl;
 
-    private static final HashMap<String, Void> lookupTable = new HashMap<>();
-
     /**
      * Represents a cache entry
      */
     static final class CacheEntry {
 
-        CacheEntry(InetAddress[] addresses, long expiration) {
+        CacheEntry(String host, InetAddress[] addresses, long expiration) {
+            this.host = host;
             this.addresses = addresses;
             this.expiration = expiration;
         }
 
-        InetAddress[] addresses;
-        long expiration;
-    }
-
-    /**
-     * A cache that manages entries based on a policy specified
-     * at creation time.
-     */
-    static final class Cache {
-        private LinkedHashMap<String, CacheEntry> cache;
-        private Type type;
+        final String host;              // as first given, for refreshing
+        final InetAddress[] addresses;
+        final long expiration;          // -1 if the entry never expires
 
-        enum Type {Positive, Negative};
+        /* Set once a refresh of this stale entry has been scheduled */
+        final AtomicBoolean refreshing = new AtomicBoolean();
 
-        /**
-         * Create cache
-         */
-        public Cache(Type type) {
-            this.type = type;
-            cache = new LinkedHashMap<String, CacheEntry>();
+        boolean isPositive() {
+            return addresses != unknown_array;
         }
 
-        private int getPolicy() {
-            if (type == Type.Positive) {
-                return InetAddressCachePolicy.get();
-            } else {
-                return InetAddressCachePolicy.getNegative();
-            }
+        boolean isExpired(long now) {
+            return expiration >= 0 && expiration < now;
         }
 
-        /**
-         * Add an entry to the cache. If there's already an
-         * entry then for this host then the entry will be
-         * replaced.
-         */
-        public Cache put(String host, InetAddress[] addresses) {
-            int policy = getPolicy();
-            if (policy == InetAddressCachePolicy.NEVER) {
-                return this;
-            }
-
-            // purge any expired entries
-
-            if (policy != InetAddressCachePolicy.FOREVER) {
-
-                // As we iterate in insertion order we can
-                // terminate when a non-expired entry is found.
-                LinkedList<String> expired = new LinkedList<>();
-                long now = System.currentTimeMillis();
-                for (String key : cache.keySet()) {
-                    CacheEntry entry = cache.get(key);
-
-                    if (entry.expiration >= 0 && entry.expiration < now) {
-                        expired.add(key);
-                    } else {
-                        break;
-                    }
-                }
+        boolean isDead(long now) {
+            return expiration >= 0 &&
+                expiration + (isPositive() ? staleTime : 0) < now;
+        }
+    }
 
-                for (String key : expired) {
-                    cache.remove(key);
-                }
-            }
+    /**
+     * A name service lookup in progress.  Threads wanting the same host
+     * wait for its result rather than looking the host up themselves.
+     */
+    static final class Lookup {
+        private boolean done;
+        private InetAddress[] addresses;
 
-            // create new entry and add it to the cache
-            // -- as a HashMap replaces existing entries we
-            //    don't need to explicitly check if there is
-            //    already an entry for this host.
-            long expiration;
-            if (policy == InetAddressCachePolicy.FOREVER) {
-                expiration = -1;
-            } else {
-                expiration = System.currentTimeMillis() + (policy * 1000);
-            }
-            CacheEntry entry = new CacheEntry(addresses, expiration);
-            cache.put(host, entry);
-            return this;
+        synchronized void complete(InetAddress[] addresses) {
+            this.addresses = addresses;
+            done = true;
+            notifyAll();
         }
 
         /**
-         * Query the cache for the specific host. If found then
-         * return its CacheEntry, or null if not found.
+         * Waits for the lookup to complete, and returns its result:
+         * the addresses, unknown_array if the host is unknown, or null
+         * if the lookup failed abruptly.
          */
-        public CacheEntry get(String host) {
-            int policy = getPolicy();
-            if (policy == InetAddressCachePolicy.NEVER) {
-                return null;
-            }
-            CacheEntry entry = cache.get(host);
-
-            // check if entry has expired
-            if (entry != null && policy != InetAddressCachePolicy.FOREVER) {
-                if (entry.expiration >= 0 &&
-                    entry.expiration < System.currentTimeMillis()) {
-                    cache.remove(host);
-                    entry = null;
+        synchronized InetAddress[] await() {
+            boolean interrupted = false;
+            while (!done) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
                 }
             }
-
-            return entry;
+            if (interrupted)
+                Thread.currentThread().interrupt();
+            return addresses;
         }
     }
 
@@ -825,60 +824,238 @@ class InetAddress implements java.io.Serializable {
      * unknown array with no expiry.
      */
     private static void cacheInitIfNeeded() {
-        assert Thread.holdsLock(addressCache);
         if (addressCacheInit) {
             return;
         }
-        unknown_array = new InetAddress[1];
-        unknown_array[0] = impl.anyLocalAddress();
+        synchronized (addressCache) {
+            if (addressCacheInit) {
+                return;
+            }
+            unknown_array = new InetAddress[1];
+            unknown_array[0] = impl.anyLocalAddress();
 
-        addressCache.put(impl.anyLocalAddress().getHostName(),
-                         unknown_array);
+            String host = impl.anyLocalAddress().getHostName();
+            addressCache.put(host, new CacheEntry(host, unknown_array, -1));
 
-        addressCacheInit = true;
+            addressCacheInit = true;
+        }
     }
 
     /*
      * Cache the given hostname and addresses.
      */
-    private static void cacheAddresses(String hostname,
+    private static void cacheAddresses(String host,
                                        InetAddress[] addresses,
                                        boolean success) {
-        hostname = hostname.toLowerCase();
-        synchronized (addressCache) {
-            cacheInitIfNeeded();
-            if (success) {
-                addressCache.put(hostname, addresses);
-            } else {
-                negativeCache.put(hostname, addresses);
+        String hostname = host.toLowerCase();
+        cacheInitIfNeeded();
+        int policy = success ? InetAddressCachePolicy.get()
+                             : InetAddressCachePolicy.getNegative();
+        if (policy == InetAddressCachePolicy.NEVER) {
+            return;
+        }
+        long expiration;
+        if (policy == InetAddressCachePolicy.FOREVER) {
+            expiration = -1;
+        } else {
+            long now = System.currentTimeMillis();
+            expiration = now + (policy * 1000L);
+            if (now >= nextPurgeTime) {
+                nextPurgeTime = now + 1000L;
+                purgeDeadEntries(now);
             }
         }
+        addressCache.put(hostname, new CacheEntry(host, addresses, expiration));
+    }
+
+    /*
+     * Remove the entries which can no longer be returned.
+     */
+    private static void purgeDeadEntries(long now) {
+        for (Map.Entry<String, CacheEntry> e : addressCache.entrySet()) {
+            if (e.getValue().isDead(now))
+                addressCache.remove(e.getKey(), e.getValue());
+        }
     }
 
     /*
-     * Lookup hostname in cache (positive & negative cache). If
-     * found return addresses, null if not found.
+     * Lookup hostname in cache (positive & negative). If
+     * found return addresses, null if not found.  An expired positive
+     * entry within its stale period is returned, and refreshed in the
+     * background.
      */
     private static InetAddress[] getCachedAddresses(String hostname) {
         hostname = hostname.toLowerCase();
+        cacheInitIfNeeded();
 
-        // search both positive & negative caches
+        CacheEntry entry = addressCache.get(hostname);
+        if (entry == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (!entry.isExpired(now)) {
+            return entry.addresses;
+        }
+        if (!entry.isDead(now)) {
+            if (entry.refreshing.compareAndSet(false, true)) {
+                Refresher.refresh(entry);
+            }
+            return entry.addresses;
+        }
+        addressCache.remove(hostname, entry);
 
-        synchronized (addressCache) {
-            cacheInitIfNeeded();
+        // not found
+        return null;
+    }
+
+    /*
+     * Return the positive entry for the given lower-cased hostname if
+     * it has expired but may still be used, otherwise null.
+     */
+    private static CacheEntry getStaleEntry(String hostname) {
+        CacheEntry entry = addressCache.get(hostname);
+        if (entry != null && entry.isPositive()) {
+            long now = System.currentTimeMillis();
+            if (entry.isExpired(now) && !entry.isDead(now))
+                return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Refreshes stale cache entries on daemon threads, so that the
+     * threads finding them need not wait for the name service.
+     */
+    private static class Refresher {
+        private static final int MAX_THREADS = 4;
+
+        // Threads are only created by execute, which refresh invokes with
+        // privileges, so that they do not inherit the context of the thread
+        // that happened to find a stale entry
+        private static final ThreadPoolExecutor executor =
+            new ThreadPoolExecutor(0, MAX_THREADS,
+                                   60L, TimeUnit.SECONDS,
+                                   new SynchronousQueue<Runnable>(),
+                                   new ThreadFactory() {
+                                       public Thread newThread(Runnable r) {
+                                           return newRefresherThread(r);
+                                       }
+                                   });
+
+        private static Thread newRefresherThread(Runnable r) {
+            // the refresher threads are created in the system thread group
+            ThreadGroup grp = Thread.currentThread().getThreadGroup();
+            ThreadGroup parent;
+            while ((parent = grp.getParent()) != null)
+                grp = parent;
+            Thread t = new Thread(grp, r, "InetAddress Cache Refresher");
+            t.setDaemon(true);
+            t.setContextClassLoader(null);
+            return t;
+        }
 
-            CacheEntry entry = addressCache.get(hostname);
-            if (entry == null) {
-                entry = negativeCache.get(hostname);
+        static void refresh(final CacheEntry entry) {
+            final Runnable task = new Runnable() {
+                public void run() {
+                    try {
+                        getAddressesFromNameService(entry.host, null);
+                    } catch (UnknownHostException e) {
+                        // A failed lookup keeps the stale entry, so this
+                        // is only thrown once its stale period is over,
+                        // and the failure is then cached like any other
+                    }
+                }
+            };
+            try {
+                AccessController.doPrivileged(
+                    new java.security.PrivilegedAction<Void>() {
+                        public Void run() {
+                            executor.execute(task);
+                            return null;
+                        }
+                    });
+            } catch (RejectedExecutionException e) {
+                // All threads are busy; the entry stays stale, and the
+                // next thread to find it asks again
+                entry.refreshing.set(false);
             }
+        }
+    }
+
+    /**
+     * A name service that looks host names up in a hosts file, named by the
+     * jdk.net.hosts.file system property, instead of asking the platform.
+     * Each line of the file holds an address followed by one or more host
+     * names; a '#' starts a comment.  The file is read on every lookup, so a
+     * test may change it as it goes.
+     */
+    private static final class HostsFileNameService implements NameService {
+
+        private final String hostsFile;
+
+        HostsFileNameService(String hostsFile) {
+            this.hostsFile = hostsFile;
+        }
 
-            if (entry != null) {
-                return entry.addresses;
+        public InetAddress[] lookupAllHostAddr(String host)
+            throws UnknownHostException
+        {
+            List<InetAddress> addresses = new ArrayList<>();
+            for (String[] fields : readHostsFile()) {
+                for (int i = 1; i < fields.length; i++) {
+                    if (fields[i].equalsIgnoreCase(host)) {
+                        byte[] addr = toNumeric(fields[0]);
+                        if (addr != null)
+                            addresses.add(getByAddress(host, addr));
+                        break;
+                    }
+                }
             }
+            if (addresses.isEmpty())
+                throw new UnknownHostException("Unable to resolve host " + host
+                                               + " in hosts file " + hostsFile);
+            return addresses.toArray(new InetAddress[addresses.size()]);
         }
 
-        // not found
-        return null;
+        public String getHostByAddr(byte[] addr) throws UnknownHostException {
+            for (String[] fields : readHostsFile()) {
+                if (fields.length > 1 &&
+                    Arrays.equals(addr, toNumeric(fields[0])))
+                    return fields[1];
+            }
+            throw new UnknownHostException("Unable to resolve address "
+                                           + Arrays.toString(addr)
+                                           + " in hosts file " + hostsFile);
+        }
+
+        private static byte[] toNumeric(String s) {
+            byte[] addr = IPAddressUtil.textToNumericFormatV4(s);
+            if (addr == null)
+                addr = IPAddressUtil.textToNumericFormatV6(s);
+            return addr;
+        }
+
+        private List<String[]> readHostsFile() throws UnknownHostException {
+            List<String[]> lines = new ArrayList<>();
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                     new FileInputStream(hostsFile), "ISO-8859-1"))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    int hash = line.indexOf('#');
+                    if (hash >= 0)
+                        line = line.substring(0, hash);
+                    line = line.trim();
+                    if (!line.isEmpty())
+                        lines.add(line.split("\\s+"));
+                }
+            } catch (IOException x) {
+                UnknownHostException uhe = new UnknownHostException(
+                    "Unable to read hosts file " + hostsFile);
+                uhe.initCause(x);
+                throw uhe;
+            }
+            return lines;
+        }
     }
 
     private static NameService createNSProvider(String provider) {
@@ -937,13 +1114,41 @@ class InetAddress implements java.io.Serializable {
         // create the impl
         impl = InetAddressImplFactory.create();
 
+        // how long expired addresses may be used while being refreshed
+        String stale = AccessController.doPrivileged(
+            new java.security.PrivilegedAction<String>() {
+                public String run() {
+                    String s = java.security.Security.getProperty(
+                        "networkaddress.cache.stale.ttl");
+                    if (s == null)
+                        s = System.getProperty("sun.net.inetaddr.stale.ttl");
+                    return s;
+                }
+            });
+        long staleSeconds = 0;
+        if (stale != null) {
+            try {
+                staleSeconds = Math.max(0L, Long.parseLong(stale.trim()));
+            } catch (NumberFormatException e) {
+            }
+        }
+        staleTime = staleSeconds * 1000L;
+
         // get name service if provided and requested
         String provider = null;;
         String propPrefix = "sun.net.spi.nameservice.provider.";
         int n = 1;
         nameServices = new ArrayList<NameService>();
-        provider = AccessController.doPrivileged(
-                new GetPropertyAction(propPrefix + n));
+        String hostsFile = AccessController.doPrivileged(
+                new GetPropertyAction("jdk.net.hosts.file"));
+        if (hostsFile != null) {
+            // a hosts file stands in for all other name services
+            nameServices.add(new HostsFileNameService(hostsFile));
+            provider = null;
+        } else {
+            provider = AccessController.doPrivileged(
+                    new GetPropertyAction(propPrefix + n));
+        }
         while (provider != null) {
             NameService ns = createNSProvider(provider);
             if (ns != null)
@@ -1247,138 +1452,115 @@ class InetAddress implements java.io.Serializable {
 
     private static InetAddress[] getAddressesFromNameService(String host, InetAddress reqAddr)
         throws UnknownHostException
+    {
+        String key = host.toLowerCase();
+        Lookup lookup = new Lookup();
+
+        // Check whether the host is already being looked up.
+        // 1) If it isn't, this thread registers its own lookup
+        //    and does it, other threads wanting the same host
+        //    will wait for its result.
+        // 2) If it is, this thread waits for that lookup and
+        //    returns its result, or throws UnknownHostException
+        //    if the host was not found, or, if it failed
+        //    abruptly, tries again.
+        Lookup inFlight;
+        while ((inFlight = lookups.putIfAbsent(key, lookup)) != null) {
+            InetAddress[] addresses = inFlight.await();
+            if (addresses == unknown_array)
+                throw new UnknownHostException(host);
+            if (addresses != null)
+                return addresses;
+        }
+
+        InetAddress[] addresses = null;
+        try {
+            addresses = lookupAddresses(host, reqAddr);
+            return addresses;
+        } catch (UnknownHostException e) {
+            addresses = unknown_array;
+            throw e;
+        } finally {
+            // Delete host from the lookups in progress, and hand the
+            // result, unknown_array if the host was not found, or null
+            // if the lookup failed abruptly, to all threads waiting
+            // for it.
+            lookups.remove(key, lookup);
+            lookup.complete(addresses);
+        }
+    }
+
+    private static InetAddress[] lookupAddresses(String host, InetAddress reqAddr)
+        throws UnknownHostException
     {
         InetAddress[] addresses = null;
         boolean success = false;
         UnknownHostException ex = null;
 
-        // Check whether the host is in the lookupTable.
-        // 1) If the host isn't in the lookupTable when
-        //    checkLookupTable() is called, checkLookupTable()
-        //    would add the host in the lookupTable and
-        //    return null. So we will do the lookup.
-        // 2) If the host is in the lookupTable when
-        //    checkLookupTable() is called, the current thread
-        //    would be blocked until the host is removed
-        //    from the lookupTable. Then this thread
-        //    should try to look up the addressCache.
-        //     i) if it found the addresses in the
-        //        addressCache, checkLookupTable()  would
-        //        return the addresses.
-        //     ii) if it didn't find the addresses in the
-        //         addressCache for any reason,
-        //         it should add the host in the
-        //         lookupTable and return null so the
-        //         following code would do  a lookup itself.
-        if ((addresses = checkLookupTable(host)) == null) {
+        for (NameService nameService : nameServices) {
             try {
-                // This is the first thread which looks up the addresses
-                // this host or the cache entry for this host has been
-                // expired so this thread should do the lookup.
-                for (NameService nameService : nameServices) {
-                    try {
-                        /*
-                         * Do not put the call to lookup() inside the
-                         * constructor.  if you do you will still be
-                         * allocating space when the lookup fails.
-                         */
-
-                        addresses = nameService.lookupAllHostAddr(host);
-                        success = true;
-                        break;
-                    } catch (UnknownHostException uhe) {
-                        if (host.equalsIgnoreCase("localhost")) {
-                            InetAddress[] local = new InetAddress[] { impl.loopbackAddress() };
-                            addresses = local;
-                            success = true;
-                            break;
-                        }
-                        else {
-                            addresses = unknown_array;
-                            success = false;
-                            ex = uhe;
-                        }
-                    }
-                }
+                /*
+                 * Do not put the call to lookup() inside the
+                 * constructor.  if you do you will still be
+                 * allocating space when the lookup fails.
+                 */
 
-                // More to do?
-                if (reqAddr != null && addresses.length > 1 && !addresses[0].equals(reqAddr)) {
-                    // Find it?
-                    int i = 1;
-                    for (; i < addresses.length; i++) {
-                        if (addresses[i].equals(reqAddr)) {
-                            break;
-                        }
-                    }
-                    // Rotate
-                    if (i < addresses.length) {
-                        InetAddress tmp, tmp2 = reqAddr;
-                        for (int j = 0; j < i; j++) {
-                            tmp = addresses[j];
-                            addresses[j] = tmp2;
-                            tmp2 = tmp;
-                        }
-                        addresses[i] = tmp2;
-                    }
+                addresses = nameService.lookupAllHostAddr(host);
+                success = true;
+                break;
+            } catch (UnknownHostException uhe) {
+                if (host.equalsIgnoreCase("localhost")) {
+                    InetAddress[] local = new InetAddress[] { impl.loopbackAddress() };
+                    addresses = local;
+                    success = true;
+                    break;
+                }
+                else {
+                    addresses = unknown_array;
+                    success = false;
+                    ex = uhe;
                 }
-                // Cache the address.
-                cacheAddresses(host, addresses, success);
-
-                if (!success && ex != null)
-                    throw ex;
-
-            } finally {
-                // Delete host from the lookupTable and notify
-                // all threads waiting on the lookupTable monitor.
-                updateLookupTable(host);
             }
         }
 
-        return addresses;
-    }
-
-
-    private static InetAddress[] checkLookupTable(String host) {
-        synchronized (lookupTable) {
-            // If the host isn't in the lookupTable, add it in the
-            // lookuptable and return null. The caller should do
-            // the lookup.
-            if (lookupTable.containsKey(host) == false) {
-                lookupTable.put(host, null);
-                return null;
+        // More to do?
+        if (reqAddr != null && addresses.length > 1 && !addresses[0].equals(reqAddr)) {
+            // Find it?
+            int i = 1;
+            for (; i < addresses.length; i++) {
+                if (addresses[i].equals(reqAddr)) {
+                    break;
+                }
             }
-
-            // If the host is in the lookupTable, it means that another
-            // thread is trying to look up the addresses of this host.
-            // This thread should wait.
-            while (lookupTable.containsKey(host)) {
-                try {
-                    lookupTable.wait();
-                } catch (InterruptedException e) {
+            // Rotate
+            if (i < addresses.length) {
+                InetAddress tmp, tmp2 = reqAddr;
+                for (int j = 0; j < i; j++) {
+                    tmp = addresses[j];
+                    addresses[j] = tmp2;
+                    tmp2 = tmp;
                 }
+                addresses[i] = tmp2;
             }
         }
 
-        // The other thread has finished looking up the addresses of
-        // the host. This thread should retry to get the addresses
-        // from the addressCache. If it doesn't get the addresses from
-        // the cache, it will try to look up the addresses itself.
-        InetAddress[] addresses = getCachedAddresses(host);
-        if (addresses == null) {
-            synchronized (lookupTable) {
-                lookupTable.put(host, null);
-                return null;
+        if (!success) {
+            // Keep using expired addresses while they may be used,
+            // and allow the next thread finding them to try again.
+            CacheEntry stale = getStaleEntry(host.toLowerCase());
+            if (stale != null) {
+                stale.refreshing.set(false);
+                return stale.addresses;
             }
         }
 
-        return addresses;
-    }
+        // Cache the address.
+        cacheAddresses(host, addresses, success);
 
-    private static void updateLookupTable(String host) {
-        synchronized (lookupTable) {
-            lookupTable.remove(host);
-            lookupTable.notifyAll();
-        }
+        if (!success && ex != null)
+            throw ex;
+
+        return addresses;
     }
 
     /**
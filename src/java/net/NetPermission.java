@@ -73,6 +73,13 @@ import java.util.StringTokenizer;
  *   </tr>
  *
  * <tr>
+ *   <td>getHttpConnectionPool</td>
+ *   <td>The ability to get the system-wide pool of HTTP connections.</td>
+ *   <td>Malicious code could close the pool, or learn which hosts other
+ *   code communicates with from the pool statistics.</td>
+ * </tr>
+ *
+ * <tr>
  *  <td>getNetworkInformation</td>
  *  <td>The ability to retrieve all information about local network interfaces.</td>
  *  <td>Malicious code can read information about network hardware such as
@@ -125,6 +132,14 @@ import java.util.StringTokenizer;
  * </tr>
  *
  * <tr>
+ *   <td>setHttpConnectionPool</td>
+ *   <td>The ability to set the system-wide pool of HTTP connections.</td>
+ *   <td>Malicious code can set a pool that opens connections to arbitrary
+ *   hosts, or that reads and modifies the requests and responses of
+ *   other code.</td>
+ * </tr>
+ *
+ * <tr>
  *   <td>setProxySelector</td>
  *   <td>The ability to set the proxy selector used to make decisions
  *   on which proxies to use when making network connections.</td>
@@ -72,6 +72,9 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
     /* The search path for classes and resources */
     private final URLClassPath ucp;
 
+    /* The package index of the search path, or null if disabled */
+    private final ClassPathIndex index;
+
     /* The context to be used when loading classes and resources */
     private final AccessControlContext acc;
 
@@ -101,6 +104,7 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
             security.checkCreateClassLoader();
         }
         ucp = new URLClassPath(urls);
+        index = newIndex(urls, null);
         this.acc = AccessController.getContext();
     }
 
@@ -113,6 +117,7 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
             security.checkCreateClassLoader();
         }
         ucp = new URLClassPath(urls);
+        index = newIndex(urls, null);
         this.acc = acc;
     }
 
@@ -144,6 +149,7 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
             security.checkCreateClassLoader();
         }
         ucp = new URLClassPath(urls);
+        index = newIndex(urls, null);
         this.acc = AccessController.getContext();
     }
 
@@ -155,6 +161,7 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
             security.checkCreateClassLoader();
         }
         ucp = new URLClassPath(urls);
+        index = newIndex(urls, null);
         this.acc = acc;
     }
 
@@ -187,9 +194,21 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
             security.checkCreateClassLoader();
         }
         ucp = new URLClassPath(urls, factory);
+        index = newIndex(urls, factory);
         acc = AccessController.getContext();
     }
 
+    /* Whether the package index is disabled */
+    private static final boolean disableIndex =
+        AccessController.doPrivileged(
+            new sun.security.action.GetBooleanAction(
+                "java.net.URLClassLoader.disableIndex")).booleanValue();
+
+    private static ClassPathIndex newIndex(URL[] urls,
+                                           URLStreamHandlerFactory factory) {
+        return disableIndex ? null : new ClassPathIndex(urls, factory);
+    }
+
     /* A map (used as a set) to keep track of closeable local resources
      * (either JarFiles or FileInputStreams). We don't care about
      * Http resources since they don't need to be closed.
@@ -284,6 +303,9 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
             security.checkPermission(new RuntimePermission("closeClassLoader"));
         }
         List<IOException> errors = ucp.closeLoaders();
+        if (index != null) {
+            errors.addAll(index.close());
+        }
 
         // now close any remaining streams.
 
@@ -325,6 +347,9 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
      */
     protected void addURL(URL url) {
         ucp.addURL(url);
+        if (index != null) {
+            index.addURL(url);
+        }
     }
 
     /**
@@ -355,7 +380,9 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
                 new PrivilegedExceptionAction<Class>() {
                     public Class run() throws ClassNotFoundException {
                         String path = name.replace('.', '/').concat(".class");
-                        Resource res = ucp.getResource(path, false);
+                        Resource res = (index != null)
+                            ? index.getResource(path, false)
+                            : ucp.getResource(path, false);
                         if (res != null) {
                             try {
                                 return defineClass(name, res);
@@ -548,7 +575,9 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
         URL url = AccessController.doPrivileged(
             new PrivilegedAction<URL>() {
                 public URL run() {
-                    return ucp.findResource(name, true);
+                    return (index != null)
+                        ? index.findResource(name, true)
+                        : ucp.findResource(name, true);
                 }
             }, acc);
 
@@ -567,7 +596,9 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
     public Enumeration<URL> findResources(final String name)
         throws IOException
     {
-        final Enumeration<URL> e = ucp.findResources(name, true);
+        final Enumeration<URL> e = (index != null)
+            ? index.findResources(name, true)
+            : ucp.findResources(name, true);
 
         return new Enumeration<URL>() {
             private URL url = null;
@@ -26,6 +26,7 @@
 package java.nio;
 
 import java.security.AccessController;
+import java.util.concurrent.atomic.AtomicLong;
 import sun.misc.Unsafe;
 import sun.misc.VM;
 
@@ -672,6 +673,35 @@ class Bits {                            // package-private
         }
     }
 
+    // Buffers and direct memory held by DirectBufferPools, and the part of
+    // that memory which is currently handed out by them.  The memory is
+    // included in the totals above, since pools obtain their buffers
+    // through reserveMemory.
+    private static final AtomicLong pooledCount = new AtomicLong();
+    private static final AtomicLong pooledMemory = new AtomicLong();
+    private static final AtomicLong pooledMemoryInUse = new AtomicLong();
+
+    static void adjustPooledMemory(long count, long reserved, long inUse) {
+        if (count != 0)
+            pooledCount.addAndGet(count);
+        if (reserved != 0)
+            pooledMemory.addAndGet(reserved);
+        if (inUse != 0)
+            pooledMemoryInUse.addAndGet(inUse);
+    }
+
+    static long pooledCount() {
+        return pooledCount.get();
+    }
+
+    static long pooledMemory() {
+        return pooledMemory.get();
+    }
+
+    static long pooledMemoryInUse() {
+        return pooledMemoryInUse.get();
+    }
+
     // -- Monitoring of direct buffer usage --
 
     static {
@@ -808,4 +838,113 @@ class Bits {                            // package-private
     static native void copyToLongArray(long srcAddr, Object dst, long dstPos,
                                        long length);
 
+    // Offset of first element of storage in a byte array
+    private static final long byteArrayBaseOffset =
+        (long)unsafe.arrayBaseOffset(byte[].class);
+
+    /**
+     * Copy from given source byte array into given destination array of
+     * another primitive type, swapping the bytes of each element if
+     * requested.  Must only be used if unaligned accesses are supported.
+     *
+     * @param   src
+     *          source byte array
+     * @param   srcPos
+     *          index within source array of the first byte to read
+     * @param   dst
+     *          destination array
+     * @param   dstBaseOffset
+     *          offset of first element of storage in destination array
+     * @param   dstPos
+     *          offset within destination array of the first element to write
+     * @param   length
+     *          number of bytes to copy
+     * @param   size
+     *          size of each element, in bytes: 2, 4 or 8
+     * @param   swap
+     *          whether to reverse the bytes of each element
+     */
+    static void copyFromByteArray(byte[] src, long srcPos,
+                                  Object dst, long dstBaseOffset, long dstPos,
+                                  long length, int size, boolean swap)
+    {
+        copySwapMemory(src, byteArrayBaseOffset + srcPos,
+                       dst, dstBaseOffset + dstPos, length, size, swap);
+    }
+
+    /**
+     * Copy from given source array of a primitive type other than byte into
+     * given destination byte array, swapping the bytes of each element if
+     * requested.  Must only be used if unaligned accesses are supported.
+     *
+     * @param   src
+     *          source array
+     * @param   srcBaseOffset
+     *          offset of first element of storage in source array
+     * @param   srcPos
+     *          offset within source array of the first element to read
+     * @param   dst
+     *          destination byte array
+     * @param   dstPos
+     *          index within destination array of the first byte to write
+     * @param   length
+     *          number of bytes to copy
+     * @param   size
+     *          size of each element, in bytes: 2, 4 or 8
+     * @param   swap
+     *          whether to reverse the bytes of each element
+     */
+    static void copyToByteArray(Object src, long srcBaseOffset, long srcPos,
+                                byte[] dst, long dstPos,
+                                long length, int size, boolean swap)
+    {
+        copySwapMemory(src, srcBaseOffset + srcPos,
+                       dst, byteArrayBaseOffset + dstPos, length, size, swap);
+    }
+
+    // Copies in blocks of at most UNSAFE_COPY_THRESHOLD bytes, to allow for
+    // safepoint polling, either straight through or by elements whose bytes
+    // are reversed on the fly.
+    private static void copySwapMemory(Object src, long srcOffset,
+                                       Object dst, long dstOffset,
+                                       long length, int size, boolean swap)
+    {
+        while (length > 0) {
+            long n = (length > UNSAFE_COPY_THRESHOLD) ? UNSAFE_COPY_THRESHOLD : length;
+            if (!swap) {
+                unsafe.copyMemory(src, srcOffset, dst, dstOffset, n);
+            } else {
+                int count = (int)n / size;
+                switch (size) {
+                case 2:
+                    for (int i = 0; i < count; i++) {
+                        long k = (long)i << 1;
+                        unsafe.putShort(dst, dstOffset + k,
+                                        Short.reverseBytes(unsafe.getShort(src, srcOffset + k)));
+                    }
+                    break;
+                case 4:
+                    for (int i = 0; i < count; i++) {
+                        long k = (long)i << 2;
+                        unsafe.putInt(dst, dstOffset + k,
+                                      Integer.reverseBytes(unsafe.getInt(src, srcOffset + k)));
+                    }
+                    break;
+                case 8:
+                    for (int i = 0; i < count; i++) {
+                        long k = (long)i << 3;
+                        unsafe.putLong(dst, dstOffset + k,
+                                       Long.reverseBytes(unsafe.getLong(src, srcOffset + k)));
+                    }
+                    break;
+                default:
+                    throw new InternalError();
+                }
+            }
+            length -= n;
+            srcOffset += n;
+            dstOffset += n;
+        }
+    }
+
 }
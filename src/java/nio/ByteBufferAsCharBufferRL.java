@@ -135,6 +135,10 @@ class ByteBufferAsCharBufferRL                  // package-private
 
     }
 
+    public CharBuffer put(char[] src, int offset, int length) {
+        throw new ReadOnlyBufferException();
+    }
+
     public CharBuffer compact() {
 
 
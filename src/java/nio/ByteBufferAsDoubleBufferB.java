@@ -135,6 +135,50 @@ class ByteBufferAsDoubleBufferB                  // package-private
 
     }
 
+    // Bulk transfers to and from arrays copy through Unsafe in blocks when
+    // this buffer is a view of a heap byte buffer, swapping the bytes of
+    // each element on the fly unless the buffer is in native order.
+
+    private static final long arrayBaseOffset =
+        (long)Bits.unsafe().arrayBaseOffset(double[].class);
+
+    private static final boolean swap =
+        Bits.byteOrder() != ByteOrder.BIG_ENDIAN;
+
+    public DoubleBuffer get(double[] dst, int offset, int length) {
+        if ((bb.hb == null) || !Bits.unaligned())
+            return super.get(dst, offset, length);
+        checkBounds(offset, length, dst.length);
+        int pos = position();
+        int lim = limit();
+        assert (pos <= lim);
+        int rem = (pos <= lim ? lim - pos : 0);
+        if (length > rem)
+            throw new BufferUnderflowException();
+        Bits.copyFromByteArray(bb.hb, ix(pos),
+                               dst, arrayBaseOffset, (long)offset << 3,
+                               (long)length << 3, 1 << 3, swap);
+        position(pos + length);
+        return this;
+    }
+
+    public DoubleBuffer put(double[] src, int offset, int length) {
+        if ((bb.hb == null) || !Bits.unaligned())
+            return super.put(src, offset, length);
+        checkBounds(offset, length, src.length);
+        int pos = position();
+        int lim = limit();
+        assert (pos <= lim);
+        int rem = (pos <= lim ? lim - pos : 0);
+        if (length > rem)
+            throw new BufferOverflowException();
+        Bits.copyToByteArray(src, arrayBaseOffset, (long)offset << 3,
+                             bb.hb, ix(pos),
+                             (long)length << 3, 1 << 3, swap);
+        position(pos + length);
+        return this;
+    }
+
     public DoubleBuffer compact() {
 
         int pos = position();
@@ -135,6 +135,10 @@ class ByteBufferAsDoubleBufferRL                  // package-private
 
     }
 
+    public DoubleBuffer put(double[] src, int offset, int length) {
+        throw new ReadOnlyBufferException();
+    }
+
     public DoubleBuffer compact() {
 
 
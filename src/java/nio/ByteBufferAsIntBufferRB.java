@@ -135,6 +135,10 @@ class ByteBufferAsIntBufferRB                  // package-private
 
     }
 
+    public IntBuffer put(int[] src, int offset, int length) {
+        throw new ReadOnlyBufferException();
+    }
+
     public IntBuffer compact() {
 
 
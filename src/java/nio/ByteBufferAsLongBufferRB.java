@@ -135,6 +135,10 @@ class ByteBufferAsLongBufferRB                  // package-private
 
     }
 
+    public LongBuffer put(long[] src, int offset, int length) {
+        throw new ReadOnlyBufferException();
+    }
+
     public LongBuffer compact() {
 
 
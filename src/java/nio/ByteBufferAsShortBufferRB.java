@@ -135,6 +135,10 @@ class ByteBufferAsShortBufferRB                  // package-private
 
     }
 
+    public ShortBuffer put(short[] src, int offset, int length) {
+        throw new ReadOnlyBufferException();
+    }
+
     public ShortBuffer compact() {
 
 
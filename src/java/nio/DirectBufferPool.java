@@ -0,0 +1,578 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.nio;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import sun.misc.Cleaner;
+import sun.nio.ch.DirectBuffer;
+
+
+/**
+ * A pool of direct byte buffers which are given back to the pool explicitly.
+ *
+ * <p> A direct buffer allocated by {@link ByteBuffer#allocateDirect
+ * allocateDirect} reserves its native memory afresh, and when the limit on
+ * direct memory is near, allocation may even request a garbage collection
+ * and wait for it to complete.  Applications which use many short-lived
+ * direct buffers can instead obtain them from a pool with {@link #allocate
+ * allocate}, and give them back with {@link #release release} as soon as
+ * they are done, so that their memory is reused by later allocations.
+ *
+ * <p> A pool keeps its buffers in <i>size classes</i>, whose capacities are
+ * the powers of two between the pool's minimum and maximum buffer sizes.  A
+ * request is served by a buffer of the smallest size class that fits it.  A
+ * request larger than the maximum buffer size is served by a buffer of its
+ * own, which is not kept for reuse.  Each thread keeps a few free buffers of
+ * every size class for its own reuse, so that most allocations do not
+ * contend with other threads.
+ *
+ * <p> A buffer returned by {@link #allocate allocate} behaves like a buffer
+ * returned by {@link ByteBuffer#allocateDirect allocateDirect}, except that
+ * its initial content is undefined unless the pool zeroes buffers for reuse.
+ * Once a buffer has been released it should not be used again.  The memory
+ * of a released buffer is not reused, or freed, before the garbage collector
+ * has found the buffer and every view of it unreachable, so a buffer used
+ * after its release never shares its memory with another buffer.  A buffer
+ * which becomes unreachable without having been released is <i>leaked</i>.
+ * Its memory is recovered by the pool all the same, and the leak is counted
+ * by {@link #getLeakCount getLeakCount}.
+ *
+ * <p> A pool which becomes unreachable gives up its buffers: their memory
+ * is freed once the garbage collector has found them unreachable, like the
+ * memory of any other direct buffer.
+ *
+ * <p> Direct buffer pools are safe for use by multiple concurrent threads.
+ *
+ * @since 1.8
+ */
+
+public final class DirectBufferPool {
+
+    // Default size class bounds
+    private static final int DEFAULT_MIN_BUFFER_SIZE = 4 * 1024;
+    private static final int DEFAULT_MAX_BUFFER_SIZE = 1024 * 1024;
+
+    // Number of bytes of every size class that each thread may keep, but
+    // never fewer than one buffer nor more than MAX_THREAD_CACHED buffers
+    private static final int THREAD_CACHE_BYTES = 256 * 1024;
+    private static final int MAX_THREAD_CACHED = 8;
+
+    private final int minShift;
+    private final int maxBufferSize;
+    private final boolean zeroOnRelease;
+    private final SizeClass[] classes;
+
+    // Buffers handed out and not yet found unreachable, whether released or
+    // not, by address of the underlying buffer
+    private final ConcurrentHashMap<Long,Lease> leases = new ConcurrentHashMap<>();
+    private final ReferenceQueue<ByteBuffer> unreachable = new ReferenceQueue<>();
+    private final AtomicLong leakCount = new AtomicLong();
+
+    // Usage of this pool; its share of the totals is withdrawn by the
+    // cleaner once the pool itself has become unreachable
+    private final Usage usage = new Usage();
+
+    // Per-thread caches, and all of them, so that those of terminated
+    // threads can be given back to the size classes.  The thread locals
+    // refer to the caches weakly, so that the buffers of a pool which has
+    // become unreachable are not kept alive by the threads which used it.
+    private final ThreadLocal<WeakReference<ThreadCache>> threadCache =
+        new ThreadLocal<>();
+    private final ConcurrentLinkedQueue<ThreadCache> threadCaches =
+        new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a pool with size classes from 4 kilobytes to one megabyte,
+     * which does not zero buffers for reuse.
+     */
+    public DirectBufferPool() {
+        this(DEFAULT_MIN_BUFFER_SIZE, DEFAULT_MAX_BUFFER_SIZE, false);
+    }
+
+    /**
+     * Creates a pool.  The buffer sizes are rounded up to powers of two.
+     *
+     * @param  minBufferSize
+     *         The capacity of the smallest size class, in bytes
+     *
+     * @param  maxBufferSize
+     *         The capacity of the largest size class, in bytes
+     *
+     * @param  zeroOnRelease
+     *         Whether the content of a buffer is set to zero before its
+     *         memory is reused, so that every buffer allocated from this
+     *         pool is initially zero, as if allocated by {@link
+     *         ByteBuffer#allocateDirect allocateDirect}
+     *
+     * @throws  IllegalArgumentException
+     *          If <tt>minBufferSize</tt> is not positive, if it is greater
+     *          than <tt>maxBufferSize</tt>, or if <tt>maxBufferSize</tt>
+     *          is greater than 2<sup>30</sup>
+     */
+    public DirectBufferPool(int minBufferSize, int maxBufferSize,
+                            boolean zeroOnRelease)
+    {
+        if (minBufferSize <= 0 || minBufferSize > maxBufferSize
+            || maxBufferSize > (1 << 30))
+            throw new IllegalArgumentException("Illegal buffer sizes: "
+                                               + minBufferSize + ", "
+                                               + maxBufferSize);
+        this.minShift = log2Ceiling(minBufferSize);
+        int maxShift = log2Ceiling(maxBufferSize);
+        this.maxBufferSize = 1 << maxShift;
+        this.zeroOnRelease = zeroOnRelease;
+        this.classes = new SizeClass[maxShift - minShift + 1];
+        for (int i = 0; i < classes.length; i++)
+            classes[i] = new SizeClass(1 << (minShift + i));
+        Cleaner.create(this, usage);
+    }
+
+    private static int log2Ceiling(int n) {
+        return 32 - Integer.numberOfLeadingZeros(n - 1);
+    }
+
+    /**
+     * Allocates a direct byte buffer from this pool.
+     *
+     * <p> The new buffer's position will be zero, its limit will be its
+     * capacity, its mark will be undefined, and its byte order will be
+     * {@link ByteOrder#BIG_ENDIAN BIG_ENDIAN}.
+     *
+     * @param  capacity
+     *         The new buffer's capacity, in bytes
+     *
+     * @return  The new byte buffer
+     *
+     * @throws  IllegalArgumentException
+     *          If the <tt>capacity</tt> is a negative integer
+     */
+    public ByteBuffer allocate(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException();
+        processUnreachable();
+        int index = sizeClassIndex(capacity);
+        DirectByteBuffer db;
+        if (index < 0) {
+            db = newBuffer(capacity);
+            usage.adjust(1, capacity, capacity);
+        } else {
+            SizeClass sc = classes[index];
+            db = threadCache().poll(index);
+            if (db == null)
+                db = sc.free.poll();
+            if (db == null) {
+                db = newBuffer(sc.capacity);
+                sc.buffers.incrementAndGet();
+                usage.adjust(1, sc.capacity, 0);
+            }
+            sc.inUse.incrementAndGet();
+            usage.adjust(0, 0, sc.capacity);
+        }
+        ByteBuffer buffer = new DirectByteBuffer(db, -1, 0, capacity, capacity, 0);
+        leases.put(db.address(), new Lease(buffer, unreachable, db, index));
+        return buffer;
+    }
+
+    // Allocates a new underlying buffer.  If direct memory is short, give
+    // back the buffers cached by this pool before trying again.
+    private DirectByteBuffer newBuffer(int capacity) {
+        try {
+            return new DirectByteBuffer(capacity);
+        } catch (OutOfMemoryError x) {
+            trim();
+            return new DirectByteBuffer(capacity);
+        }
+    }
+
+    /**
+     * Releases a buffer allocated from this pool.  The buffer, and any view
+     * of it, should not be used after it has been released.  Its memory is
+     * reused once the garbage collector has found the buffer and all of its
+     * views unreachable.
+     *
+     * @param  buffer
+     *         A buffer returned by {@link #allocate allocate}
+     *
+     * @throws  IllegalArgumentException
+     *          If the buffer was not allocated by this pool, is a view of
+     *          such a buffer, or has already been released
+     */
+    public void release(ByteBuffer buffer) {
+        Lease lease = null;
+        if (buffer instanceof DirectBuffer)
+            lease = leases.get(((DirectBuffer)buffer).address());
+        // The buffers handed out are the only ones attached to the
+        // underlying buffer itself; views are attached to their parent
+        if (lease == null
+            || ((DirectBuffer)buffer).attachment() != lease.buffer
+            || !lease.release())
+            throw new IllegalArgumentException(
+                "Buffer not allocated by this pool, or already released");
+        endUse(lease);
+        processUnreachable();
+    }
+
+    // Takes the buffers which have been released, or leaked, and are now
+    // unreachable, and makes their memory available again
+    private void processUnreachable() {
+        Lease lease;
+        while ((lease = (Lease)unreachable.poll()) != null) {
+            if (!leases.remove(lease.address, lease))
+                continue;
+            if (lease.release()) {
+                leakCount.incrementAndGet();
+                endUse(lease);
+            }
+            recycle(lease);
+        }
+    }
+
+    private void endUse(Lease lease) {
+        if (lease.sizeClass < 0) {
+            usage.adjust(0, 0, -lease.buffer.capacity());
+        } else {
+            SizeClass sc = classes[lease.sizeClass];
+            sc.inUse.decrementAndGet();
+            usage.adjust(0, 0, -sc.capacity);
+        }
+    }
+
+    private void recycle(Lease lease) {
+        DirectByteBuffer db = lease.buffer;
+        if (lease.sizeClass < 0) {
+            usage.adjust(-1, -db.capacity(), 0);
+            db.cleaner().clean();
+            return;
+        }
+        SizeClass sc = classes[lease.sizeClass];
+        if (zeroOnRelease)
+            Bits.unsafe().setMemory(db.address(), sc.capacity, (byte)0);
+        if (!threadCache().offer(lease.sizeClass, db))
+            sc.free.offer(db);
+    }
+
+    /**
+     * Frees the memory of the buffers which are not in use, other than
+     * those kept for reuse by threads other than the current thread.
+     * The buffers kept by threads which have terminated are freed.
+     */
+    public void trim() {
+        processUnreachable();
+        drainTerminatedThreadCaches();
+        WeakReference<ThreadCache> ref = threadCache.get();
+        ThreadCache tc = (ref != null) ? ref.get() : null;
+        if (tc != null)
+            tc.drainTo(classes);
+        for (SizeClass sc : classes) {
+            DirectByteBuffer db;
+            while ((db = sc.free.poll()) != null) {
+                sc.buffers.decrementAndGet();
+                usage.adjust(-1, -sc.capacity, 0);
+                db.cleaner().clean();
+            }
+        }
+    }
+
+    private int sizeClassIndex(int capacity) {
+        if (capacity <= (1 << minShift))
+            return 0;
+        if (capacity > maxBufferSize)
+            return -1;
+        return log2Ceiling(capacity) - minShift;
+    }
+
+    private ThreadCache threadCache() {
+        // The cache of a live thread stays in the list of thread caches,
+        // so the weak reference is only ever found cleared if it is unset
+        WeakReference<ThreadCache> ref = threadCache.get();
+        ThreadCache tc = (ref != null) ? ref.get() : null;
+        if (tc == null) {
+            // Take the opportunity to recover the buffers kept by threads
+            // which have terminated since another thread last came along
+            drainTerminatedThreadCaches();
+            tc = new ThreadCache(classes);
+            threadCaches.add(tc);
+            threadCache.set(new WeakReference<>(tc));
+        }
+        return tc;
+    }
+
+    private void drainTerminatedThreadCaches() {
+        for (ThreadCache tc : threadCaches) {
+            // Only one caller gets to remove a given cache
+            if (!tc.isOwnerAlive() && threadCaches.remove(tc))
+                tc.drainTo(classes);
+        }
+    }
+
+
+    // -- Statistics --
+
+    /**
+     * Returns the amount of direct memory held by this pool, whether in use
+     * or not.
+     *
+     * @return  The number of bytes of the buffers held by this pool
+     */
+    public long getReservedMemory() {
+        return usage.reserved.get();
+    }
+
+    /**
+     * Returns the amount of direct memory of the buffers allocated from
+     * this pool which have not been released yet.
+     *
+     * @return  The number of bytes of the buffers in use
+     */
+    public long getMemoryInUse() {
+        return usage.inUse.get();
+    }
+
+    /**
+     * Returns the number of size classes of this pool.  Size classes are
+     * numbered from zero, in order of increasing capacity.
+     *
+     * @return  The number of size classes
+     */
+    public int getSizeClassCount() {
+        return classes.length;
+    }
+
+    /**
+     * Returns the capacity of the buffers of a size class.
+     *
+     * @param  sizeClass
+     *         The index of the size class
+     *
+     * @return  The capacity of the size class, in bytes
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If <tt>sizeClass</tt> is not a valid size class index
+     */
+    public int getSizeClassCapacity(int sizeClass) {
+        return classes[sizeClass].capacity;
+    }
+
+    /**
+     * Returns the number of buffers of a size class held by this pool,
+     * whether in use or not.
+     *
+     * @param  sizeClass
+     *         The index of the size class
+     *
+     * @return  The number of buffers
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If <tt>sizeClass</tt> is not a valid size class index
+     */
+    public int getBufferCount(int sizeClass) {
+        return classes[sizeClass].buffers.get();
+    }
+
+    /**
+     * Returns the number of buffers of a size class which are in use.
+     *
+     * @param  sizeClass
+     *         The index of the size class
+     *
+     * @return  The number of buffers allocated and not yet released
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If <tt>sizeClass</tt> is not a valid size class index
+     */
+    public int getBuffersInUse(int sizeClass) {
+        return classes[sizeClass].inUse.get();
+    }
+
+    /**
+     * Returns the number of buffers of this pool which have been found
+     * unreachable without having been released.
+     *
+     * @return  The number of leaked buffers recovered by this pool
+     */
+    public long getLeakCount() {
+        return leakCount.get();
+    }
+
+    /**
+     * Returns the number of buffers held by all direct buffer pools, whether
+     * in use or not.  These buffers are reported by the
+     * <tt>"direct-pooled"</tt> {@link java.lang.management.BufferPoolMXBean
+     * BufferPoolMXBean}.
+     *
+     * @return  The number of buffers held by all pools
+     */
+    public static long getTotalBufferCount() {
+        return Bits.pooledCount();
+    }
+
+    /**
+     * Returns the amount of direct memory held by all direct buffer pools.
+     * This memory is part of the direct memory reported for the
+     * <tt>"direct"</tt> {@link java.lang.management.BufferPoolMXBean
+     * BufferPoolMXBean}, and is reported on its own by the
+     * <tt>"direct-pooled"</tt> one.
+     *
+     * @return  The number of bytes held by all pools
+     */
+    public static long getTotalReservedMemory() {
+        return Bits.pooledMemory();
+    }
+
+    /**
+     * Returns the amount of direct memory of the buffers of all direct
+     * buffer pools which are in use.
+     *
+     * @return  The number of bytes in use in all pools
+     */
+    public static long getTotalMemoryInUse() {
+        return Bits.pooledMemoryInUse();
+    }
+
+
+    // -- Internals --
+
+    private static final class SizeClass {
+        final int capacity;
+        final int threadCacheLimit;
+        final ConcurrentLinkedQueue<DirectByteBuffer> free =
+            new ConcurrentLinkedQueue<>();
+        final AtomicInteger buffers = new AtomicInteger();
+        final AtomicInteger inUse = new AtomicInteger();
+
+        SizeClass(int capacity) {
+            this.capacity = capacity;
+            this.threadCacheLimit =
+                Math.max(1, Math.min(MAX_THREAD_CACHED,
+                                     THREAD_CACHE_BYTES / capacity));
+        }
+    }
+
+    // The buffers and memory held by a pool, which are also added to the
+    // totals of all pools.  Run as the cleaner of the pool, it withdraws
+    // them from the totals, since the buffers left are then no longer
+    // pooled.  It must not refer to the pool.
+    private static final class Usage implements Runnable {
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong reserved = new AtomicLong();
+        final AtomicLong inUse = new AtomicLong();
+
+        void adjust(long count, long reserved, long inUse) {
+            if (count != 0)
+                this.count.addAndGet(count);
+            if (reserved != 0)
+                this.reserved.addAndGet(reserved);
+            if (inUse != 0)
+                this.inUse.addAndGet(inUse);
+            Bits.adjustPooledMemory(count, reserved, inUse);
+        }
+
+        public void run() {
+            adjust(-count.get(), -reserved.get(), -inUse.get());
+        }
+    }
+
+    // A buffer handed out, phantom referenced so that its memory is taken
+    // back only once neither it nor any view of it can be reached.  Views
+    // refer to their parent, so they keep the buffer itself reachable.  The
+    // underlying buffer stays strongly reachable from here.
+    private static final class Lease extends PhantomReference<ByteBuffer> {
+        final DirectByteBuffer buffer;
+        final Long address;
+        final int sizeClass;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Lease(ByteBuffer referent, ReferenceQueue<ByteBuffer> queue,
+              DirectByteBuffer buffer, int sizeClass)
+        {
+            super(referent, queue);
+            this.buffer = buffer;
+            this.address = buffer.address();
+            this.sizeClass = sizeClass;
+        }
+
+        // Returns true if the buffer had not been released yet
+        boolean release() {
+            return released.compareAndSet(false, true);
+        }
+    }
+
+    // The free buffers kept by a thread.  Only the owner uses the cache
+    // while it is alive; afterwards it is drained by whoever removes it from
+    // the list of thread caches.
+    private static final class ThreadCache {
+        private final WeakReference<Thread> owner =
+            new WeakReference<>(Thread.currentThread());
+        private final DirectByteBuffer[][] stacks;
+        private final int[] sizes;
+
+        ThreadCache(SizeClass[] classes) {
+            stacks = new DirectByteBuffer[classes.length][];
+            for (int i = 0; i < classes.length; i++)
+                stacks[i] = new DirectByteBuffer[classes[i].threadCacheLimit];
+            sizes = new int[classes.length];
+        }
+
+        boolean isOwnerAlive() {
+            Thread t = owner.get();
+            return t != null && t.isAlive();
+        }
+
+        DirectByteBuffer poll(int i) {
+            int n = sizes[i];
+            if (n == 0)
+                return null;
+            DirectByteBuffer db = stacks[i][--n];
+            stacks[i][n] = null;
+            sizes[i] = n;
+            return db;
+        }
+
+        boolean offer(int i, DirectByteBuffer db) {
+            int n = sizes[i];
+            if (n == stacks[i].length)
+                return false;
+            stacks[i][n] = db;
+            sizes[i] = n + 1;
+            return true;
+        }
+
+        void drainTo(SizeClass[] classes) {
+            for (int i = 0; i < stacks.length; i++) {
+                DirectByteBuffer db;
+                while ((db = poll(i)) != null)
+                    classes[i].free.offer(db);
+            }
+        }
+    }
+}
@@ -744,8 +744,19 @@ public abstract class IntBuffer
         int n = src.remaining();
         if (n > remaining())
             throw new BufferOverflowException();
-        for (int i = 0; i < n; i++)
-            put(src.get());
+        if (src.hasArray()) {
+            // Let this buffer's bulk put take the fastest path it has
+            int pos = src.position();
+            put(src.array(), src.arrayOffset() + pos, n);
+            src.position(pos + n);
+        } else if (hasArray()) {
+            int pos = position();
+            src.get(array(), arrayOffset() + pos, n);
+            position(pos + n);
+        } else {
+            for (int i = 0; i < n; i++)
+                put(src.get());
+        }
         return this;
     }
 
@@ -833,6 +844,171 @@ public abstract class IntBuffer
     }
 
 
+    // -- Absolute bulk get and put operations --
+
+    /**
+     * Absolute bulk <i>get</i> method.
+     *
+     * <p> This method transfers <tt>length</tt> ints from this buffer
+     * into the given array, starting at the given index in this buffer and
+     * at the given offset in the array.  The position of this buffer is
+     * unchanged.
+     *
+     * <p> An invocation of this method of the form
+     * <tt>src.get(index,&nbsp;dst,&nbsp;offset,&nbsp;length)</tt> has exactly
+     * the same effect as the loop
+     *
+     * <pre>
+     *     for (int i = offset, j = index; i < offset + length; i++, j++)
+     *         dst[i] = src.get(j); </pre>
+     *
+     * except that it first checks the consistency of the supplied parameters
+     * and it is potentially much more efficient. </p>
+     *
+     * @param  index
+     *         The index in this buffer from which the first int will be
+     *         read; must be non-negative and not larger than <tt>limit()</tt>
+     *
+     * @param  dst
+     *         The destination array
+     *
+     * @param  offset
+     *         The offset within the array of the first int to be
+     *         written; must be non-negative and not larger than
+     *         <tt>dst.length</tt>
+     *
+     * @param  length
+     *         The number of ints to be written to the given array;
+     *         must be non-negative and not larger than the smaller of
+     *         <tt>limit()&nbsp;-&nbsp;index</tt> and
+     *         <tt>dst.length&nbsp;-&nbsp;offset</tt>
+     *
+     * @return  This buffer
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the preconditions on the <tt>index</tt>, <tt>offset</tt>,
+     *          and <tt>length</tt> parameters do not hold
+     *
+     * @since 1.8
+     */
+    public IntBuffer get(int index, int[] dst, int offset, int length) {
+        checkIndex(index, length);
+        checkBounds(offset, length, dst.length);
+        IntBuffer dup = duplicate();
+        dup.position(index);
+        dup.get(dst, offset, length);
+        return this;
+    }
+
+    /**
+     * Absolute bulk <i>get</i> method.
+     *
+     * <p> This method transfers ints from this buffer into the given
+     * destination array, starting at the given index.  An invocation of
+     * this method of the form <tt>src.get(index,&nbsp;a)</tt> behaves in
+     * exactly the same way as the invocation
+     *
+     * <pre>
+     *     src.get(index, a, 0, a.length) </pre>
+     *
+     * @return  This buffer
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If <tt>index</tt> is negative, or if there are fewer than
+     *          <tt>a.length</tt> ints in this buffer from the given index
+     *          to its limit
+     *
+     * @since 1.8
+     */
+    public IntBuffer get(int index, int[] dst) {
+        return get(index, dst, 0, dst.length);
+    }
+
+    /**
+     * Absolute bulk <i>put</i> method&nbsp;&nbsp;<i>(optional operation)</i>.
+     *
+     * <p> This method transfers <tt>length</tt> ints from the given array,
+     * starting at the given offset in the array, into this buffer, starting
+     * at the given index in this buffer.  The position of this buffer is
+     * unchanged.
+     *
+     * <p> An invocation of this method of the form
+     * <tt>dst.put(index,&nbsp;src,&nbsp;offset,&nbsp;length)</tt> has
+     * exactly the same effect as the loop
+     *
+     * <pre>
+     *     for (int i = offset, j = index; i < offset + length; i++, j++)
+     *         dst.put(j, src[i]); </pre>
+     *
+     * except that it first checks the consistency of the supplied parameters
+     * and it is potentially much more efficient. </p>
+     *
+     * @param  index
+     *         The index in this buffer at which the first int will be
+     *         written; must be non-negative and not larger than
+     *         <tt>limit()</tt>
+     *
+     * @param  src
+     *         The array from which ints are to be read
+     *
+     * @param  offset
+     *         The offset within the array of the first int to be read;
+     *         must be non-negative and not larger than <tt>src.length</tt>
+     *
+     * @param  length
+     *         The number of ints to be read from the given array;
+     *         must be non-negative and not larger than the smaller of
+     *         <tt>limit()&nbsp;-&nbsp;index</tt> and
+     *         <tt>src.length&nbsp;-&nbsp;offset</tt>
+     *
+     * @return  This buffer
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the preconditions on the <tt>index</tt>, <tt>offset</tt>,
+     *          and <tt>length</tt> parameters do not hold
+     *
+     * @throws  ReadOnlyBufferException
+     *          If this buffer is read-only
+     *
+     * @since 1.8
+     */
+    public IntBuffer put(int index, int[] src, int offset, int length) {
+        checkIndex(index, length);
+        checkBounds(offset, length, src.length);
+        IntBuffer dup = duplicate();
+        dup.position(index);
+        dup.put(src, offset, length);
+        return this;
+    }
+
+    /**
+     * Absolute bulk <i>put</i> method&nbsp;&nbsp;<i>(optional operation)</i>.
+     *
+     * <p> This method copies ints into this buffer from the given source
+     * array, starting at the given index.  An invocation of this method of
+     * the form <tt>dst.put(index,&nbsp;a)</tt> behaves in exactly the same
+     * way as the invocation
+     *
+     * <pre>
+     *     dst.put(index, a, 0, a.length) </pre>
+     *
+     * @return  This buffer
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If <tt>index</tt> is negative, or if there are fewer than
+     *          <tt>a.length</tt> ints in this buffer from the given index
+     *          to its limit
+     *
+     * @throws  ReadOnlyBufferException
+     *          If this buffer is read-only
+     *
+     * @since 1.8
+     */
+    public IntBuffer put(int index, int[] src) {
+        return put(index, src, 0, src.length);
+    }
+
+
 
 
 
@@ -26,7 +26,9 @@
 package java.nio;
 
 import java.io.FileDescriptor;
+import sun.misc.Cleaner;
 import sun.misc.Unsafe;
+import sun.nio.ch.DirectBuffer;
 
 
 /**
@@ -38,7 +40,8 @@ import sun.misc.Unsafe;
  * memory-mapped file regions.
  *
  * <p> A mapped byte buffer and the file mapping that it represents remain
- * valid until the buffer itself is garbage-collected.
+ * valid until the buffer itself is garbage-collected.  A {@link MappedRegion}
+ * may be used instead where a mapping is to be released explicitly.
  *
  * <p> The content of a mapped byte buffer can change at any time, for example
  * if the content of the corresponding region of the mapped file is changed by
@@ -205,6 +208,27 @@ public abstract class MappedByteBuffer
         return this;
     }
 
+    // Asks the operating system to read the given part of this buffer ahead
+    // of its use, for MappedRegion, without waiting for it as load() does
+    final void willNeed(int index, int length) {
+        checkMapped();
+        if ((address == 0) || (length == 0))
+            return;
+        long a = address + index;
+        long pageOffset = a & (Bits.pageSize() - 1);
+        load0(a - pageOffset, (long)length + pageOffset);
+    }
+
+    // Unmaps this buffer now, for MappedRegion, rather than once it has been
+    // garbage-collected.  Neither this buffer nor any view of it may be
+    // accessed afterwards.
+    final void unmap() {
+        checkMapped();
+        Cleaner cleaner = ((DirectBuffer)this).cleaner();
+        if (cleaner != null)
+            cleaner.clean();
+    }
+
     private native boolean isLoaded0(long address, long length, int pageCount);
     private native void load0(long address, long length);
     private native void force0(FileDescriptor fd, long address, long length);
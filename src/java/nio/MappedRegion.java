@@ -0,0 +1,829 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.nio;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * A memory-mapped region of a file which may be larger than the largest
+ * possible buffer, and which may be unmapped explicitly.
+ *
+ * <p> A region is created by the {@link #map map} method, which maps the
+ * region with {@link FileChannel#map FileChannel.map} in consecutive chunks
+ * of up to 2<sup>30</sup> bytes.  The content of the region is accessed by
+ * the absolute <i>get</i> and <i>put</i> methods of this class, whose indexes
+ * are <tt>long</tt> values relative to the start of the region.  Multi-byte
+ * values are read and written according to the region's {@link #order
+ * byte order}, and may span chunks.
+ *
+ * <p> A mapped byte buffer remains mapped until it is garbage-collected,
+ * which keeps the file open in the meantime.  A region, in contrast, is
+ * unmapped as soon as it is {@link #close closed}.  Closing a region waits
+ * for the operations upon it which are in progress in other threads to
+ * complete, and any later operation throws an {@link
+ * IllegalStateException}.  The mapped memory is only ever accessed through
+ * the methods of this class, so that it cannot be accessed once unmapped.
+ *
+ * <p> The {@link #prefetch prefetch} method asks the operating system to
+ * read a part of the region into memory ahead of its use.
+ *
+ * <p> The same caveats about the content of a mapped file apply to regions
+ * as to {@linkplain MappedByteBuffer#inaccess mapped byte buffers}.
+ *
+ * <p> Regions are safe for use by multiple concurrent threads, but the byte
+ * order should be set before a region is shared.
+ *
+ * @since 1.8
+ */
+
+public final class MappedRegion implements AutoCloseable {
+
+    // Chunks are mapped at multiples of CHUNK_SIZE from the region start
+    private static final int CHUNK_SHIFT = 30;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // Set in the state once the region is closing
+    private static final int CLOSED = Integer.MIN_VALUE;
+
+    private final MappedByteBuffer[] chunks;
+    private final long size;
+    private final boolean readOnly;
+
+    // The number of operations in progress, with the CLOSED bit set once
+    // close has been invoked.  Operations only begin while the bit is
+    // clear, and the chunks are unmapped once none is left in progress.
+    private final AtomicInteger state = new AtomicInteger();
+
+    // Whether the chunks have been unmapped; guarded by this
+    private boolean unmapped;
+
+    private boolean bigEndian = true;
+
+    private MappedRegion(MappedByteBuffer[] chunks, long size,
+                         boolean readOnly)
+    {
+        this.chunks = chunks;
+        this.size = size;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Maps a region of a file into memory.
+     *
+     * @param  channel
+     *         The channel of the file to be mapped
+     *
+     * @param  mode
+     *         One of the constants {@link FileChannel.MapMode#READ_ONLY
+     *         READ_ONLY}, {@link FileChannel.MapMode#READ_WRITE READ_WRITE},
+     *         or {@link FileChannel.MapMode#PRIVATE PRIVATE}, as for
+     *         {@link FileChannel#map FileChannel.map}
+     *
+     * @param  position
+     *         The position within the file at which the mapped region
+     *         is to start; must be non-negative
+     *
+     * @param  size
+     *         The size of the region to be mapped; must be non-negative
+     *
+     * @return  The mapped region
+     *
+     * @throws  IllegalArgumentException
+     *          If the preconditions on the parameters do not hold
+     *
+     * @throws  IOException
+     *          If <tt>FileChannel.map</tt> throws an exception for any
+     *          of the chunks, in which case no part of the region remains
+     *          mapped
+     */
+    public static MappedRegion map(FileChannel channel,
+                                   FileChannel.MapMode mode,
+                                   long position, long size)
+        throws IOException
+    {
+        if (position < 0)
+            throw new IllegalArgumentException("Negative position");
+        if (size < 0)
+            throw new IllegalArgumentException("Negative size");
+        if (position + size < 0)
+            throw new IllegalArgumentException("Position + size overflow");
+        int n = (int)((size + CHUNK_MASK) >>> CHUNK_SHIFT);
+        MappedByteBuffer[] chunks = new MappedByteBuffer[Math.max(n, 1)];
+        int i = 0;
+        try {
+            do {
+                long offset = (long)i << CHUNK_SHIFT;
+                long length = Math.min(CHUNK_SIZE, size - offset);
+                chunks[i] = channel.map(mode, position + offset, length);
+            } while (++i < n);
+        } finally {
+            // The chunks have not been handed out, so they can be unmapped
+            if (i < n) {
+                while (--i >= 0)
+                    chunks[i].unmap();
+            }
+        }
+        return new MappedRegion(chunks, size,
+                                mode == FileChannel.MapMode.READ_ONLY);
+    }
+
+    /**
+     * Returns the size of this region.
+     *
+     * @return  The size of this region, in bytes
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Tells whether or not this region is read-only.
+     *
+     * @return  <tt>true</tt> if, and only if, this region was mapped in
+     *          {@link FileChannel.MapMode#READ_ONLY READ_ONLY} mode
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Tells whether or not this region is still mapped.
+     *
+     * @return  <tt>true</tt> if, and only if, this region has not been
+     *          closed
+     */
+    public boolean isOpen() {
+        return state.get() >= 0;
+    }
+
+    /**
+     * Retrieves this region's byte order.  The order of a newly-mapped
+     * region is always {@link ByteOrder#BIG_ENDIAN BIG_ENDIAN}.
+     *
+     * @return  This region's byte order
+     */
+    public ByteOrder order() {
+        return bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+    }
+
+    /**
+     * Modifies this region's byte order.
+     *
+     * @param  bo
+     *         The new byte order
+     *
+     * @return  This region
+     *
+     * @throws  IllegalStateException
+     *          If this region has been closed
+     */
+    public MappedRegion order(ByteOrder bo) {
+        begin();
+        try {
+            for (MappedByteBuffer chunk : chunks)
+                chunk.order(bo);
+            bigEndian = (bo == ByteOrder.BIG_ENDIAN);
+        } finally {
+            end();
+        }
+        return this;
+    }
+
+    // Marks the start of an operation which accesses the chunks
+    private void begin() {
+        for (;;) {
+            int s = state.get();
+            if (s < 0)
+                throw new IllegalStateException("Region has been closed");
+            if (state.compareAndSet(s, s + 1))
+                return;
+        }
+    }
+
+    // Marks the end of an operation, and wakes up close if it was the
+    // last one it was waiting for
+    private void end() {
+        if (state.decrementAndGet() == CLOSED) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    private void checkIndex(long index, int n) {
+        if ((index < 0) || (n > size - index))
+            throw new IndexOutOfBoundsException();
+    }
+
+    // Returns the chunk in which the byte at the given index lies
+    private MappedByteBuffer chunk(long index) {
+        return chunks[(int)(index >>> CHUNK_SHIFT)];
+    }
+
+    // Tells whether an access of n bytes at the given index lies within
+    // one chunk
+    private static boolean inChunk(long index, int n) {
+        return (int)(index & CHUNK_MASK) <= CHUNK_SIZE - n;
+    }
+
+    private static int chunkIndex(long index) {
+        return (int)(index & CHUNK_MASK);
+    }
+
+
+    // -- Single-value access --
+
+    /**
+     * Reads the byte at the given index.
+     *
+     * @param  index
+     *         The index from which the byte will be read
+     *
+     * @return  The byte at the given index
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If <tt>index</tt> is negative or not smaller than the
+     *          region's size
+     *
+     * @throws  IllegalStateException
+     *          If this region has been closed
+     */
+    public byte get(long index) {
+        checkIndex(index, 1);
+        begin();
+        try {
+            return chunk(index).get(chunkIndex(index));
+        } finally {
+            end();
+        }
+    }
+
+    /**
+     * Writes the given byte at the given index.
+     *
+     * @param  index
+     *         The index at which the byte will be written
+     *
+     * @param  b
+     *         The byte value to be written
+     *
+     * @return  This region
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If <tt>index</tt> is negative or not smaller than the
+     *          region's size
+     *
+     * @throws  ReadOnlyBufferException
+     *          If this region is read-only
+     *
+     * @throws  IllegalStateException
+     *          If this region has been closed
+     */
+    public MappedRegion put(long index, byte b) {
+        checkIndex(index, 1);
+        begin();
+        try {
+            chunk(index).put(chunkIndex(index), b);
+        } finally {
+            end();
+        }
+        return this;
+    }
+
+    /**
+     * Reads the four bytes at the given index, composing them into an
+     * int value according to the current byte order.
+     *
+     * @param  index
+     *         The index from which the bytes will be read
+     *
+     * @return  The int value at the given index
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If <tt>index</tt> is negative or not smaller than the
+     *          region's size, minus three
+     *
+     * @throws  IllegalStateException
+     *          If this region has been closed
+     */
+    public int getInt(long index) {
+        checkIndex(index, 4);
+        begin();
+        try {
+            if (inChunk(index, 4))
+                return chunk(index).getInt(chunkIndex(index));
+            return (int)getSpanning(index, 4);
+        } finally {
+            end();
+        }
+    }
+
+    /**
+     * Writes four bytes containing the given int value, in the current
+     * byte order, at the given index.
+     *
+     * @param  index
+     *         The index at which the bytes will be written
+     *
+     * @param  value
+     *         The int value to be written
+     *
+     * @return  This region
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If <tt>index</tt> is negative or not smaller than the
+     *          region's size, minus three
+     *
+     * @throws  ReadOnlyBufferException
+     *          If this region is read-only
+     *
+     * @throws  IllegalStateException
+     *          If this region has been closed
+     */
+    public MappedRegion putInt(long index, int value) {
+        checkIndex(index, 4);
+        begin();
+        try {
+            if (inChunk(index, 4))
+                chunk(index).putInt(chunkIndex(index), value);
+            else
+                putSpanning(index, 4, value);
+        } finally {
+            end();
+        }
+        return this;
+    }
+
+    /**
+     * Reads the eight bytes at the given index, composing them into a
+     * long value according to the current byte order.
+     *
+     * @param  index
+     *         The index from which the bytes will be read
+     *
+     * @return  The long value at the given index
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If <tt>index</tt> is negative or not smaller than the
+     *          region's size, minus seven
+     *
+     * @throws  IllegalStateException
+     *          If this region has been closed
+     */
+    public long getLong(long index) {
+        checkIndex(index, 8);
+        begin();
+        try {
+            if (inChunk(index, 8))
+                return chunk(index).getLong(chunkIndex(index));
+            return getSpanning(index, 8);
+        } finally {
+            end();
+        }
+    }
+
+    /**
+     * Writes eight bytes containing the given long value, in the current
+     * byte order, at the given index.
+     *
+     * @param  index
+     *         The index at which the bytes will be written
+     *
+     * @param  value
+     *         The long value to be written
+     *
+     * @return  This region
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If <tt>index</tt> is negative or not smaller than the
+     *          region's size, minus seven
+     *
+     * @throws  ReadOnlyBufferException
+     *          If this region is read-only
+     *
+     * @throws  IllegalStateException
+     *          If this region has been closed
+     */
+    public MappedRegion putLong(long index, long value) {
+        checkIndex(index, 8);
+        begin();
+        try {
+            if (inChunk(index, 8))
+                chunk(index).putLong(chunkIndex(index), value);
+            else
+                putSpanning(index, 8, value);
+        } finally {
+            end();
+        }
+        return this;
+    }
+
+    // Reads n bytes which span two chunks, in the current byte order
+    private long getSpanning(long index, int n) {
+        long x = 0;
+        if (bigEndian) {
+            for (int i = 0; i < n; i++)
+                x = (x << 8) | (getByte(index + i) & 0xff);
+        } else {
+            for (int i = n - 1; i >= 0; i--)
+                x = (x << 8) | (getByte(index + i) & 0xff);
+        }
+        return x;
+    }
+
+    // Writes n bytes which span two chunks, in the current byte order
+    private void putSpanning(long index, int n, long x) {
+        if (bigEndian) {
+            for (int i = n - 1; i >= 0; i--, x >>= 8)
+                putByte(index + i, (byte)x);
+        } else {
+            for (int i = 0; i < n; i++, x >>= 8)
+                putByte(index + i, (byte)x);
+        }
+    }
+
+    private byte getByte(long index) {
+        return chunk(index).get(chunkIndex(index));
+    }
+
+    private void putByte(long index, byte b) {
+        chunk(index).put(chunkIndex(index), b);
+    }
+
+
+    // -- Bulk access --
+
+    /**
+     * Reads bytes from this region, starting at the given index, into the
+     * given array.
+     *
+     * @param  index
+     *         The index of the first byte to be read
+     *
+     * @param  dst
+     *         The array into which bytes are to be written
+     *
+     * @param  offset
+     *         The offset within the array of the first byte to be written
+     *
+     * @param  length
+     *         The number of bytes to be read
+     *
+     * @return  This region
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the preconditions on the <tt>index</tt>, <tt>offset</tt>
+     *          and <tt>length</tt> parameters do not hold
+     *
+     * @throws  IllegalStateException
+     *          If this region has been closed
+     */
+    public MappedRegion get(long index, byte[] dst, int offset, int length) {
+        Buffer.checkBounds(offset, length, dst.length);
+        checkIndex(index, length);
+        begin();
+        try {
+            while (length > 0) {
+                ByteBuffer bb = chunk(index).duplicate();
+                int pos = chunkIndex(index);
+                int n = Math.min(length, bb.limit() - pos);
+                bb.position(pos);
+                bb.get(dst, offset, n);
+                index += n;
+                offset += n;
+                length -= n;
+            }
+        } finally {
+            end();
+        }
+        return this;
+    }
+
+    /**
+     * Writes bytes from the given array into this region, starting at the
+     * given index.
+     *
+     * @param  index
+     *         The index at which the first byte will be written
+     *
+     * @param  src
+     *         The array from which bytes are to be read
+     *
+     * @param  offset
+     *         The offset within the array of the first byte to be read
+     *
+     * @param  length
+     *         The number of bytes to be written
+     *
+     * @return  This region
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the preconditions on the <tt>index</tt>, <tt>offset</tt>
+     *          and <tt>length</tt> parameters do not hold
+     *
+     * @throws  ReadOnlyBufferException
+     *          If this region is read-only
+     *
+     * @throws  IllegalStateException
+     *          If this region has been closed
+     */
+    public MappedRegion put(long index, byte[] src, int offset, int length) {
+        Buffer.checkBounds(offset, length, src.length);
+        checkIndex(index, length);
+        begin();
+        try {
+            while (length > 0) {
+                ByteBuffer bb = chunk(index).duplicate();
+                int pos = chunkIndex(index);
+                int n = Math.min(length, bb.limit() - pos);
+                bb.position(pos);
+                bb.put(src, offset, n);
+                index += n;
+                offset += n;
+                length -= n;
+            }
+        } finally {
+            end();
+        }
+        return this;
+    }
+
+
+    // -- Mapping operations --
+
+    /**
+     * Asks the operating system to start reading a part of this region into
+     * memory, so that it can later be accessed without waiting for the
+     * storage device.  Unlike {@link MappedByteBuffer#load
+     * MappedByteBuffer.load}, this method does not wait for the content to
+     * have been read.
+     *
+     * @param  index
+     *         The index of the first byte to be read ahead
+     *
+     * @param  length
+     *         The number of bytes to be read ahead
+     *
+     * @return  This region
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the preconditions on the <tt>index</tt> and
+     *          <tt>length</tt> parameters do not hold
+     *
+     * @throws  IllegalStateException
+     *          If this region has been closed
+     */
+    public MappedRegion prefetch(long index, long length) {
+        if ((index < 0) || (length < 0) || (length > size - index))
+            throw new IndexOutOfBoundsException();
+        begin();
+        try {
+            while (length > 0) {
+                MappedByteBuffer chunk = chunk(index);
+                int pos = chunkIndex(index);
+                int n = (int)Math.min(length, chunk.capacity() - pos);
+                chunk.willNeed(pos, n);
+                index += n;
+                length -= n;
+            }
+        } finally {
+            end();
+        }
+        return this;
+    }
+
+    /**
+     * Forces any changes made to this region's content to be written to the
+     * storage device containing the mapped file, as by {@link
+     * MappedByteBuffer#force MappedByteBuffer.force}.
+     *
+     * @return  This region
+     *
+     * @throws  IllegalStateException
+     *          If this region has been closed
+     */
+    public MappedRegion force() {
+        begin();
+        try {
+            for (MappedByteBuffer chunk : chunks)
+                chunk.force();
+        } finally {
+            end();
+        }
+        return this;
+    }
+
+    /**
+     * Unmaps this region.
+     *
+     * <p> Any operation upon the region which has already begun in another
+     * thread is allowed to complete; this method waits for it before it
+     * unmaps the region.  Once this method returns, the file is no longer
+     * mapped by this region, and any further operation upon the region,
+     * other than <tt>close</tt> itself, throws an {@link
+     * IllegalStateException}.  Changes made to a region mapped in {@link
+     * FileChannel.MapMode#READ_WRITE READ_WRITE} mode are not guaranteed to
+     * have been written to the storage device unless {@link #force force}
+     * has been invoked beforehand.  Invoking this method on a region which
+     * is already closed has no effect.
+     */
+    public void close() {
+        for (;;) {
+            int s = state.get();
+            if ((s < 0) || state.compareAndSet(s, s | CLOSED))
+                break;
+        }
+        boolean interrupted = false;
+        synchronized (this) {
+            while (state.get() != CLOSED) {
+                try {
+                    wait();
+                } catch (InterruptedException x) {
+                    interrupted = true;
+                }
+            }
+            if (!unmapped) {
+                unmapped = true;
+                for (MappedByteBuffer chunk : chunks)
+                    chunk.unmap();
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Creates a reader which scans a part of a file sequentially through a
+     * window which slides over it.
+     *
+     * @param  channel
+     *         The channel of the file to be scanned
+     *
+     * @param  position
+     *         The position within the file at which the scan is to start;
+     *         must be non-negative
+     *
+     * @param  size
+     *         The number of bytes to be scanned; must be non-negative
+     *
+     * @param  windowSize
+     *         The size of the window; must be positive and not greater
+     *         than 2<sup>30</sup>
+     *
+     * @return  The new reader
+     *
+     * @throws  IllegalArgumentException
+     *          If the preconditions on the parameters do not hold
+     */
+    public static WindowReader newWindowReader(FileChannel channel,
+                                               long position, long size,
+                                               int windowSize)
+    {
+        if ((position < 0) || (size < 0) || (position + size < 0))
+            throw new IllegalArgumentException();
+        if ((windowSize <= 0) || (windowSize > CHUNK_SIZE))
+            throw new IllegalArgumentException("Illegal window size: "
+                                               + windowSize);
+        return new WindowReader(channel, position, position + size,
+                                windowSize);
+    }
+
+    /**
+     * A reader which scans a part of a file sequentially through a mapped
+     * window.
+     *
+     * <p> Each window is a read-only {@link MappedRegion}.  Each invocation
+     * of {@link #next next} closes the current window and maps the next
+     * one, which starts at the first byte of the current window which has
+     * not been consumed.  A record which does not fit in the rest of a
+     * window can thus be left for the next window.  At most one window of
+     * the file is mapped at any time, however large the file is, and each
+     * window is {@linkplain MappedRegion#prefetch prefetched} as it is
+     * mapped.
+     *
+     * <p> A window reader is not safe for use by multiple concurrent
+     * threads.
+     *
+     * @see MappedRegion#newWindowReader
+     * @since 1.8
+     */
+    public static final class WindowReader implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final long end;
+        private final int windowSize;
+
+        // File position of the current window, and the window itself
+        private long start;
+        private MappedRegion window;
+
+        private boolean closed;
+
+        private WindowReader(FileChannel channel, long start, long end,
+                             int windowSize)
+        {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.windowSize = windowSize;
+        }
+
+        /**
+         * Closes the current window, if any, and maps the next one.
+         *
+         * <p> Any later operation upon the window previously returned by
+         * this method throws an {@link IllegalStateException}.  If none of
+         * the current window has been consumed, the same part of the file
+         * is mapped again.
+         *
+         * @param  consumed
+         *         The number of bytes at the start of the current window
+         *         which have been consumed, and are not to be part of the
+         *         next window; zero if there is no current window
+         *
+         * @return  The next window, or <tt>null</tt> if the end of the
+         *          scanned part of the file has been reached
+         *
+         * @throws  IllegalArgumentException
+         *          If <tt>consumed</tt> is negative or greater than the
+         *          size of the current window
+         *
+         * @throws  IOException
+         *          If <tt>FileChannel.map</tt> throws an exception
+         *
+         * @throws  IllegalStateException
+         *          If this reader has been closed
+         */
+        public MappedRegion next(long consumed) throws IOException {
+            if (closed)
+                throw new IllegalStateException("Reader has been closed");
+            long limit = (window != null) ? window.size() : 0;
+            if ((consumed < 0) || (consumed > limit))
+                throw new IllegalArgumentException("Illegal consumed count: "
+                                                   + consumed);
+            if (window != null) {
+                window.close();
+                window = null;
+                start += consumed;
+            }
+            if (start >= end)
+                return null;
+            int length = (int)Math.min(windowSize, end - start);
+            window = MappedRegion.map(channel, FileChannel.MapMode.READ_ONLY,
+                                      start, length);
+            window.prefetch(0, length);
+            return window;
+        }
+
+        /**
+         * Returns the position within the file of the start of the
+         * current window.
+         *
+         * @return  The file position of the current window, or of the
+         *          next window if none is mapped
+         */
+        public long windowPosition() {
+            return start;
+        }
+
+        /**
+         * Closes the current window and this reader.  The channel is not
+         * closed.  Invoking this method on a reader which is already closed
+         * has no effect.
+         */
+        public void close() {
+            closed = true;
+            if (window != null) {
+                window.close();
+                window = null;
+            }
+        }
+    }
+}
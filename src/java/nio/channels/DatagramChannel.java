@@ -28,6 +28,8 @@ package java.nio.channels;
 import java.io.IOException;
 import java.net.ProtocolFamily;
 import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.SocketOption;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
@@ -460,6 +462,199 @@ public abstract class DatagramChannel
     public abstract int send(ByteBuffer src, SocketAddress target)
         throws IOException;
 
+    /**
+     * Receives a batch of datagrams via this channel.
+     *
+     * <p> This method receives the first datagram exactly as the {@link
+     * #receive(ByteBuffer) receive} method does, blocking if this channel is
+     * in blocking mode.  It then receives as many of the datagrams already
+     * queued on the channel's socket as there are remaining buffers, without
+     * blocking again.  The datagram received into <tt>dsts[i]</tt> has its
+     * source address stored in <tt>sources[i]</tt>.  An implementation may
+     * receive the whole batch from the operating system in a single call.
+     *
+     * <p> The default implementation invokes the {@link #receive(ByteBuffer)
+     * receive} method repeatedly; when this channel is in blocking mode it
+     * receives only the first datagram.  </p>
+     *
+     * @param  dsts
+     *         The buffers into which datagrams are to be transferred
+     *
+     * @param  sources
+     *         The array in which source addresses are to be stored; must be
+     *         at least as long as <tt>dsts</tt>
+     *
+     * @return  The number of datagrams received, possibly zero if this
+     *          channel is in non-blocking mode and no datagram was
+     *          immediately available
+     *
+     * @throws  IllegalArgumentException
+     *          If <tt>sources</tt> is shorter than <tt>dsts</tt>
+     *
+     * @throws  ClosedChannelException
+     *          If this channel is closed
+     *
+     * @throws  AsynchronousCloseException
+     *          If another thread closes this channel
+     *          while the read operation is in progress
+     *
+     * @throws  ClosedByInterruptException
+     *          If another thread interrupts the current thread
+     *          while the read operation is in progress, thereby
+     *          closing the channel and setting the current thread's
+     *          interrupt status
+     *
+     * @throws  SecurityException
+     *          If a security manager has been installed
+     *          and it does not permit datagrams to be accepted
+     *          from the datagram's sender
+     *
+     * @throws  IOException
+     *          If some other I/O error occurs
+     *
+     * @since 1.8
+     */
+    public int receive(ByteBuffer[] dsts, SocketAddress[] sources)
+        throws IOException
+    {
+        if (sources.length < dsts.length)
+            throw new IllegalArgumentException();
+        int n = 0;
+        while (n < dsts.length) {
+            if (n > 0 && isBlocking())
+                break;
+            SocketAddress sa = receive(dsts[n]);
+            if (sa == null)
+                break;
+            sources[n++] = sa;
+        }
+        return n;
+    }
+
+    /**
+     * Sends a batch of datagrams via this channel.
+     *
+     * <p> The remaining bytes of each buffer <tt>srcs[i]</tt> are sent, in
+     * order, as a single datagram to <tt>targets[i]</tt> as if by the {@link
+     * #send(ByteBuffer,SocketAddress) send} method, and with the same security
+     * checks.  If <tt>targets</tt> is <tt>null</tt> then this channel must be
+     * connected and each datagram is sent to the connected peer as if by the
+     * {@link #write(ByteBuffer) write} method.  Every target is checked
+     * before any datagram is sent, so that if a check fails for any of them
+     * then no datagram is sent.  If this channel is in non-blocking mode then
+     * sending stops at the first datagram for which there is insufficient
+     * room in the underlying output buffer.  An implementation may send the
+     * whole batch to the operating system in a single call.
+     *
+     * <p> The default implementation invokes the {@link
+     * #send(ByteBuffer,SocketAddress) send} or {@link #write(ByteBuffer) write}
+     * method for each datagram in turn.  </p>
+     *
+     * @param  srcs
+     *         The buffers containing the datagrams to be sent
+     *
+     * @param  targets
+     *         The addresses to which the datagrams are to be sent, or
+     *         <tt>null</tt>; if not <tt>null</tt> then it must be at least as
+     *         long as <tt>srcs</tt>
+     *
+     * @return  The number of datagrams sent, which will be either the number
+     *          of buffers or, if this channel is non-blocking, may be fewer
+     *
+     * @throws  IllegalArgumentException
+     *          If <tt>targets</tt> is shorter than <tt>srcs</tt>, or if this
+     *          channel's socket is connected and one of the targets is not
+     *          its remote address
+     *
+     * @throws  NotYetConnectedException
+     *          If <tt>targets</tt> is <tt>null</tt> and this channel's socket
+     *          is not connected
+     *
+     * @throws  UnsupportedAddressTypeException
+     *          If the type of one of the targets is not supported
+     *
+     * @throws  UnresolvedAddressException
+     *          If one of the targets is not resolved
+     *
+     * @throws  ClosedChannelException
+     *          If this channel is closed
+     *
+     * @throws  AsynchronousCloseException
+     *          If another thread closes this channel
+     *          while the write operation is in progress
+     *
+     * @throws  ClosedByInterruptException
+     *          If another thread interrupts the current thread
+     *          while the write operation is in progress, thereby
+     *          closing the channel and setting the current thread's
+     *          interrupt status
+     *
+     * @throws  SecurityException
+     *          If a security manager has been installed
+     *          and it does not permit datagrams to be sent
+     *          to one of the given addresses
+     *
+     * @throws  IOException
+     *          If some other I/O error occurs
+     *
+     * @since 1.8
+     */
+    public int send(ByteBuffer[] srcs, SocketAddress[] targets)
+        throws IOException
+    {
+        if (targets != null && targets.length < srcs.length)
+            throw new IllegalArgumentException();
+        for (int i = 0; i < srcs.length; i++) {
+            if (srcs[i] == null)
+                throw new NullPointerException();
+        }
+        if (targets == null) {
+            if (!isConnected())
+                throw new NotYetConnectedException();
+        } else {
+            checkTargets(targets, srcs.length);
+        }
+        int n = 0;
+        while (n < srcs.length) {
+            ByteBuffer src = srcs[n];
+            boolean empty = !src.hasRemaining();
+            int w = (targets == null) ? write(src) : send(src, targets[n]);
+            if (w == 0 && !empty)
+                break;
+            n++;
+        }
+        return n;
+    }
+
+    // Makes the checks of the send method upon the first count targets
+    private void checkTargets(SocketAddress[] targets, int count)
+        throws IOException
+    {
+        SocketAddress remote = getRemoteAddress();
+        SecurityManager sm = System.getSecurityManager();
+        for (int i = 0; i < count; i++) {
+            SocketAddress target = targets[i];
+            if (target == null)
+                throw new NullPointerException();
+            if (!(target instanceof InetSocketAddress))
+                throw new UnsupportedAddressTypeException();
+            InetSocketAddress isa = (InetSocketAddress)target;
+            if (isa.isUnresolved())
+                throw new UnresolvedAddressException();
+            if (remote != null) {
+                if (!isa.equals(remote))
+                    throw new IllegalArgumentException(
+                        "Connected address not equal to target address");
+            } else if (sm != null) {
+                InetAddress ia = isa.getAddress();
+                if (ia.isMulticastAddress())
+                    sm.checkMulticast(ia);
+                else
+                    sm.checkConnect(ia.getHostAddress(), isa.getPort());
+            }
+        }
+    }
+
 
     // -- ByteChannel operations --
 
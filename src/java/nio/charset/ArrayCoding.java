@@ -0,0 +1,369 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+
+package java.nio.charset;
+
+import java.nio.BufferOverflowException;
+import sun.misc.Unsafe;
+
+/**
+ * Array-to-array coding loops for the US-ASCII, ISO-8859-1 and UTF-8
+ * charsets.  These back the array variants of {@link CharsetDecoder#decode
+ * CharsetDecoder.decode} and {@link CharsetEncoder#encode
+ * CharsetEncoder.encode} when the coder is one of the platform's own coders
+ * for these charsets.
+ *
+ * <p> Runs of ASCII are tested eight bytes, or four chars, at a time by
+ * reading aligned words straight out of the source array.  Coding errors are
+ * handled inline according to the coder's current actions, so a complete
+ * operation allocates nothing unless an error is reported.
+ *
+ * <p> Malformed UTF-8 is reported in the same units as by the platform's
+ * UTF-8 decoder: a well-formed prefix of a sequence that is cut short, or an
+ * encoded surrogate, is a single error, and any other offending byte is an
+ * error of its own.
+ */
+
+final class ArrayCoding {
+
+    private ArrayCoding() { }
+
+    // Coder kinds
+    static final int NONE       = 0;
+    static final int US_ASCII   = 1;
+    static final int ISO_8859_1 = 2;
+    static final int UTF_8      = 3;
+
+    private static final Unsafe unsafe = Unsafe.getUnsafe();
+    private static final long byteArrayOffset
+        = unsafe.arrayBaseOffset(byte[].class);
+    private static final long charArrayOffset
+        = unsafe.arrayBaseOffset(char[].class);
+
+    // Set bits that mark a word of bytes, or of chars, as not all ASCII
+    private static final long NON_ASCII_BYTES = 0x8080808080808080L;
+    private static final long NON_ASCII_CHARS = 0xff80ff80ff80ff80L;
+    private static final long NON_LATIN1_CHARS = 0xff00ff00ff00ff00L;
+
+    /**
+     * Returns the kind of the given decoder class, or {@link #NONE} unless it
+     * is the platform's decoder for one of the charsets handled here.
+     */
+    static int decoderKind(Class<?> c) {
+        if (c.getClassLoader() != null)
+            return NONE;
+        switch (c.getName()) {
+        case "sun.nio.cs.US_ASCII$Decoder":     return US_ASCII;
+        case "sun.nio.cs.ISO_8859_1$Decoder":   return ISO_8859_1;
+        case "sun.nio.cs.UTF_8$Decoder":        return UTF_8;
+        default:                                return NONE;
+        }
+    }
+
+    /**
+     * Returns the kind of the given encoder class, or {@link #NONE} unless it
+     * is the platform's encoder for one of the charsets handled here.
+     */
+    static int encoderKind(Class<?> c) {
+        if (c.getClassLoader() != null)
+            return NONE;
+        switch (c.getName()) {
+        case "sun.nio.cs.US_ASCII$Encoder":     return US_ASCII;
+        case "sun.nio.cs.ISO_8859_1$Encoder":   return ISO_8859_1;
+        case "sun.nio.cs.UTF_8$Encoder":        return UTF_8;
+        default:                                return NONE;
+        }
+    }
+
+
+    // -- Decoding --
+
+    /**
+     * Decodes src[sp..sl) into dst starting at dp, returning the new
+     * destination position.  The bounds have already been checked.
+     */
+    static int decode(CharsetDecoder cd, int kind,
+                      byte[] src, int sp, int sl, char[] dst, int dp)
+        throws CharacterCodingException
+    {
+        int dl = dst.length;
+        if (kind == ISO_8859_1) {
+            if (sl - sp > dl - dp)
+                throw new BufferOverflowException();
+            while (sp < sl)
+                dst[dp++] = (char)(src[sp++] & 0xff);
+            return dp;
+        }
+        while (sp < sl) {
+            int n = decodeAscii(src, sp, dst, dp, Math.min(sl - sp, dl - dp));
+            sp += n;
+            dp += n;
+            if (sp >= sl)
+                break;
+            if (dp >= dl)
+                throw new BufferOverflowException();
+            // src[sp] is not ASCII
+            int bad = 1;
+            if (kind == UTF_8) {
+                int b1 = src[sp] & 0xff;
+                int r = sl - sp;
+                if (b1 >= 0xc2 && b1 <= 0xdf) {
+                    if (r >= 2 && isContinuation(src[sp + 1])) {
+                        dst[dp++] = (char)(((b1 & 0x1f) << 6)
+                                           | (src[sp + 1] & 0x3f));
+                        sp += 2;
+                        continue;
+                    }
+                } else if (b1 >= 0xe0 && b1 <= 0xef) {
+                    // Overlongs are excluded by the second byte
+                    if (r >= 2 && inRange(src[sp + 1],
+                                          b1 == 0xe0 ? 0xa0 : 0x80, 0xbf)) {
+                        bad = 2;
+                        if (r >= 3 && isContinuation(src[sp + 2])) {
+                            char c = (char)(((b1 & 0x0f) << 12)
+                                            | ((src[sp + 1] & 0x3f) << 6)
+                                            | (src[sp + 2] & 0x3f));
+                            if (!Character.isSurrogate(c)) {
+                                dst[dp++] = c;
+                                sp += 3;
+                                continue;
+                            }
+                            bad = 3;
+                        }
+                    }
+                } else if (b1 >= 0xf0 && b1 <= 0xf4) {
+                    // Overlongs and values above U+10FFFF likewise
+                    if (r >= 2 && inRange(src[sp + 1],
+                                          b1 == 0xf0 ? 0x90 : 0x80,
+                                          b1 == 0xf4 ? 0x8f : 0xbf)) {
+                        bad = 2;
+                        if (r >= 3 && isContinuation(src[sp + 2])) {
+                            bad = 3;
+                            if (r >= 4 && isContinuation(src[sp + 3])) {
+                                if (dl - dp < 2)
+                                    throw new BufferOverflowException();
+                                int cp = ((b1 & 0x07) << 18)
+                                    | ((src[sp + 1] & 0x3f) << 12)
+                                    | ((src[sp + 2] & 0x3f) << 6)
+                                    | (src[sp + 3] & 0x3f);
+                                dst[dp++] = Character.highSurrogate(cp);
+                                dst[dp++] = Character.lowSurrogate(cp);
+                                sp += 4;
+                                continue;
+                            }
+                        }
+                    }
+                }
+            }
+            dp = malformed(cd, bad, dst, dp);
+            sp += bad;
+        }
+        return dp;
+    }
+
+    /**
+     * Copies the leading ASCII bytes of src[sp..sp+n) into dst at dp,
+     * returning how many were copied.
+     */
+    private static int decodeAscii(byte[] src, int sp,
+                                   char[] dst, int dp, int n)
+    {
+        int i = 0;
+        // Step up to a word boundary, then test whole words
+        while (i < n && ((byteArrayOffset + sp + i) & 7) != 0) {
+            byte b = src[sp + i];
+            if (b < 0)
+                return i;
+            dst[dp + i++] = (char)b;
+        }
+        while (i <= n - 8
+               && (unsafe.getLong(src, byteArrayOffset + sp + i)
+                   & NON_ASCII_BYTES) == 0) {
+            for (int j = 0; j < 8; j++, i++)
+                dst[dp + i] = (char)src[sp + i];
+        }
+        while (i < n) {
+            byte b = src[sp + i];
+            if (b < 0)
+                break;
+            dst[dp + i++] = (char)b;
+        }
+        return i;
+    }
+
+    private static boolean isContinuation(byte b) {
+        return (b & 0xc0) == 0x80;
+    }
+
+    private static boolean inRange(byte b, int lo, int hi) {
+        int u = b & 0xff;
+        return u >= lo && u <= hi;
+    }
+
+    private static int malformed(CharsetDecoder cd, int length,
+                                 char[] dst, int dp)
+        throws CharacterCodingException
+    {
+        CodingErrorAction action = cd.malformedInputAction();
+        if (action == CodingErrorAction.REPLACE) {
+            String r = cd.replacement();
+            if (dst.length - dp < r.length())
+                throw new BufferOverflowException();
+            r.getChars(0, r.length(), dst, dp);
+            return dp + r.length();
+        }
+        if (action == CodingErrorAction.IGNORE)
+            return dp;
+        throw new MalformedInputException(length);
+    }
+
+
+    // -- Encoding --
+
+    /**
+     * Encodes src[sp..sl) into dst starting at dp, returning the new
+     * destination position.  The bounds have already been checked.
+     */
+    static int encode(CharsetEncoder ce, int kind,
+                      char[] src, int sp, int sl, byte[] dst, int dp)
+        throws CharacterCodingException
+    {
+        int dl = dst.length;
+        int limit = (kind == ISO_8859_1) ? 0x100 : 0x80;
+        long mask = (kind == ISO_8859_1) ? NON_LATIN1_CHARS : NON_ASCII_CHARS;
+        while (sp < sl) {
+            int n = encodeRun(src, sp, dst, dp,
+                              Math.min(sl - sp, dl - dp), limit, mask);
+            sp += n;
+            dp += n;
+            if (sp >= sl)
+                break;
+            char c = src[sp];
+            if (c < limit)
+                throw new BufferOverflowException();
+            if (kind == UTF_8) {
+                if (c < 0x800) {
+                    if (dl - dp < 2)
+                        throw new BufferOverflowException();
+                    dst[dp++] = (byte)(0xc0 | (c >> 6));
+                    dst[dp++] = (byte)(0x80 | (c & 0x3f));
+                    sp++;
+                    continue;
+                }
+                if (!Character.isSurrogate(c)) {
+                    if (dl - dp < 3)
+                        throw new BufferOverflowException();
+                    dst[dp++] = (byte)(0xe0 | (c >> 12));
+                    dst[dp++] = (byte)(0x80 | ((c >> 6) & 0x3f));
+                    dst[dp++] = (byte)(0x80 | (c & 0x3f));
+                    sp++;
+                    continue;
+                }
+                if (isPair(src, sp, sl)) {
+                    if (dl - dp < 4)
+                        throw new BufferOverflowException();
+                    int cp = Character.toCodePoint(c, src[sp + 1]);
+                    dst[dp++] = (byte)(0xf0 | (cp >> 18));
+                    dst[dp++] = (byte)(0x80 | ((cp >> 12) & 0x3f));
+                    dst[dp++] = (byte)(0x80 | ((cp >> 6) & 0x3f));
+                    dst[dp++] = (byte)(0x80 | (cp & 0x3f));
+                    sp += 2;
+                    continue;
+                }
+                dp = error(ce, true, 1, dst, dp);
+                sp++;
+            } else if (!Character.isSurrogate(c)) {
+                dp = error(ce, false, 1, dst, dp);
+                sp++;
+            } else if (isPair(src, sp, sl)) {
+                dp = error(ce, false, 2, dst, dp);
+                sp += 2;
+            } else {
+                dp = error(ce, true, 1, dst, dp);
+                sp++;
+            }
+        }
+        return dp;
+    }
+
+    /**
+     * Copies the leading chars of src[sp..sp+n) that are below the given
+     * limit into dst at dp, returning how many were copied.  The mask has a
+     * bit set in each char position of a word for which a set bit means the
+     * char is not below the limit.
+     */
+    private static int encodeRun(char[] src, int sp, byte[] dst, int dp,
+                                 int n, int limit, long mask)
+    {
+        int i = 0;
+        while (i < n && ((charArrayOffset + ((long)(sp + i) << 1)) & 7) != 0) {
+            char c = src[sp + i];
+            if (c >= limit)
+                return i;
+            dst[dp + i++] = (byte)c;
+        }
+        while (i <= n - 4
+               && (unsafe.getLong(src, charArrayOffset + ((long)(sp + i) << 1))
+                   & mask) == 0) {
+            for (int j = 0; j < 4; j++, i++)
+                dst[dp + i] = (byte)src[sp + i];
+        }
+        while (i < n) {
+            char c = src[sp + i];
+            if (c >= limit)
+                break;
+            dst[dp + i++] = (byte)c;
+        }
+        return i;
+    }
+
+    private static boolean isPair(char[] src, int sp, int sl) {
+        return Character.isHighSurrogate(src[sp])
+            && sl - sp >= 2
+            && Character.isLowSurrogate(src[sp + 1]);
+    }
+
+    private static int error(CharsetEncoder ce, boolean malformed, int length,
+                             byte[] dst, int dp)
+        throws CharacterCodingException
+    {
+        CodingErrorAction action = malformed ? ce.malformedInputAction()
+                                             : ce.unmappableCharacterAction();
+        if (action == CodingErrorAction.REPLACE) {
+            byte[] r = ce.replacement();
+            if (dst.length - dp < r.length)
+                throw new BufferOverflowException();
+            System.arraycopy(r, 0, dst, dp, r.length);
+            return dp + r.length;
+        }
+        if (action == CodingErrorAction.IGNORE)
+            return dp;
+        if (malformed)
+            throw new MalformedInputException(length);
+        throw new UnmappableCharacterException(length);
+    }
+
+}
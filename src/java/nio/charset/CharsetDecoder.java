@@ -154,6 +154,9 @@ public abstract class CharsetDecoder {
 
     private int state = ST_RESET;
 
+    // Kind of array coding loop to use, or ArrayCoding.NONE
+    private final int arrayKind;
+
     private static String stateNames[]
         = { "RESET", "CODING", "CODING_END", "FLUSHED" };
 
@@ -200,6 +203,7 @@ public abstract class CharsetDecoder {
         this.replacement = replacement;
         this.averageCharsPerByte = averageCharsPerByte;
         this.maxCharsPerByte = maxCharsPerByte;
+        this.arrayKind = ArrayCoding.decoderKind(getClass());
         replaceWith(replacement);
     }
 
@@ -801,6 +805,91 @@ public abstract class CharsetDecoder {
         return out;
     }
 
+    /**
+     * Decodes the given range of an array of bytes into an array of
+     * characters.
+     *
+     * <p> This method implements an entire <a href="#steps">decoding
+     * operation</a>; that is, it resets this decoder, then it decodes the
+     * <tt>len</tt> bytes starting at <tt>src[off]</tt> into <tt>dst</tt>
+     * starting at <tt>dst[dstOff]</tt>, and finally it flushes this decoder.
+     * Malformed-input and unmappable-character errors are handled according
+     * to this decoder's current actions.  This method should therefore not be
+     * invoked if a decoding operation is already in progress.
+     *
+     * <p> The destination array is large enough if at least
+     * <tt>len&nbsp;*&nbsp;{@link #maxCharsPerByte maxCharsPerByte()}</tt>
+     * elements follow <tt>dstOff</tt>.  </p>
+     *
+     * <p> The platform's decoders for the {@link StandardCharsets#US_ASCII
+     * US-ASCII}, {@link StandardCharsets#ISO_8859_1 ISO-8859-1} and {@link
+     * StandardCharsets#UTF_8 UTF-8} charsets decode directly from one array to
+     * the other, testing runs of ASCII bytes a word at a time, and allocate
+     * nothing unless an error is reported.  Other decoders wrap the arrays in
+     * buffers and invoke the {@link #decode(ByteBuffer,CharBuffer,boolean)
+     * decode} method.  In either case one decoder may be reused for any number
+     * of invocations of this method.  </p>
+     *
+     * @param  src
+     *         The array containing the bytes to be decoded
+     *
+     * @param  off
+     *         The index of the first byte to be decoded
+     *
+     * @param  len
+     *         The number of bytes to be decoded
+     *
+     * @param  dst
+     *         The array into which characters are to be written
+     *
+     * @param  dstOff
+     *         The index at which the first character is to be written
+     *
+     * @return  The number of characters written
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the range of <tt>src</tt> is out of bounds, or if
+     *          <tt>dstOff</tt> is negative or greater than
+     *          <tt>dst.length</tt>
+     *
+     * @throws  BufferOverflowException
+     *          If there is insufficient room in <tt>dst</tt>
+     *
+     * @throws  MalformedInputException
+     *          If the input is malformed and the current malformed-input
+     *          action is {@link CodingErrorAction#REPORT}
+     *
+     * @throws  UnmappableCharacterException
+     *          If the input cannot be mapped and the current
+     *          unmappable-character action is {@link CodingErrorAction#REPORT}
+     *
+     * @since 1.8
+     */
+    public final int decode(byte[] src, int off, int len,
+                            char[] dst, int dstOff)
+        throws CharacterCodingException
+    {
+        int end = off + len;
+        if ((off | len | end | (src.length - end) | dstOff
+             | (dst.length - dstOff)) < 0)
+            throw new IndexOutOfBoundsException();
+        reset();
+        if (arrayKind != ArrayCoding.NONE) {
+            int dp = ArrayCoding.decode(this, arrayKind,
+                                        src, off, end, dst, dstOff);
+            state = ST_FLUSHED;
+            return dp - dstOff;
+        }
+        ByteBuffer in = ByteBuffer.wrap(src, off, len);
+        CharBuffer out = CharBuffer.wrap(dst, dstOff, dst.length - dstOff);
+        CoderResult cr = decode(in, out, true);
+        if (cr.isUnderflow())
+            cr = flush(out);
+        if (!cr.isUnderflow())
+            cr.throwException();
+        return out.position() - dstOff;
+    }
+
 
 
     /**
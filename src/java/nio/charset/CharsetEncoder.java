@@ -154,6 +154,9 @@ public abstract class CharsetEncoder {
 
     private int state = ST_RESET;
 
+    // Kind of array coding loop to use, or ArrayCoding.NONE
+    private final int arrayKind;
+
     private static String stateNames[]
         = { "RESET", "CODING", "CODING_END", "FLUSHED" };
 
@@ -200,6 +203,7 @@ public abstract class CharsetEncoder {
         this.replacement = replacement;
         this.averageBytesPerChar = averageBytesPerChar;
         this.maxBytesPerChar = maxBytesPerChar;
+        this.arrayKind = ArrayCoding.encoderKind(getClass());
         replaceWith(replacement);
     }
 
@@ -801,6 +805,92 @@ public abstract class CharsetEncoder {
         return out;
     }
 
+    /**
+     * Encodes the given range of an array of characters into an array of
+     * bytes.
+     *
+     * <p> This method implements an entire <a href="#steps">encoding
+     * operation</a>; that is, it resets this encoder, then it encodes the
+     * <tt>len</tt> characters starting at <tt>src[off]</tt> into <tt>dst</tt>
+     * starting at <tt>dst[dstOff]</tt>, and finally it flushes this encoder.
+     * Malformed-input and unmappable-character errors are handled according
+     * to this encoder's current actions.  This method should therefore not be
+     * invoked if an encoding operation is already in progress.
+     *
+     * <p> The destination array is large enough if at least
+     * <tt>len&nbsp;*&nbsp;{@link #maxBytesPerChar maxBytesPerChar()}</tt>
+     * elements follow <tt>dstOff</tt>.  </p>
+     *
+     * <p> The platform's encoders for the {@link StandardCharsets#US_ASCII
+     * US-ASCII}, {@link StandardCharsets#ISO_8859_1 ISO-8859-1} and {@link
+     * StandardCharsets#UTF_8 UTF-8} charsets encode directly from one array to
+     * the other, testing runs of ASCII characters a word at a time, and
+     * allocate nothing unless an error is reported.  Other encoders wrap the
+     * arrays in buffers and invoke the {@link
+     * #encode(CharBuffer,ByteBuffer,boolean) encode} method.  In either case
+     * one encoder may be reused for any number of invocations of this
+     * method.  </p>
+     *
+     * @param  src
+     *         The array containing the characters to be encoded
+     *
+     * @param  off
+     *         The index of the first character to be encoded
+     *
+     * @param  len
+     *         The number of characters to be encoded
+     *
+     * @param  dst
+     *         The array into which bytes are to be written
+     *
+     * @param  dstOff
+     *         The index at which the first byte is to be written
+     *
+     * @return  The number of bytes written
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the range of <tt>src</tt> is out of bounds, or if
+     *          <tt>dstOff</tt> is negative or greater than
+     *          <tt>dst.length</tt>
+     *
+     * @throws  BufferOverflowException
+     *          If there is insufficient room in <tt>dst</tt>
+     *
+     * @throws  MalformedInputException
+     *          If the input is malformed and the current malformed-input
+     *          action is {@link CodingErrorAction#REPORT}
+     *
+     * @throws  UnmappableCharacterException
+     *          If the input cannot be mapped and the current
+     *          unmappable-character action is {@link CodingErrorAction#REPORT}
+     *
+     * @since 1.8
+     */
+    public final int encode(char[] src, int off, int len,
+                            byte[] dst, int dstOff)
+        throws CharacterCodingException
+    {
+        int end = off + len;
+        if ((off | len | end | (src.length - end) | dstOff
+             | (dst.length - dstOff)) < 0)
+            throw new IndexOutOfBoundsException();
+        reset();
+        if (arrayKind != ArrayCoding.NONE) {
+            int dp = ArrayCoding.encode(this, arrayKind,
+                                        src, off, end, dst, dstOff);
+            state = ST_FLUSHED;
+            return dp - dstOff;
+        }
+        CharBuffer in = CharBuffer.wrap(src, off, len);
+        ByteBuffer out = ByteBuffer.wrap(dst, dstOff, dst.length - dstOff);
+        CoderResult cr = encode(in, out, true);
+        if (cr.isUnderflow())
+            cr = flush(out);
+        if (!cr.isUnderflow())
+            cr.throwException();
+        return out.position() - dstOff;
+    }
+
 
 
 
@@ -0,0 +1,1062 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.regex;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern.Node;
+
+/**
+ * The matching engine used by patterns compiled with the
+ * {@link Pattern#LINEAR_TIME} flag.
+ *
+ * <p> The object tree built by the parser is translated into a program
+ * that is run by simulating every alternative of the backtracking search
+ * in parallel. The simulated threads are kept in priority order, so the
+ * match found is the same as the one the object tree would produce, but
+ * each input character is examined a bounded number of times. Constructs whose meaning depends on the history of a
+ * particular thread, such as back references, lookaround, independent
+ * groups and possessive quantifiers, cannot be simulated this way and are
+ * rejected when the pattern is compiled.
+ *
+ * <p> The find operation is accelerated in two ways. A literal substring
+ * that every match must contain is extracted from the pattern, and the
+ * input is scanned for it before anything else is done. For patterns
+ * without zero-width assertions a DFA is built lazily from the program
+ * and shared by all matchers of the pattern; it rejects inputs without a
+ * match and finds the earliest index at which a match can start without
+ * tracking groups.
+ *
+ * @since 1.8
+ */
+final class Automaton {
+
+    /**
+     * Instruction opcodes. CHAR and PROP consume one code point, CHAR1
+     * and PROP1 consume one char, as the BMP-only nodes they are built
+     * from do.
+     */
+    private static final int CHAR   = 0;  // code point equal to arg
+    private static final int CHAR1  = 1;  // char equal to arg
+    private static final int PROP   = 2;  // code point satisfying props[arg]
+    private static final int PROP1  = 3;  // char satisfying props[arg]
+    private static final int MATCH  = 4;  // accept
+    private static final int JMP    = 5;  // continue at out
+    private static final int SPLIT  = 6;  // continue at out, then at out1
+    private static final int SAVE   = 7;  // slots[arg] = index
+    private static final int HEAD   = 8;  // start of the group of local arg
+    private static final int MARK   = 9;  // slots[arg] = index
+    private static final int EMPTY  = 10; // out1 if slots[arg] == index
+    private static final int ASSERT = 11; // asserts[arg] holds at index
+
+    /**
+     * Programs larger than this are rejected; counted repetitions are
+     * expanded, so this bounds the cost of every simulation step.
+     */
+    private static final int MAX_PROGRAM = 10000;
+
+    /**
+     * The number of DFA states kept before the cache is flushed.
+     */
+    private static final int MAX_STATES = 2048;
+
+    private final String pattern;
+    private final boolean hasSupplementary;
+
+    private int[] op = new int[16];
+    private int[] arg = new int[16];
+    private int[] out = new int[16];
+    private int[] out1 = new int[16];
+    private int size;
+
+    private Pattern.CharProperty[] props = new Pattern.CharProperty[4];
+    private int propCount;
+    private Node[] asserts = new Node[4];
+    private int assertCount;
+
+    /** Maps the local index of a group to its group index. */
+    private final int[] groupOf;
+
+    /** Jumps to nodes not translated yet, see branch(). */
+    private Node[] pendingNodes = new Node[4];
+    private int[] pendingPcs = new int[4];
+    private int pendingCount;
+
+    /**
+     * Branches holding alternatives that do not end at the connection of
+     * the branch, see branch().
+     */
+    private Node[] foldedBranches = new Node[2];
+    private int foldedCount;
+
+    /** Exits of the repetitions being translated, see repeat(). */
+    private int[] patches = new int[16];
+    private int patchCount;
+
+    /** Two slots per capturing group followed by the loop marks. */
+    private final int groupSlots;
+    private int slotCount;
+
+    /** A literal every match starts with, or null. */
+    private String prefix;
+
+    /** A literal every match contains, or null. */
+    private String required;
+
+    /** The lazily built DFA, or null if the program has assertions. */
+    private final Dfa dfa;
+
+    /** Working storage released by the last simulation. */
+    private final AtomicReference<Scratch> spare =
+        new AtomicReference<Scratch>();
+
+    Automaton(Pattern p, Node matchRoot, int localCount,
+              boolean hasSupplementary) {
+        this.pattern = p.pattern();
+        this.hasSupplementary = hasSupplementary;
+        groupOf = new int[localCount];
+        groupSlots = p.capturingGroupCount * 2;
+        slotCount = groupSlots;
+        sequence(matchRoot);
+        for (int pc = 0; pc < size; pc++) {
+            if (op[pc] == HEAD) {
+                int group = groupOf[arg[pc]];
+                op[pc] = (group != 0) ? SAVE : JMP;
+                arg[pc] = group;
+            }
+        }
+        literals(matchRoot);
+        dfa = (assertCount == 0) ? new Dfa() : null;
+    }
+
+    /**
+     * Returns the node that starts the find operation.
+     */
+    Node find() {
+        return new Find();
+    }
+
+    /**
+     * Returns the node that starts the anchored match operations.
+     */
+    Node match() {
+        return new Match();
+    }
+
+    /**
+     * Unanchored search. The literal checks and the DFA scan only move
+     * the index forward to where the leftmost match can first start.
+     */
+    private final class Find extends Node {
+        boolean match(Matcher matcher, int i, CharSequence seq) {
+            int to = matcher.to;
+            if (required != null && indexOf(seq, required, i, to) < 0)
+                i = -1;
+            if (i >= 0 && prefix != null)
+                i = indexOf(seq, prefix, i, to);
+            if (i >= 0 && dfa != null)
+                i = dfa.scan(seq, i, to);
+            if (i >= 0 && simulate(matcher, i, seq, false))
+                return true;
+            matcher.hitEnd = true;
+            return false;
+        }
+    }
+
+    /**
+     * Anchored match, used for matches() and lookingAt().
+     */
+    private final class Match extends Node {
+        boolean match(Matcher matcher, int i, CharSequence seq) {
+            return simulate(matcher, i, seq, true);
+        }
+    }
+
+    //
+    // Translation of the object tree
+    //
+
+    private PatternSyntaxException unsupported(String construct) {
+        return new PatternSyntaxException(
+            construct + " not supported in linear-time mode", pattern, -1);
+    }
+
+    private int emit(int o, int a) {
+        if (size == op.length) {
+            if (size >= MAX_PROGRAM)
+                throw new PatternSyntaxException(
+                    "Pattern too large for linear-time mode", pattern, -1);
+            int n = size * 2;
+            op = Arrays.copyOf(op, n);
+            arg = Arrays.copyOf(arg, n);
+            out = Arrays.copyOf(out, n);
+            out1 = Arrays.copyOf(out1, n);
+        }
+        op[size] = o;
+        arg[size] = a;
+        out[size] = size + 1;
+        out1[size] = -1;
+        return size++;
+    }
+
+    private int addProp(Pattern.CharProperty cp) {
+        if (propCount == props.length)
+            props = Arrays.copyOf(props, propCount * 2);
+        props[propCount] = cp;
+        return propCount++;
+    }
+
+    /**
+     * Records an exit to be patched; a negative value denotes the out
+     * branch of ~pc, a positive one the out1 branch of pc.
+     */
+    private void addPatch(int p) {
+        if (patchCount == patches.length)
+            patches = Arrays.copyOf(patches, patchCount * 2);
+        patches[patchCount++] = p;
+    }
+
+    private void patch(int base, int target) {
+        for (int n = base; n < patchCount; n++) {
+            int p = patches[n];
+            if (p < 0)
+                out[~p] = target;
+            else
+                out1[p] = target;
+        }
+        patchCount = base;
+    }
+
+    private static boolean isAssertion(Node node) {
+        return node instanceof Pattern.Begin
+            || node instanceof Pattern.End
+            || node instanceof Pattern.Caret
+            || node instanceof Pattern.UnixCaret
+            || node instanceof Pattern.Dollar
+            || node instanceof Pattern.UnixDollar
+            || node instanceof Pattern.LastMatch
+            || node instanceof Pattern.Bound;
+    }
+
+    /**
+     * Translates the chain of nodes starting at node up to the end of
+     * the atom, alternative or loop body it belongs to, and returns the
+     * node that ends it.
+     */
+    private Node sequence(Node node) {
+        for (;;) {
+            resolve(node);
+            if (node == Pattern.accept
+                || node instanceof Pattern.BranchConn
+                || node instanceof Pattern.Loop)
+                return node;
+            if (node instanceof Pattern.LastNode) {
+                emit(MATCH, 0);
+                return node;
+            }
+            node = node(node);
+        }
+    }
+
+    /**
+     * Records a jump to the code of a node not translated yet.
+     */
+    private void addPending(Node node, int pc) {
+        if (pendingCount == pendingNodes.length) {
+            pendingNodes = Arrays.copyOf(pendingNodes, pendingCount * 2);
+            pendingPcs = Arrays.copyOf(pendingPcs, pendingCount * 2);
+        }
+        pendingNodes[pendingCount] = node;
+        pendingPcs[pendingCount++] = pc;
+    }
+
+    /**
+     * Points the pending jumps to node at the next instruction.
+     */
+    private void resolve(Node node) {
+        for (int n = pendingCount - 1; n >= 0; n--) {
+            if (pendingNodes[n] == node) {
+                out[pendingPcs[n]] = size;
+                pendingNodes[n] = pendingNodes[--pendingCount];
+                pendingPcs[n] = pendingPcs[pendingCount];
+                pendingNodes[pendingCount] = null;
+            }
+        }
+    }
+
+    /**
+     * Translates one node and returns the node that follows it.
+     */
+    private Node node(Node node) {
+        if (node instanceof Pattern.CharProperty) {
+            if (node instanceof Pattern.Single)
+                emit(CHAR1, ((Pattern.Single)node).c);
+            else if (node instanceof Pattern.SingleS)
+                emit(CHAR, ((Pattern.SingleS)node).c);
+            else if (node instanceof Pattern.BmpCharProperty)
+                emit(PROP1, addProp((Pattern.CharProperty)node));
+            else
+                emit(PROP, addProp((Pattern.CharProperty)node));
+        } else if (node instanceof Pattern.SliceNode) {
+            slice((Pattern.SliceNode)node);
+        } else if (node instanceof Pattern.GroupHead) {
+            emit(HEAD, ((Pattern.GroupHead)node).localIndex);
+        } else if (node instanceof Pattern.GroupTail) {
+            Pattern.GroupTail tail = (Pattern.GroupTail)node;
+            groupOf[tail.localIndex] = tail.groupIndex;
+            if (tail.groupIndex != 0)
+                emit(SAVE, tail.groupIndex + 1);
+        } else if (node instanceof Pattern.Branch) {
+            return branch((Pattern.Branch)node);
+        } else if (node instanceof Pattern.Ques) {
+            Pattern.Ques ques = (Pattern.Ques)node;
+            if (ques.type == Pattern.INDEPENDENT)
+                throw unsupported("Independent groups");
+            repeat(ques.atom, 0, 1, ques.type, -1, false, -1);
+        } else if (node instanceof Pattern.Curly) {
+            Pattern.Curly curly = (Pattern.Curly)node;
+            repeat(curly.atom, curly.cmin, curly.cmax, curly.type,
+                   -1, false, -1);
+        } else if (node instanceof Pattern.GroupCurly) {
+            // The iterative group loop ends an iteration that matched
+            // nothing only once the minimum has been reached
+            Pattern.GroupCurly curly = (Pattern.GroupCurly)node;
+            int mark = (curly.type == Pattern.GREEDY) ? slotCount++ : -1;
+            repeat(curly.atom, curly.cmin, curly.cmax, curly.type,
+                   mark, false, curly.capture ? curly.groupIndex : -1);
+        } else if (node instanceof Pattern.Prolog) {
+            // The recursive loop ends on any iteration that matched nothing
+            Pattern.Loop loop = ((Pattern.Prolog)node).loop;
+            repeat(loop.body, loop.cmin, loop.cmax,
+                   (loop instanceof Pattern.LazyLoop) ? Pattern.LAZY
+                                                      : Pattern.GREEDY,
+                   slotCount++, true, -1);
+            return loop.next;
+        } else if (isAssertion(node)) {
+            if (assertCount == asserts.length)
+                asserts = Arrays.copyOf(asserts, assertCount * 2);
+            asserts[assertCount] = node;
+            emit(ASSERT, assertCount++);
+        } else if (node instanceof Pattern.BackRef
+                   || node instanceof Pattern.CIBackRef
+                   || node instanceof Pattern.GroupRef) {
+            throw unsupported("Back references");
+        } else if (node instanceof Pattern.Pos
+                   || node instanceof Pattern.Neg
+                   || node instanceof Pattern.Behind
+                   || node instanceof Pattern.NotBehind) {
+            throw unsupported("Lookaround");
+        } else {
+            throw unsupported(node.getClass().getSimpleName());
+        }
+        return node.next;
+    }
+
+    private void slice(Pattern.SliceNode slice) {
+        boolean exact = (slice instanceof Pattern.Slice
+                         || slice instanceof Pattern.SliceS);
+        boolean unicode = (slice instanceof Pattern.SliceU
+                           || slice instanceof Pattern.SliceUS);
+        boolean bmp = !(slice instanceof Pattern.SliceS
+                        || slice instanceof Pattern.SliceIS);
+        for (int c : slice.buffer) {
+            if (exact)
+                emit(bmp ? CHAR1 : CHAR, c);
+            else if (unicode)
+                emit(bmp ? PROP1 : PROP, addProp(new Pattern.SingleU(c)));
+            else
+                emit(bmp ? PROP1 : PROP,
+                     addProp(new Pattern.SingleI(c, ASCII.toUpper(c))));
+        }
+    }
+
+    private Node branch(Pattern.Branch branch) {
+        int base = patchCount;
+        for (int n = 0; n < branch.size; n++) {
+            int split = -1;
+            if (n < branch.size - 1)
+                split = emit(SPLIT, 0);
+            Node end = branch.conn;
+            if (branch.atoms[n] != null)
+                end = sequence(branch.atoms[n]);
+            if (end == branch.conn) {
+                addPatch(~emit(JMP, 0));
+            } else {
+                // An alternative added to the branch of a group with a
+                // "?" quantifier at the start of the first alternative
+                // ends at its own connection, whose next node follows
+                // that branch later on
+                addPending(end.next, emit(JMP, 0));
+                addFolded(branch);
+            }
+            if (split >= 0)
+                out1[split] = size;
+        }
+        patch(base, size);
+        return branch.conn.next;
+    }
+
+    private void addFolded(Pattern.Branch branch) {
+        if (isFolded(branch))
+            return;
+        if (foldedCount == foldedBranches.length)
+            foldedBranches = Arrays.copyOf(foldedBranches, foldedCount * 2);
+        foldedBranches[foldedCount++] = branch;
+    }
+
+    private boolean isFolded(Node branch) {
+        for (int n = 0; n < foldedCount; n++) {
+            if (foldedBranches[n] == branch)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Expands a repetition of atom into cmin copies followed by either a
+     * loop or cmax - cmin optional copies. If mark is not negative each
+     * optional iteration, or each iteration at all if markAll is set,
+     * that matches nothing leaves the repetition. If group is not
+     * negative each iteration captures that group.
+     */
+    private void repeat(Node atom, int cmin, int cmax, int type,
+                        int mark, boolean markAll, int group) {
+        if (type != Pattern.GREEDY && type != Pattern.LAZY)
+            throw unsupported("Possessive quantifiers");
+        int base = patchCount;
+        for (int n = 0; n < cmin; n++)
+            iteration(atom, markAll ? mark : -1, group);
+        if (cmax == Pattern.MAX_REPS) {
+            int loop = split(type);
+            iteration(atom, mark, group);
+            if (mark >= 0) {
+                // The iterations alternate between two copies of the atom
+                // so that an iteration matching nothing, which ends the
+                // loop, does not run into the instructions the previous
+                // iteration has just passed at the same index
+                split(type);
+                iteration(atom, mark, group);
+            }
+            int jmp = emit(JMP, 0);
+            out[jmp] = loop;
+        } else {
+            for (int n = cmin; n < cmax; n++) {
+                split(type);
+                iteration(atom, mark, group);
+            }
+        }
+        patch(base, size);
+    }
+
+    private int split(int type) {
+        int pc = emit(SPLIT, 0);
+        if (type == Pattern.GREEDY) {
+            addPatch(pc);
+        } else {
+            out1[pc] = pc + 1;
+            addPatch(~pc);
+        }
+        return pc;
+    }
+
+    private void iteration(Node atom, int mark, int group) {
+        if (mark >= 0)
+            emit(MARK, mark);
+        if (group >= 0)
+            emit(SAVE, group);
+        sequence(atom);
+        if (mark >= 0)
+            addPatch(emit(EMPTY, mark));
+    }
+
+    /**
+     * Extracts the longest run of literal characters on the top level
+     * of the pattern, and the run the pattern starts with, if any.
+     */
+    private void literals(Node node) {
+        StringBuilder run = new StringBuilder();
+        boolean atStart = true;
+        for (;;) {
+            if (node instanceof Pattern.Single) {
+                run.appendCodePoint(((Pattern.Single)node).c);
+            } else if (node instanceof Pattern.SingleS) {
+                run.appendCodePoint(((Pattern.SingleS)node).c);
+            } else if (node instanceof Pattern.Slice
+                       || node instanceof Pattern.SliceS) {
+                for (int c : ((Pattern.SliceNode)node).buffer)
+                    run.appendCodePoint(c);
+            } else if (!(node instanceof Pattern.GroupHead
+                         || node instanceof Pattern.GroupTail
+                         || isAssertion(node))) {
+                if (run.length() > 0) {
+                    String s = run.toString();
+                    if (atStart)
+                        prefix = s;
+                    if (required == null || s.length() > required.length())
+                        required = s;
+                    run.setLength(0);
+                }
+                atStart = false;
+                // The connection of a branch holding alternatives of an
+                // enclosing expression is not on every path to a match
+                if (node instanceof Pattern.Branch && isFolded(node))
+                    break;
+                if (node instanceof Pattern.Branch) {
+                    node = ((Pattern.Branch)node).conn.next;
+                    continue;
+                }
+                if (node instanceof Pattern.Prolog) {
+                    node = ((Pattern.Prolog)node).loop.next;
+                    continue;
+                }
+                if (node == Pattern.accept
+                    || node instanceof Pattern.LastNode)
+                    break;
+            }
+            node = node.next;
+        }
+        if (required == prefix)
+            required = null;
+    }
+
+    //
+    // Simulation
+    //
+
+    /**
+     * A list of threads in priority order, kept as a sparse set indexed
+     * by instruction. The slots of the thread at position k of the list
+     * are stored at slots[k * width].
+     */
+    private static final class Threads {
+        final int[] sparse;
+        final int[] dense;
+        final int[] slots;
+        int size;
+        Threads(int programSize, int width) {
+            sparse = new int[programSize];
+            dense = new int[programSize];
+            slots = new int[programSize * width];
+        }
+        boolean contains(int pc) {
+            int k = sparse[pc];
+            return k < size && dense[k] == pc;
+        }
+        int add(int pc) {
+            sparse[pc] = size;
+            dense[size] = pc;
+            return size++;
+        }
+    }
+
+    /**
+     * The working storage of a simulation: thread lists for the current
+     * index and the two following ones, and an array holding the slots
+     * of the thread being added, the slots of the match found and the
+     * stack used by addThread.
+     */
+    private static final class Scratch {
+        final Threads[] lists = new Threads[3];
+        final int[] storage;
+        Scratch(int programSize, int width) {
+            for (int n = 0; n < lists.length; n++)
+                lists[n] = new Threads(programSize, width);
+            storage = new int[width * 2 + programSize * 2 + 1];
+        }
+    }
+
+    /**
+     * Runs the program starting at index from. If anchored is set only
+     * one thread is started at from, otherwise threads are started at
+     * every index until a match is found. On success the match and group
+     * boundaries of the matcher are set.
+     */
+    private boolean simulate(Matcher matcher, int from, CharSequence seq,
+                             boolean anchored) {
+        Scratch scratch = spare.getAndSet(null);
+        if (scratch == null)
+            scratch = new Scratch(size, slotCount);
+        Threads clist = scratch.lists[0];
+        Threads nlist = scratch.lists[1];
+        Threads nnlist = scratch.lists[2];
+        int[] storage = scratch.storage;
+        int width = slotCount;
+        int to = matcher.to;
+        boolean endAnchor = anchored &&
+            matcher.acceptMode == Matcher.ENDANCHOR;
+        int matchEnd = -1;
+        int nextStart = from;
+        int i = from;
+        for (;;) {
+            if (matchEnd < 0 && i == nextStart) {
+                // A new thread has the lowest priority
+                Arrays.fill(storage, 0, width, -1);
+                storage[0] = i;
+                addThread(clist, 0, i, storage, matcher, seq);
+                nextStart = (anchored || i >= to) ? -1 : advance(seq, i);
+            }
+            for (int k = 0; k < clist.size; k++) {
+                int pc = clist.dense[k];
+                int o = op[pc];
+                if (o > MATCH)
+                    continue;
+                if (o == MATCH) {
+                    if (endAnchor && i != to)
+                        continue;
+                    matchEnd = i;
+                    System.arraycopy(clist.slots, k * width,
+                                     storage, width, width);
+                    // Threads of lower priority are cut off
+                    break;
+                }
+                if (i >= to) {
+                    matcher.hitEnd = true;
+                    continue;
+                }
+                int c = (o == CHAR1 || o == PROP1) ? seq.charAt(i)
+                                                   : codePointAt(seq, i, to);
+                boolean ok = (o == CHAR || o == CHAR1)
+                    ? c == arg[pc]
+                    : props[arg[pc]].isSatisfiedBy(c);
+                if (ok) {
+                    System.arraycopy(clist.slots, k * width,
+                                     storage, 0, width);
+                    boolean matched =
+                        (c < Character.MIN_SUPPLEMENTARY_CODE_POINT)
+                        ? addThread(nlist, out[pc], i + 1, storage,
+                                    matcher, seq)
+                        : addThread(nnlist, out[pc], i + 2, storage,
+                                    matcher, seq);
+                    if (matched) {
+                        // This thread will match, so neither the threads
+                        // after it nor new ones would ever be tried
+                        nextStart = -1;
+                        break;
+                    }
+                }
+            }
+            clist.size = 0;
+            if (i >= to)
+                break;
+            Threads t = clist;
+            clist = nlist;
+            nlist = nnlist;
+            nnlist = t;
+            i++;
+            if (clist.size == 0 && nlist.size == 0) {
+                if (matchEnd >= 0 || nextStart < 0)
+                    break;
+                // Nothing is running, go to where the next match can start
+                if (prefix != null) {
+                    nextStart = indexOf(seq, prefix, nextStart, to);
+                    if (nextStart < 0)
+                        break;
+                }
+                i = nextStart;
+            }
+        }
+        clist.size = nlist.size = nnlist.size = 0;
+        if (matchEnd >= 0) {
+            int[] groups = matcher.groups;
+            matcher.first = storage[width];
+            matcher.last = matchEnd;
+            groups[0] = matcher.first;
+            groups[1] = matcher.last;
+            System.arraycopy(storage, width + 2, groups, 2, groupSlots - 2);
+        }
+        spare.set(scratch);
+        return matchEnd >= 0;
+    }
+
+    /**
+     * Adds the thread at pc and everything reachable from it without
+     * consuming input to the list, in priority order. The slots of the
+     * thread are in storage[0, width) and are left unchanged; the rest
+     * of storage past the result slots is used as the stack. Returns
+     * true if a thread that will be accepted was added.
+     */
+    private boolean addThread(Threads list, int pc, int i, int[] storage,
+                           Matcher matcher, CharSequence seq) {
+        int base = slotCount * 2;
+        int sp = base;
+        boolean matched = false;
+        storage[sp++] = pc;
+        while (sp > base) {
+            pc = storage[--sp];
+            if (pc < 0) {
+                // Restore a slot saved on the path just explored
+                storage[~pc] = storage[--sp];
+                continue;
+            }
+            // Alternatives of lower priority than a match are never
+            // tried by the backtracking engine, so do not evaluate them
+            if (matched)
+                continue;
+            while (!list.contains(pc)) {
+                int k = list.add(pc);
+                switch (op[pc]) {
+                case JMP:
+                    pc = out[pc];
+                    continue;
+                case SPLIT:
+                    storage[sp++] = out1[pc];
+                    pc = out[pc];
+                    continue;
+                case SAVE:
+                case MARK:
+                    storage[sp++] = storage[arg[pc]];
+                    storage[sp++] = ~arg[pc];
+                    storage[arg[pc]] = i;
+                    pc = out[pc];
+                    continue;
+                case EMPTY:
+                    pc = (storage[arg[pc]] == i) ? out1[pc] : out[pc];
+                    continue;
+                case ASSERT:
+                    if (holds(asserts[arg[pc]], matcher, i, seq)) {
+                        pc = out[pc];
+                        continue;
+                    }
+                    break;
+                default:
+                    System.arraycopy(storage, 0, list.slots,
+                                     k * slotCount, slotCount);
+                    matched = (op[pc] == MATCH)
+                        && (matcher.acceptMode != Matcher.ENDANCHOR
+                            || i == matcher.to);
+                }
+                break;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Returns the index a thread may next be started at, stepping over
+     * surrogate pairs when the pattern contains supplementary characters.
+     */
+    private int advance(CharSequence seq, int i) {
+        if (hasSupplementary
+            && Character.isHighSurrogate(seq.charAt(i))
+            && i + 1 < seq.length()
+            && Character.isLowSurrogate(seq.charAt(i + 1)))
+            return i + 2;
+        return i + 1;
+    }
+
+    private static int codePointAt(CharSequence seq, int i, int to) {
+        char c1 = seq.charAt(i);
+        if (Character.isHighSurrogate(c1) && ++i < to) {
+            char c2 = seq.charAt(i);
+            if (Character.isLowSurrogate(c2))
+                return Character.toCodePoint(c1, c2);
+        }
+        return c1;
+    }
+
+    /**
+     * Evaluates a zero-width assertion the way the node does when it is
+     * matched, including its effect on hitEnd and requireEnd.
+     */
+    private static boolean holds(Node node, Matcher matcher, int i,
+                                 CharSequence seq) {
+        int startIndex = matcher.from;
+        int endIndex = matcher.to;
+        if (!matcher.anchoringBounds) {
+            startIndex = 0;
+            endIndex = matcher.getTextLength();
+        }
+        if (node instanceof Pattern.Begin)
+            return i == startIndex;
+        if (node instanceof Pattern.End) {
+            if (i != endIndex)
+                return false;
+            matcher.hitEnd = true;
+            return true;
+        }
+        if (node instanceof Pattern.LastMatch)
+            return i == matcher.oldLast;
+        if (node instanceof Pattern.Bound) {
+            Pattern.Bound bound = (Pattern.Bound)node;
+            return (bound.check(matcher, i, seq) & bound.type) > 0;
+        }
+        if (node instanceof Pattern.Caret
+            || node instanceof Pattern.UnixCaret) {
+            // Perl does not match ^ at end of input even after newline
+            if (i == endIndex) {
+                matcher.hitEnd = true;
+                return false;
+            }
+            if (i > startIndex) {
+                char ch = seq.charAt(i-1);
+                if (node instanceof Pattern.UnixCaret)
+                    return ch == '\n';
+                if (ch != '\n' && ch != '\r'
+                    && (ch|1) != '\u2029'
+                    && ch != '\u0085')
+                    return false;
+                // Should treat /r/n as one newline
+                if (ch == '\r' && seq.charAt(i) == '\n')
+                    return false;
+            }
+            return true;
+        }
+        if (node instanceof Pattern.UnixDollar) {
+            boolean multiline = ((Pattern.UnixDollar)node).multiline;
+            if (i < endIndex) {
+                if (seq.charAt(i) != '\n')
+                    return false;
+                if (multiline)
+                    return true;
+                if (i != endIndex - 1)
+                    return false;
+            }
+            matcher.hitEnd = true;
+            matcher.requireEnd = true;
+            return true;
+        }
+        boolean multiline = ((Pattern.Dollar)node).multiline;
+        if (!multiline) {
+            if (i < endIndex - 2)
+                return false;
+            if (i == endIndex - 2) {
+                if (seq.charAt(i) != '\r' || seq.charAt(i + 1) != '\n')
+                    return false;
+            }
+        }
+        if (i < endIndex) {
+            char ch = seq.charAt(i);
+            if (ch == '\n') {
+                // No match between \r\n
+                if (i > 0 && seq.charAt(i-1) == '\r')
+                    return false;
+                if (multiline)
+                    return true;
+            } else if (ch == '\r' || ch == '\u0085' ||
+                       (ch|1) == '\u2029') {
+                if (multiline)
+                    return true;
+            } else {
+                return false;
+            }
+        }
+        matcher.hitEnd = true;
+        matcher.requireEnd = true;
+        return true;
+    }
+
+    /**
+     * Returns the first index in [from, to - s.length()] at which s occurs
+     * in seq, or -1.
+     */
+    private static int indexOf(CharSequence seq, String s, int from, int to) {
+        int n = s.length();
+        int max = to - n;
+        if (seq instanceof String) {
+            int k = ((String)seq).indexOf(s, from);
+            return (k <= max) ? k : -1;
+        }
+        char first = s.charAt(0);
+        for (int i = from; i <= max; i++) {
+            if (seq.charAt(i) == first) {
+                int j = 1;
+                while (j < n && seq.charAt(i + j) == s.charAt(j))
+                    j++;
+                if (j == n)
+                    return i;
+            }
+        }
+        return -1;
+    }
+
+    //
+    // Lazily built DFA
+    //
+
+    /**
+     * A DFA state: the instructions, after following every transition
+     * that consumes no input, of the threads started before the current
+     * index that are still running. Threads started at the current index
+     * are added when the state is stepped, so a state with no
+     * instructions means that no match can start before the index.
+     */
+    private static final class DState {
+        final int[] pcs;
+        final boolean accepting;
+        final DState[] next = new DState[128];
+        DState(int[] pcs, boolean accepting) {
+            this.pcs = pcs;
+            this.accepting = accepting;
+        }
+        public int hashCode() {
+            return Arrays.hashCode(pcs);
+        }
+        public boolean equals(Object o) {
+            return (o instanceof DState) &&
+                Arrays.equals(pcs, ((DState)o).pcs);
+        }
+    }
+
+    /**
+     * The DFA is only built for programs without assertions, so the
+     * threads started at any index are the same. Transitions on ASCII
+     * characters are cached in the states; states are created under the
+     * lock and are immutable apart from the cache, so scans read the
+     * cache without locking. When too many states exist the cache is
+     * flushed and built again from the empty state.
+     */
+    private final class Dfa {
+        private final int[] fresh;
+        private final boolean freshAccepting;
+        private final HashMap<DState, DState> states =
+            new HashMap<DState, DState>();
+        private volatile DState empty;
+
+        // Used under the lock only
+        private final Threads set = new Threads(size, 0);
+        private final int[] stack = new int[size + 1];
+
+        Dfa() {
+            set.size = 0;
+            closure(0);
+            fresh = consumers();
+            freshAccepting = containsMatch(fresh);
+            empty = state(new int[0]);
+        }
+
+        /**
+         * Returns the least index in [from, to] at which the leftmost
+         * match can start, or -1 if there is no match in [from, to). If
+         * the input contains a surrogate the scan stops there.
+         */
+        int scan(CharSequence seq, int from, int to) {
+            DState s = empty;
+            int start = from;
+            for (int i = from; ; i++) {
+                if (s.pcs.length == 0)
+                    start = i;
+                if (s.accepting)
+                    return start;
+                if (i >= to)
+                    return -1;
+                char c = seq.charAt(i);
+                if (Character.isSurrogate(c))
+                    return start;
+                DState n = (c < 128) ? s.next[c] : null;
+                if (n == null)
+                    n = step(s, c);
+                s = n;
+            }
+        }
+
+        private synchronized DState step(DState s, char c) {
+            set.size = 0;
+            step(s.pcs, c);
+            step(fresh, c);
+            DState n = state(consumers());
+            if (c < 128)
+                s.next[c] = n;
+            return n;
+        }
+
+        private void step(int[] pcs, char c) {
+            for (int pc : pcs) {
+                int o = op[pc];
+                if (o == MATCH)
+                    continue;
+                if ((o == CHAR || o == CHAR1)
+                    ? c == arg[pc]
+                    : props[arg[pc]].isSatisfiedBy(c))
+                    closure(out[pc]);
+            }
+        }
+
+        private DState state(int[] pcs) {
+            DState s = new DState(pcs, freshAccepting || containsMatch(pcs));
+            DState old = states.get(s);
+            if (old != null)
+                return old;
+            if (states.size() >= MAX_STATES) {
+                states.clear();
+                if (pcs.length != 0) {
+                    DState e = new DState(new int[0], freshAccepting);
+                    states.put(e, e);
+                    empty = e;
+                }
+            }
+            states.put(s, s);
+            return s;
+        }
+
+        /**
+         * Adds to the set everything reachable from pc without consuming
+         * input. A loop iteration that matched nothing is followed by
+         * another one rather than by the end of the loop; the end is
+         * reached all the same by repeating the iteration, and a DFA
+         * cannot tell whether the iteration matched anything.
+         */
+        private void closure(int pc) {
+            int sp = 0;
+            stack[sp++] = pc;
+            while (sp > 0) {
+                pc = stack[--sp];
+                while (!set.contains(pc)) {
+                    set.add(pc);
+                    int o = op[pc];
+                    if (o == SPLIT) {
+                        stack[sp++] = out1[pc];
+                    } else if (o != JMP && o != SAVE && o != MARK
+                               && o != EMPTY) {
+                        break;
+                    }
+                    pc = out[pc];
+                }
+            }
+        }
+
+        private int[] consumers() {
+            int n = 0;
+            int[] pcs = new int[set.size];
+            for (int k = 0; k < set.size; k++) {
+                int pc = set.dense[k];
+                if (op[pc] <= MATCH)
+                    pcs[n++] = pc;
+            }
+            pcs = Arrays.copyOf(pcs, n);
+            Arrays.sort(pcs);
+            return pcs;
+        }
+
+        private boolean containsMatch(int[] pcs) {
+            for (int pc : pcs) {
+                if (op[pc] == MATCH)
+                    return true;
+            }
+            return false;
+        }
+    }
+}
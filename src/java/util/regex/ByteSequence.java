@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+
+package java.util.regex;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A character sequence backed by a range of a byte buffer, in which
+ * every byte is read as the char of the same unsigned value, as the
+ * ISO-8859-1 charset does. An index into the sequence is therefore a
+ * byte offset into the range.
+ *
+ * <p> Nothing is copied: the bytes are read from the buffer with
+ * absolute gets each time they are needed, so changes to the buffer
+ * content are seen by the sequence.
+ *
+ * @since 1.8
+ */
+final class ByteSequence implements CharSequence {
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private int length;
+
+    ByteSequence(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Changes the number of bytes in the sequence, used when the
+     * backing buffer is refilled.
+     */
+    void setLength(int length) {
+        this.length = length;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public char charAt(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("index " + index
+                                                + ", length " + length);
+        return (char)(buffer.get(offset + index) & 0xff);
+    }
+
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || start > end || end > length)
+            throw new IndexOutOfBoundsException("start " + start + ", end "
+                                                + end + ", length " + length);
+        return new ByteSequence(buffer, offset + start, end - start);
+    }
+
+    public String toString() {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++)
+            chars[i] = (char)(buffer.get(offset + i) & 0xff);
+        return new String(chars);
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+
+package java.util.regex;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+
+/**
+ * An engine that finds the matches of a {@link Pattern} in the bytes read
+ * from a {@link ReadableByteChannel}.
+ *
+ * <p> A channel matcher is created from a pattern by invoking the
+ * pattern's {@link Pattern#channelMatcher channelMatcher} method.  Each
+ * byte read from the channel is matched as the char of the same unsigned
+ * value, as described for {@link Pattern#byteMatcher byteMatcher}, and
+ * the positions reported are byte offsets from the first byte read.
+ *
+ * <p> The bytes are read into a buffer of fixed size that is allocated
+ * when the matcher is created, so matches can be found in input of any
+ * length without further allocation.  This bounds what the matcher can
+ * see by a <i>window</i> of a given number of bytes:
+ *
+ * <ul>
+ *
+ *   <li><p> A match is found by looking at no more than <i>window</i>
+ *   bytes from where it starts.  If the pattern matches with those bytes
+ *   as the end of the input, that match is reported even if the rest of
+ *   the input would have made it longer or made it fail.  </p></li>
+ *
+ *   <li><p> Lookbehind, boundary matchers and other constructs that look
+ *   at the input preceding a match see no more than <i>window</i> bytes
+ *   before the position the search starts at.  </p></li>
+ *
+ * </ul>
+ *
+ * <p> Matches are otherwise the same as those that {@link Matcher#find()
+ * find} would report for the whole input, provided the channel returns
+ * at least one byte from every read until end-of-stream.  A {@link
+ * SelectableChannel} must therefore be in blocking mode.
+ *
+ * <p> Instances of this class are not safe for use by multiple concurrent
+ * threads. </p>
+ *
+ * @see Pattern#channelMatcher
+ * @since 1.8
+ */
+public final class ChannelMatcher {
+
+    /**
+     * The minimum number of bytes read from the channel at a time.
+     */
+    private static final int MIN_READ = 8192;
+
+    private final ReadableByteChannel source;
+    private final int window;
+    private final ByteBuffer buffer;
+    private final ByteSequence text;
+    private final Matcher matcher;
+
+    /**
+     * The stream offset of the first byte in the buffer.
+     */
+    private long base;
+
+    /**
+     * The number of bytes in the buffer.
+     */
+    private int filled;
+
+    /**
+     * The buffer index the next search starts at.
+     */
+    private int from;
+
+    /**
+     * The stream offset of the first byte in the buffer when the last
+     * match was found, or -1 if there is no match.
+     */
+    private long matchBase = -1;
+
+    private boolean eof;
+
+    ChannelMatcher(Pattern pattern, ReadableByteChannel source, int window) {
+        if (source == null)
+            throw new NullPointerException();
+        if (window <= 0)
+            throw new IllegalArgumentException("Window must be positive");
+        if (window > (Integer.MAX_VALUE - MIN_READ) / 2)
+            throw new IllegalArgumentException("Window too large");
+        if (source instanceof SelectableChannel
+            && !((SelectableChannel)source).isBlocking())
+            throw new IllegalBlockingModeException();
+        this.source = source;
+        this.window = window;
+        // Room for the lookbehind window and a partial match after
+        // compaction, plus at least one read
+        buffer = ByteBuffer.allocateDirect(2 * window + Math.max(window,
+                                                                 MIN_READ));
+        text = new ByteSequence(buffer, 0, 0);
+        matcher = pattern.matcher(text);
+        matcher.useTransparentBounds(true);
+        matcher.useAnchoringBounds(false);
+    }
+
+    /**
+     * Returns the pattern that is interpreted by this matcher.
+     *
+     * @return  The pattern for which this matcher was created
+     */
+    public Pattern pattern() {
+        return matcher.pattern();
+    }
+
+    /**
+     * Attempts to find the next subsequence of the input that matches the
+     * pattern, reading from the channel as needed.
+     *
+     * <p> This method starts at the beginning of the input or, if a
+     * previous invocation of the method was successful, at the first byte
+     * not matched by the previous match.
+     *
+     * @return  <tt>true</tt> if, and only if, a subsequence of the input
+     *          matches this matcher's pattern
+     *
+     * @throws  IOException
+     *          If an I/O error occurs while reading from the channel
+     *
+     * @throws  IllegalBlockingModeException
+     *          If a read from the channel returns no bytes, as reads from
+     *          a channel in non-blocking mode may
+     */
+    public boolean find() throws IOException {
+        matchBase = -1;
+        for (;;) {
+            if (from > filled) {
+                // An empty match ended the buffer
+                if (eof)
+                    return false;
+                fill();
+                continue;
+            }
+            text.setLength(filled);
+            matcher.region(from, filled);
+            boolean found = matcher.find();
+            if (eof
+                || (found && !matcher.hitEnd() && !matcher.requireEnd())
+                || (found && filled - matcher.start() >= window)) {
+                if (!found)
+                    return false;
+                int end = matcher.end();
+                from = (end == matcher.start()) ? end + 1 : end;
+                matchBase = base;
+                return true;
+            }
+            if (!matcher.hitEnd()) {
+                from = filled;
+            } else if (from < filled - window) {
+                // A match that starts further back than this and needs
+                // more input would be longer than the window
+                from = filled - window;
+            }
+            fill();
+        }
+    }
+
+    /**
+     * Discards the bytes no longer needed and reads more from the channel.
+     */
+    private void fill() throws IOException {
+        int keep = Math.max(0, Math.min(from, filled) - window);
+        if (keep > 0) {
+            buffer.limit(filled).position(keep);
+            buffer.compact();
+            base += keep;
+            from -= keep;
+            filled -= keep;
+        }
+        buffer.limit(buffer.capacity()).position(filled);
+        int n = source.read(buffer);
+        if (n == 0)
+            throw new IllegalBlockingModeException();
+        if (n < 0)
+            eof = true;
+        else
+            filled += n;
+    }
+
+    /**
+     * Returns the number of capturing groups in this matcher's pattern.
+     *
+     * @return  The number of capturing groups in this matcher's pattern
+     */
+    public int groupCount() {
+        return matcher.groupCount();
+    }
+
+    /**
+     * Returns the offset of the first byte of the previous match.
+     *
+     * @return  The offset of the first byte matched
+     *
+     * @throws  IllegalStateException
+     *          If no match has yet been attempted,
+     *          or if the previous match operation failed
+     */
+    public long start() {
+        return start(0);
+    }
+
+    /**
+     * Returns the offset of the first byte of the subsequence captured by
+     * the given group during the previous match operation.
+     *
+     * @param  group
+     *         The index of a capturing group in this matcher's pattern
+     *
+     * @return  The offset of the first byte captured by the group,
+     *          or <tt>-1</tt> if the match was successful but the group
+     *          itself did not match anything
+     *
+     * @throws  IllegalStateException
+     *          If no match has yet been attempted,
+     *          or if the previous match operation failed
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If there is no capturing group in the pattern
+     *          with the given index
+     */
+    public long start(int group) {
+        checkMatch();
+        int start = matcher.start(group);
+        return (start < 0) ? -1 : matchBase + start;
+    }
+
+    /**
+     * Returns the offset after the last byte of the previous match.
+     *
+     * @return  The offset after the last byte matched
+     *
+     * @throws  IllegalStateException
+     *          If no match has yet been attempted,
+     *          or if the previous match operation failed
+     */
+    public long end() {
+        return end(0);
+    }
+
+    /**
+     * Returns the offset after the last byte of the subsequence captured
+     * by the given group during the previous match operation.
+     *
+     * @param  group
+     *         The index of a capturing group in this matcher's pattern
+     *
+     * @return  The offset after the last byte captured by the group,
+     *          or <tt>-1</tt> if the match was successful
+     *          but the group itself did not match anything
+     *
+     * @throws  IllegalStateException
+     *          If no match has yet been attempted,
+     *          or if the previous match operation failed
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If there is no capturing group in the pattern
+     *          with the given index
+     */
+    public long end(int group) {
+        checkMatch();
+        int end = matcher.end(group);
+        return (end < 0) ? -1 : matchBase + end;
+    }
+
+    /**
+     * Returns the input subsequence matched by the previous match, each
+     * byte converted to the char of the same unsigned value.
+     *
+     * @return  The subsequence matched by the previous match
+     *
+     * @throws  IllegalStateException
+     *          If no match has yet been attempted,
+     *          or if the previous match operation failed
+     */
+    public String group() {
+        return group(0);
+    }
+
+    /**
+     * Returns the input subsequence captured by the given group during the
+     * previous match operation, each byte converted to the char of the
+     * same unsigned value.
+     *
+     * @param  group
+     *         The index of a capturing group in this matcher's pattern
+     *
+     * @return  The subsequence captured by the group during the previous
+     *          match, or <tt>null</tt> if the group failed to match part of
+     *          the input
+     *
+     * @throws  IllegalStateException
+     *          If no match has yet been attempted,
+     *          or if the previous match operation failed
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If there is no capturing group in the pattern
+     *          with the given index
+     */
+    public String group(int group) {
+        checkMatch();
+        return matcher.group(group);
+    }
+
+    private void checkMatch() {
+        if (matchBase < 0)
+            throw new IllegalStateException("No match available");
+    }
+
+    /**
+     * Returns the string representation of this matcher.
+     *
+     * @return  The string representation of this matcher
+     */
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("java.util.regex.ChannelMatcher");
+        sb.append("[pattern=" + pattern());
+        sb.append(" window=" + window);
+        sb.append(" offset=" + (base + from));
+        sb.append("]");
+        return sb.toString();
+    }
+}
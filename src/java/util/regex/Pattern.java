@@ -25,6 +25,8 @@
 
 package java.util.regex;
 
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.text.CharacterIterator;
@@ -911,6 +913,39 @@ public final class Pattern
      */
     public static final int UNICODE_CHARACTER_CLASS = 0x100;
 
+    /**
+     * Enables linear-time matching.
+     *
+     * <p> When this flag is specified the pattern is matched by simulating
+     * all the alternatives of the match in parallel instead of trying them
+     * one after the other, so that the time taken by a match operation is
+     * proportional to the length of the input no matter what the pattern
+     * or the input is.  The find operation first looks for a literal
+     * substring that every match contains, and for patterns without
+     * boundary matchers rejects input containing no match without
+     * tracking capturing groups.  The subsequence matched is the same as
+     * without this flag, and so are the groups captured except for a
+     * capturing group repeated inside another repetition, which always
+     * holds the subsequence of its last successful iteration.  The {@link
+     * Matcher#hitEnd hitEnd} and {@link Matcher#requireEnd requireEnd}
+     * methods may return <tt>true</tt> where they would otherwise return
+     * <tt>false</tt>.
+     *
+     * <p> Back references, lookahead, lookbehind, independent groups and
+     * possessive quantifiers are not supported in this mode; compiling a
+     * pattern that uses one of them throws a {@link
+     * PatternSyntaxException}.  Counted repetitions are expanded, so their
+     * bounds are limited by the size of the compiled pattern.
+     *
+     * <p> There is no embedded flag character for enabling linear-time
+     * matching.
+     *
+     * <p> Specifying this flag may impose a performance penalty on patterns
+     * that the default engine matches without backtracking.  </p>
+     * @since 1.8
+     */
+    public static final int LINEAR_TIME = 0x200;
+
     /* Pattern has only two serialized components: The pattern string
      * and the flags, which are all that is needed to recompile the pattern
      * when it is deserialized.
@@ -1033,8 +1068,8 @@ public final class Pattern
      *         Match flags, a bit mask that may include
      *         {@link #CASE_INSENSITIVE}, {@link #MULTILINE}, {@link #DOTALL},
      *         {@link #UNICODE_CASE}, {@link #CANON_EQ}, {@link #UNIX_LINES},
-     *         {@link #LITERAL}, {@link #UNICODE_CHARACTER_CLASS}
-     *         and {@link #COMMENTS}
+     *         {@link #LITERAL}, {@link #UNICODE_CHARACTER_CLASS},
+     *         {@link #LINEAR_TIME} and {@link #COMMENTS}
      *
      * @throws  IllegalArgumentException
      *          If bit values other than those corresponding to the defined
@@ -1089,6 +1124,73 @@ public final class Pattern
         return m;
     }
 
+    /**
+     * Creates a matcher that will match the remaining bytes of the given
+     * buffer against this pattern.
+     *
+     * <p> Each byte from the buffer's position up to its limit is matched
+     * as the char of the same unsigned value, as if the bytes were decoded
+     * with the ISO-8859-1 charset, so the indices reported by the matcher
+     * are byte offsets from the position.  No bytes are copied or decoded
+     * by the match operations, which makes the matcher suitable for
+     * searching large direct or {@link java.nio.MappedByteBuffer mapped}
+     * buffers; a single matcher can search successive parts of the buffer
+     * by means of its {@link Matcher#region region} method.
+     *
+     * <p> ASCII text and UTF-8 encoded text are matched as expected by
+     * patterns built from ASCII characters, since every byte of a UTF-8
+     * encoded non-ASCII character is outside the ASCII range.  Such a
+     * character is however seen as two to four chars in the range
+     * <tt>'&#92;u0080'</tt> to <tt>'&#92;u00FF'</tt>.
+     *
+     * <p> The position and limit of the buffer are neither used nor
+     * changed after this method returns.  Changing the content of the
+     * buffer while the matcher is in use has unspecified results.
+     *
+     * @param  input
+     *         The buffer to be matched
+     *
+     * @return  A new matcher for this pattern
+     *
+     * @since 1.8
+     */
+    public Matcher byteMatcher(ByteBuffer input) {
+        return matcher(new ByteSequence(input, input.position(),
+                                        input.remaining()));
+    }
+
+    /**
+     * Creates a matcher that will find the matches of this pattern in the
+     * bytes read from the given channel.
+     *
+     * <p> The bytes are matched as described for {@link #byteMatcher
+     * byteMatcher}.  The channel matcher holds a fixed size buffer, which
+     * limits both the length of a match and how far back constructs such
+     * as lookbehind and boundary matchers can see to <tt>window</tt>
+     * bytes.
+     *
+     * @param  source
+     *         The channel to read from
+     *
+     * @param  window
+     *         The maximum length in bytes of a match
+     *
+     * @return  A new channel matcher for this pattern
+     *
+     * @throws  IllegalArgumentException
+     *          If <tt>window</tt> is not positive or too large
+     *
+     * @throws  java.nio.channels.IllegalBlockingModeException
+     *          If <tt>source</tt> is a selectable channel in non-blocking
+     *          mode
+     *
+     * @since 1.8
+     */
+    public ChannelMatcher channelMatcher(ReadableByteChannel source,
+                                         int window) {
+        return new ChannelMatcher(this, source, window);
+    }
+
     /**
      * Returns this pattern's match flags.  </p>
      *
@@ -1685,6 +1787,15 @@ loop:   for(int x=0, offset=0; x<nCodePoints; x++, offset+=len) {
             root = hasSupplementary ? new StartS(matchRoot) : new Start(matchRoot);
         }
 
+        // Replace both entry points with the linear-time engine
+        if (has(LINEAR_TIME)) {
+            Automaton automaton = new Automaton(this, matchRoot, localCount,
+                                                hasSupplementary);
+            // A leading \A or \G only ever matches at the search start
+            root = (root == matchRoot) ? automaton.match() : automaton.find();
+            matchRoot = automaton.match();
+        }
+
         // Release temporary storage
         temp = null;
         buffer = null;
@@ -3681,7 +3792,7 @@ loop:   for(int x=0, offset=0; x<nCodePoints; x++, offset+=len) {
      * Abstract node class to match one character satisfying some
      * boolean property.
      */
-    private static abstract class CharProperty extends Node {
+    static abstract class CharProperty extends Node {
         abstract boolean isSatisfiedBy(int ch);
         CharProperty complement() {
             return new CharProperty() {
@@ -3709,7 +3820,7 @@ loop:   for(int x=0, offset=0; x<nCodePoints; x++, offset+=len) {
      * Optimized version of CharProperty that works only for
      * properties never satisfied by Supplementary characters.
      */
-    private static abstract class BmpCharProperty extends CharProperty {
+    static abstract class BmpCharProperty extends CharProperty {
         boolean match(Matcher matcher, int i, CharSequence seq) {
             if (i < matcher.to) {
                 return isSatisfiedBy(seq.charAt(i))
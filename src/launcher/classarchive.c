@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * Application Class Archives
+ *
+ * An application class archive lists the classes that the system class
+ * loader loaded during a training run, so that later runs with the same
+ * class path can load them ahead of need.  Training is requested with
+ * -appclassarchive:dump=<file>, and use of the archive with
+ * -appclassarchive:<file>.
+ *
+ * The archive is a text file.  It starts with a block of lines beginning
+ * with '#', written by the launcher:
+ *
+ *     # JLI application class archive 1
+ *     # class.path <the expanded class path>
+ *     # entry <mtime> <size> <path>      (one per class path file)
+ *     # main <micros>                    (time to load the main class)
+ *
+ * followed by the binary names of the classes, one per line, which are
+ * written by java.lang.ClassPreloader when the training run shuts down.
+ * The preloader keeps the leading comment lines and ignores them when it
+ * replays the list.
+ *
+ * An archive is only used if it was made with the same class path and
+ * every file on that class path has the size and modification time it
+ * had during training; otherwise it is ignored.  The launcher maps the
+ * archive read-only to validate it, so that launches of the same
+ * application validate one shared copy of it.
+ */
+
+#include <stdio.h>
+#include <stdlib.h>
+#include <string.h>
+#include <sys/types.h>
+#include <sys/stat.h>
+#include "java.h"
+#include "jli_util.h"
+
+#ifdef _WIN32
+#include <io.h>
+#include <fcntl.h>
+#else /* Unix */
+#include <unistd.h>
+#include <fcntl.h>
+#include <sys/mman.h>
+#endif /* Unix */
+
+#define ARCHIVE_MAGIC   "# JLI application class archive 1"
+#define ARCHIVE_CP      "# class.path "
+#define ARCHIVE_ENTRY   "# entry "
+#define ARCHIVE_MAIN    "# main "
+
+/*
+ * Calls fn for each element of the class path; stops early and returns
+ * JNI_FALSE if fn does.
+ */
+static jboolean
+ForEachElement(const char *classpath,
+               jboolean (*fn)(const char *path, void *arg), void *arg)
+{
+    const char *p = classpath;
+    char *elem = JLI_MemAlloc(JLI_StrLen(classpath) + 1);
+    jboolean ok = JNI_TRUE;
+    while (ok) {
+        const char *q = JLI_StrChr(p, PATH_SEPARATOR);
+        size_t len = (q == NULL) ? JLI_StrLen(p) : (size_t)(q - p);
+        memcpy(elem, p, len);
+        elem[len] = '\0';
+        if (len > 0) {
+            ok = fn(elem, arg);
+        }
+        if (q == NULL) {
+            break;
+        }
+        p = q + 1;
+    }
+    JLI_MemFree(elem);
+    return ok;
+}
+
+static jboolean
+WriteEntry(const char *path, void *arg)
+{
+    struct stat st;
+    if (stat(path, &st) == 0 && (st.st_mode & S_IFMT) == S_IFREG) {
+        fprintf((FILE *)arg, ARCHIVE_ENTRY "%lld %lld %s\n",
+                (long long)st.st_mtime, (long long)st.st_size, path);
+    }
+    return JNI_TRUE;
+}
+
+/*
+ * Writes the header of a new archive for the given class path,
+ * replacing any previous archive.
+ */
+jboolean
+JLI_AppClassArchiveCreate(const char *archive, const char *classpath)
+{
+    FILE *f = fopen(archive, "w");
+    if (f == NULL) {
+        return JNI_FALSE;
+    }
+    fprintf(f, ARCHIVE_MAGIC "\n");
+    fprintf(f, ARCHIVE_CP "%s\n", classpath);
+    ForEachElement(classpath, WriteEntry, f);
+    return fclose(f) == 0;
+}
+
+/*
+ * Appends the time taken to load the main class during training.
+ * The class names are only written at shutdown, so this line still
+ * belongs to the header.
+ */
+void
+JLI_AppClassArchiveNoteMainTime(const char *archive, jlong micros)
+{
+    FILE *f = fopen(archive, "a");
+    if (f != NULL) {
+        fprintf(f, ARCHIVE_MAIN "%ld\n", (long)micros);
+        fclose(f);
+    }
+}
+
+typedef struct {
+    const char *buf;            /* the archive */
+    size_t      size;
+    int         files;          /* class path files seen */
+    int         entries;        /* entries of the archive */
+} Validation;
+
+/* Returns the length of the line at p, excluding its newline */
+static size_t
+LineLength(const char *p, const char *end)
+{
+    const char *q = p;
+    while (q < end && *q != '\n') {
+        q++;
+    }
+    return (size_t)(q - p);
+}
+
+static jboolean
+LineEquals(const char *line, size_t len, const char *prefix, const char *rest)
+{
+    size_t plen = JLI_StrLen(prefix);
+    size_t rlen = JLI_StrLen(rest);
+    return len == plen + rlen
+        && memcmp(line, prefix, plen) == 0
+        && memcmp(line + plen, rest, rlen) == 0;
+}
+
+/* Checks that the class path file has an entry with its size and time */
+static jboolean
+CheckEntry(const char *path, void *arg)
+{
+    Validation *v = (Validation *)arg;
+    const char *p = v->buf;
+    const char *end = v->buf + v->size;
+    struct stat st;
+    char stamp[64];
+    size_t slen;
+
+    if (stat(path, &st) != 0 || (st.st_mode & S_IFMT) != S_IFREG) {
+        return JNI_TRUE;        /* not a file; never recorded */
+    }
+    v->files++;
+    JLI_Snprintf(stamp, sizeof(stamp), ARCHIVE_ENTRY "%lld %lld ",
+                 (long long)st.st_mtime, (long long)st.st_size);
+    slen = JLI_StrLen(stamp);
+    while (p < end && *p == '#') {
+        size_t len = LineLength(p, end);
+        if (len > slen && memcmp(p, stamp, slen) == 0
+                && len - slen == JLI_StrLen(path)
+                && memcmp(p + slen, path, len - slen) == 0) {
+            return JNI_TRUE;
+        }
+        p += len + 1;
+    }
+    JLI_TraceLauncher("Application class archive: %s has changed\n", path);
+    return JNI_FALSE;
+}
+
+/*
+ * Maps the archive and checks it against the class path.  Returns
+ * JNI_TRUE if it may be used, in which case the number of classes it
+ * lists and the training run's time to load the main class (or -1)
+ * are returned through the pointers.
+ */
+jboolean
+JLI_AppClassArchiveValidate(const char *archive, const char *classpath,
+                            jlong *trainingMicros, int *classCount)
+{
+    struct stat st;
+    char *buf;
+    const char *p, *end;
+    Validation v;
+    jboolean ok = JNI_FALSE;
+    int fd = open(archive, O_RDONLY);
+
+    *trainingMicros = -1;
+    *classCount = 0;
+    if (fd < 0) {
+        return JNI_FALSE;
+    }
+    if (fstat(fd, &st) != 0 || st.st_size == 0) {
+        close(fd);
+        return JNI_FALSE;
+    }
+#ifdef _WIN32
+    buf = JLI_MemAlloc((size_t)st.st_size);
+    if (read(fd, buf, (unsigned int)st.st_size) != st.st_size) {
+        JLI_MemFree(buf);
+        close(fd);
+        return JNI_FALSE;
+    }
+#else
+    buf = mmap(NULL, (size_t)st.st_size, PROT_READ, MAP_SHARED, fd, 0);
+    if (buf == MAP_FAILED) {
+        close(fd);
+        return JNI_FALSE;
+    }
+#endif
+    close(fd);
+
+    p = buf;
+    end = buf + st.st_size;
+    v.buf = buf;
+    v.size = (size_t)st.st_size;
+    v.files = 0;
+    v.entries = 0;
+
+    if (LineEquals(p, LineLength(p, end), ARCHIVE_MAGIC, "")) {
+        jboolean sameClassPath = JNI_FALSE;
+        while (p < end) {
+            size_t len = LineLength(p, end);
+            if (len > 0 && *p != '#') {
+                (*classCount)++;
+            } else if (LineEquals(p, len, ARCHIVE_CP, classpath)) {
+                sameClassPath = JNI_TRUE;
+            } else if (len > JLI_StrLen(ARCHIVE_ENTRY) &&
+                       memcmp(p, ARCHIVE_ENTRY, JLI_StrLen(ARCHIVE_ENTRY)) == 0) {
+                v.entries++;
+            } else if (len > JLI_StrLen(ARCHIVE_MAIN) &&
+                       memcmp(p, ARCHIVE_MAIN, JLI_StrLen(ARCHIVE_MAIN)) == 0) {
+                const char *q = p + JLI_StrLen(ARCHIVE_MAIN);
+                jlong micros = 0;
+                while (q < p + len && *q >= '0' && *q <= '9') {
+                    micros = micros * 10 + (*q++ - '0');
+                }
+                *trainingMicros = micros;
+            }
+            p += len + 1;
+        }
+        if (!sameClassPath) {
+            JLI_TraceLauncher("Application class archive: class path differs\n");
+        } else if (*classCount == 0) {
+            JLI_TraceLauncher("Application class archive: no classes recorded\n");
+        } else {
+            ok = ForEachElement(classpath, CheckEntry, &v)
+                && v.files == v.entries;
+        }
+    }
+
+#ifdef _WIN32
+    JLI_MemFree(buf);
+#else
+    munmap(buf, (size_t)st.st_size);
+#endif
+    return ok;
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+#ifndef CLASSARCHIVE_H_
+#define CLASSARCHIVE_H_
+
+#include <jni.h>
+
+jboolean JLI_AppClassArchiveCreate(const char *archive, const char *classpath);
+jboolean JLI_AppClassArchiveValidate(const char *archive, const char *classpath,
+                                     jlong *trainingMicros, int *classCount);
+void     JLI_AppClassArchiveNoteMainTime(const char *archive, jlong micros);
+
+#endif /* include guard */
@@ -37,6 +37,8 @@
 #define JNI_ERROR1      "Error: can't find JNI interfaces in: %s"
 
 #define ARG_WARN        "Warning: %s option is no longer supported."
+#define ARG_WARN1       "Warning: application class archive %s is out of date and was ignored"
+#define ARG_WARN2       "Warning: could not create application class archive %s"
 
 #define ARG_ERROR1      "Error: %s requires class path specification"
 #define ARG_ERROR2      "Error: %s requires jar file specification"
@@ -78,6 +78,15 @@ static const char *_dVersion;
 static jboolean _wc_enabled = JNI_FALSE;
 static jint _ergo_policy = DEFAULT_POLICY;
 
+/*
+ * The application class archive given by -appclassarchive, whether it
+ * is being created by this run, and the class path it applies to.
+ */
+static char *appClassArchive = NULL;
+static jboolean appClassArchiveDump = JNI_FALSE;
+static char *appClassPath = NULL;
+static jlong appClassArchiveMicros = -1;  /* training time, if in use */
+
 /*
  * Entries for splash screen environment variables.
  * putenv is performed in SelectVersion. We need
@@ -115,6 +124,7 @@ static void PrintUsage(JNIEnv* env, jboolean doXUsage);
 static void ShowSettings(JNIEnv* env, char *optString);
 
 static void SetPaths(int argc, char **argv);
+static void SetAppClassArchive();
 
 static void DumpState();
 static jboolean RemovableOption(char *option);
@@ -292,6 +302,9 @@ JLI_Launch(int argc, char ** argv,              /* main argc, argc */
     /* set the -Dsun.java.launcher.* platform properties */
     SetJavaLauncherPlatformProps();
 
+    /* Create or check the application class archive */
+    SetAppClassArchive();
+
     return JVMInit(&ifn, threadStackSize, argc, argv, mode, what, ret);
 }
 /*
@@ -420,8 +433,22 @@ JavaMain(void * _args)
      *     2)   Remove the vestages of maintaining main_class through
      *          the environment (and remove these comments).
      */
+    start = CounterGet();
     mainClass = LoadMainClass(env, mode, what);
     CHECK_EXCEPTION_NULL_LEAVE(mainClass);
+    if (appClassArchive != NULL) {
+        jlong micros = Counter2Micros(CounterGet() - start);
+        if (appClassArchiveDump) {
+            JLI_AppClassArchiveNoteMainTime(appClassArchive, micros);
+        } else if (appClassArchiveMicros >= 0) {
+            JLI_TraceLauncher("%ld micro seconds to load main class with "
+                              "application class archive, %ld in training run, "
+                              "%ld saved\n",
+                              (long)(jint)micros,
+                              (long)(jint)appClassArchiveMicros,
+                              (long)(jint)(appClassArchiveMicros - micros));
+        }
+    }
     PostJVMInit(env, mainClass, vm);
     /*
      * The LoadMainClass not only loads the main class, it will also ensure
@@ -706,10 +733,64 @@ SetClassPath(const char *s)
                        + JLI_StrLen(s));
     sprintf(def, format, s);
     AddOption(def, NULL);
+    if (appClassPath != NULL)
+        JLI_MemFree(appClassPath);
+    appClassPath = JLI_StringDup(s);
     if (s != orig)
         JLI_MemFree((char *) s);
 }
 
+/*
+ * Sets up the application class archive named by -appclassarchive,
+ * once the class path is known.  A training run creates the archive
+ * and has java.lang.ClassPreloader record the classes into it; other
+ * runs validate it against the class path and, if it is current, have
+ * the preloader load the classes it lists in the background.
+ */
+static void
+SetAppClassArchive()
+{
+    static const char dump[] = "-Dsun.lang.ClassLoader.classListDump=%s";
+    static const char list[] = "-Dsun.lang.ClassLoader.classList=%s";
+    const char *cp = (appClassPath == NULL) ? "" : appClassPath;
+    char *def;
+    jlong start = 0, end = 0;
+    int classes;
+
+    if (appClassArchive == NULL)
+        return;
+    if (appClassArchiveDump) {
+        if (!JLI_AppClassArchiveCreate(appClassArchive, cp)) {
+            JLI_ReportErrorMessage(ARG_WARN2, appClassArchive);
+            appClassArchive = NULL;
+            return;
+        }
+        def = JLI_MemAlloc(sizeof(dump) + JLI_StrLen(appClassArchive));
+        sprintf(def, dump, appClassArchive);
+        AddOption(def, NULL);
+        return;
+    }
+
+    if (JLI_IsTraceLauncher()) {
+        start = CounterGet();
+    }
+    if (!JLI_AppClassArchiveValidate(appClassArchive, cp,
+                                     &appClassArchiveMicros, &classes)) {
+        JLI_ReportErrorMessage(ARG_WARN1, appClassArchive);
+        appClassArchive = NULL;
+        return;
+    }
+    if (JLI_IsTraceLauncher()) {
+        end = CounterGet();
+    }
+    JLI_TraceLauncher("%ld micro seconds to validate application class "
+                      "archive of %d classes\n",
+                      (long)(jint)Counter2Micros(end-start), classes);
+    def = JLI_MemAlloc(sizeof(list) + JLI_StrLen(appClassArchive));
+    sprintf(def, list, appClassArchive);
+    AddOption(def, NULL);
+}
+
 /*
  * The SelectVersion() routine ensures that an appropriate version of
  * the JRE is running.  The specification for the appropriate version
@@ -1001,6 +1082,12 @@ ParseArguments(int *pargc, char ***pargv,
             showSettings = arg;
         } else if (JLI_StrCmp(arg, "-Xdiag") == 0) {
             AddOption("-Dsun.java.launcher.diag=true", NULL);
+        } else if (JLI_StrCCmp(arg, "-appclassarchive:dump=") == 0) {
+            appClassArchive = arg + 21;
+            appClassArchiveDump = JNI_TRUE;
+        } else if (JLI_StrCCmp(arg, "-appclassarchive:") == 0) {
+            appClassArchive = arg + 17;
+            appClassArchiveDump = JNI_FALSE;
 /*
  * The following case provide backward compatibility with old-style
  * command line options.
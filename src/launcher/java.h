@@ -44,6 +44,7 @@
 #include "manifest_info.h"
 #include "version_comp.h"
 #include "wildcard.h"
+#include "classarchive.h"
 #include "splashscreen.h"
 
 # define KB (1024UL)
@@ -30,6 +30,9 @@
 #include <stdlib.h>
 #include <string.h>
 #include "jli_util.h"
+#ifndef _WIN32
+#include <sys/mman.h>
+#endif
 
 #include <zlib.h>
 #include "manifest_info.h"
@@ -257,6 +260,53 @@ find_file(int fd, zentry *entry, const char *file_name)
      */
     base_offset = base_offset - ENDSIZ(p) - ENDOFF(p);
 
+#ifndef _WIN32
+    /*
+     * Where possible, map just the Central Directory and walk it in
+     * place, rather than reading it a buffer at a time.
+     */
+    {
+        off_t   cen_offset = (off_t)base_offset + ENDOFF(p);
+        size_t  cen_size = (size_t)ENDSIZ(p);
+        long    page = sysconf(_SC_PAGESIZE);
+        off_t   map_offset = (page > 0) ? cen_offset - cen_offset % page : -1;
+        size_t  map_size = cen_size + (size_t)(cen_offset - map_offset);
+        void    *map = (map_offset < 0 || cen_size < CENHDR) ? MAP_FAILED :
+                       mmap(NULL, map_size, PROT_READ, MAP_PRIVATE, fd,
+                            map_offset);
+        if (map != MAP_FAILED) {
+            Byte    *cen = (Byte *)map + (cen_offset - map_offset);
+            Byte    *end = cen + cen_size;
+            int     rc = -1;
+
+            for (p = cen; p + CENHDR <= end && GETSIG(p) == CENSIG;
+                 p += entry_size) {
+                entry_size = CENHDR + CENNAM(p) + CENEXT(p) + CENCOM(p);
+                if (p + entry_size > end)
+                    break;
+                if ((size_t)CENNAM(p) == JLI_StrLen(file_name) &&
+                  memcmp((p + CENHDR), file_name, JLI_StrLen(file_name)) == 0) {
+                    if (lseek(fd, base_offset + CENOFF(p), SEEK_SET) >= (off_t)0
+                      && read(fd, locbuf, LOCHDR) == LOCHDR
+                      && GETSIG(locbuf) == LOCSIG) {
+                        entry->isize = CENLEN(p);
+                        entry->csize = CENSIZ(p);
+                        entry->offset = base_offset + CENOFF(p) + LOCHDR +
+                            LOCNAM(locbuf) + LOCEXT(locbuf);
+                        entry->how = CENHOW(p);
+                        rc = 0;
+                    }
+                    break;
+                }
+            }
+            munmap(map, map_size);
+            free(buffer);
+            return (rc);
+        }
+        p = buffer;     /* fall back to reading */
+    }
+#endif
+
     /*
      * The END Header indicates the start of the Central Directory
      * Headers. Remember that the desired Central Directory Header (CEN)
@@ -83,6 +83,18 @@
  * supporting the use of wildcards on the command line and in the
  * CLASSPATH environment variable.  We do not support the use of
  * wildcards by applications that embed the JVM.
+ *
+ * If the environment variable _JAVA_WILDCARD_CACHE names a directory,
+ * the jar file names found in each wildcard directory are stored there
+ * and reused by later launches for as long as the directory's
+ * modification time is unchanged; adding, removing or renaming a file
+ * changes that time.  A directory modified within the last two seconds
+ * is not cached, since a later change in the same clock tick would go
+ * unnoticed.  This makes the expansion of a directory holding many jar
+ * files one stat and one small read, and it keeps their order stable.
+ * Cache files not owned by the user, or writable by anyone else, are
+ * ignored, and every name read from a cache file must be a jar file
+ * name without separators, just as the names found by a directory scan.
  */
 
 #include <stddef.h>
@@ -98,6 +110,10 @@
 #else /* Unix */
 #include <unistd.h>
 #include <dirent.h>
+#include <fcntl.h>
+#include <limits.h>
+#include <time.h>
+#include <sys/stat.h>
 #endif /* Unix */
 
 static int
@@ -350,18 +366,182 @@ wildcardConcat(const char *wildcard, const char *basename)
     return filename;
 }
 
+/* Wildcard directories looked up in, and found in, the cache */
+static int cacheLookups = 0;
+static int cacheHits = 0;
+
+#ifndef _WIN32
+/*
+ * Wildcard expansion cache.  Each cache file holds the expansion of one
+ * directory: a first line with the directory's canonical name and
+ * modification time, then the basenames of its jar files in the order
+ * in which they were enumerated.
+ */
+typedef struct {
+    char dir[PATH_MAX];         /* canonical name of the directory */
+    char stamp[64];             /* its modification time */
+    char file[PATH_MAX];        /* the cache file */
+    time_t mtime;
+} CacheKey;
+
+static int
+wildcardCacheKey(const char *wildcard, CacheKey *key)
+{
+    const char *cachedir = getenv("_JAVA_WILDCARD_CACHE");
+    int wildlen = (int)JLI_StrLen(wildcard);
+    char *dirname;
+    struct stat st;
+    unsigned long long h = 14695981039346656037ULL;     /* FNV-1a */
+    const char *p;
+    int ok;
+
+    if (cachedir == NULL || *cachedir == '\0')
+        return 0;
+    dirname = JLI_StringDup(wildlen < 2 ? "." : wildcard);
+    if (wildlen >= 2)
+        dirname[wildlen - 1] = '\0';
+    ok = realpath(dirname, key->dir) != NULL && stat(key->dir, &st) == 0;
+    JLI_MemFree(dirname);
+    if (!ok)
+        return 0;
+    key->mtime = st.st_mtime;
+#ifdef __linux__
+    JLI_Snprintf(key->stamp, sizeof(key->stamp), "%lld.%09ld",
+                 (long long)st.st_mtime, (long)st.st_mtim.tv_nsec);
+#else
+    JLI_Snprintf(key->stamp, sizeof(key->stamp), "%lld",
+                 (long long)st.st_mtime);
+#endif
+    for (p = key->dir; *p; p++)
+        h = (h ^ (unsigned char)*p) * 1099511628211ULL;
+    return JLI_Snprintf(key->file, sizeof(key->file), "%s%cwc-%016llx",
+                        cachedir, FILE_SEPARATOR, h) < (int)sizeof(key->file);
+}
+
+/*
+ * Tells whether a name read from a cache file could have been found by
+ * scanning the wildcard directory: a jar file name that stays within it.
+ */
+static int
+isCachedJarFileName(const char *name)
+{
+    return isJarFileName(name) &&
+        JLI_StrChr(name, FILE_SEPARATOR) == NULL;
+}
+
+/* Returns the cached expansion of the wildcard, or NULL */
+static FileList
+wildcardCacheGet(const char *wildcard, const CacheKey *key)
+{
+    char line[PATH_MAX + 80];
+    FileList fl;
+    FILE *f;
+    struct stat st;
+    int len;
+    int fd = open(key->file, O_RDONLY | O_NOFOLLOW);
+
+    if (fd < 0)
+        return NULL;
+    /* Only trust a cache file that no one else can have written */
+    if (fstat(fd, &st) != 0 || !S_ISREG(st.st_mode)
+            || st.st_uid != geteuid()
+            || (st.st_mode & (S_IWGRP | S_IWOTH)) != 0
+            || (f = fdopen(fd, "r")) == NULL) {
+        close(fd);
+        return NULL;
+    }
+    JLI_Snprintf(line, sizeof(line), "%s\t", key->dir);
+    len = (int)JLI_StrLen(line);
+    {
+        char header[sizeof(line)];
+        if (fgets(header, sizeof(header), f) == NULL
+                || JLI_StrNCmp(header, line, len) != 0
+                || JLI_StrNCmp(header + len, key->stamp,
+                               JLI_StrLen(key->stamp)) != 0
+                || header[len + JLI_StrLen(key->stamp)] != '\n') {
+            fclose(f);
+            return NULL;
+        }
+    }
+    fl = FileList_new(16);
+    while (fgets(line, sizeof(line), f) != NULL) {
+        len = (int)JLI_StrLen(line);
+        if (len == 0 || line[len - 1] != '\n') {
+            /* truncated */
+            FileList_free(fl);
+            fclose(f);
+            return NULL;
+        }
+        line[len - 1] = '\0';
+        if (!isCachedJarFileName(line)) {
+            FileList_free(fl);
+            fclose(f);
+            return NULL;
+        }
+        FileList_add(fl, wildcardConcat(wildcard, line));
+    }
+    fclose(f);
+    return fl;
+}
+
+/* Stores the expansion of the wildcard, replacing the cache file */
+static void
+wildcardCachePut(const char *wildcard, const CacheKey *key, FileList fl)
+{
+    char tmp[PATH_MAX + 32];
+    int prefix = (int)JLI_StrLen(wildcard) - 1;
+    int i;
+    int fd;
+    FILE *f;
+
+    if (time(NULL) - key->mtime < 2)
+        return;
+    JLI_Snprintf(tmp, sizeof(tmp), "%s.%ld", key->file, (long)getpid());
+    /* Never follow a link or reuse a file planted under the name */
+    if ((fd = open(tmp, O_WRONLY | O_CREAT | O_EXCL, 0600)) < 0)
+        return;
+    if ((f = fdopen(fd, "w")) == NULL) {
+        close(fd);
+        unlink(tmp);
+        return;
+    }
+    fprintf(f, "%s\t%s\n", key->dir, key->stamp);
+    for (i = 0; i < fl->size; i++)
+        fprintf(f, "%s\n", fl->files[i] + prefix);
+    if (fclose(f) != 0 || rename(tmp, key->file) != 0)
+        unlink(tmp);
+}
+#endif /* Unix */
+
 static FileList
 wildcardFileList(const char *wildcard)
 {
     const char *basename;
-    FileList fl = FileList_new(16);
-    WildcardIterator it = WildcardIterator_for(wildcard);
+    FileList fl;
+    WildcardIterator it;
+#ifndef _WIN32
+    CacheKey key;
+    int cached = wildcardCacheKey(wildcard, &key);
+    if (cached) {
+        cacheLookups++;
+        if ((fl = wildcardCacheGet(wildcard, &key)) != NULL) {
+            cacheHits++;
+            return fl;
+        }
+    }
+#endif
+    it = WildcardIterator_for(wildcard);
     if (it == NULL)
         return NULL;
+    fl = FileList_new(16);
     while ((basename = WildcardIterator_next(it)) != NULL)
         if (isJarFileName(basename))
             FileList_add(fl, wildcardConcat(wildcard, basename));
     WildcardIterator_close(it);
+#ifndef _WIN32
+    if (cached)
+        wildcardCachePut(wildcard, &key, fl);
+#endif
     return fl;
 }
 
@@ -404,13 +584,23 @@ JLI_WildcardExpandClasspath(const char *classpath)
 {
     char *expanded;
     FileList fl;
+    jlong start = 0, end = 0;
 
     if (JLI_StrChr(classpath, '*') == NULL)
         return classpath;
+    if (JLI_IsTraceLauncher())
+        start = CounterGet();
     fl = FileList_split(classpath, PATH_SEPARATOR);
     FileList_expandWildcards(fl);
     expanded = FileList_join(fl, PATH_SEPARATOR);
     FileList_free(fl);
+    if (JLI_IsTraceLauncher()) {
+        end = CounterGet();
+        JLI_TraceLauncher("%ld micro seconds to expand wildcards, "
+                          "%d of %d directories cached\n",
+                          (long)(jint)Counter2Micros(end-start),
+                          cacheHits, cacheLookups);
+    }
     if (getenv(JLDEBUG_ENV_ENTRY) != 0)
         printf("Expanded wildcards:\n"
                "    before: \"%s\"\n"
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary Single member lookups in Class find the same members as a
+ *          scan of the member arrays and return fresh copies
+ * @run main MemberLookups
+ * @run main/othervm -Dsun.reflect.noCaches=true MemberLookups
+ */
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+public class MemberLookups {
+
+    interface I {
+        int CONSTANT = 1;
+        void fromInterface();
+    }
+
+    static class A {
+        public int inherited;
+        public A get() { return this; }
+        public void m() { }
+        public void m(int i) { }
+        public void m(String s) { }
+        public void m(int i, String s) { }
+        private void hidden() { }
+    }
+
+    static class B extends A implements I {
+        public int own;
+        private int secret;
+        public B() { }
+        private B(int i) { }
+        public B get() { return this; }
+        public void m(long l) { }
+        public void fromInterface() { }
+    }
+
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        checkMethod(B.class, "m", B.class, long.class);
+        checkMethod(B.class, "m", A.class);
+        checkMethod(B.class, "m", A.class, int.class);
+        checkMethod(B.class, "m", A.class, String.class);
+        checkMethod(B.class, "m", A.class, int.class, String.class);
+        checkMethod(B.class, "fromInterface", B.class);
+        checkMethod(B.class, "toString", Object.class);
+        checkNoMethod(B.class, "m", double.class);
+        checkNoMethod(B.class, "hidden");
+        checkNoMethod(B.class, "nonexistent");
+
+        // The covariant override is preferred over the bridge
+        Method get = B.class.getMethod(new String("get"));
+        if (get.getReturnType() != B.class || get.isBridge()) {
+            System.err.println("getMethod(\"get\") returned " + get);
+            failures++;
+        }
+
+        Method m = B.class.getDeclaredMethod("m", long.class);
+        check(m.getDeclaringClass() == B.class, "getDeclaredMethod(m, long)");
+        checkThrows(B.class, "getDeclaredMethod", "m", int.class);
+        check(A.class.getDeclaredMethod("hidden") != null, "getDeclaredMethod(hidden)");
+
+        check(B.class.getField("own").getDeclaringClass() == B.class, "getField(own)");
+        check(B.class.getField("inherited").getDeclaringClass() == A.class,
+              "getField(inherited)");
+        check(B.class.getField("CONSTANT").getDeclaringClass() == I.class,
+              "getField(CONSTANT)");
+        check(B.class.getDeclaredField("secret") != null, "getDeclaredField(secret)");
+        try {
+            B.class.getField("secret");
+            System.err.println("getField found a private field");
+            failures++;
+        } catch (NoSuchFieldException expected) { }
+        try {
+            B.class.getDeclaredField("inherited");
+            System.err.println("getDeclaredField found an inherited field");
+            failures++;
+        } catch (NoSuchFieldException expected) { }
+
+        check(B.class.getConstructor().getParameterTypes().length == 0,
+              "getConstructor()");
+        check(B.class.getDeclaredConstructor(int.class) != null,
+              "getDeclaredConstructor(int)");
+        try {
+            B.class.getConstructor(int.class);
+            System.err.println("getConstructor found a private constructor");
+            failures++;
+        } catch (NoSuchMethodException expected) { }
+
+        // Every lookup returns a new copy
+        Field f1 = B.class.getDeclaredField("secret");
+        Field f2 = B.class.getDeclaredField("secret");
+        check(f1 != f2 && f1.equals(f2), "fields are fresh copies");
+        f1.setAccessible(true);
+        check(!f2.isAccessible(), "accessibility is not shared");
+        Constructor<B> c1 = B.class.getDeclaredConstructor(int.class);
+        Constructor<B> c2 = B.class.getDeclaredConstructor(int.class);
+        check(c1 != c2 && c1.equals(c2), "constructors are fresh copies");
+        Class<?>[] params = B.class.getMethod("m", int.class).getParameterTypes();
+        params[0] = String.class;
+        check(B.class.getMethod("m", int.class).getParameterTypes()[0] == int.class,
+              "parameter types are copied");
+
+        // Lookups agree with the member arrays
+        for (Method dm : B.class.getDeclaredMethods()) {
+            if (dm.isBridge())
+                continue;
+            Method found = B.class.getDeclaredMethod(dm.getName(),
+                                                     dm.getParameterTypes());
+            check(found.equals(dm), "getDeclaredMethod(" + dm + ")");
+        }
+        for (Method pm : String.class.getMethods()) {
+            Method found = String.class.getMethod(pm.getName(),
+                                                  pm.getParameterTypes());
+            check(found.getName().equals(pm.getName()) &&
+                  Arrays.equals(found.getParameterTypes(), pm.getParameterTypes()),
+                  "getMethod(" + pm + ")");
+        }
+
+        if (failures > 0)
+            throw new RuntimeException(failures + " failures");
+    }
+
+    private static void checkMethod(Class<?> c, String name, Class<?> declarer,
+                                    Class<?> ... params) throws Exception {
+        Method m = c.getMethod(new String(name), params);
+        if (!m.getName().equals(name) ||
+            m.getDeclaringClass() != declarer ||
+            !Arrays.equals(m.getParameterTypes(), params)) {
+            System.err.println("getMethod(" + name + ", " +
+                               Arrays.toString(params) + ") returned " + m);
+            failures++;
+        }
+    }
+
+    private static void checkNoMethod(Class<?> c, String name,
+                                      Class<?> ... params) {
+        checkThrows(c, "getMethod", name, params);
+    }
+
+    private static void checkThrows(Class<?> c, String lookup, String name,
+                                    Class<?> ... params) {
+        try {
+            Method m = lookup.equals("getMethod") ? c.getMethod(name, params)
+                                                  : c.getDeclaredMethod(name, params);
+            System.err.println(lookup + "(" + name + ") returned " + m);
+            failures++;
+        } catch (NoSuchMethodException expected) { }
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            System.err.println("Failed: " + what);
+            failures++;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary Record the classes the system class loader loads, and preload
+ *          them from the list on a later run
+ */
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+public class ClassListReplay {
+
+    static class Listed { }
+
+    private static final String LISTED = Listed.class.getName();
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("record")) {
+            new Listed();
+            return;
+        }
+        if (args.length > 0 && args[0].equals("replay")) {
+            replay();
+            return;
+        }
+
+        Path list = Paths.get("classes.lst").toAbsolutePath();
+        Files.write(list, Arrays.asList("# header"), StandardCharsets.UTF_8);
+        run("-Dsun.lang.ClassLoader.classListDump=" + list, "record");
+
+        List<String> lines = Files.readAllLines(list, StandardCharsets.UTF_8);
+        if (!lines.get(0).equals("# header"))
+            throw new RuntimeException("Header not kept: " + lines);
+        if (!lines.contains(ClassListReplay.class.getName()) || !lines.contains(LISTED))
+            throw new RuntimeException("Loaded classes not recorded: " + lines);
+        if (lines.contains("java.lang.String"))
+            throw new RuntimeException("Boot classes recorded: " + lines);
+
+        // A class that cannot be found is skipped
+        Files.write(list, Arrays.asList("NoSuchClass"), StandardCharsets.UTF_8,
+                    StandardOpenOption.APPEND);
+        run("-Dsun.lang.ClassLoader.classList=" + list, "replay");
+        run("-Dsun.lang.ClassLoader.classList=" + list, "-Dsun.lang.ClassLoader.preloadThreads=1",
+            "replay");
+    }
+
+    /*
+     * Waits for the listed class to be loaded, without referring to it.
+     */
+    private static void replay() throws Exception {
+        ClassLoader loader = ClassLoader.getSystemClassLoader();
+        Method findLoadedClass =
+            ClassLoader.class.getDeclaredMethod("findLoadedClass", String.class);
+        findLoadedClass.setAccessible(true);
+        long deadline = System.currentTimeMillis() + 30000;
+        while (findLoadedClass.invoke(loader, LISTED) == null) {
+            if (System.currentTimeMillis() > deadline)
+                throw new RuntimeException(LISTED + " not preloaded");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void run(String ... args) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin"
+            + File.separator + "java";
+        String cp = System.getProperty("test.classes", System.getProperty("java.class.path"));
+        String[] cmd = new String[args.length + 4];
+        cmd[0] = java;
+        cmd[1] = "-cp";
+        cmd[2] = cp;
+        System.arraycopy(args, 0, cmd, 3, args.length - 1);
+        cmd[args.length + 2] = ClassListReplay.class.getName();
+        cmd[args.length + 3] = args[args.length - 1];
+        Process p = new ProcessBuilder(cmd).inheritIO().start();
+        int status = p.waitFor();
+        if (status != 0)
+            throw new RuntimeException(Arrays.toString(cmd) + " exited with " + status);
+    }
+}
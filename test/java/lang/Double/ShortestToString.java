@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary Double.toString renders the shortest decimal that rounds back
+ *          to the argument, and the result always round-trips
+ */
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Random;
+
+public class ShortestToString {
+
+    private static int failures;
+
+    public static void main(String[] args) {
+        // Values that used to render with too many digits
+        check(1.0E23, "1.0E23");
+        check(2.0E-3, "0.002");
+        check(8.41E21, "8.41E21");
+        check(2.82879384806159E17, "2.82879384806159E17");
+        check(1.9400994884341945E25, "1.9400994884341945E25");
+        check(5.684341886080802E-14, "5.684341886080802E-14");
+
+        // Boundaries of the format
+        check(0.0, "0.0");
+        check(-0.0, "-0.0");
+        check(1.0, "1.0");
+        check(0.001, "0.001");
+        check(1.0E-4, "1.0E-4");
+        check(9999999.0, "9999999.0");
+        check(1.0E7, "1.0E7");
+        check(Double.MAX_VALUE, "1.7976931348623157E308");
+        check(Double.MIN_NORMAL, "2.2250738585072014E-308");
+        check(Double.MIN_VALUE, "4.9E-324");
+        check(-Double.MIN_VALUE, "-4.9E-324");
+        check(Double.NaN, "NaN");
+        check(Double.POSITIVE_INFINITY, "Infinity");
+        check(Double.NEGATIVE_INFINITY, "-Infinity");
+
+        Random rnd = new Random(42);
+        for (int i = 0; i < 200000; i++) {
+            double d = Double.longBitsToDouble(rnd.nextLong());
+            if (!Double.isNaN(d) && !Double.isInfinite(d))
+                checkShortest(d);
+        }
+        for (int i = 0; i < 100000; i++)
+            checkShortest(rnd.nextDouble() * Math.pow(10, rnd.nextInt(40) - 20));
+
+        if (failures > 0)
+            throw new RuntimeException(failures + " failures");
+    }
+
+    private static void check(double d, String expected) {
+        String s = Double.toString(d);
+        if (!s.equals(expected)) {
+            System.err.println(Double.doubleToRawLongBits(d) + ": expected " +
+                               expected + ", got " + s);
+            failures++;
+        }
+        char[] buf = new char[32];
+        int len = Double.toChars(d, buf, 3);
+        if (!new String(buf, 3, len).equals(s)) {
+            System.err.println("toChars differs from toString for " + s);
+            failures++;
+        }
+    }
+
+    /**
+     * Checks that toString(d) round-trips, and that no decimal with fewer
+     * significant digits rounds to d.  The two decimals with one digit
+     * less that are nearest to d are its exact value rounded down and up
+     * to that precision, so it is enough to try those.
+     */
+    private static void checkShortest(double d) {
+        String s = Double.toString(d);
+        double back = Double.parseDouble(s);
+        if (Double.doubleToRawLongBits(back) != Double.doubleToRawLongBits(d)) {
+            System.err.println(s + " does not round-trip to " +
+                               Double.doubleToRawLongBits(d));
+            failures++;
+            return;
+        }
+        if (Double.parseDouble((CharSequence) ("x" + s + "x"), 1, s.length() + 1) != d) {
+            System.err.println("parseDouble(CharSequence) differs for " + s);
+            failures++;
+        }
+        if (d == 0)
+            return;
+        BigDecimal dec = new BigDecimal(s).stripTrailingZeros();
+        int digits = dec.precision();
+        // The format requires at least two digits
+        if (digits <= 2)
+            return;
+        BigDecimal exact = new BigDecimal(d);
+        MathContext down = new MathContext(digits - 1, RoundingMode.FLOOR);
+        MathContext up = new MathContext(digits - 1, RoundingMode.CEILING);
+        if (exact.round(down).doubleValue() == d ||
+            exact.round(up).doubleValue() == d) {
+            System.err.println(s + " is not the shortest decimal for " +
+                               Double.doubleToRawLongBits(d));
+            failures++;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary Basic behavior of IndexedThreadLocal
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class Basic {
+
+    private static volatile int failures;
+
+    static final AtomicInteger initializations = new AtomicInteger();
+
+    static final IndexedThreadLocal<String> NAME = new IndexedThreadLocal<String>() {
+        protected String initialValue() {
+            initializations.incrementAndGet();
+            return Thread.currentThread().getName();
+        }
+    };
+
+    static final IndexedThreadLocal<Object> PLAIN = new IndexedThreadLocal<>();
+
+    public static void main(String[] args) throws Exception {
+        // Initial values, set, null values and remove
+        check(PLAIN.get() == null, "default initial value is null");
+        check(NAME.get().equals(Thread.currentThread().getName()), "initialValue");
+        check(NAME.get() != null && initializations.get() == 1, "initialized once");
+        NAME.set(null);
+        check(NAME.get() == null && initializations.get() == 1, "null is a value");
+        NAME.remove();
+        check(NAME.get() != null && initializations.get() == 2, "reinitialized after remove");
+
+        // set() overridden by a subclass is not used to initialize
+        IndexedThreadLocal<String> overridden = new IndexedThreadLocal<String>() {
+            protected String initialValue() { return "initial"; }
+            public void set(String value) { throw new AssertionError("set called"); }
+        };
+        check(overridden.get().equals("initial"), "initial value without set()");
+
+        // More locals than the initial array holds
+        List<IndexedThreadLocal<Integer>> locals = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            locals.add(new IndexedThreadLocal<Integer>());
+        for (int i = 0; i < locals.size(); i++)
+            locals.get(i).set(i);
+        for (int i = 0; i < locals.size(); i++)
+            check(locals.get(i).get() == i, "value of local " + i);
+
+        Thread current = Thread.currentThread();
+        int values = IndexedThreadLocal.valueCount(current);
+        check(IndexedThreadLocal.slotCount(current) >= values && values >= 102,
+              "counts " + IndexedThreadLocal.slotCount(current) + " " + values);
+        locals.get(50).remove();
+        check(IndexedThreadLocal.valueCount(current) == values - 1, "count after remove");
+
+        // Values are per thread
+        final IndexedThreadLocal<Integer> shared = locals.get(0);
+        final AtomicInteger seen = new AtomicInteger(-1);
+        Thread t = new Thread() {
+            public void run() {
+                if (IndexedThreadLocal.slotCount(this) != 0 || shared.get() != null) {
+                    seen.set(-2);
+                    return;
+                }
+                shared.set(42);
+                seen.set(shared.get());
+            }
+        };
+        t.start();
+        t.join();
+        check(seen.get() == 42, "value in another thread " + seen.get());
+        check(shared.get() == 0, "value unaffected by another thread");
+        check(IndexedThreadLocal.slotCount(t) == 0, "values dropped when a thread exits");
+
+        // Plain ThreadLocals are not affected by removeAll
+        ThreadLocal<String> plain = new ThreadLocal<>();
+        plain.set("kept");
+        IndexedThreadLocal.removeAll();
+        check(IndexedThreadLocal.valueCount(current) == 0, "removeAll");
+        check(locals.get(1).get() == null, "value after removeAll");
+        check(NAME.get().equals(current.getName()), "reinitialized after removeAll");
+        check(plain.get().equals("kept"), "ThreadLocal kept by removeAll");
+
+        if (failures > 0)
+            throw new RuntimeException(failures + " failures");
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            System.err.println("Failed: " + what);
+            failures++;
+        }
+    }
+}
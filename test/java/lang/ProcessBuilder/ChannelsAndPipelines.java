@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary Redirect.CHANNEL, the pipe channels of Process, exit
+ *          notification and ProcessBuilder.startPipeline
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.ByteBuffer;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ChannelsAndPipelines {
+
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        if (!new File("/bin/sh").canExecute()) {
+            System.out.println("No /bin/sh, test skipped");
+            return;
+        }
+        testChannels();
+        testErrorChannels();
+        testOnExit();
+        testPipeline();
+        testPipelineArguments();
+        if (failures > 0)
+            throw new RuntimeException(failures + " failures");
+    }
+
+    private static ProcessBuilder sh(String command) {
+        return new ProcessBuilder("/bin/sh", "-c", command);
+    }
+
+    /*
+     * Write to the child's stdin and read its stdout through a selector.
+     */
+    private static void testChannels() throws Exception {
+        Process p = sh("cat")
+            .redirectInput(Redirect.CHANNEL)
+            .redirectOutput(Redirect.CHANNEL)
+            .start();
+        Pipe.SinkChannel in = p.getOutputChannel();
+        Pipe.SourceChannel out = p.getInputChannel();
+        check(in != null && out != null, "channels of a CHANNEL redirect");
+        check(p.getErrorChannel() == null, "error channel of a PIPE redirect");
+        check(p.getInputStream().read() == -1, "input stream is a null stream");
+
+        ByteBuffer bb = ByteBuffer.wrap("hello, channel\n".getBytes("US-ASCII"));
+        while (bb.hasRemaining())
+            in.write(bb);
+        in.close();
+
+        check(readAll(out).equals("hello, channel\n"), "data read back from cat");
+        check(p.waitFor() == 0, "exit value of cat");
+    }
+
+    private static void testErrorChannels() throws Exception {
+        Process p = sh("echo out; echo err 1>&2")
+            .redirectOutput(Redirect.CHANNEL)
+            .redirectError(Redirect.CHANNEL)
+            .start();
+        check(p.getOutputChannel() == null, "output channel of a PIPE redirect");
+        check(readAll(p.getInputChannel()).equals("out\n"), "stdout channel");
+        check(readAll(p.getErrorChannel()).equals("err\n"), "stderr channel");
+        check(p.getErrorStream().read() == -1, "error stream is a null stream");
+        p.waitFor();
+
+        p = sh("echo out; echo err 1>&2")
+            .redirectOutput(Redirect.CHANNEL)
+            .redirectErrorStream(true)
+            .start();
+        String both = readAll(p.getInputChannel());
+        check(both.contains("out\n") && both.contains("err\n"),
+              "merged stderr on the stdout channel: " + both);
+        p.waitFor();
+    }
+
+    private static void testOnExit() throws Exception {
+        Process p = sh("read x; exit 3").redirectInput(Redirect.CHANNEL).start();
+        Future<Integer> f1 = p.onExit();
+        Future<Integer> f2 = p.onExit();
+        check(!f1.isDone(), "onExit done before exit");
+        f1.cancel(false);
+
+        final Thread caller = Thread.currentThread();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<String> result = new AtomicReference<>();
+        p.onExit("attachment", new CompletionHandler<Integer,String>() {
+            public void completed(Integer value, String attachment) {
+                result.set(value + " " + attachment + " " +
+                           (Thread.currentThread() != caller));
+                latch.countDown();
+            }
+            public void failed(Throwable x, String attachment) {
+                result.set(x.toString());
+                latch.countDown();
+            }});
+
+        p.getOutputChannel().close();
+        check(f2.get(30, TimeUnit.SECONDS) == 3, "onExit() value");
+        check(f1.isCancelled(), "cancelled future");
+        check(latch.await(30, TimeUnit.SECONDS), "handler invoked");
+        check("3 attachment true".equals(result.get()), "handler result " + result.get());
+
+        // After exit
+        check(p.onExit().get(30, TimeUnit.SECONDS) == 3, "onExit() after exit");
+        final CountDownLatch late = new CountDownLatch(1);
+        p.onExit(null, new CompletionHandler<Integer,Void>() {
+            public void completed(Integer value, Void attachment) {
+                if (value == 3 && Thread.currentThread() != caller)
+                    late.countDown();
+            }
+            public void failed(Throwable x, Void attachment) { }});
+        check(late.await(30, TimeUnit.SECONDS), "handler after exit");
+    }
+
+    private static void testPipeline() throws Exception {
+        ProcessBuilder first = sh("printf 'b\\na\\nc\\n'");
+        ProcessBuilder second = sh("sort");
+        ProcessBuilder third = sh("tr a-z A-Z; echo done 1>&2");
+        List<Process> processes =
+            ProcessBuilder.startPipeline(Arrays.asList(first, second, third));
+        check(processes.size() == 3, "pipeline size");
+        check(first.redirectOutput() == Redirect.PIPE &&
+              second.redirectInput() == Redirect.PIPE,
+              "builders not modified");
+
+        Process last = processes.get(2);
+        check(readAll(last.getInputStream()).equals("A\nB\nC\n"), "pipeline output");
+        check(readAll(last.getErrorStream()).equals("done\n"), "pipeline stderr");
+        for (Process p : processes)
+            check(p.waitFor() == 0, "exit value of a pipeline process");
+        check(processes.get(0).getInputStream().read() == -1,
+              "stdout of the first process is a null stream");
+        check(processes.get(1).getInputStream().read() == -1,
+              "stdout of the middle process is a null stream");
+
+        // The last stage can be read through a channel
+        processes = ProcessBuilder.startPipeline(Arrays.asList(
+            sh("echo piped"),
+            sh("cat").redirectOutput(Redirect.CHANNEL)));
+        check(readAll(processes.get(1).getInputChannel()).equals("piped\n"),
+              "pipeline output channel");
+        for (Process p : processes)
+            p.waitFor();
+    }
+
+    private static void testPipelineArguments() throws Exception {
+        try {
+            ProcessBuilder.startPipeline(Arrays.asList(
+                sh("true").redirectOutput(Redirect.INHERIT), sh("cat")));
+            fail("non-PIPE output accepted in a pipeline");
+        } catch (IllegalArgumentException expected) { }
+        try {
+            ProcessBuilder.startPipeline(Arrays.asList(
+                sh("true"), sh("cat").redirectInput(Redirect.CHANNEL)));
+            fail("non-PIPE input accepted in a pipeline");
+        } catch (IllegalArgumentException expected) { }
+        try {
+            ProcessBuilder.startPipeline(Arrays.asList(sh("true"), null));
+            fail("null builder accepted");
+        } catch (NullPointerException expected) { }
+    }
+
+    /*
+     * Reads a channel to its end in non-blocking mode.
+     */
+    private static String readAll(Pipe.SourceChannel ch) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ByteBuffer bb = ByteBuffer.allocate(64);
+        ch.configureBlocking(false);
+        try (Selector sel = Selector.open()) {
+            ch.register(sel, SelectionKey.OP_READ);
+            while (true) {
+                sel.select(30000);
+                int n = ch.read(bb);
+                if (n < 0)
+                    break;
+                bytes.write(bb.array(), 0, bb.position());
+                bb.clear();
+            }
+        }
+        ch.close();
+        return bytes.toString("US-ASCII");
+    }
+
+    private static String readAll(InputStream in) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buf = new byte[64];
+        int n;
+        while ((n = in.read(buf)) > 0)
+            bytes.write(buf, 0, n);
+        in.close();
+        return bytes.toString("US-ASCII");
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok)
+            fail(what);
+    }
+
+    private static void fail(String what) {
+        System.err.println("Failed: " + what);
+        failures++;
+    }
+}
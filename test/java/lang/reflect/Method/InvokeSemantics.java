@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary Method.invoke and Constructor.newInstance keep the core
+ *          reflection semantics when they use method handles
+ * @run main InvokeSemantics
+ * @run main/othervm -Dsun.reflect.useMethodHandles=false InvokeSemantics
+ */
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+public class InvokeSemantics {
+
+    public static class Target {
+        public int value;
+
+        public Target() { }
+        public Target(int value) { this.value = value; }
+        public Target(String s) throws Exception { throw new Exception(s); }
+
+        public int add(int a, int b) { return a + b; }
+        public long widen(long l) { return l; }
+        public double widen(double d) { return d; }
+        public void nothing() { }
+        public static String concat(String ... parts) {
+            StringBuilder sb = new StringBuilder();
+            for (String p : parts)
+                sb.append(p);
+            return sb.toString();
+        }
+        public void checked() throws Exception { throw new Exception("checked"); }
+        public void unchecked() { throw new IllegalStateException("unchecked"); }
+        public void error() { throw new AssertionError("error"); }
+        public void cce() { Object o = "x"; ((Integer) o).intValue(); }
+    }
+
+    public static class SubTarget extends Target { }
+
+    public static abstract class Abstract {
+        public Abstract() { }
+    }
+
+    public static class BadInit {
+        static {
+            if (true)
+                throw new RuntimeException("init");
+        }
+        public static void run() { }
+    }
+
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        // Run often enough to pass any inflation threshold
+        for (int i = 0; i < 50; i++)
+            test();
+        testInitializer();
+        if (failures > 0)
+            throw new RuntimeException(failures + " failures");
+    }
+
+    private static void test() throws Exception {
+        Target t = new Target();
+        Method add = Target.class.getMethod("add", int.class, int.class);
+        check(add.invoke(t, 2, 3).equals(5), "add");
+        check(add.invoke(new SubTarget(), (byte) 2, 'a').equals(99), "widening arguments");
+        check(Target.class.getMethod("widen", long.class).invoke(t, 7).equals(7L),
+              "int to long");
+        check(Target.class.getMethod("widen", double.class).invoke(t, 1.5f).equals(1.5),
+              "float to double");
+        check(Target.class.getMethod("nothing").invoke(t) == null, "void returns null");
+        check(Target.class.getMethod("concat", String[].class)
+                  .invoke(null, (Object) new String[] {"a", "b"}).equals("ab"),
+              "varargs as array");
+        check(Class.class.getMethod("forName", String.class)
+                  .invoke(null, "java.lang.String") == String.class,
+              "caller-sensitive method");
+
+        expectIAE(add, t, 1L, 2);
+        expectIAE(add, t, "1", 2);
+        expectIAE(add, t, null, 2);
+        expectIAE(add, t, 1);
+        expectIAE(add, t, 1, 2, 3);
+        expectIAE(add, "not a target", 1, 2);
+        try {
+            add.invoke(null, 1, 2);
+            fail("null receiver");
+        } catch (NullPointerException expected) { }
+
+        expectTarget(Target.class.getMethod("checked"), t, Exception.class);
+        expectTarget(Target.class.getMethod("unchecked"), t, IllegalStateException.class);
+        expectTarget(Target.class.getMethod("error"), t, AssertionError.class);
+        // A ClassCastException thrown by the method itself is its own
+        expectTarget(Target.class.getMethod("cce"), t, ClassCastException.class);
+
+        Constructor<Target> c = Target.class.getConstructor(int.class);
+        check(c.newInstance(4).value == 4, "constructor");
+        check(c.newInstance((short) 4).value == 4, "constructor widening");
+        try {
+            c.newInstance("4");
+            fail("constructor with wrong argument");
+        } catch (IllegalArgumentException expected) { }
+        try {
+            Target.class.getConstructor(String.class).newInstance("ctor");
+            fail("throwing constructor");
+        } catch (InvocationTargetException e) {
+            check(e.getCause().getMessage().equals("ctor"), "constructor cause");
+        }
+        try {
+            Abstract.class.getConstructor().newInstance();
+            fail("abstract class instantiated");
+        } catch (InstantiationException expected) { }
+    }
+
+    private static void testInitializer() throws Exception {
+        Method run = BadInit.class.getMethod("run");
+        try {
+            run.invoke(null);
+            fail("initializer did not fail");
+        } catch (ExceptionInInitializerError expected) {
+        } catch (InvocationTargetException e) {
+            fail("initializer error wrapped: " + e.getCause());
+        }
+    }
+
+    private static void expectIAE(Method m, Object receiver, Object ... args)
+        throws Exception {
+        try {
+            m.invoke(receiver, args);
+            fail(m.getName() + " accepted bad arguments");
+        } catch (IllegalArgumentException expected) { }
+    }
+
+    private static void expectTarget(Method m, Object receiver,
+                                     Class<? extends Throwable> cause)
+        throws Exception {
+        try {
+            m.invoke(receiver);
+            fail(m.getName() + " did not throw");
+        } catch (InvocationTargetException e) {
+            check(cause.isInstance(e.getCause()), m.getName() + " cause " + e.getCause());
+        }
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok)
+            fail(what);
+    }
+
+    private static void fail(String what) {
+        System.err.println("Failed: " + what);
+        failures++;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary Idle connections are closed once their keep-alive time elapses,
+ *          or when their socket is shut down
+ * @build LoopbackServer
+ * @run main IdleEviction
+ */
+
+import java.net.HttpConnectionPool;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+public class IdleEviction {
+    static int failures;
+
+    static void check(boolean ok, String what) {
+        if (!ok) {
+            System.err.println("FAILED: " + what);
+            failures++;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        try (LoopbackServer server = new LoopbackServer()) {
+            testKeepAlive(server);
+            testEvictor(server);
+            testShutdown(server);
+        }
+        if (failures > 0)
+            throw new RuntimeException(failures + " check(s) failed");
+    }
+
+    // an idle connection is reused within its keep-alive time, not after it
+    static void testKeepAlive(LoopbackServer server) throws Exception {
+        HttpConnectionPool pool =
+            new HttpConnectionPool("test", 5, 500, TimeUnit.MILLISECONDS);
+        try {
+            URL url = server.url("/");
+            int accepted = server.acceptedCount();
+            LoopbackServer.get(pool, url);
+            LoopbackServer.get(pool, url);
+            check(pool.getHitCount() == 1, "hit count " + pool.getHitCount());
+            check(server.acceptedCount() == accepted + 1,
+                  "connections accepted " + (server.acceptedCount() - accepted));
+
+            Thread.sleep(600);
+            pool.evictIdleConnections();
+            check(pool.getIdleEvictionCount() == 1,
+                  "idle eviction count " + pool.getIdleEvictionCount());
+            check(pool.getIdleConnectionCount() == 0,
+                  "idle count " + pool.getIdleConnectionCount());
+            check(pool.getConnectionCount() == 0,
+                  "connection count " + pool.getConnectionCount());
+            check(pool.getRouteCount() == 0, "route count " + pool.getRouteCount());
+
+            LoopbackServer.get(pool, url);
+            check(pool.getMissCount() == 2, "miss count " + pool.getMissCount());
+        } finally {
+            pool.close();
+        }
+    }
+
+    // the background thread evicts without further use of the pool
+    static void testEvictor(LoopbackServer server) throws Exception {
+        HttpConnectionPool pool =
+            new HttpConnectionPool("test", 5, 200, TimeUnit.MILLISECONDS);
+        try {
+            URL url = server.url("/");
+            LoopbackServer.get(pool, url);
+            check(pool.getIdleConnectionCount() == 1,
+                  "idle count " + pool.getIdleConnectionCount());
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (pool.getIdleConnectionCount() > 0 &&
+                   System.nanoTime() < deadline)
+                Thread.sleep(50);
+            check(pool.getIdleConnectionCount() == 0,
+                  "idle connection not evicted by the background thread");
+            check(pool.getIdleEvictionCount() == 1,
+                  "idle eviction count " + pool.getIdleEvictionCount());
+        } finally {
+            pool.close();
+        }
+    }
+
+    // an idle connection whose socket was shut down is not handed out
+    static void testShutdown(LoopbackServer server) throws Exception {
+        HttpConnectionPool pool =
+            new HttpConnectionPool("test", 5, 60, TimeUnit.SECONDS);
+        try {
+            URL url = server.url("/");
+            HttpConnectionPool.Connection c = pool.acquire(url, null, "GET", 0);
+            LoopbackServer.sendRequest(c, url);
+            LoopbackServer.readResponse(c);
+            c.getSocket().shutdownInput();
+            c.release();
+
+            LoopbackServer.get(pool, url);
+            check(pool.getHitCount() == 0, "hit count " + pool.getHitCount());
+            check(pool.getMissCount() == 2, "miss count " + pool.getMissCount());
+            check(pool.getIdleEvictionCount() == 1,
+                  "idle eviction count " + pool.getIdleEvictionCount());
+            check(pool.getConnectionCount() == 1,
+                  "connection count " + pool.getConnectionCount());
+        } finally {
+            pool.close();
+        }
+        check(pool.getConnectionCount() == 0,
+              "connection count after close " + pool.getConnectionCount());
+    }
+}
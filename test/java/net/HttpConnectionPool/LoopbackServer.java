@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpConnectionPool;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A minimal HTTP/1.1 server on the loopback interface, used by the
+ * HttpConnectionPool tests. It answers each request on a connection, in
+ * order, with a response whose body is the path of the request.
+ */
+public class LoopbackServer implements Runnable, AutoCloseable {
+    private final ServerSocket listener;
+    private final AtomicInteger accepted = new AtomicInteger();
+
+    public LoopbackServer() throws IOException {
+        listener = new ServerSocket();
+        listener.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        Thread t = new Thread(this);
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Returns the URL of the given path on this server.
+     */
+    public URL url(String path) throws IOException {
+        return new URL("http", listener.getInetAddress().getHostAddress(),
+                       listener.getLocalPort(), path);
+    }
+
+    /**
+     * Returns the number of connections accepted so far.
+     */
+    public int acceptedCount() {
+        return accepted.get();
+    }
+
+    public void close() throws IOException {
+        listener.close();
+    }
+
+    public void run() {
+        try {
+            for (;;) {
+                final Socket s = listener.accept();
+                accepted.incrementAndGet();
+                Thread t = new Thread(new Runnable() {
+                    public void run() {
+                        serve(s);
+                    }
+                });
+                t.setDaemon(true);
+                t.start();
+            }
+        } catch (IOException x) {
+            // closed
+        }
+    }
+
+    private static void serve(Socket s) {
+        try (Socket sock = s) {
+            InputStream in = new BufferedInputStream(sock.getInputStream());
+            OutputStream out = sock.getOutputStream();
+            String line;
+            while ((line = readLine(in)) != null) {
+                String path = line.split(" ")[1];
+                while (!readLine(in).isEmpty()) { }
+                byte[] body = path.getBytes("US-ASCII");
+                String head = "HTTP/1.1 200 OK\r\n" +
+                              "Content-Length: " + body.length + "\r\n\r\n";
+                out.write(head.getBytes("US-ASCII"));
+                out.write(body);
+                out.flush();
+            }
+        } catch (IOException x) {
+            // connection closed by the client
+        }
+    }
+
+    /**
+     * Reads a CRLF terminated line, or returns null at end of stream.
+     */
+    static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int c;
+        while ((c = in.read()) != '\n') {
+            if (c == -1)
+                return null;
+            if (c != '\r')
+                line.write(c);
+        }
+        return line.toString("US-ASCII");
+    }
+
+    /**
+     * Writes a GET request for the given path to the connection and marks
+     * it as sent.
+     */
+    static void sendRequest(HttpConnectionPool.Connection c, URL url)
+        throws IOException
+    {
+        String request = "GET " + url.getPath() + " HTTP/1.1\r\n" +
+                         "Host: " + url.getHost() + ":" + url.getPort() +
+                         "\r\n\r\n";
+        c.getOutputStream().write(request.getBytes("US-ASCII"));
+        c.requestSent();
+    }
+
+    /**
+     * Waits for and reads a response from the connection, and returns its
+     * body.
+     */
+    static String readResponse(HttpConnectionPool.Connection c)
+        throws IOException
+    {
+        c.awaitResponse();
+        InputStream in = c.getInputStream();
+        String status = readLine(in);
+        if (status == null || !status.startsWith("HTTP/1.1 200"))
+            throw new IOException("Unexpected status: " + status);
+        int length = -1;
+        String line;
+        while (!(line = readLine(in)).isEmpty()) {
+            if (line.toLowerCase().startsWith("content-length:"))
+                length = Integer.parseInt(line.substring(15).trim());
+        }
+        byte[] body = new byte[length];
+        int n = 0;
+        while (n < length) {
+            int r = in.read(body, n, length - n);
+            if (r == -1)
+                throw new IOException("Unexpected end of stream");
+            n += r;
+        }
+        return new String(body, "US-ASCII");
+    }
+
+    /**
+     * Performs one GET exchange on a connection acquired from the pool and
+     * releases it. Returns the body of the response.
+     */
+    static String get(HttpConnectionPool pool, URL url) throws IOException {
+        HttpConnectionPool.Connection c = pool.acquire(url, null, "GET", 10000);
+        try {
+            sendRequest(c, url);
+            String body = readResponse(c);
+            c.release();
+            return body;
+        } finally {
+            c.discard();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary Requests beyond the maximum number of connections per route wait
+ *          for a connection to be released
+ * @build LoopbackServer
+ * @run main MaxPerRoute
+ */
+
+import java.net.HttpConnectionPool;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class MaxPerRoute {
+    static int failures;
+
+    static void check(boolean ok, String what) {
+        if (!ok) {
+            System.err.println("FAILED: " + what);
+            failures++;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        ExecutorService pool = Executors.newCachedThreadPool();
+        try (LoopbackServer server = new LoopbackServer()) {
+            testWait(server, pool);
+            testTimeout(server);
+        } finally {
+            pool.shutdown();
+        }
+        if (failures > 0)
+            throw new RuntimeException(failures + " check(s) failed");
+    }
+
+    // a second request waits for the only connection, and then reuses it
+    static void testWait(LoopbackServer server, ExecutorService executor)
+        throws Exception
+    {
+        final HttpConnectionPool pool =
+            new HttpConnectionPool("test", 1, 60, TimeUnit.SECONDS);
+        try {
+            final URL a = server.url("/a");
+            final URL b = server.url("/b");
+            HttpConnectionPool.Connection first = pool.acquire(a, null, "GET", 0);
+            LoopbackServer.sendRequest(first, a);
+
+            Future<String> second = executor.submit(new Callable<String>() {
+                public String call() throws Exception {
+                    return LoopbackServer.get(pool, b);
+                }
+            });
+            try {
+                second.get(500, TimeUnit.MILLISECONDS);
+                check(false, "second request did not wait");
+            } catch (TimeoutException expected) { }
+            check(pool.getWaitCount() == 1, "wait count " + pool.getWaitCount());
+            check(pool.getConnectionCount() == 1,
+                  "connection count " + pool.getConnectionCount());
+
+            check(LoopbackServer.readResponse(first).equals("/a"), "first response");
+            first.release();
+            check(second.get(10, TimeUnit.SECONDS).equals("/b"), "second response");
+
+            check(server.acceptedCount() == 1,
+                  "connections accepted " + server.acceptedCount());
+            check(pool.getMissCount() == 1, "miss count " + pool.getMissCount());
+            check(pool.getHitCount() == 1, "hit count " + pool.getHitCount());
+            check(pool.getIdleConnectionCount() == 1,
+                  "idle count " + pool.getIdleConnectionCount());
+        } finally {
+            pool.close();
+        }
+    }
+
+    // a request that cannot get a connection in time fails
+    static void testTimeout(LoopbackServer server) throws Exception {
+        HttpConnectionPool pool =
+            new HttpConnectionPool("test", 2, 60, TimeUnit.SECONDS);
+        try {
+            URL url = server.url("/");
+            HttpConnectionPool.Connection c1 = pool.acquire(url, null, "GET", 0);
+            HttpConnectionPool.Connection c2 = pool.acquire(url, null, "GET", 0);
+            long start = System.nanoTime();
+            try {
+                pool.acquire(url, null, "GET", 200);
+                check(false, "acquire did not time out");
+            } catch (SocketTimeoutException expected) {
+                long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                check(waited >= 150, "timed out after " + waited + "ms");
+            }
+            check(pool.getConnectionCount() == 2,
+                  "connection count " + pool.getConnectionCount());
+            c1.discard();
+            c2.discard();
+            check(pool.getConnectionCount() == 0,
+                  "connection count after discard " + pool.getConnectionCount());
+            check(pool.getRouteCount() == 0,
+                  "route count after discard " + pool.getRouteCount());
+        } finally {
+            pool.close();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary Pipelined requests share a connection and their responses are
+ *          read in the order in which the requests were sent
+ * @build LoopbackServer
+ * @run main Pipelining
+ */
+
+import java.io.IOException;
+import java.net.HttpConnectionPool;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class Pipelining {
+    static int failures;
+
+    static void check(boolean ok, String what) {
+        if (!ok) {
+            System.err.println("FAILED: " + what);
+            failures++;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try (LoopbackServer server = new LoopbackServer()) {
+            testOrder(server, executor);
+            testNotBehindUnsafe(server);
+            testNotOnNewConnection(server);
+            testDiscard(server);
+        } finally {
+            executor.shutdown();
+        }
+        if (failures > 0)
+            throw new RuntimeException(failures + " check(s) failed");
+    }
+
+    static HttpConnectionPool newPool() {
+        HttpConnectionPool pool =
+            new HttpConnectionPool("test", 1, 60, TimeUnit.SECONDS);
+        pool.setPipelineDepth(3);
+        return pool;
+    }
+
+    // three requests on one connection, answered in order
+    static void testOrder(LoopbackServer server, ExecutorService executor)
+        throws Exception
+    {
+        HttpConnectionPool pool = newPool();
+        try {
+            int accepted = server.acceptedCount();
+            LoopbackServer.get(pool, server.url("/0"));
+
+            URL u1 = server.url("/1");
+            URL u2 = server.url("/2");
+            URL u3 = server.url("/3");
+            HttpConnectionPool.Connection c1 = pool.acquire(u1, null, "GET", 0);
+            LoopbackServer.sendRequest(c1, u1);
+            HttpConnectionPool.Connection c2 = pool.acquire(u2, null, "GET", 0);
+            LoopbackServer.sendRequest(c2, u2);
+            final HttpConnectionPool.Connection c3 = pool.acquire(u3, null, "GET", 0);
+            LoopbackServer.sendRequest(c3, u3);
+            check(pool.getPipelinedCount() == 2,
+                  "pipelined count " + pool.getPipelinedCount());
+            check(c1.getSocket() == c2.getSocket() && c2.getSocket() == c3.getSocket(),
+                  "requests not on the same connection");
+
+            Future<String> third = executor.submit(new Callable<String>() {
+                public String call() throws Exception {
+                    String body = LoopbackServer.readResponse(c3);
+                    c3.release();
+                    return body;
+                }
+            });
+            try {
+                third.get(500, TimeUnit.MILLISECONDS);
+                check(false, "third response read before the first two");
+            } catch (TimeoutException expected) { }
+
+            try {
+                c2.getInputStream();
+                check(false, "second response readable before the first");
+            } catch (IllegalStateException expected) { }
+            try {
+                c2.release();
+                check(false, "second connection released before the first");
+            } catch (IllegalStateException expected) { }
+
+            check(LoopbackServer.readResponse(c1).equals("/1"), "first response");
+            c1.release();
+            check(LoopbackServer.readResponse(c2).equals("/2"), "second response");
+            c2.release();
+            check(third.get(10, TimeUnit.SECONDS).equals("/3"), "third response");
+
+            check(server.acceptedCount() == accepted + 1,
+                  "connections accepted " + (server.acceptedCount() - accepted));
+            check(pool.getIdleConnectionCount() == 1,
+                  "idle count " + pool.getIdleConnectionCount());
+        } finally {
+            pool.close();
+        }
+    }
+
+    // nothing is pipelined behind a non-idempotent request, and a
+    // non-idempotent request is not pipelined
+    static void testNotBehindUnsafe(LoopbackServer server) throws Exception {
+        HttpConnectionPool pool = newPool();
+        try {
+            URL url = server.url("/p");
+            LoopbackServer.get(pool, url);
+
+            HttpConnectionPool.Connection c1 = pool.acquire(url, null, "POST", 0);
+            LoopbackServer.sendRequest(c1, url);
+            try {
+                pool.acquire(url, null, "GET", 200);
+                check(false, "GET pipelined behind POST");
+            } catch (SocketTimeoutException expected) { }
+            LoopbackServer.readResponse(c1);
+            c1.release();
+
+            HttpConnectionPool.Connection c2 = pool.acquire(url, null, "GET", 0);
+            LoopbackServer.sendRequest(c2, url);
+            try {
+                pool.acquire(url, null, "POST", 200);
+                check(false, "POST pipelined");
+            } catch (SocketTimeoutException expected) { }
+            LoopbackServer.readResponse(c2);
+            c2.release();
+
+            check(pool.getPipelinedCount() == 0,
+                  "pipelined count " + pool.getPipelinedCount());
+        } finally {
+            pool.close();
+        }
+    }
+
+    // requests are not pipelined on a connection that has not yet been
+    // kept alive by the server
+    static void testNotOnNewConnection(LoopbackServer server) throws Exception {
+        HttpConnectionPool pool = newPool();
+        try {
+            URL url = server.url("/n");
+            HttpConnectionPool.Connection c1 = pool.acquire(url, null, "GET", 0);
+            LoopbackServer.sendRequest(c1, url);
+            try {
+                pool.acquire(url, null, "GET", 200);
+                check(false, "pipelined on a new connection");
+            } catch (SocketTimeoutException expected) { }
+            LoopbackServer.readResponse(c1);
+            c1.release();
+        } finally {
+            pool.close();
+        }
+    }
+
+    // discarding a connection fails the requests pipelined behind it
+    static void testDiscard(LoopbackServer server) throws Exception {
+        HttpConnectionPool pool = newPool();
+        try {
+            URL url = server.url("/d");
+            LoopbackServer.get(pool, url);
+
+            HttpConnectionPool.Connection c1 = pool.acquire(url, null, "GET", 0);
+            LoopbackServer.sendRequest(c1, url);
+            HttpConnectionPool.Connection c2 = pool.acquire(url, null, "GET", 0);
+            LoopbackServer.sendRequest(c2, url);
+            c1.discard();
+            try {
+                c2.awaitResponse();
+                check(false, "pipelined request not failed");
+            } catch (IOException expected) { }
+            c2.release();
+            check(pool.getConnectionCount() == 0,
+                  "connection count " + pool.getConnectionCount());
+
+            // the request can be retried on a new connection
+            check(LoopbackServer.get(pool, url).equals("/d"), "retried request");
+        } finally {
+            pool.close();
+        }
+    }
+}
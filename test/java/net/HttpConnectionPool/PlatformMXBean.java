@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary The platform HttpConnectionPoolMXBean reports the statistics of
+ *          the default connection pool
+ * @build LoopbackServer
+ * @run main/othervm PlatformMXBean
+ */
+
+import java.lang.management.ManagementFactory;
+import java.net.HttpConnectionPool;
+import java.net.HttpConnectionPoolMXBean;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class PlatformMXBean {
+    static int failures;
+
+    static void check(boolean ok, String what) {
+        if (!ok) {
+            System.err.println("FAILED: " + what);
+            failures++;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        check(ManagementFactory.getPlatformManagementInterfaces()
+                  .contains(HttpConnectionPoolMXBean.class),
+              "not a platform management interface");
+
+        HttpConnectionPoolMXBean mbean =
+            ManagementFactory.getPlatformMXBean(HttpConnectionPoolMXBean.class);
+        ObjectName on = new ObjectName("java.net:type=HttpConnectionPool");
+        check(mbean != null, "no platform mxbean");
+        check(on.equals(mbean.getObjectName()), "object name " + mbean.getObjectName());
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        check(mbs.isRegistered(on), "not registered");
+
+        HttpConnectionPool pool =
+            new HttpConnectionPool("test", 3, 60, TimeUnit.SECONDS);
+        HttpConnectionPool.setDefault(pool);
+        try (LoopbackServer server = new LoopbackServer()) {
+            LoopbackServer.get(pool, server.url("/"));
+            LoopbackServer.get(pool, server.url("/"));
+        }
+        check("test".equals(mbean.getName()), "name " + mbean.getName());
+        check(mbean.getMaxConnectionsPerRoute() == 3,
+              "max connections " + mbean.getMaxConnectionsPerRoute());
+        check(mbean.getHitCount() == 1, "hit count " + mbean.getHitCount());
+        check(mbean.getMissCount() == 1, "miss count " + mbean.getMissCount());
+        check(Long.valueOf(1L).equals(mbs.getAttribute(on, "HitCount")),
+              "HitCount attribute " + mbs.getAttribute(on, "HitCount"));
+        pool.close();
+
+        HttpConnectionPool.setDefault(null);
+        check(mbean.getName() == null, "name without a pool " + mbean.getName());
+        check(mbean.getHitCount() == 0, "hit count without a pool");
+
+        if (failures > 0)
+            throw new RuntimeException(failures + " check(s) failed");
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary Concurrent lookups of the same host wait for a single name
+ *          service lookup
+ * @run main/othervm -Djdk.net.hosts.file=CoalescedLookups.fifo
+ *      -Dsun.net.inetaddr.ttl=60 CoalescedLookups
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CoalescedLookups {
+
+    static final String HOST = "coalesced.test";
+    static final int THREADS = 8;
+
+    public static void main(String[] args) throws Exception {
+        // The hosts file is a named pipe, so that every time the name
+        // service reads it, it blocks until this test writes to it
+        File fifo = new File(System.getProperty("jdk.net.hosts.file"));
+        fifo.delete();
+        Process p = new ProcessBuilder("mkfifo", fifo.getPath())
+            .redirectErrorStream(true).start();
+        if (p.waitFor() != 0 || !fifo.exists()) {
+            System.out.println("mkfifo not available, test skipped");
+            return;
+        }
+
+        final CountDownLatch started = new CountDownLatch(THREADS);
+        final AtomicInteger found = new AtomicInteger();
+        Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            threads[i] = new Thread() {
+                public void run() {
+                    started.countDown();
+                    try {
+                        InetAddress ia = InetAddress.getByName(HOST);
+                        if (ia.getHostAddress().equals("10.0.0.3"))
+                            found.incrementAndGet();
+                        else
+                            System.err.println("Unexpected address " + ia);
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
+            };
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+        started.await();
+        Thread.sleep(1000);
+
+        // Answer one read of the hosts file; were the lookups not shared,
+        // the others would fail or stay blocked
+        try (OutputStream out = new FileOutputStream(fifo)) {
+            out.write(("10.0.0.3 " + HOST + "\n").getBytes("US-ASCII"));
+        }
+        for (Thread t : threads)
+            t.join(10000);
+        fifo.delete();
+        if (found.get() != THREADS)
+            throw new RuntimeException(found.get() + " of " + THREADS
+                                       + " lookups returned the address");
+    }
+}
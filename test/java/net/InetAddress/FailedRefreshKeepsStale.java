@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary An expired address is kept while looking the host up again
+ *          fails, until the stale period is over
+ * @run main/othervm -Djdk.net.hosts.file=FailedRefreshKeepsStale.hosts
+ *      -Dsun.net.inetaddr.ttl=1 -Dsun.net.inetaddr.stale.ttl=3
+ *      FailedRefreshKeepsStale
+ */
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+public class FailedRefreshKeepsStale {
+
+    static final String HOST = "failed.test";
+    static final File HOSTS = new File(System.getProperty("jdk.net.hosts.file"));
+
+    public static void main(String[] args) throws Exception {
+        writeHosts("10.0.0.1 " + HOST);
+        long start = System.currentTimeMillis();
+        check(InetAddress.getByName(HOST), "10.0.0.1");
+
+        // The host can no longer be found, but within the stale period
+        // the old address is returned however often the lookup fails
+        writeHosts("# " + HOST + " is gone");
+        sleepUntil(start + 1500);
+        while (System.currentTimeMillis() < start + 3500) {
+            check(InetAddress.getByName(HOST), "10.0.0.1");
+            Thread.sleep(200);
+        }
+
+        // Once it is over, the failure is reported
+        sleepUntil(start + 5000);
+        try {
+            InetAddress ia = InetAddress.getByName(HOST);
+            throw new RuntimeException(ia + " returned after the stale period");
+        } catch (UnknownHostException expected) { }
+    }
+
+    static void sleepUntil(long time) throws InterruptedException {
+        long now;
+        while ((now = System.currentTimeMillis()) < time)
+            Thread.sleep(time - now);
+    }
+
+    static void writeHosts(String line) throws IOException {
+        try (FileWriter out = new FileWriter(HOSTS)) {
+            out.write(line + "\n");
+        }
+    }
+
+    static void check(InetAddress ia, String expected) {
+        if (!ia.getHostAddress().equals(expected))
+            throw new RuntimeException(ia + ", expected " + expected);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary An expired address is returned while it is looked up again in
+ *          the background, and is then replaced by the new address
+ * @run main/othervm -Djdk.net.hosts.file=StaleWhileRefresh.hosts
+ *      -Dsun.net.inetaddr.ttl=1 -Dsun.net.inetaddr.stale.ttl=60
+ *      StaleWhileRefresh
+ */
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.InetAddress;
+
+public class StaleWhileRefresh {
+
+    static final String HOST = "stale.test";
+    static final File HOSTS = new File(System.getProperty("jdk.net.hosts.file"));
+
+    public static void main(String[] args) throws Exception {
+        writeHosts("10.0.0.1 " + HOST);
+        check(InetAddress.getByName(HOST), "10.0.0.1");
+
+        // Once the entry has expired, the old address is still returned
+        // straight away, while the host is looked up again
+        writeHosts("10.0.0.2 " + HOST);
+        Thread.sleep(1500);
+        check(InetAddress.getByName(HOST), "10.0.0.1");
+
+        // The refresh replaces the entry in the background
+        long deadline = System.currentTimeMillis() + 10000;
+        String address;
+        do {
+            Thread.sleep(50);
+            address = InetAddress.getByName(HOST).getHostAddress();
+        } while (!address.equals("10.0.0.2")
+                 && System.currentTimeMillis() < deadline);
+        check(InetAddress.getByName(HOST), "10.0.0.2");
+    }
+
+    static void writeHosts(String line) throws IOException {
+        try (FileWriter out = new FileWriter(HOSTS)) {
+            out.write(line + "\n");
+        }
+    }
+
+    static void check(InetAddress ia, String expected) {
+        if (!ia.getHostAddress().equals(expected))
+            throw new RuntimeException(ia + ", expected " + expected);
+    }
+}
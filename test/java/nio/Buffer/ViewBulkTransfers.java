@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+
+/*
+ * @test
+ * @summary Bulk transfers through views of sliced and array-offset heap
+ *          byte buffers must access the bytes of the view
+ */
+
+import java.nio.*;
+
+public class ViewBulkTransfers {
+
+    private static int failures;
+
+    public static void main(String[] args) {
+        // The view of a slice taken at a non-zero position
+        byte[] a = new byte[64];
+        ByteBuffer bb = ByteBuffer.wrap(a);
+        bb.position(48);
+        bb.slice().asLongBuffer().put(new long[] { 1L, 2L });
+        check("slice at 48", bb.getLong(48) == 1L && bb.getLong(56) == 2L);
+
+        for (ByteOrder order : new ByteOrder[] { ByteOrder.BIG_ENDIAN,
+                                                 ByteOrder.LITTLE_ENDIAN }) {
+            // A slice of a buffer that wraps part of an array, so that
+            // the view's bytes start 24 bytes into the array
+            byte[] b = new byte[80];
+            ByteBuffer wrapped = ByteBuffer.wrap(b, 8, 64).slice();
+            wrapped.position(16);
+            testViews(b, 24, wrapped.slice().order(order));
+        }
+
+        if (failures > 0)
+            throw new RuntimeException(failures + " failures");
+    }
+
+    // Bulk puts through a view of each type, then checks the bytes of the
+    // backing array and reads them back with a bulk get.  The bytes of bb
+    // start at index start of the array, which is otherwise zero.
+    private static void testViews(byte[] array, int start, ByteBuffer bb) {
+        String o = " " + bb.order();
+        int n = bb.remaining();
+
+        long[] ls = new long[n / 8];
+        for (int i = 0; i < ls.length; i++)
+            ls[i] = 0x0102030405060708L * (i + 1);
+        bb.asLongBuffer().put(ls);
+        for (int i = 0; i < ls.length; i++)
+            check("long put" + o, bb.getLong(i * 8) == ls[i]);
+        long[] ld = new long[ls.length];
+        bb.asLongBuffer().get(ld);
+        check("long get" + o, java.util.Arrays.equals(ls, ld));
+        checkOutside(array, start, n, "long" + o);
+
+        double[] ds = new double[n / 8];
+        for (int i = 0; i < ds.length; i++)
+            ds[i] = 1.5 * (i + 1);
+        bb.asDoubleBuffer().put(ds);
+        for (int i = 0; i < ds.length; i++)
+            check("double put" + o, bb.getDouble(i * 8) == ds[i]);
+        double[] dd = new double[ds.length];
+        bb.asDoubleBuffer().get(dd);
+        check("double get" + o, java.util.Arrays.equals(ds, dd));
+        checkOutside(array, start, n, "double" + o);
+
+        int[] is = new int[n / 4];
+        for (int i = 0; i < is.length; i++)
+            is[i] = 0x01020304 * (i + 1);
+        bb.asIntBuffer().put(is);
+        for (int i = 0; i < is.length; i++)
+            check("int put" + o, bb.getInt(i * 4) == is[i]);
+        int[] id = new int[is.length];
+        bb.asIntBuffer().get(id);
+        check("int get" + o, java.util.Arrays.equals(is, id));
+        checkOutside(array, start, n, "int" + o);
+
+        float[] fs = new float[n / 4];
+        for (int i = 0; i < fs.length; i++)
+            fs[i] = 2.5f * (i + 1);
+        bb.asFloatBuffer().put(fs);
+        for (int i = 0; i < fs.length; i++)
+            check("float put" + o, bb.getFloat(i * 4) == fs[i]);
+        float[] fd = new float[fs.length];
+        bb.asFloatBuffer().get(fd);
+        check("float get" + o, java.util.Arrays.equals(fs, fd));
+        checkOutside(array, start, n, "float" + o);
+
+        short[] ss = new short[n / 2];
+        for (int i = 0; i < ss.length; i++)
+            ss[i] = (short)(0x0102 * (i + 1));
+        bb.asShortBuffer().put(ss);
+        for (int i = 0; i < ss.length; i++)
+            check("short put" + o, bb.getShort(i * 2) == ss[i]);
+        short[] sd = new short[ss.length];
+        bb.asShortBuffer().get(sd);
+        check("short get" + o, java.util.Arrays.equals(ss, sd));
+        checkOutside(array, start, n, "short" + o);
+
+        char[] cs = new char[n / 2];
+        for (int i = 0; i < cs.length; i++)
+            cs[i] = (char)(0x0102 * (i + 1));
+        bb.asCharBuffer().put(cs);
+        for (int i = 0; i < cs.length; i++)
+            check("char put" + o, bb.getChar(i * 2) == cs[i]);
+        char[] cd = new char[cs.length];
+        bb.asCharBuffer().get(cd);
+        check("char get" + o, java.util.Arrays.equals(cs, cd));
+        checkOutside(array, start, n, "char" + o);
+    }
+
+    // Checks that the bytes of the array outside [start, start + n) are zero
+    private static void checkOutside(byte[] array, int start, int n,
+                                     String what)
+    {
+        for (int i = 0; i < array.length; i++) {
+            if ((i < start || i >= start + n) && array[i] != 0) {
+                check(what + ": byte " + i + " outside the view written",
+                      false);
+                return;
+            }
+        }
+    }
+
+    private static void check(String what, boolean ok) {
+        if (!ok) {
+            System.err.println("Failed: " + what);
+            failures++;
+        }
+    }
+}
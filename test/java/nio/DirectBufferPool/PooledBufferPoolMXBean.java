@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary The buffers held by direct buffer pools are reported by the
+ *          "direct-pooled" BufferPoolMXBean
+ */
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.DirectBufferPool;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class PooledBufferPoolMXBean {
+
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        BufferPoolMXBean mbean = null;
+        for (BufferPoolMXBean m :
+                 ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (m.getName().equals("direct-pooled"))
+                mbean = m;
+        }
+        if (mbean == null)
+            throw new RuntimeException("direct-pooled BufferPoolMXBean not found");
+
+        DirectBufferPool pool = new DirectBufferPool();
+        long count = mbean.getCount();
+        long capacity = mbean.getTotalCapacity();
+        ByteBuffer small = pool.allocate(100);
+        ByteBuffer large = pool.allocate(2 * 1024 * 1024);
+        check("count", mbean.getCount(), count + 2);
+        check("total capacity", mbean.getTotalCapacity(),
+              capacity + 4096 + 2 * 1024 * 1024);
+        check("memory used", mbean.getMemoryUsed(), mbean.getTotalCapacity());
+        check("reserved memory", DirectBufferPool.getTotalReservedMemory(),
+              mbean.getTotalCapacity());
+        pool.release(small);
+        pool.release(large);
+
+        // Registered with the platform MBeanServer as well
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        ObjectName on = new ObjectName("java.nio:type=BufferPool,name=direct-pooled");
+        if (!mbean.getObjectName().equals(on) || !mbs.isRegistered(on)) {
+            System.err.println(on + " not registered");
+            failures++;
+        }
+
+        if (failures > 0)
+            throw new RuntimeException(failures + " failures");
+    }
+
+    private static void check(String what, long value, long expected) {
+        if (value != expected) {
+            System.err.println(what + ": " + value + ", expected " + expected);
+            failures++;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary The memory of a released buffer is not reused while the buffer,
+ *          or a view of it, is still reachable, and is reclaimed afterwards
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.DirectBufferPool;
+
+public class Reclaim {
+
+    private static final int SIZE = 4096;
+
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        DirectBufferPool pool = new DirectBufferPool(SIZE, SIZE, true);
+
+        // A released buffer keeps its content, whatever is allocated next
+        ByteBuffer a = pool.allocate(SIZE);
+        fill(a, (byte)1);
+        pool.release(a);
+        churn(pool);
+        check(a, (byte)1, "released buffer");
+
+        // So does a view of a released buffer
+        ByteBuffer b = pool.allocate(SIZE);
+        fill(b, (byte)3);
+        ByteBuffer view = b.duplicate();
+        pool.release(b);
+        b = null;
+        churn(pool);
+        check(view, (byte)3, "view of released buffer");
+
+        // Once unreachable, released buffers are taken back, and trim
+        // frees them
+        a = null;
+        view = null;
+        if (!reclaimed(pool)) {
+            System.err.println("released buffers not reclaimed: "
+                               + pool.getReservedMemory() + " bytes held");
+            failures++;
+        }
+
+        // A buffer never released is counted as leaked, and taken back
+        pool.allocate(SIZE);
+        if (!reclaimed(pool) || pool.getLeakCount() != 1) {
+            System.err.println("leaked buffer not reclaimed: "
+                               + pool.getReservedMemory() + " bytes held, "
+                               + pool.getLeakCount() + " leaks");
+            failures++;
+        }
+        if (pool.getMemoryInUse() != 0) {
+            System.err.println(pool.getMemoryInUse() + " bytes still in use");
+            failures++;
+        }
+
+        // Memory recycled by the pool is zeroed
+        ByteBuffer c = pool.allocate(SIZE);
+        check(c, (byte)0, "reused buffer");
+        pool.release(c);
+
+        if (failures > 0)
+            throw new RuntimeException(failures + " failures");
+    }
+
+    // Allocates, fills and releases buffers, collecting garbage in between
+    // so that any memory the pool may reuse is reused
+    private static void churn(DirectBufferPool pool) throws Exception {
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            Thread.sleep(10);
+            ByteBuffer bb = pool.allocate(SIZE);
+            fill(bb, (byte)2);
+            pool.release(bb);
+        }
+    }
+
+    // Waits for the pool to hold no memory after trimming
+    private static boolean reclaimed(DirectBufferPool pool) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            System.gc();
+            Thread.sleep(10);
+            pool.trim();
+            if (pool.getReservedMemory() == 0)
+                return true;
+        }
+        return false;
+    }
+
+    private static void fill(ByteBuffer bb, byte b) {
+        for (int i = 0; i < bb.capacity(); i++)
+            bb.put(i, b);
+    }
+
+    private static void check(ByteBuffer bb, byte b, String what) {
+        for (int i = 0; i < bb.capacity(); i++) {
+            if (bb.get(i) != b) {
+                System.err.println(what + ": byte " + i + " is " + bb.get(i)
+                                   + ", expected " + b);
+                failures++;
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+
+/*
+ * @test
+ * @summary Requests no larger than the smallest size class, including
+ *          zero-length requests, are served by the smallest size class
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.DirectBufferPool;
+
+public class SmallRequests {
+
+    private static int failures;
+
+    public static void main(String[] args) {
+        DirectBufferPool pool = new DirectBufferPool();
+        check(pool, 0, 0);
+        check(pool, 1, 0);
+        check(pool, 4096, 0);
+        check(pool, 4097, 1);
+        check(pool, 1024 * 1024, pool.getSizeClassCount() - 1);
+        check(pool, 1024 * 1024 + 1, -1);
+
+        // A minimum size that is not a power of two is rounded up
+        pool = new DirectBufferPool(3000, 8192, false);
+        check(pool, 0, 0);
+        check(pool, 4096, 0);
+        check(pool, 4097, 1);
+
+        // A single size class of one byte
+        pool = new DirectBufferPool(1, 1, true);
+        check(pool, 0, 0);
+        check(pool, 1, 0);
+        check(pool, 2, -1);
+
+        if (failures > 0)
+            throw new RuntimeException(failures + " failures");
+    }
+
+    // Allocates a buffer of the given capacity and checks that it is taken
+    // from the given size class, or from none if the index is negative
+    private static void check(DirectBufferPool pool, int capacity,
+                              int sizeClass)
+    {
+        int[] before = inUse(pool);
+        ByteBuffer bb = pool.allocate(capacity);
+        int[] after = inUse(pool);
+        if (bb.capacity() != capacity || bb.position() != 0
+            || bb.limit() != capacity || !bb.isDirect()) {
+            System.err.println("allocate(" + capacity + "): " + bb);
+            failures++;
+        }
+        for (int i = 0; i < before.length; i++) {
+            int expected = before[i] + (i == sizeClass ? 1 : 0);
+            if (after[i] != expected) {
+                System.err.println("allocate(" + capacity + "): size class "
+                                   + i + " has " + after[i]
+                                   + " buffers in use, expected " + expected);
+                failures++;
+            }
+        }
+        pool.release(bb);
+        if (pool.getMemoryInUse() != 0) {
+            System.err.println("release: " + pool.getMemoryInUse()
+                               + " bytes still in use");
+            failures++;
+        }
+    }
+
+    private static int[] inUse(DirectBufferPool pool) {
+        int[] n = new int[pool.getSizeClassCount()];
+        for (int i = 0; i < n.length; i++)
+            n[i] = pool.getBuffersInUse(i);
+        return n;
+    }
+}
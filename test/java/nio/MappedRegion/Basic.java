@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary Basic tests for MappedRegion: access, close while in use, and
+ *          scanning a file through a WindowReader
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedRegion;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import static java.nio.file.StandardOpenOption.*;
+
+public class Basic {
+
+    private static final int SIZE = 100;
+
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        Path file = Files.createTempFile("region", null);
+        try {
+            byte[] content = new byte[SIZE];
+            for (int i = 0; i < SIZE; i++)
+                content[i] = (byte)i;
+            Files.write(file, content);
+            try (FileChannel fc = FileChannel.open(file, READ, WRITE)) {
+                testAccess(fc, content);
+                testCloseWhileInUse(fc);
+                testWindowReader(fc);
+            }
+        } finally {
+            Files.delete(file);
+        }
+        if (failures > 0)
+            throw new RuntimeException(failures + " failures");
+    }
+
+    static void testAccess(FileChannel fc, byte[] content) throws IOException {
+        MappedRegion r = MappedRegion.map(fc, FileChannel.MapMode.READ_WRITE,
+                                          3, SIZE - 10);
+        ByteBuffer ref = ByteBuffer.wrap(content, 3, SIZE - 10).slice();
+        for (int i = 0; i + 8 <= r.size(); i++) {
+            if (r.getLong(i) != ref.getLong(i))
+                fail("getLong(" + i + ")");
+        }
+        r.order(ByteOrder.LITTLE_ENDIAN);
+        ref.order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i + 4 <= r.size(); i++) {
+            if (r.getInt(i) != ref.getInt(i))
+                fail("getInt(" + i + "), little-endian");
+        }
+        r.putLong(13, 0x1122334455667788L);
+        if (r.getLong(13) != 0x1122334455667788L || r.get(13) != (byte)0x88)
+            fail("putLong");
+        byte[] dst = new byte[8];
+        r.get(13, dst, 0, 8);
+        if (dst[0] != (byte)0x88 || dst[7] != (byte)0x11)
+            fail("bulk get");
+        r.put(13, content, 16, 8);
+        if (r.getLong(13) != ref.getLong(13))
+            fail("bulk put");
+        try {
+            r.getInt(r.size() - 3);
+            fail("getInt beyond the end");
+        } catch (IndexOutOfBoundsException expected) { }
+        try {
+            r.prefetch(1, r.size());
+            fail("prefetch beyond the end");
+        } catch (IndexOutOfBoundsException expected) { }
+        r.prefetch(0, r.size());
+        r.force();
+
+        r.close();
+        if (r.isOpen())
+            fail("isOpen after close");
+        try {
+            r.get(0);
+            fail("get after close");
+        } catch (IllegalStateException expected) { }
+        try {
+            r.prefetch(0, 1);
+            fail("prefetch after close");
+        } catch (IllegalStateException expected) { }
+        r.close();
+    }
+
+    // Closes a region while other threads keep reading it; every read
+    // either completes or throws IllegalStateException
+    static void testCloseWhileInUse(FileChannel fc) throws Exception {
+        final MappedRegion r =
+            MappedRegion.map(fc, FileChannel.MapMode.READ_ONLY, 0, SIZE);
+        final CountDownLatch started = new CountDownLatch(4);
+        final AtomicInteger errors = new AtomicInteger();
+        Thread[] readers = new Thread[4];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread() {
+                public void run() {
+                    started.countDown();
+                    try {
+                        for (long n = 0; ; n++) {
+                            if (r.get(n % SIZE) != (byte)(n % SIZE))
+                                errors.incrementAndGet();
+                        }
+                    } catch (IllegalStateException expected) {
+                    } catch (Throwable t) {
+                        t.printStackTrace();
+                        errors.incrementAndGet();
+                    }
+                }
+            };
+            readers[i].start();
+        }
+        started.await();
+        Thread.sleep(100);
+        r.close();
+        for (Thread t : readers)
+            t.join();
+        if (errors.get() > 0)
+            fail(errors.get() + " bad reads while closing");
+    }
+
+    // Scans the file in records of four bytes, which may not be split
+    // across windows
+    static void testWindowReader(FileChannel fc) throws IOException {
+        int position = 0;
+        int windows = 0;
+        try (MappedRegion.WindowReader reader =
+                 MappedRegion.newWindowReader(fc, 0, SIZE, 14)) {
+            MappedRegion previous = null;
+            MappedRegion window;
+            long consumed = 0;
+            while ((window = reader.next(consumed)) != null) {
+                if (previous != null && previous.isOpen())
+                    fail("previous window still open");
+                if (!window.isReadOnly())
+                    fail("window not read-only");
+                if (reader.windowPosition() != position)
+                    fail("window at " + reader.windowPosition()
+                         + ", expected " + position);
+                windows++;
+                for (consumed = 0; consumed + 4 <= window.size(); consumed += 4) {
+                    if (window.get(consumed) != (byte)position)
+                        fail("byte " + position);
+                    position += 4;
+                }
+                if (consumed == 0)
+                    break;
+                previous = window;
+            }
+            try {
+                reader.next(-1);
+                fail("next with a negative count");
+            } catch (IllegalArgumentException expected) { }
+        }
+        if (position != SIZE || windows != 9)
+            fail("scanned " + position + " bytes in " + windows + " windows");
+    }
+
+    static void fail(String msg) {
+        System.err.println("FAIL: " + msg);
+        failures++;
+    }
+}
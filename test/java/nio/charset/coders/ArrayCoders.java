@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary The array variants of CharsetDecoder.decode and
+ *          CharsetEncoder.encode agree with the buffer-based operations
+ */
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.*;
+import java.util.Arrays;
+import java.util.Random;
+
+public class ArrayCoders {
+
+    private static final CodingErrorAction[] ACTIONS = {
+        CodingErrorAction.REPLACE, CodingErrorAction.IGNORE,
+        CodingErrorAction.REPORT
+    };
+
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        // The first three have array fast paths, UTF-16 does not
+        Charset[] charsets = {
+            StandardCharsets.US_ASCII, StandardCharsets.ISO_8859_1,
+            StandardCharsets.UTF_8, StandardCharsets.UTF_16
+        };
+        Random rnd = new Random(42);
+        for (Charset cs : charsets) {
+            // One coder per action is reused throughout
+            CharsetDecoder[] decoders = new CharsetDecoder[ACTIONS.length];
+            CharsetEncoder[] encoders = new CharsetEncoder[ACTIONS.length];
+            for (int i = 0; i < ACTIONS.length; i++) {
+                decoders[i] = cs.newDecoder().onMalformedInput(ACTIONS[i])
+                                .onUnmappableCharacter(ACTIONS[i]);
+                encoders[i] = cs.newEncoder().onMalformedInput(ACTIONS[i])
+                                .onUnmappableCharacter(ACTIONS[i]);
+            }
+            for (int n = 0; n < 20000; n++) {
+                int len = rnd.nextInt(100);
+                int off = rnd.nextInt(9);
+                byte[] bytes = randomBytes(rnd, off + len);
+                char[] chars = randomChars(rnd, off + len);
+                for (CharsetDecoder cd : decoders)
+                    checkDecode(cd, bytes, off, len);
+                for (CharsetEncoder ce : encoders)
+                    checkEncode(ce, chars, off, len);
+            }
+            checkErrors(cs);
+        }
+        if (failures > 0)
+            throw new RuntimeException(failures + " failures");
+    }
+
+    // Mostly ASCII, with the odd continuation or lead byte of UTF-8
+    private static byte[] randomBytes(Random rnd, int n) {
+        byte[] b = new byte[n];
+        for (int i = 0; i < n; i++) {
+            int k = rnd.nextInt(100);
+            if (k < 90)
+                b[i] = (byte)rnd.nextInt(0x80);
+            else if (k < 95)
+                b[i] = (byte)(0x80 + rnd.nextInt(0x40));
+            else
+                b[i] = (byte)(0xc0 + rnd.nextInt(0x40));
+        }
+        return b;
+    }
+
+    // Mostly ASCII, with the odd Latin-1, BMP or surrogate char
+    private static char[] randomChars(Random rnd, int n) {
+        char[] c = new char[n];
+        for (int i = 0; i < n; i++) {
+            int k = rnd.nextInt(100);
+            if (k < 90)
+                c[i] = (char)rnd.nextInt(0x80);
+            else if (k < 93)
+                c[i] = (char)rnd.nextInt(0x100);
+            else if (k < 96)
+                c[i] = (char)(0xd800 + rnd.nextInt(0x800));
+            else
+                c[i] = (char)rnd.nextInt(0x10000);
+        }
+        return c;
+    }
+
+    private static void checkDecode(CharsetDecoder cd,
+                                    byte[] src, int off, int len)
+    {
+        String expected;
+        try {
+            expected = cd.decode(ByteBuffer.wrap(src, off, len)).toString();
+        } catch (CharacterCodingException x) {
+            expected = describe(x);
+        }
+        int dstOff = 3;
+        char[] dst = new char[dstOff
+                              + (int)Math.ceil(len * cd.maxCharsPerByte())];
+        String actual;
+        try {
+            int n = cd.decode(src, off, len, dst, dstOff);
+            actual = new String(dst, dstOff, n);
+        } catch (CharacterCodingException x) {
+            actual = describe(x);
+        }
+        if (!expected.equals(actual)) {
+            System.err.println(cd.charset() + " decode, "
+                               + cd.malformedInputAction() + ": "
+                               + Arrays.toString(Arrays.copyOfRange(src, off, off + len))
+                               + "\n  expected " + expected
+                               + "\n  actual   " + actual);
+            failures++;
+        }
+    }
+
+    private static void checkEncode(CharsetEncoder ce,
+                                    char[] src, int off, int len)
+    {
+        String expected;
+        try {
+            ByteBuffer bb = ce.encode(CharBuffer.wrap(src, off, len));
+            expected = Arrays.toString(Arrays.copyOf(bb.array(), bb.limit()));
+        } catch (CharacterCodingException x) {
+            expected = describe(x);
+        }
+        int dstOff = 2;
+        byte[] dst = new byte[dstOff
+                              + (int)Math.ceil(len * ce.maxBytesPerChar())];
+        String actual;
+        try {
+            int n = ce.encode(src, off, len, dst, dstOff);
+            actual = Arrays.toString(Arrays.copyOfRange(dst, dstOff, dstOff + n));
+        } catch (CharacterCodingException x) {
+            actual = describe(x);
+        }
+        if (!expected.equals(actual)) {
+            System.err.println(ce.charset() + " encode, "
+                               + ce.malformedInputAction() + ": "
+                               + Arrays.toString(Arrays.copyOfRange(src, off, off + len))
+                               + "\n  expected " + expected
+                               + "\n  actual   " + actual);
+            failures++;
+        }
+    }
+
+    private static String describe(CharacterCodingException x) {
+        int n = (x instanceof MalformedInputException)
+            ? ((MalformedInputException)x).getInputLength()
+            : ((UnmappableCharacterException)x).getInputLength();
+        return x.getClass().getSimpleName() + "(" + n + ")";
+    }
+
+    private static void checkErrors(Charset cs) throws Exception {
+        CharsetDecoder cd = cs.newDecoder();
+        CharsetEncoder ce = cs.newEncoder();
+        byte[] bytes = "hello, world".getBytes(cs);
+        char[] chars = "hello, world".toCharArray();
+
+        try {
+            cd.decode(bytes, 0, bytes.length, new char[4], 0);
+            fail(cs + ": decode overflow not detected");
+        } catch (BufferOverflowException expected) { }
+        try {
+            ce.encode(chars, 0, chars.length, new byte[4], 0);
+            fail(cs + ": encode overflow not detected");
+        } catch (BufferOverflowException expected) { }
+
+        int[][] badRanges = { { -1, 1 }, { 0, -1 }, { 1, bytes.length },
+                              { bytes.length + 1, 0 } };
+        for (int[] r : badRanges) {
+            try {
+                cd.decode(bytes, r[0], r[1], new char[100], 0);
+                fail(cs + ": decode range " + Arrays.toString(r));
+            } catch (IndexOutOfBoundsException expected) { }
+        }
+        for (int dstOff : new int[] { -1, 101 }) {
+            try {
+                ce.encode(chars, 0, 1, new byte[100], dstOff);
+                fail(cs + ": encode at " + dstOff);
+            } catch (IndexOutOfBoundsException expected) { }
+        }
+
+        // A coder is reset by each operation, even after a failed one
+        char[] dst = new char[100];
+        int n = cd.decode(bytes, 0, bytes.length, dst, 0);
+        if (!new String(dst, 0, n).equals("hello, world"))
+            fail(cs + ": decode after errors: " + new String(dst, 0, n));
+    }
+
+    private static void fail(String msg) {
+        System.err.println(msg);
+        failures++;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary Formatter.compile, the format string cache and the direct %d
+ *          path give the same results as formatting the string afresh
+ */
+
+import java.math.BigInteger;
+import java.text.DecimalFormatSymbols;
+import java.util.Formatter;
+import java.util.IllegalFormatConversionException;
+import java.util.Locale;
+import java.util.MissingFormatArgumentException;
+import java.util.UnknownFormatConversionException;
+
+public class CompiledFormats {
+
+    private static volatile int failures;
+
+    public static void main(String[] args) throws Exception {
+        check("%d", "0", 0);
+        check("%d", "-5", -5);
+        check("%d", "-2147483648", Integer.MIN_VALUE);
+        check("%d", "-9223372036854775808", Long.MIN_VALUE);
+        check("%d", "-1", (byte) -1);
+        check("%d", "-300", (short) -300);
+        check("%d", "123456789012345678901234567890",
+              new BigInteger("123456789012345678901234567890"));
+        check("%5d", "   42", 42);
+        check("%-5d|", "42   |", 42);
+        check("%05d", "-0042", -42);
+        check("%+d", "+7", 7);
+        check("% d", " 7", 7);
+        check("%,d", "1,234,567", 1234567);
+        check("%(d", "(3)", -3);
+        check("%(6d", "   (3)", -3);
+        check("%d", "null", (Object) null);
+        check("%-6s|", "ab    |", "ab");
+        check("%6s", "    ab", "ab");
+        check("%.1s", "a", "ab");
+        check("%x", "ff", 255);
+        check("%08X", "000000FF", 255);
+        check("%b %c", "true x", true, 'x');
+        check("100%%", "100%");
+        check("a%nb", "a" + System.getProperty("line.separator") + "b");
+        check("%2$s %1$s", "a b", "b", "a");
+        check("%s %<s", "x x", "x");
+
+        // A locale whose digits are not ASCII takes the localized path
+        Locale thai = new Locale("th", "TH", "TH");
+        char zero = DecimalFormatSymbols.getInstance(thai).getZeroDigit();
+        StringBuilder digits = new StringBuilder("-");
+        for (char c : "1024".toCharArray())
+            digits.append((char) (zero + (c - '0')));
+        if (!String.format(thai, "%d", -1024).equals(digits.toString()) ||
+            !Formatter.compile("%d").format(thai, -1024).equals(digits.toString())) {
+            System.err.println("Localized digits not used for %d");
+            failures++;
+        }
+
+        checkThrows("%q", UnknownFormatConversionException.class);
+        checkThrows("%d", IllegalFormatConversionException.class, "x");
+        checkThrows("%s %s", MissingFormatArgumentException.class, "a");
+
+        // More distinct format strings than the cache has entries
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 1000; i++) {
+                String f = "%d-" + i;
+                String s = String.format(f, round);
+                if (!s.equals(round + "-" + i)) {
+                    System.err.println(f + ": got " + s);
+                    failures++;
+                }
+            }
+        }
+
+        // One compiled format shared by several threads
+        final Formatter.CompiledFormat shared = Formatter.compile("%d:%-3s|");
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final String tag = "t" + t;
+            threads[t] = new Thread() {
+                public void run() {
+                    for (int i = 0; i < 20000; i++) {
+                        String s = shared.format(i, tag);
+                        if (!s.equals(i + ":" + tag + " |")) {
+                            System.err.println("Shared format gave " + s);
+                            failures++;
+                            return;
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread t : threads)
+            t.join();
+
+        if (failures > 0)
+            throw new RuntimeException(failures + " failures");
+    }
+
+    private static void check(String format, String expected, Object ... args) {
+        String s = String.format(Locale.US, format, args);
+        if (!s.equals(expected)) {
+            System.err.println("String.format(\"" + format + "\"): expected \"" +
+                               expected + "\", got \"" + s + "\"");
+            failures++;
+        }
+        Formatter.CompiledFormat cf = Formatter.compile(format);
+        if (!cf.toString().equals(format)) {
+            System.err.println("CompiledFormat.toString() is " + cf);
+            failures++;
+        }
+        s = cf.format(Locale.US, args);
+        if (!s.equals(expected)) {
+            System.err.println("compile(\"" + format + "\").format: expected \"" +
+                               expected + "\", got \"" + s + "\"");
+            failures++;
+        }
+        StringBuilder sb = new StringBuilder(">");
+        cf.formatTo(new Formatter(sb, Locale.US), args);
+        if (!sb.toString().equals(">" + expected)) {
+            System.err.println("compile(\"" + format + "\").formatTo: expected \">" +
+                               expected + "\", got \"" + sb + "\"");
+            failures++;
+        }
+    }
+
+    private static void checkThrows(String format, Class<?> expected,
+                                    Object ... args) {
+        try {
+            Formatter.compile(format).format(args);
+            System.err.println(format + ": no exception");
+            failures++;
+        } catch (RuntimeException e) {
+            if (!expected.isInstance(e)) {
+                System.err.println(format + ": got " + e);
+                failures++;
+            }
+        }
+    }
+}
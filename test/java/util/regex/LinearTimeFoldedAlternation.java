@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+
+/*
+ * @test
+ * @summary Alternatives folded into the branch of a leading optional group
+ *          must not contribute a required literal in LINEAR_TIME mode
+ */
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class LinearTimeFoldedAlternation {
+
+    private static int failures;
+
+    public static void main(String[] args) {
+        check("(?:http://)?example|localhost", "localhost", 0, 9);
+        check("(?:http://)?example|localhost", "http://example", 0, 14);
+        check("(?:a)?b|c", "c", 0, 1);
+        check("(?:a)?b|c", "xxc", 2, 3);
+        check("(?:a)*b|c", "c", 0, 1);
+        check("(?:ab)?cd|efg", "xefg", 1, 4);
+        check("x(?:a)?b|c", "c", 0, 1);
+        check("((?:a)?b|c)d", "cd", 0, 2);
+        if (failures > 0)
+            throw new RuntimeException(failures + " failures");
+    }
+
+    private static void check(String regex, String input, int start, int end) {
+        Pattern linear = Pattern.compile(regex, Pattern.LINEAR_TIME);
+        Matcher m = linear.matcher(input);
+        if (!m.find() || m.start() != start || m.end() != end) {
+            System.err.println("Pattern " + regex + " on \"" + input +
+                               "\": expected [" + start + "," + end + "]");
+            failures++;
+        }
+    }
+}